@@ -236,6 +236,7 @@ public class BinaryImage extends Image implements ColorScaleLevel
 	public void setPixel(int x, int y, int value)
 	{
 		checkBounds(x, y);
+		modified();
 		data[y][x] = value > 127;
 	}
 
@@ -252,6 +253,7 @@ public class BinaryImage extends Image implements ColorScaleLevel
 	public void setPixel(int x, int y, boolean value)
 	{
 		checkBounds(x, y);
+		modified();
 		data[y][x] = value;
 	}
 
@@ -370,6 +372,7 @@ public class BinaryImage extends Image implements ColorScaleLevel
 	public void setPixel(int x, int y, double value)
 	{
 		checkBounds(x, y);
+		modified();
 		data[y][x] = value >= COLOR_SCALE_LEVEL_HALF;
 	}
 
@@ -532,7 +532,32 @@ public class ColorImage extends Image implements ColorScaleLevel
 	public int getGray(int x, int y)
 	{
 		checkBounds(x, y);
-		return (int) Math.round(getRed(x, y) * 0.3 + getGreen(x, y) * 0.59 + getBlue(x, y) * 0.11);
+		return luminance(red[y][x] & 0xff, green[y][x] & 0xff, blue[y][x] & 0xff);
+	}
+
+	/**
+	 * Returns the 256 gray scale value of the specified color. The gray scale
+	 * will be translated by formula:
+	 * 
+	 * <pre>
+	 * gray = 0.3 * red + 0.59 * green + 0.11 * blue
+	 * </pre>
+	 * 
+	 * The formula is evaluated and rounded in fixed-point arithmetic, the
+	 * result is exact without rounding error of floating-point.
+	 * 
+	 * @param red
+	 *            the red value in the range of [0, 255]
+	 * @param green
+	 *            the green value in the range of [0, 255]
+	 * @param blue
+	 *            the blue value in the range of [0, 255]
+	 * @return the 256 gray scale value
+	 */
+	public static int luminance(int red, int green, int blue)
+	{
+		// n / 100 equals (n * 5243) >>> 19 for all n < 43699
+		return ((30 * red + 59 * green + 11 * blue + 50) * 5243) >>> 19;
 	}
 
 	/**
@@ -558,8 +583,8 @@ public class ColorImage extends Image implements ColorScaleLevel
 		int[] gray = new int[width * height];
 		for (int y = 0; y < height; y++)
 			for (int x = 0; x < width; x++)
-				gray[y * width + x] = (int) Math.round((red[y][x] & 0xff) * 0.3
-						+ (green[y][x] & 0xff) * 0.59 + (blue[y][x] & 0xff) * 0.11);
+				gray[y * width + x] = luminance(red[y][x] & 0xff,
+						green[y][x] & 0xff, blue[y][x] & 0xff);
 		return gray;
 	}
 
@@ -677,6 +702,26 @@ public class ColorImage extends Image implements ColorScaleLevel
 		return blue;
 	}
 
+	/**
+	 * Returns the exact pixels storage matrix of the alpha channel.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return alpha channel matrix
+	 */
+	public byte[][] getAlphaMatrix()
+	{
+		return alpha;
+	}
+
 	/**
 	 * @see com.frank.dip.Image#recreate()
 	 */
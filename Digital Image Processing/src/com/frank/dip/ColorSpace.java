@@ -0,0 +1,842 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ColorSpace.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip;
+
+/**
+ * The color space conversions of the planar channels.
+ * <p>
+ * The RGB channels are the 8-bit planes of {@linkplain ColorImage}, the
+ * converted channels are the planes of the same dimension. The bulk
+ * conversions are parallelized by rows with {@linkplain ParallelUtils}, each
+ * conversion has its own row kernel, and each row is converted by a tight
+ * loop without allocation or branch: the hue sectors are interpolated
+ * arithmetically and the extremes are selected instead of compared. The
+ * scalar conversions of one pixel are provided for the random access.
+ * </p>
+ * <p>
+ * The supported color spaces are:
+ * <ul>
+ * <li>HSB (HSV), in the same definition as
+ * {@linkplain java.awt.Color#RGBtoHSB(int, int, int, float[])}, all the
+ * channels are in the range of <code>[0, 1]</code>;</li>
+ * <li>HSL, all the channels are in the range of <code>[0, 1]</code>;</li>
+ * <li>YCbCr of ITU-R BT.601 in full range as JPEG uses, all the channels are
+ * 8-bit and computed in 16-bit fixed point;</li>
+ * <li>CIE L*a*b* of the D65 white point, the sRGB is linearized by the lookup
+ * table;</li>
+ * <li>linear RGB, the sRGB transfer function and its inverse are lookup
+ * tables, the error of the encoding is within 1 level.</li>
+ * </ul>
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class ColorSpace implements ColorScaleLevel
+{
+	/**
+	 * The reference white of D65.
+	 */
+	private static final double		XN			= 0.95047, ZN = 1.08883;
+	/**
+	 * The threshold of the linear segment of L*a*b*.
+	 */
+	private static final double		EPSILON		= 216.0 / 24389.0;
+	/**
+	 * The slope of the linear segment of L*a*b*.
+	 */
+	private static final double		KAPPA		= 24389.0 / 27.0;
+	/**
+	 * The size of the encoding table minus 1.
+	 */
+	private static final int		ENCODE_MAX	= 65535;
+	/**
+	 * The linear values of the sRGB levels.
+	 */
+	private static final float[]	DECODE		= new float[COLOR_SCALE_LEVEL];
+	/**
+	 * The sRGB levels of the linear values quantized in 16 bits.
+	 */
+	private static final byte[]		ENCODE		= new byte[ENCODE_MAX + 1];
+	static
+	{
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+		{
+			double c = i / 255.0;
+			DECODE[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow(
+					(c + 0.055) / 1.055, 2.4));
+		}
+		for (int i = 0; i <= ENCODE_MAX; i++)
+		{
+			double v = i / (double) ENCODE_MAX;
+			double c = v <= 0.0031308 ? 12.92 * v : 1.055 * Math.pow(v,
+					1 / 2.4) - 0.055;
+			ENCODE[i] = (byte) Math.round(c * 255);
+		}
+	}
+
+	/**
+	 * Construct an instance of <tt>ColorSpace</tt>.
+	 */
+	private ColorSpace()
+	{
+	}
+
+	/**
+	 * Convert the RGB planes to the HSB planes.
+	 * 
+	 * @param red
+	 *            the red plane
+	 * @param green
+	 *            the green plane
+	 * @param blue
+	 *            the blue plane
+	 * @param hue
+	 *            the output hue plane
+	 * @param saturation
+	 *            the output saturation plane
+	 * @param brightness
+	 *            the output brightness plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void rgbToHSB(final byte[][] red, final byte[][] green,
+			final byte[][] blue, final float[][] hue,
+			final float[][] saturation, final float[][] brightness,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					float[] c0 = hue[y], c1 = saturation[y], c2 = brightness[y];
+					for (int x = 0; x < width; x++)
+						rgbToHSB(r0[x] & 0xff, g0[x] & 0xff, b0[x] & 0xff, c0, c1,
+								c2, x);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the HSB planes to the RGB planes.
+	 * 
+	 * @param hue
+	 *            the hue plane
+	 * @param saturation
+	 *            the saturation plane
+	 * @param brightness
+	 *            the brightness plane
+	 * @param red
+	 *            the output red plane
+	 * @param green
+	 *            the output green plane
+	 * @param blue
+	 *            the output blue plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void hsbToRGB(final float[][] hue,
+			final float[][] saturation, final float[][] brightness,
+			final byte[][] red, final byte[][] green, final byte[][] blue,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int rgb;
+				for (int y = y0; y < yt; y++)
+				{
+					float[] c0 = hue[y], c1 = saturation[y], c2 = brightness[y];
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					for (int x = 0; x < width; x++)
+					{
+						rgb = hsbToRGB(c0[x], c1[x], c2[x]);
+						r0[x] = (byte) (rgb >> 16);
+						g0[x] = (byte) (rgb >> 8);
+						b0[x] = (byte) rgb;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the RGB planes to the HSL planes.
+	 * 
+	 * @param red
+	 *            the red plane
+	 * @param green
+	 *            the green plane
+	 * @param blue
+	 *            the blue plane
+	 * @param hue
+	 *            the output hue plane
+	 * @param saturation
+	 *            the output saturation plane
+	 * @param lightness
+	 *            the output lightness plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void rgbToHSL(final byte[][] red, final byte[][] green,
+			final byte[][] blue, final float[][] hue,
+			final float[][] saturation, final float[][] lightness,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					float[] c0 = hue[y], c1 = saturation[y], c2 = lightness[y];
+					for (int x = 0; x < width; x++)
+						rgbToHSL(r0[x] & 0xff, g0[x] & 0xff, b0[x] & 0xff, c0, c1,
+								c2, x);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the HSL planes to the RGB planes.
+	 * 
+	 * @param hue
+	 *            the hue plane
+	 * @param saturation
+	 *            the saturation plane
+	 * @param lightness
+	 *            the lightness plane
+	 * @param red
+	 *            the output red plane
+	 * @param green
+	 *            the output green plane
+	 * @param blue
+	 *            the output blue plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void hslToRGB(final float[][] hue,
+			final float[][] saturation, final float[][] lightness,
+			final byte[][] red, final byte[][] green, final byte[][] blue,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int rgb;
+				for (int y = y0; y < yt; y++)
+				{
+					float[] c0 = hue[y], c1 = saturation[y], c2 = lightness[y];
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					for (int x = 0; x < width; x++)
+					{
+						rgb = hslToRGB(c0[x], c1[x], c2[x]);
+						r0[x] = (byte) (rgb >> 16);
+						g0[x] = (byte) (rgb >> 8);
+						b0[x] = (byte) rgb;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the RGB planes to the YCbCr planes.
+	 * 
+	 * @param red
+	 *            the red plane
+	 * @param green
+	 *            the green plane
+	 * @param blue
+	 *            the blue plane
+	 * @param luma
+	 *            the output luma plane
+	 * @param cb
+	 *            the output blue-difference chroma plane
+	 * @param cr
+	 *            the output red-difference chroma plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void rgbToYCbCr(final byte[][] red, final byte[][] green,
+			final byte[][] blue, final byte[][] luma, final byte[][] cb,
+			final byte[][] cr, final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int rv, gv, bv;
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					byte[] c0 = luma[y], c1 = cb[y], c2 = cr[y];
+					for (int x = 0; x < width; x++)
+					{
+						rv = r0[x] & 0xff;
+						gv = g0[x] & 0xff;
+						bv = b0[x] & 0xff;
+						c0[x] = (byte) ((19595 * rv + 38470 * gv + 7471 * bv
+								+ 32768) >> 16);
+						c1[x] = (byte) ((-11059 * rv - 21709 * gv + 32768 * bv
+								+ 8421375) >> 16);
+						c2[x] = (byte) ((32768 * rv - 27439 * gv - 5329 * bv
+								+ 8421375) >> 16);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the YCbCr planes to the RGB planes.
+	 * 
+	 * @param luma
+	 *            the luma plane
+	 * @param cb
+	 *            the blue-difference chroma plane
+	 * @param cr
+	 *            the red-difference chroma plane
+	 * @param red
+	 *            the output red plane
+	 * @param green
+	 *            the output green plane
+	 * @param blue
+	 *            the output blue plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void yCbCrToRGB(final byte[][] luma, final byte[][] cb,
+			final byte[][] cr, final byte[][] red, final byte[][] green,
+			final byte[][] blue, final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int rgb;
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] c0 = luma[y], c1 = cb[y], c2 = cr[y];
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					for (int x = 0; x < width; x++)
+					{
+						rgb = yCbCrToRGB(c0[x] & 0xff, c1[x] & 0xff,
+								c2[x] & 0xff);
+						r0[x] = (byte) (rgb >> 16);
+						g0[x] = (byte) (rgb >> 8);
+						b0[x] = (byte) rgb;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the sRGB planes to the CIE L*a*b* planes.
+	 * 
+	 * @param red
+	 *            the red plane
+	 * @param green
+	 *            the green plane
+	 * @param blue
+	 *            the blue plane
+	 * @param l
+	 *            the output lightness plane in the range of
+	 *            <code>[0, 100]</code>
+	 * @param a
+	 *            the output a* plane
+	 * @param b
+	 *            the output b* plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void rgbToLab(final byte[][] red, final byte[][] green,
+			final byte[][] blue, final float[][] l, final float[][] a,
+			final float[][] b, final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					float[] c0 = l[y], c1 = a[y], c2 = b[y];
+					for (int x = 0; x < width; x++)
+						rgbToLab(r0[x] & 0xff, g0[x] & 0xff, b0[x] & 0xff, c0, c1,
+								c2, x);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the CIE L*a*b* planes to the sRGB planes, the colors out of the
+	 * gamut are clipped.
+	 * 
+	 * @param l
+	 *            the lightness plane
+	 * @param a
+	 *            the a* plane
+	 * @param b
+	 *            the b* plane
+	 * @param red
+	 *            the output red plane
+	 * @param green
+	 *            the output green plane
+	 * @param blue
+	 *            the output blue plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void labToRGB(final float[][] l, final float[][] a,
+			final float[][] b, final byte[][] red, final byte[][] green,
+			final byte[][] blue, final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int rgb;
+				for (int y = y0; y < yt; y++)
+				{
+					float[] c0 = l[y], c1 = a[y], c2 = b[y];
+					byte[] r0 = red[y], g0 = green[y], b0 = blue[y];
+					for (int x = 0; x < width; x++)
+					{
+						rgb = labToRGB(c0[x], c1[x], c2[x]);
+						r0[x] = (byte) (rgb >> 16);
+						g0[x] = (byte) (rgb >> 8);
+						b0[x] = (byte) rgb;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the sRGB plane to the linear plane in the range of
+	 * <code>[0, 1]</code>.
+	 * 
+	 * @param src
+	 *            the sRGB plane
+	 * @param dst
+	 *            the output linear plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void toLinear(final byte[][] src, final float[][] dst,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] s = src[y];
+					float[] d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = DECODE[s[x] & 0xff];
+				}
+			}
+		});
+	}
+
+	/**
+	 * Convert the linear plane to the sRGB plane, the values are clipped into
+	 * the range of <code>[0, 1]</code>.
+	 * 
+	 * @param src
+	 *            the linear plane
+	 * @param dst
+	 *            the output sRGB plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	public static void toSRGB(final float[][] src, final byte[][] dst,
+			final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					float[] s = src[y];
+					byte[] d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = (byte) toSRGB(s[x]);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the linear value of the sRGB level.
+	 * 
+	 * @param level
+	 *            the sRGB level in the range of <code>[0, 255]</code>
+	 * @return the linear value in the range of <code>[0, 1]</code>
+	 */
+	public static float toLinear(int level)
+	{
+		return DECODE[level];
+	}
+
+	/**
+	 * Returns the sRGB level of the linear value.
+	 * 
+	 * @param value
+	 *            the linear value, clipped into the range of
+	 *            <code>[0, 1]</code>
+	 * @return the sRGB level in the range of <code>[0, 255]</code>
+	 */
+	public static int toSRGB(float value)
+	{
+		int i = (int) (value * ENCODE_MAX + 0.5f);
+		return ENCODE[i < 0 ? 0 : (i > ENCODE_MAX ? ENCODE_MAX : i)] & 0xff;
+	}
+
+	/**
+	 * Convert the RGB color to HSB and store it at the index of the output
+	 * arrays.
+	 * 
+	 * @param r
+	 *            the red level
+	 * @param g
+	 *            the green level
+	 * @param b
+	 *            the blue level
+	 * @param hue
+	 *            the output hue array
+	 * @param saturation
+	 *            the output saturation array
+	 * @param brightness
+	 *            the output brightness array
+	 * @param index
+	 *            the index of the output arrays
+	 */
+	public static void rgbToHSB(int r, int g, int b, float[] hue,
+			float[] saturation, float[] brightness, int index)
+	{
+		int max = r > g ? (r > b ? r : b) : (g > b ? g : b);
+		int min = r < g ? (r < b ? r : b) : (g < b ? g : b);
+		brightness[index] = max / 255.0f;
+		saturation[index] = max != 0 ? (max - min) / (float) max : 0;
+		hue[index] = hue(r, g, b, max, min);
+	}
+
+	/**
+	 * Returns the RGB color of the HSB color.
+	 * 
+	 * @param hue
+	 *            the hue
+	 * @param saturation
+	 *            the saturation
+	 * @param brightness
+	 *            the brightness
+	 * @return the opaque ARGB color
+	 */
+	public static int hsbToRGB(float hue, float saturation, float brightness)
+	{
+		float h = (hue - (float) Math.floor(hue)) * 6.0f;
+		float c = brightness * saturation;
+		return 0xff000000 | hsb(5, h, brightness, c) << 16
+				| hsb(3, h, brightness, c) << 8 | hsb(1, h, brightness, c);
+	}
+
+	/**
+	 * Convert the RGB color to HSL and store it at the index of the output
+	 * arrays.
+	 * 
+	 * @param r
+	 *            the red level
+	 * @param g
+	 *            the green level
+	 * @param b
+	 *            the blue level
+	 * @param hue
+	 *            the output hue array
+	 * @param saturation
+	 *            the output saturation array
+	 * @param lightness
+	 *            the output lightness array
+	 * @param index
+	 *            the index of the output arrays
+	 */
+	public static void rgbToHSL(int r, int g, int b, float[] hue,
+			float[] saturation, float[] lightness, int index)
+	{
+		int max = r > g ? (r > b ? r : b) : (g > b ? g : b);
+		int min = r < g ? (r < b ? r : b) : (g < b ? g : b);
+		int sum = max + min, d = max - min;
+		lightness[index] = sum / 510.0f;
+		// the chroma divided by 1 - |2L - 1|
+		saturation[index] = d == 0 ? 0 : d
+				/ (float) (sum <= 255 ? sum : 510 - sum);
+		hue[index] = hue(r, g, b, max, min);
+	}
+
+	/**
+	 * Returns the RGB color of the HSL color.
+	 * 
+	 * @param hue
+	 *            the hue
+	 * @param saturation
+	 *            the saturation
+	 * @param lightness
+	 *            the lightness
+	 * @return the opaque ARGB color
+	 */
+	public static int hslToRGB(float hue, float saturation, float lightness)
+	{
+		float h = (hue - (float) Math.floor(hue)) * 12.0f;
+		// the half chroma
+		float c = saturation * Math.min(lightness, 1 - lightness);
+		return 0xff000000 | hsl(0, h, lightness, c) << 16
+				| hsl(8, h, lightness, c) << 8 | hsl(4, h, lightness, c);
+	}
+
+	/**
+	 * Returns the RGB color of the YCbCr color.
+	 * 
+	 * @param luma
+	 *            the luma
+	 * @param cb
+	 *            the blue-difference chroma
+	 * @param cr
+	 *            the red-difference chroma
+	 * @return the opaque ARGB color
+	 */
+	public static int yCbCrToRGB(int luma, int cb, int cr)
+	{
+		cb -= 128;
+		cr -= 128;
+		int r = luma + ((91881 * cr + 32768) >> 16);
+		int g = luma + ((-22554 * cb - 46802 * cr + 32768) >> 16);
+		int b = luma + ((116130 * cb + 32768) >> 16);
+		return 0xff000000 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+	}
+
+	/**
+	 * Convert the sRGB color to CIE L*a*b* and store it at the index of the
+	 * output arrays.
+	 * 
+	 * @param r
+	 *            the red level
+	 * @param g
+	 *            the green level
+	 * @param b
+	 *            the blue level
+	 * @param l
+	 *            the output lightness array
+	 * @param a
+	 *            the output a* array
+	 * @param bb
+	 *            the output b* array
+	 * @param index
+	 *            the index of the output arrays
+	 */
+	public static void rgbToLab(int r, int g, int b, float[] l, float[] a,
+			float[] bb, int index)
+	{
+		double lr = DECODE[r], lg = DECODE[g], lb = DECODE[b];
+		double fx = lab((0.4124564 * lr + 0.3575761 * lg + 0.1804375 * lb)
+				/ XN);
+		double fy = lab(0.2126729 * lr + 0.7151522 * lg + 0.0721750 * lb);
+		double fz = lab((0.0193339 * lr + 0.1191920 * lg + 0.9503041 * lb)
+				/ ZN);
+		l[index] = (float) (116 * fy - 16);
+		a[index] = (float) (500 * (fx - fy));
+		bb[index] = (float) (200 * (fy - fz));
+	}
+
+	/**
+	 * Returns the sRGB color of the CIE L*a*b* color, the color out of the
+	 * gamut is clipped.
+	 * 
+	 * @param l
+	 *            the lightness
+	 * @param a
+	 *            the a*
+	 * @param b
+	 *            the b*
+	 * @return the opaque ARGB color
+	 */
+	public static int labToRGB(float l, float a, float b)
+	{
+		double fy = (l + 16) / 116.0;
+		double x = XN * inverseLab(fy + a / 500.0);
+		double y = l > KAPPA * EPSILON ? fy * fy * fy : l / KAPPA;
+		double z = ZN * inverseLab(fy - b / 200.0);
+		float lr = (float) (3.2404542 * x - 1.5371385 * y - 0.4985314 * z);
+		float lg = (float) (-0.9692660 * x + 1.8760108 * y + 0.0415560 * z);
+		float lb = (float) (0.0556434 * x - 0.2040259 * y + 1.0572252 * z);
+		return 0xff000000 | toSRGB(lr) << 16 | toSRGB(lg) << 8 | toSRGB(lb);
+	}
+
+	/**
+	 * Returns the hue of the RGB color in the range of <code>[0, 1)</code>.
+	 * 
+	 * @param r
+	 *            the red level
+	 * @param g
+	 *            the green level
+	 * @param b
+	 *            the blue level
+	 * @param max
+	 *            the maximum level
+	 * @param min
+	 *            the minimum level
+	 * @return the hue
+	 */
+	private static float hue(int r, int g, int b, int max, int min)
+	{
+		float d = max - min;
+		float redc = (max - r) / d;
+		float greenc = (max - g) / d;
+		float bluec = (max - b) / d;
+		float hue = (r == max ? bluec - greenc : (g == max ? 2.0f + redc
+				- bluec : 4.0f + greenc - redc)) / 6.0f;
+		return max == min ? 0 : (hue < 0 ? hue + 1.0f : hue);
+	}
+
+	/**
+	 * Returns the level of the RGB channel of the HSB color, the channel
+	 * decreases from the brightness by the chroma in the ramp of
+	 * <code>min(k, 4 - k)</code> clamped into <code>[0, 1]</code>.
+	 * 
+	 * @param n
+	 *            the sector offset of the channel, 5 for red, 3 for green and
+	 *            1 for blue
+	 * @param h
+	 *            the hue in sectors in the range of <code>[0, 6)</code>
+	 * @param brightness
+	 *            the brightness
+	 * @param chroma
+	 *            the chroma
+	 * @return the level in the range of <code>[0, 255]</code>
+	 */
+	private static int hsb(int n, float h, float brightness, float chroma)
+	{
+		float k = (n + h) % 6.0f;
+		float ramp = Math.max(0, Math.min(Math.min(k, 4 - k), 1));
+		return (int) ((brightness - chroma * ramp) * 255.0f + 0.5f);
+	}
+
+	/**
+	 * Returns the level of the RGB channel of the HSL color, the channel
+	 * deviates from the lightness by the half chroma in the ramp of
+	 * <code>min(k - 3, 9 - k)</code> clamped into <code>[-1, 1]</code>.
+	 * 
+	 * @param n
+	 *            the sector offset of the channel, 0 for red, 8 for green and
+	 *            4 for blue
+	 * @param h
+	 *            the hue in half sectors in the range of <code>[0, 12)</code>
+	 * @param lightness
+	 *            the lightness
+	 * @param chroma
+	 *            the half chroma
+	 * @return the level in the range of <code>[0, 255]</code>
+	 */
+	private static int hsl(int n, float h, float lightness, float chroma)
+	{
+		float k = (n + h) % 12.0f;
+		float ramp = Math.max(-1, Math.min(Math.min(k - 3, 9 - k), 1));
+		return level(lightness - chroma * ramp);
+	}
+
+	/**
+	 * The companding function of L*a*b*.
+	 * 
+	 * @param t
+	 *            the ratio to the reference white
+	 * @return the companded value
+	 */
+	private static double lab(double t)
+	{
+		return t > EPSILON ? Math.cbrt(t) : (KAPPA * t + 16) / 116;
+	}
+
+	/**
+	 * The inverse companding function of L*a*b*.
+	 * 
+	 * @param f
+	 *            the companded value
+	 * @return the ratio to the reference white
+	 */
+	private static double inverseLab(double f)
+	{
+		double f3 = f * f * f;
+		return f3 > EPSILON ? f3 : (116 * f - 16) / KAPPA;
+	}
+
+	/**
+	 * Returns the level of the value in the range of <code>[0, 1]</code>.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the level in the range of <code>[0, 255]</code>
+	 */
+	private static int level(float value)
+	{
+		return clamp((int) (value * 255.0f + 0.5f));
+	}
+
+	/**
+	 * Returns the level clamped into the range of <code>[0, 255]</code>.
+	 * 
+	 * @param level
+	 *            the level
+	 * @return the clamped level
+	 */
+	private static int clamp(int level)
+	{
+		return level < 0 ? 0 : (level > 255 ? 255 : level);
+	}
+}
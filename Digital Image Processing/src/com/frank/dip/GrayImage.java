@@ -98,7 +98,7 @@ public class GrayImage extends Image implements ColorScaleLevel
 				r = (p >> 16) & 0xff;
 				g = (p >> 8) & 0xff;
 				b = p & 0xff;
-				data[y][x] = (byte) (Math.round(0.3 * r + 0.59 * g + 0.11 * b));
+				data[y][x] = (byte) ColorImage.luminance(r, g, b);
 			}
 	}
 
@@ -184,7 +184,7 @@ public class GrayImage extends Image implements ColorScaleLevel
 				r = (p >> 16) & 0xff;
 				g = (p >> 8) & 0xff;
 				b = p & 0xff;
-				data[y][x] = (byte) Math.round(0.3 * r + 0.59 * g + 0.11 * b);
+				data[y][x] = (byte) ColorImage.luminance(r, g, b);
 			}
 	}
 
@@ -223,6 +223,7 @@ public class GrayImage extends Image implements ColorScaleLevel
 	public void setPixel(int x, int y, int value)
 	{
 		checkBounds(x, y);
+		modified();
 		if (value < 0)
 			data[y][x] = 0;
 		else if (value < COLOR_SCALE_LEVEL)
@@ -271,7 +272,7 @@ public class GrayImage extends Image implements ColorScaleLevel
 				r = (p >> 16) & 0xff;
 				g = (p >> 8) & 0xff;
 				b = p & 0xff;
-				data[y][x] = (byte) Math.round(0.3 * r + 0.59 * g + 0.11 * b);
+				data[y][x] = (byte) ColorImage.luminance(r, g, b);
 				// data[y][x] = (byte) Math.round((r+g+b)/3.0);
 			}
 	}
@@ -293,6 +294,26 @@ public class GrayImage extends Image implements ColorScaleLevel
 		return restore(java.awt.image.BufferedImage.TYPE_BYTE_GRAY);
 	}
 
+	/**
+	 * Returns the exact pixels storage matrix of the gray scale image.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return the gray scale matrix
+	 */
+	public byte[][] getGrayMatrix()
+	{
+		return data;
+	}
+
 	/**
 	 * @see com.frank.dip.Image#getRGB(int, int)
 	 */
@@ -327,6 +348,7 @@ public class GrayImage extends Image implements ColorScaleLevel
 	public void setPixel(int x, int y, double value)
 	{
 		checkBounds(x, y);
+		modified();
 		if (value >= COLOR_SCALE_LEVEL)
 			data[y][x] = (byte) 255;
 		else if (value <= 0)
@@ -6,12 +6,22 @@
  */
 package com.frank.dip;
 
-import java.awt.Color;
-
 import com.frank.dip.math.Function;
 
 /**
  * Image in HSB(hue, saturation & brightness) color space.
+ * <p>
+ * The conversions between RGB and HSB are performed by
+ * {@linkplain ColorSpace}, which is identical to
+ * {@linkplain java.awt.Color#RGBtoHSB(int, int, int, float[])} and
+ * {@linkplain java.awt.Color#HSBtoRGB(float, float, float)}. The whole image
+ * is converted in bulk by {@linkplain #HSBImage(ColorImage)},
+ * {@linkplain #getRGBArray()} and {@linkplain #toColorImage()}.
+ * </p>
+ * <p>
+ * The {@linkplain Compact} mode stores the channels in 16-bit fixed point
+ * with the same API.
+ * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
@@ -41,6 +51,24 @@ public class HSBImage extends Image
 		super(image);
 	}
 
+	/**
+	 * Construct an instance of <tt>HSBImage</tt> converted from the color
+	 * image.
+	 * 
+	 * @param image
+	 *            the color image
+	 */
+	public HSBImage(ColorImage image)
+	{
+		this(image.getWidth(), image.getHeight());
+		byte[][] a = image.getAlphaMatrix();
+		for (int y = 0; y < height; y++)
+			System.arraycopy(a[y], 0, alpha[y], 0, width);
+		ColorSpace.rgbToHSB(image.getRedMatrix(), image.getGreenMatrix(),
+				image.getBlueMatrix(), hue, saturation, brightness, width,
+				height);
+	}
+
 	/**
 	 * Construct an instance of <tt>HSIImage</tt>.
 	 * 
@@ -86,11 +114,7 @@ public class HSBImage extends Image
 		r = (value >> 16) & 0xff;
 		g = (value >> 8) & 0xff;
 		b = value & 0xff;
-		float[] hsb = Color.RGBtoHSB(r, g, b, null);
-		hue[y][x] = hsb[0];
-		saturation[y][x] = hsb[1];
-		brightness[y][x] = hsb[2];
-		// ----------------------------
+		ColorSpace.rgbToHSB(r, g, b, hue[y], saturation[y], brightness[y], x);
 	}
 
 	/**
@@ -105,36 +129,96 @@ public class HSBImage extends Image
 		s = saturation[y][x];
 		b = brightness[y][x];
 		return (alpha[y][x] & 0xff) << 24
-				| (Color.HSBtoRGB(h, s, b) & 0xffffff);
+				| (ColorSpace.hsbToRGB(h, s, b) & 0xffffff);
+	}
+
+	/**
+	 * @see com.frank.dip.Image#getRGBArray()
+	 */
+	@Override
+	public int[] getRGBArray()
+	{
+		final int[] array = new int[width * height];
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0, i = y0 * width; y < yt; y++)
+				{
+					byte[] a = alpha[y];
+					float[] h = hue[y], s = saturation[y], b = brightness[y];
+					for (int x = 0; x < width; x++)
+						array[i++] = (a[x] & 0xff) << 24
+								| (ColorSpace.hsbToRGB(h[x], s[x], b[x]) & 0xffffff);
+				}
+			}
+		});
+		return array;
+	}
+
+	/**
+	 * @see com.frank.dip.Image#getRGBMatrix()
+	 */
+	@Override
+	public int[][] getRGBMatrix()
+	{
+		int[] array = getRGBArray();
+		int[][] matrix = new int[height][width];
+		for (int y = 0; y < height; y++)
+			System.arraycopy(array, y * width, matrix[y], 0, width);
+		return matrix;
+	}
+
+	/**
+	 * Returns the color image converted from the current image.
+	 * 
+	 * @return the color image
+	 */
+	public ColorImage toColorImage()
+	{
+		ColorImage image = new ColorImage(width, height);
+		byte[][] a = image.getAlphaMatrix();
+		for (int y = 0; y < height; y++)
+			System.arraycopy(alpha[y], 0, a[y], 0, width);
+		ColorSpace.hsbToRGB(hue, saturation, brightness, image.getRedMatrix(),
+				image.getGreenMatrix(), image.getBlueMatrix(), width, height);
+		return image;
 	}
 
 	/**
 	 * @see com.frank.dip.Image#initialImageByRGBMatrix(int[][])
 	 */
 	@Override
-	protected void initialImageByRGBMatrix(int[][] rgbMatrix)
+	protected void initialImageByRGBMatrix(final int[][] rgbMatrix)
 	{
-		int rgb, r, g, b;
 		height = rgbMatrix.length;
 		width = rgbMatrix[0].length;
 		alpha = new byte[height][width];
 		hue = new float[height][width];
 		saturation = new float[height][width];
 		brightness = new float[height][width];
-		float[] hsb = new float[3];
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
 			{
-				rgb = rgbMatrix[y][x];
-				alpha[y][x] = (byte) (rgb >> 24);
-				r = (rgb >> 16) & 0xff;
-				g = (rgb >> 8) & 0xff;
-				b = rgb & 0xff;
-				Color.RGBtoHSB(r, g, b, hsb);
-				hue[y][x] = hsb[0];
-				saturation[y][x] = hsb[1];
-				brightness[y][x] = hsb[2];
+				int rgb;
+				for (int y = y0; y < yt; y++)
+				{
+					int[] row = rgbMatrix[y];
+					byte[] a = alpha[y];
+					float[] h = hue[y], s = saturation[y], b = brightness[y];
+					for (int x = 0; x < width; x++)
+					{
+						rgb = row[x];
+						a[x] = (byte) (rgb >> 24);
+						ColorSpace.rgbToHSB((rgb >> 16) & 0xff,
+								(rgb >> 8) & 0xff, rgb & 0xff, h, s, b, x);
+					}
+				}
 			}
+		});
 	}
 
 	/**
@@ -295,4 +379,700 @@ public class HSBImage extends Image
 	{
 		return new HSBImage(width, height);
 	}
+
+	/**
+	 * Returns the exact pixels storage matrix of the alpha channel.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return alpha channel matrix
+	 */
+	public byte[][] getAlphaMatrix()
+	{
+		return alpha;
+	}
+
+	/**
+	 * Returns the exact pixels storage matrix of the hue channel.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return hue channel matrix
+	 */
+	public float[][] getHueMatrix()
+	{
+		return hue;
+	}
+
+	/**
+	 * Returns the exact pixels storage matrix of the saturation channel.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return saturation channel matrix
+	 */
+	public float[][] getSaturationMatrix()
+	{
+		return saturation;
+	}
+
+	/**
+	 * Returns the exact pixels storage matrix of the brightness channel.
+	 * <p>
+	 * The pixels array will be arranged as
+	 * 
+	 * <pre>
+	 * [(0,0), (1,0), ... , (w, 0)]
+	 * [(0,1), (1,1), ... , (w, 1)]
+	 *  ...
+	 * [(0,h), (1,h), ... , (w, h)]
+	 * </pre>
+	 * </p>
+	 * 
+	 * @return brightness channel matrix
+	 */
+	public float[][] getBrightnessMatrix()
+	{
+		return brightness;
+	}
+
+	/**
+	 * Copy the brightness channel into the plane arranged as [(0,0), (1,0),
+	 * ... , (w, 0), ... , (w, h)].
+	 * 
+	 * @param plane
+	 *            the plane to fill, a new plane is allocated if it is
+	 *            <code>null</code> or shorter than the image
+	 * @return the brightness plane
+	 */
+	public float[] getBrightnessPlane(float[] plane)
+	{
+		if (plane == null || plane.length < width * height)
+			plane = new float[width * height];
+		for (int y = 0; y < height; y++)
+			System.arraycopy(brightness[y], 0, plane, y * width, width);
+		return plane;
+	}
+
+	/**
+	 * Set the brightness channel by the plane arranged as [(0,0), (1,0), ...
+	 * , (w, 0), ... , (w, h)].
+	 * 
+	 * @param plane
+	 *            the brightness plane
+	 * @throws IllegalArgumentException
+	 *             if the plane is shorter than the image
+	 */
+	public void setBrightnessPlane(float[] plane)
+	{
+		if (plane.length < width * height)
+			throw new IllegalArgumentException(String.format(
+					"The length of plane(%d) must be at least %d.",
+					plane.length, width * height));
+		for (int y = 0; y < height; y++)
+			System.arraycopy(plane, y * width, brightness[y], 0, width);
+	}
+
+	/**
+	 * The HSB image stored in the compact mode.
+	 * <p>
+	 * The hue, saturation and brightness channels are quantized in 16-bit
+	 * fixed point and stored in the flat arrays arranged as [(0,0), (1,0), ...
+	 * , (w, 0), ... , (w, h)], the alpha channel is kept in the matrix. A pixel
+	 * takes 7 bytes instead of 13 bytes, less than twice of a
+	 * {@linkplain ColorImage}.
+	 * </p>
+	 * <p>
+	 * The channel values are limited in the range of <code>[0, 1]</code>, the
+	 * hue is wrapped into it. The maximum error of each channel is
+	 * {@linkplain #MAX_ERROR}, which is far less than the step of 8-bit
+	 * levels, so the colors converted from RGB are restored exactly.
+	 * </p>
+	 * <p>
+	 * The matrices returned by {@linkplain #getHueMatrix()},
+	 * {@linkplain #getSaturationMatrix()} and {@linkplain #getBrightnessMatrix()}
+	 * are decoded copies, changing them will not change the image. The exact
+	 * storages are returned by {@linkplain #getHueData()},
+	 * {@linkplain #getSaturationData()} and {@linkplain #getBrightnessData()}.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class Compact extends HSBImage
+	{
+		/**
+		 * serialVersionUID.
+		 */
+		private static final long	serialVersionUID	= 2748613352176934075L;
+		/**
+		 * The maximum quantization error of the channel values.
+		 */
+		public static final float	MAX_ERROR			= 0.5f / 65535.0f;
+		/**
+		 * The scale of the fixed point.
+		 */
+		private static final float	SCALE				= 65535.0f;
+		/**
+		 * The quantized HSB spaces.
+		 */
+		private short[]				hueData, saturationData, brightnessData;
+
+		/**
+		 * Construct an instance of <tt>Compact</tt>.
+		 * 
+		 * @param width
+		 *            the width of the image
+		 * @param height
+		 *            the height of the image
+		 */
+		public Compact(int width, int height)
+		{
+			this.width = width;
+			this.height = height;
+			alpha = new byte[height][width];
+			hueData = new short[width * height];
+			saturationData = new short[width * height];
+			brightnessData = new short[width * height];
+		}
+
+		/**
+		 * Construct an instance of <tt>Compact</tt>.
+		 * 
+		 * @param image
+		 *            the source image
+		 */
+		public Compact(Image image)
+		{
+			super(image);
+		}
+
+		/**
+		 * Construct an instance of <tt>Compact</tt> converted from the color
+		 * image.
+		 * 
+		 * @param image
+		 *            the color image
+		 */
+		public Compact(ColorImage image)
+		{
+			this(image.getWidth(), image.getHeight());
+			final byte[][] a = image.getAlphaMatrix(), r = image
+					.getRedMatrix(), g = image.getGreenMatrix(), b = image
+					.getBlueMatrix();
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					float[] h = new float[width], s = new float[width], v = new float[width];
+					for (int y = y0; y < yt; y++)
+					{
+						System.arraycopy(a[y], 0, alpha[y], 0, width);
+						byte[] rr = r[y], gr = g[y], br = b[y];
+						for (int x = 0; x < width; x++)
+							ColorSpace.rgbToHSB(rr[x] & 0xff, gr[x] & 0xff,
+									br[x] & 0xff, h, s, v, x);
+						encode(h, s, v, y);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Construct an instance of <tt>Compact</tt> quantized from the HSB
+		 * image.
+		 * 
+		 * @param image
+		 *            the HSB image
+		 */
+		public Compact(final HSBImage image)
+		{
+			this(image.getWidth(), image.getHeight());
+			if (image instanceof Compact)
+			{
+				Compact c = (Compact) image;
+				System.arraycopy(c.hueData, 0, hueData, 0, hueData.length);
+				System.arraycopy(c.saturationData, 0, saturationData, 0,
+						saturationData.length);
+				System.arraycopy(c.brightnessData, 0, brightnessData, 0,
+						brightnessData.length);
+				for (int y = 0; y < height; y++)
+					System.arraycopy(c.alpha[y], 0, alpha[y], 0, width);
+				return;
+			}
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int y = y0; y < yt; y++)
+					{
+						System.arraycopy(image.alpha[y], 0, alpha[y], 0, width);
+						encode(image.hue[y], image.saturation[y],
+								image.brightness[y], y);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Quantize the row of the HSB spaces.
+		 * 
+		 * @param h
+		 *            the hue row
+		 * @param s
+		 *            the saturation row
+		 * @param v
+		 *            the brightness row
+		 * @param y
+		 *            Y-coordinate of the row
+		 */
+		private void encode(float[] h, float[] s, float[] v, int y)
+		{
+			for (int x = 0, i = y * width; x < width; x++, i++)
+			{
+				hueData[i] = encodeHue(h[x]);
+				saturationData[i] = encode(s[x]);
+				brightnessData[i] = encode(v[x]);
+			}
+		}
+
+		/**
+		 * Returns the fixed point of the value limited in the range of
+		 * <code>[0, 1]</code>.
+		 * 
+		 * @param value
+		 *            the value
+		 * @return the fixed point
+		 */
+		public static short encode(float value)
+		{
+			return (short) (value <= 0 ? 0 : (value >= 1 ? 65535
+					: (int) (value * SCALE + 0.5f)));
+		}
+
+		/**
+		 * Returns the fixed point of the hue wrapped into the range of
+		 * <code>[0, 1]</code>.
+		 * 
+		 * @param hue
+		 *            the hue
+		 * @return the fixed point
+		 */
+		public static short encodeHue(float hue)
+		{
+			return encode(hue - (float) Math.floor(hue));
+		}
+
+		/**
+		 * Returns the value of the fixed point.
+		 * 
+		 * @param fixed
+		 *            the fixed point
+		 * @return the value in the range of <code>[0, 1]</code>
+		 */
+		public static float decode(short fixed)
+		{
+			return (fixed & 0xffff) / SCALE;
+		}
+
+
+		/**
+		 * @see com.frank.dip.HSBImage#setPixel(int, int, int)
+		 */
+		@Override
+		public void setPixel(int x, int y, int value)
+		{
+			checkBounds(x, y);
+			alpha[y][x] = (byte) (value >> 24);
+			float[] h = new float[1], s = new float[1], v = new float[1];
+			ColorSpace.rgbToHSB((value >> 16) & 0xff, (value >> 8) & 0xff,
+					value & 0xff, h, s, v, 0);
+			int i = y * width + x;
+			hueData[i] = encodeHue(h[0]);
+			saturationData[i] = encode(s[0]);
+			brightnessData[i] = encode(v[0]);
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			checkBounds(x, y);
+			int i = y * width + x;
+			return (alpha[y][x] & 0xff) << 24
+					| (ColorSpace.hsbToRGB(decode(hueData[i]),
+							decode(saturationData[i]),
+							decode(brightnessData[i])) & 0xffffff);
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#getRGBArray()
+		 */
+		@Override
+		public int[] getRGBArray()
+		{
+			final int[] array = new int[width * height];
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int y = y0, i = y0 * width; y < yt; y++)
+					{
+						byte[] a = alpha[y];
+						for (int x = 0; x < width; x++, i++)
+							array[i] = (a[x] & 0xff) << 24
+									| (ColorSpace.hsbToRGB(decode(hueData[i]),
+											decode(saturationData[i]),
+											decode(brightnessData[i])) & 0xffffff);
+					}
+				}
+			});
+			return array;
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#initialImageByRGBMatrix(int[][])
+		 */
+		@Override
+		protected void initialImageByRGBMatrix(final int[][] rgbMatrix)
+		{
+			height = rgbMatrix.length;
+			width = rgbMatrix[0].length;
+			alpha = new byte[height][width];
+			hueData = new short[width * height];
+			saturationData = new short[width * height];
+			brightnessData = new short[width * height];
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					float[] h = new float[width], s = new float[width], v = new float[width];
+					int rgb;
+					for (int y = y0; y < yt; y++)
+					{
+						int[] row = rgbMatrix[y];
+						byte[] a = alpha[y];
+						for (int x = 0; x < width; x++)
+						{
+							rgb = row[x];
+							a[x] = (byte) (rgb >> 24);
+							ColorSpace.rgbToHSB((rgb >> 16) & 0xff,
+									(rgb >> 8) & 0xff, rgb & 0xff, h, s, v, x);
+						}
+						encode(h, s, v, y);
+					}
+				}
+			});
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#toColorImage()
+		 */
+		@Override
+		public ColorImage toColorImage()
+		{
+			ColorImage image = new ColorImage(width, height);
+			final byte[][] a = image.getAlphaMatrix(), r = image
+					.getRedMatrix(), g = image.getGreenMatrix(), b = image
+					.getBlueMatrix();
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					int rgb;
+					for (int y = y0, i = y0 * width; y < yt; y++)
+					{
+						System.arraycopy(alpha[y], 0, a[y], 0, width);
+						byte[] rr = r[y], gr = g[y], br = b[y];
+						for (int x = 0; x < width; x++, i++)
+						{
+							rgb = ColorSpace.hsbToRGB(decode(hueData[i]),
+									decode(saturationData[i]),
+									decode(brightnessData[i]));
+							rr[x] = (byte) (rgb >> 16);
+							gr[x] = (byte) (rgb >> 8);
+							br[x] = (byte) rgb;
+						}
+					}
+				}
+			});
+			return image;
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#clone()
+		 */
+		@Override
+		public Compact clone()
+		{
+			return new Compact(this);
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#recreate()
+		 */
+		@Override
+		public Image recreate()
+		{
+			return new Compact(width, height);
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#recreate(int, int)
+		 */
+		@Override
+		public Image recreate(int width, int height)
+		{
+			return new Compact(width, height);
+		}
+
+		/**
+		 * Returns the intensity value of the specified image, the error is
+		 * within {@linkplain #MAX_ERROR}.
+		 * 
+		 * @see com.frank.dip.HSBImage#getIntensity(int, int)
+		 */
+		@Override
+		public float getIntensity(int x, int y)
+		{
+			checkBounds(x, y);
+			return decode(brightnessData[y * width + x]);
+		}
+
+		/**
+		 * Set the intensity value of the specified image, the value is limited
+		 * in the range of <code>[0, 1]</code>.
+		 * 
+		 * @see com.frank.dip.HSBImage#setIntensity(int, int, float)
+		 */
+		@Override
+		public void setIntensity(int x, int y, float i)
+		{
+			checkBounds(x, y);
+			brightnessData[y * width + x] = encode(i);
+		}
+
+		/**
+		 * Transform the intensity according to the specified function. The
+		 * function is evaluated once for each of the fixed point values, so the
+		 * transform of a large image is a table lookup per pixel.
+		 * 
+		 * @see com.frank.dip.HSBImage#transformIntensity(Function, boolean)
+		 */
+		@Override
+		public void transformIntensity(Function f, boolean useHighAccuracyScheme)
+		{
+			int n = width * height;
+			boolean tabled = n > 65536;
+			float[] table = null;
+			if (tabled)
+			{
+				table = new float[65536];
+				for (int i = 0; i < table.length; i++)
+					table[i] = (float) f.function(i / SCALE);
+			}
+			if (useHighAccuracyScheme)
+			{
+				float max = Float.NEGATIVE_INFINITY, min = Float.POSITIVE_INFINITY, d;
+				for (int i = 0; i < n; i++)
+				{
+					d = tabled ? table[brightnessData[i] & 0xffff] : (float) f
+							.function(decode(brightnessData[i]));
+					if (d > max)
+						max = d;
+					if (d < min)
+						min = d;
+				}
+				for (int i = 0; i < n; i++)
+					brightnessData[i] = encode((decode(brightnessData[i]) - min)
+							/ (max - min));
+			}
+			else
+				for (int i = 0; i < n; i++)
+					brightnessData[i] = encode(tabled ? table[brightnessData[i] & 0xffff]
+							: (float) f.function(decode(brightnessData[i])));
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#subImage(int, int, int, int)
+		 */
+		@Override
+		public Compact subImage(int x0, int y0, int xt, int yt)
+				throws ArrayIndexOutOfBoundsException
+		{
+			checkBounds(x0, y0);
+			checkBounds(xt, yt);
+			int width = xt - x0, height = yt - y0;
+			Compact image = new Compact(width, height);
+			for (int y = 0; y < height; y++)
+			{
+				int src = (y0 + y) * this.width + x0, dst = y * width;
+				System.arraycopy(alpha[y0 + y], x0, image.alpha[y], 0, width);
+				System.arraycopy(hueData, src, image.hueData, dst, width);
+				System.arraycopy(saturationData, src, image.saturationData,
+						dst, width);
+				System.arraycopy(brightnessData, src, image.brightnessData,
+						dst, width);
+			}
+			return image;
+		}
+
+		/**
+		 * Returns the decoded copy of the hue channel.
+		 * 
+		 * @see com.frank.dip.HSBImage#getHueMatrix()
+		 */
+		@Override
+		public float[][] getHueMatrix()
+		{
+			return matrix(hueData);
+		}
+
+		/**
+		 * Returns the decoded copy of the saturation channel.
+		 * 
+		 * @see com.frank.dip.HSBImage#getSaturationMatrix()
+		 */
+		@Override
+		public float[][] getSaturationMatrix()
+		{
+			return matrix(saturationData);
+		}
+
+		/**
+		 * Returns the decoded copy of the brightness channel.
+		 * 
+		 * @see com.frank.dip.HSBImage#getBrightnessMatrix()
+		 */
+		@Override
+		public float[][] getBrightnessMatrix()
+		{
+			return matrix(brightnessData);
+		}
+
+		/**
+		 * @see com.frank.dip.HSBImage#getBrightnessPlane(float[])
+		 */
+		@Override
+		public float[] getBrightnessPlane(float[] plane)
+		{
+			final int n = width * height;
+			final float[] result = plane == null || plane.length < n ? new float[n]
+					: plane;
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int i = y0 * width, it = yt * width; i < it; i++)
+						result[i] = decode(brightnessData[i]);
+				}
+			});
+			return result;
+		}
+
+		/**
+		 * Set the brightness channel by the plane, the values are limited in
+		 * the range of <code>[0, 1]</code>.
+		 * 
+		 * @see com.frank.dip.HSBImage#setBrightnessPlane(float[])
+		 */
+		@Override
+		public void setBrightnessPlane(final float[] plane)
+		{
+			if (plane.length < width * height)
+				throw new IllegalArgumentException(String.format(
+						"The length of plane(%d) must be at least %d.",
+						plane.length, width * height));
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int i = y0 * width, it = yt * width; i < it; i++)
+						brightnessData[i] = encode(plane[i]);
+				}
+			});
+		}
+
+		/**
+		 * Returns the exact storage of the quantized hue channel.
+		 * 
+		 * @return the hue data
+		 * @see #decode(short)
+		 */
+		public short[] getHueData()
+		{
+			return hueData;
+		}
+
+		/**
+		 * Returns the exact storage of the quantized saturation channel.
+		 * 
+		 * @return the saturation data
+		 * @see #decode(short)
+		 */
+		public short[] getSaturationData()
+		{
+			return saturationData;
+		}
+
+		/**
+		 * Returns the exact storage of the quantized brightness channel.
+		 * 
+		 * @return the brightness data
+		 * @see #decode(short)
+		 */
+		public short[] getBrightnessData()
+		{
+			return brightnessData;
+		}
+
+		/**
+		 * Returns the decoded matrix of the quantized channel.
+		 * 
+		 * @param data
+		 *            the quantized channel
+		 * @return the decoded matrix
+		 */
+		private float[][] matrix(short[] data)
+		{
+			float[][] matrix = new float[height][width];
+			for (int y = 0, i = 0; y < height; y++)
+				for (int x = 0; x < width; x++)
+					matrix[y][x] = decode(data[i++]);
+			return matrix;
+		}
+	}
 }
@@ -22,6 +22,10 @@ public abstract class Image extends AbstractImage implements Cloneable
 	 * serialVersionUID.
 	 */
 	private static final long serialVersionUID = -7657370378084638265L;
+	/**
+	 * The modification count of the image content.
+	 */
+	private transient int modification;
 
 	/**
 	 * Construct an empty instance of <tt>Image</tt>.
@@ -226,4 +230,30 @@ public abstract class Image extends AbstractImage implements Cloneable
 	 * @return the empty image
 	 */
 	public abstract Image recreate(int width, int height);
+
+	/**
+	 * Returns the modification count of the image content.
+	 * <p>
+	 * The count is increased by the pixel setters, but not by the writes
+	 * through the pixel matrices. The opt-in caches derived from the image
+	 * content, e.g. {@linkplain IntegralImage#cached(GrayImage)}, are valid as
+	 * long as the count does not change.
+	 * </p>
+	 * 
+	 * @return the modification count
+	 */
+	public int getModification()
+	{
+		return modification;
+	}
+
+	/**
+	 * Notify that the image content is modified. The operations writing the
+	 * pixel matrices directly should invoke this method to invalidate the
+	 * caches derived from the image content.
+	 */
+	public void modified()
+	{
+		modification++;
+	}
 }
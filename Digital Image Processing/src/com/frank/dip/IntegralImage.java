@@ -0,0 +1,666 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * IntegralImage.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The integral image (summed-area table) of a gray scale or binary image.
+ * <p>
+ * The tables are row-major <code>long[height + 1][width + 1]</code> arrays, the
+ * element <code>(x, y)</code> is the sum of the pixels in
+ * <code>[0, x) &times; [0, y)</code>, so that the sum of any rectangle is found
+ * by four look-ups regardless of the size of the rectangle. The sum, the
+ * squared sum and the tilted sum tables are built together in one pass over
+ * the pixel matrix.
+ * </p>
+ * <p>
+ * The tilted table is the row-major <code>long[height + 1][width + 2]</code>
+ * array, the element <code>(x, y)</code> is the sum of the pixels in the
+ * triangle with the apex at <code>(x - 1, y - 1)</code> and the 45&deg; sides
+ * going upward, i.e. the pixels <code>(i, j)</code> with <code>j &lt; y</code>
+ * and <code>|i - x + 1| &le; y - 1 - j</code>. The sum of any 45&deg; rotated
+ * rectangle is found by four look-ups of the tilted table.
+ * </p>
+ * <p>
+ * {@linkplain #cached(GrayImage)} and
+ * {@linkplain #cached(BinaryImage, boolean)} cache the integral image against
+ * the source image until its {@linkplain Image#getModification() modification
+ * count} changes, so the operators on the same image share one pass. The
+ * pixel matrices returned by the getters are written without changing the
+ * count, so the cache is opt-in: it is only used by the callers which know
+ * that the image is not written through its matrices, and the operators
+ * taking an integral image build their own when none is given. The double
+ * precision tables of the real matrices are provided by {@linkplain Real}.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class IntegralImage
+{
+	/**
+	 * The cached integral images of the source images.
+	 */
+	private static final Map<Image, IntegralImage>	cache	= Collections
+																	.synchronizedMap(new WeakHashMap<Image, IntegralImage>());
+	/**
+	 * The width of the source image.
+	 */
+	protected int									width;
+	/**
+	 * The height of the source image.
+	 */
+	protected int									height;
+	/**
+	 * The sum table.
+	 */
+	protected long[][]								sum;
+	/**
+	 * The squared sum table, <code>null</code> if not built.
+	 */
+	protected long[][]								squared;
+	/**
+	 * The tilted sum table, <code>null</code> if not built.
+	 */
+	protected long[][]								tilted;
+	/**
+	 * The modification count of the source image when built.
+	 */
+	private int										modification;
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt> with the sum and squared
+	 * sum tables of the gray levels.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 */
+	public IntegralImage(GrayImage image)
+	{
+		this(image, null, true);
+	}
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt> with the sum table of the
+	 * gray levels mapped by the specified table.
+	 * <p>
+	 * The gray level <code>p</code> is counted as <code>table[p]</code>, e.g.
+	 * a table of <code>0</code> and <code>1</code> makes an integral image
+	 * counting the pixels in a class.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @param table
+	 *            the 256-entry mapping table, <code>null</code> for the gray
+	 *            levels themselves
+	 * @param squared
+	 *            <tt>true</tt> if the squared sum table should be built
+	 */
+	public IntegralImage(GrayImage image, int[] table, boolean squared)
+	{
+		this(image, table, squared, false);
+	}
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt> with the sum table of the
+	 * gray levels mapped by the specified table.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @param table
+	 *            the 256-entry mapping table, <code>null</code> for the gray
+	 *            levels themselves
+	 * @param squared
+	 *            <tt>true</tt> if the squared sum table should be built
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table should be built
+	 */
+	public IntegralImage(GrayImage image, int[] table, boolean squared,
+			boolean tilted)
+	{
+		this(image.getGrayMatrix(), table, image.getWidth(), image
+				.getHeight(), squared, tilted);
+		modification = image.getModification();
+	}
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt> counting the
+	 * <tt>true</tt> pixels of the binary image.
+	 * 
+	 * @param image
+	 *            the binary image
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table should be built
+	 */
+	public IntegralImage(BinaryImage image, boolean tilted)
+	{
+		this(image.getBinaryMatrix(), image.getWidth(), image.getHeight(),
+				tilted);
+		modification = image.getModification();
+	}
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt> counting the
+	 * <tt>true</tt> elements of the binary matrix.
+	 * 
+	 * @param data
+	 *            the binary matrix
+	 * @param width
+	 *            the width of the matrix
+	 * @param height
+	 *            the height of the matrix
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table should be built
+	 */
+	public IntegralImage(boolean[][] data, int width, int height,
+			boolean tilted)
+	{
+		this((Object) data, null, width, height, false, tilted);
+	}
+
+	/**
+	 * Build the tables of the gray matrix or the binary matrix.
+	 * 
+	 * @param data
+	 *            the gray matrix or the binary matrix
+	 * @param table
+	 *            the 256-entry mapping table of the gray matrix,
+	 *            <code>null</code> for the gray levels themselves
+	 * @param width
+	 *            the width of the matrix
+	 * @param height
+	 *            the height of the matrix
+	 * @param squared
+	 *            <tt>true</tt> if the squared sum table should be built
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table should be built
+	 */
+	private IntegralImage(Object data, int[] table, int width, int height,
+			boolean squared, boolean tilted)
+	{
+		this.width = width;
+		this.height = height;
+		sum = new long[height + 1][width + 1];
+		if (squared)
+			this.squared = new long[height + 1][width + 1];
+		if (tilted)
+			this.tilted = new long[height + 1][width + 2];
+		// the values of the current and the previous rows
+		long[] values = new long[width], previous = new long[width], swap;
+		// the sums along the anti-diagonals and the diagonals of the rows
+		// scanned, for the tilted sums across the left and the right borders
+		long[] anti = tilted ? new long[width + height] : null;
+		long[] diagonal = tilted ? new long[width + height] : null;
+		long left = 0, right = 0;
+		long rowSum, rowSquared, v;
+		for (int y = 0; y < height; y++)
+		{
+			values(data, table, y, values);
+			long[] s0 = sum[y], s1 = sum[y + 1];
+			rowSum = 0;
+			if (squared)
+			{
+				long[] q0 = this.squared[y], q1 = this.squared[y + 1];
+				rowSquared = 0;
+				for (int x = 0; x < width; x++)
+				{
+					v = values[x];
+					rowSum += v;
+					rowSquared += v * v;
+					s1[x + 1] = s0[x + 1] + rowSum;
+					q1[x + 1] = q0[x + 1] + rowSquared;
+				}
+			}
+			else
+				for (int x = 0; x < width; x++)
+				{
+					rowSum += values[x];
+					s1[x + 1] = s0[x + 1] + rowSum;
+				}
+			if (tilted)
+			{
+				// the diagonals y - 1 are complete with the rows before y
+				if (y >= 1)
+				{
+					left += anti[y - 1];
+					right += diagonal[y - 1];
+				}
+				long[] t1 = this.tilted[y + 1], t0 = this.tilted[y];
+				long[] tt = y > 0 ? this.tilted[y - 1] : null;
+				t1[0] = left;
+				t1[width + 1] = right;
+				for (int x = 0; x < width; x++)
+				{
+					v = t0[x] + t0[x + 2] + values[x];
+					if (y > 0)
+						v += previous[x] - tt[x + 1];
+					t1[x + 1] = v;
+					anti[x + y] += values[x];
+					diagonal[y - x + width - 1] += values[x];
+				}
+				swap = previous;
+				previous = values;
+				values = swap;
+			}
+		}
+	}
+
+	/**
+	 * Read the values of the specified row.
+	 * 
+	 * @param data
+	 *            the gray matrix or the binary matrix
+	 * @param table
+	 *            the 256-entry mapping table of the gray matrix
+	 * @param y
+	 *            the row index
+	 * @param values
+	 *            the output values
+	 */
+	private static void values(Object data, int[] table, int y, long[] values)
+	{
+		if (data instanceof byte[][])
+		{
+			byte[] row = ((byte[][]) data)[y];
+			if (table == null)
+				for (int x = 0; x < values.length; x++)
+					values[x] = row[x] & 0xff;
+			else
+				for (int x = 0; x < values.length; x++)
+					values[x] = table[row[x] & 0xff];
+		}
+		else
+		{
+			boolean[] row = ((boolean[][]) data)[y];
+			for (int x = 0; x < values.length; x++)
+				values[x] = row[x] ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Returns the cached integral image with the sum and the squared sum
+	 * tables of the gray scale image.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @return the integral image
+	 * @see #cached(GrayImage, boolean)
+	 */
+	public static IntegralImage cached(GrayImage image)
+	{
+		return cached(image, false);
+	}
+
+	/**
+	 * Returns the cached integral image with the sum, the squared sum and
+	 * optionally the tilted sum tables of the gray scale image.
+	 * <p>
+	 * The integral image is rebuilt when the pixel setters or
+	 * {@linkplain Image#modified()} change the modification count of the
+	 * image. The writes through {@linkplain GrayImage#getGrayMatrix()} are not
+	 * noticed, so the image must not be written that way while it is cached
+	 * unless the writer invokes {@linkplain Image#modified()}.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table is required
+	 * @return the integral image
+	 */
+	public static IntegralImage cached(GrayImage image, boolean tilted)
+	{
+		IntegralImage integral = cache.get(image);
+		if (integral == null || !integral.isValid(image)
+				|| (tilted && integral.tilted == null))
+		{
+			integral = new IntegralImage(image, null, true, tilted);
+			cache.put(image, integral);
+		}
+		return integral;
+	}
+
+	/**
+	 * Returns the cached integral image counting the <tt>true</tt> pixels of
+	 * the binary image.
+	 * <p>
+	 * The integral image is rebuilt when the pixel setters or
+	 * {@linkplain Image#modified()} change the modification count of the
+	 * image. The writes through {@linkplain BinaryImage#getBinaryMatrix()} are
+	 * not noticed, so the image must not be written that way while it is
+	 * cached unless the writer invokes {@linkplain Image#modified()}.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the binary image
+	 * @param tilted
+	 *            <tt>true</tt> if the tilted sum table is required
+	 * @return the integral image
+	 */
+	public static IntegralImage cached(BinaryImage image, boolean tilted)
+	{
+		IntegralImage integral = cache.get(image);
+		if (integral == null || !integral.isValid(image)
+				|| (tilted && integral.tilted == null))
+		{
+			integral = new IntegralImage(image, tilted);
+			cache.put(image, integral);
+		}
+		return integral;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the integral image is built from the current
+	 * content of the specified image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @return <tt>true</tt> if the integral image is valid
+	 */
+	private boolean isValid(Image image)
+	{
+		return modification == image.getModification()
+				&& width == image.getWidth() && height == image.getHeight();
+	}
+
+	/**
+	 * Returns the sum of the pixels in the rectangle
+	 * <code>[x0, xt) &times; [y0, yt)</code>.
+	 * 
+	 * @param x0
+	 *            the left bound, inclusive
+	 * @param y0
+	 *            the top bound, inclusive
+	 * @param xt
+	 *            the right bound, exclusive
+	 * @param yt
+	 *            the bottom bound, exclusive
+	 * @return the sum
+	 */
+	public long sum(int x0, int y0, int xt, int yt)
+	{
+		return sum[yt][xt] - sum[y0][xt] - sum[yt][x0] + sum[y0][x0];
+	}
+
+	/**
+	 * Returns the squared sum of the pixels in the rectangle
+	 * <code>[x0, xt) &times; [y0, yt)</code>.
+	 * 
+	 * @param x0
+	 *            the left bound, inclusive
+	 * @param y0
+	 *            the top bound, inclusive
+	 * @param xt
+	 *            the right bound, exclusive
+	 * @param yt
+	 *            the bottom bound, exclusive
+	 * @return the squared sum
+	 * @throws UnsupportedOperationException
+	 *             if the squared sum table is not built
+	 */
+	public long squaredSum(int x0, int y0, int xt, int yt)
+	{
+		if (squared == null)
+			throw new UnsupportedOperationException(
+					"The squared sum table is not built.");
+		return squared[yt][xt] - squared[y0][xt] - squared[yt][x0]
+				+ squared[y0][x0];
+	}
+
+	/**
+	 * Returns the sum of the pixels in the 45&deg; rotated rectangle.
+	 * <p>
+	 * The top corner of the rectangle is the pixel <code>(x, y)</code>, the
+	 * rectangle extends <code>w</code> steps to the lower right and
+	 * <code>h</code> steps to the lower left, i.e. it contains the pixels
+	 * <code>(i, j)</code> with <code>x + y &le; i + j &lt; x + y + 2w</code>
+	 * and <code>y - x &le; j - i &lt; y - x + 2h</code>. The bottom corner is
+	 * the pixel <code>(x + w - h, y + w + h - 1)</code>, the rectangle must be
+	 * in the image.
+	 * </p>
+	 * 
+	 * @param x
+	 *            X-coordinate of the top corner
+	 * @param y
+	 *            Y-coordinate of the top corner
+	 * @param w
+	 *            the steps to the lower right
+	 * @param h
+	 *            the steps to the lower left
+	 * @return the sum
+	 * @throws UnsupportedOperationException
+	 *             if the tilted sum table is not built
+	 */
+	public long tiltedSum(int x, int y, int w, int h)
+	{
+		if (tilted == null)
+			throw new UnsupportedOperationException(
+					"The tilted sum table is not built.");
+		return tilted[y + w + h][x + w - h + 1] - tilted[y + h][x - h + 1]
+				- tilted[y + w][x + w + 1] + tilted[y][x + 1];
+	}
+
+	/**
+	 * Returns the sum table, the row-major
+	 * <code>long[height + 1][width + 1]</code> array.
+	 * 
+	 * @return the sum table
+	 */
+	public long[][] getSumTable()
+	{
+		return sum;
+	}
+
+	/**
+	 * Returns the squared sum table, the row-major
+	 * <code>long[height + 1][width + 1]</code> array.
+	 * 
+	 * @return the squared sum table, <code>null</code> if not built
+	 */
+	public long[][] getSquaredTable()
+	{
+		return squared;
+	}
+
+	/**
+	 * Returns the tilted sum table, the row-major
+	 * <code>long[height + 1][width + 2]</code> array.
+	 * 
+	 * @return the tilted sum table, <code>null</code> if not built
+	 */
+	public long[][] getTiltedTable()
+	{
+		return tilted;
+	}
+
+	/**
+	 * Returns the width of the source image.
+	 * 
+	 * @return the width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Returns the height of the source image.
+	 * 
+	 * @return the height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * The integral image of the real matrix.
+	 * <p>
+	 * The tables are row-major <code>double[height + 1][width + 1]</code>
+	 * arrays in the same layout as the tables of {@linkplain IntegralImage}.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class Real
+	{
+		/**
+		 * The width of the source matrix.
+		 */
+		protected int			width;
+		/**
+		 * The height of the source matrix.
+		 */
+		protected int			height;
+		/**
+		 * The sum table.
+		 */
+		protected double[][]	sum;
+		/**
+		 * The squared sum table, <code>null</code> if not built.
+		 */
+		protected double[][]	squared;
+
+		/**
+		 * Construct an instance of <tt>Real</tt>.
+		 * 
+		 * @param data
+		 *            the row-major real matrix
+		 * @param width
+		 *            the width of the matrix
+		 * @param height
+		 *            the height of the matrix
+		 * @param squared
+		 *            <tt>true</tt> if the squared sum table should be built
+		 */
+		public Real(double[][] data, int width, int height, boolean squared)
+		{
+			this.width = width;
+			this.height = height;
+			sum = new double[height + 1][width + 1];
+			if (squared)
+				this.squared = new double[height + 1][width + 1];
+			double rowSum, rowSquared, v;
+			for (int y = 0; y < height; y++)
+			{
+				double[] row = data[y];
+				double[] s0 = sum[y], s1 = sum[y + 1];
+				rowSum = 0;
+				if (squared)
+				{
+					double[] q0 = this.squared[y], q1 = this.squared[y + 1];
+					rowSquared = 0;
+					for (int x = 0; x < width; x++)
+					{
+						v = row[x];
+						rowSum += v;
+						rowSquared += v * v;
+						s1[x + 1] = s0[x + 1] + rowSum;
+						q1[x + 1] = q0[x + 1] + rowSquared;
+					}
+				}
+				else
+					for (int x = 0; x < width; x++)
+					{
+						rowSum += row[x];
+						s1[x + 1] = s0[x + 1] + rowSum;
+					}
+			}
+		}
+
+		/**
+		 * Returns the sum of the elements in the rectangle
+		 * <code>[x0, xt) &times; [y0, yt)</code>.
+		 * 
+		 * @param x0
+		 *            the left bound, inclusive
+		 * @param y0
+		 *            the top bound, inclusive
+		 * @param xt
+		 *            the right bound, exclusive
+		 * @param yt
+		 *            the bottom bound, exclusive
+		 * @return the sum
+		 */
+		public double sum(int x0, int y0, int xt, int yt)
+		{
+			return sum[yt][xt] - sum[y0][xt] - sum[yt][x0] + sum[y0][x0];
+		}
+
+		/**
+		 * Returns the squared sum of the elements in the rectangle
+		 * <code>[x0, xt) &times; [y0, yt)</code>.
+		 * 
+		 * @param x0
+		 *            the left bound, inclusive
+		 * @param y0
+		 *            the top bound, inclusive
+		 * @param xt
+		 *            the right bound, exclusive
+		 * @param yt
+		 *            the bottom bound, exclusive
+		 * @return the squared sum
+		 * @throws UnsupportedOperationException
+		 *             if the squared sum table is not built
+		 */
+		public double squaredSum(int x0, int y0, int xt, int yt)
+		{
+			if (squared == null)
+				throw new UnsupportedOperationException(
+						"The squared sum table is not built.");
+			return squared[yt][xt] - squared[y0][xt] - squared[yt][x0]
+					+ squared[y0][x0];
+		}
+
+		/**
+		 * Returns the sum table, the row-major
+		 * <code>double[height + 1][width + 1]</code> array.
+		 * 
+		 * @return the sum table
+		 */
+		public double[][] getSumTable()
+		{
+			return sum;
+		}
+
+		/**
+		 * Returns the squared sum table, the row-major
+		 * <code>double[height + 1][width + 1]</code> array.
+		 * 
+		 * @return the squared sum table, <code>null</code> if not built
+		 */
+		public double[][] getSquaredTable()
+		{
+			return squared;
+		}
+
+		/**
+		 * Returns the width of the source matrix.
+		 * 
+		 * @return the width
+		 */
+		public int getWidth()
+		{
+			return width;
+		}
+
+		/**
+		 * Returns the height of the source matrix.
+		 * 
+		 * @return the height
+		 */
+		public int getHeight()
+		{
+			return height;
+		}
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ParallelUtils.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The utilities for running image operations in parallel row bands.
+ * <p>
+ * The image is split into horizontal bands of consecutive rows and the bands
+ * are processed by a shared fork/join pool. Small images are processed in the
+ * calling thread, since the cost of scheduling would exceed the gain.
+ * </p>
+ * <p>
+ * Changing the parallelism level replaces the shared pool. The replaced pool
+ * still runs the operations already started in it, and is shut down after the
+ * last of them completes.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ParallelUtils
+{
+	/**
+	 * The minimum count of pixels to run an operation in parallel.
+	 */
+	public static final int			PARALLEL_THRESHOLD	= 1 << 16;
+	/**
+	 * The minimum count of rows in a band.
+	 */
+	public static final int			MIN_BAND_ROWS		= 16;
+	/**
+	 * The shared pool, <code>null</code> if it is not created.
+	 */
+	private static SharedPool		pool;
+	/**
+	 * The parallelism level, 1 for sequential execution.
+	 */
+	private static volatile int		parallelism			= Runtime.getRuntime()
+																.availableProcessors();
+
+	/**
+	 * The task performed on one index.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static interface IndexTask
+	{
+		/**
+		 * Perform the task on the specified index.
+		 * 
+		 * @param index
+		 *            the specified index
+		 */
+		public void run(int index);
+	}
+
+	/**
+	 * The task performed on a band of rows.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static interface RowTask
+	{
+		/**
+		 * Perform the task on the rows in <code>[y0, yt)</code>.
+		 * 
+		 * @param y0
+		 *            the first row, inclusive
+		 * @param yt
+		 *            the last row, exclusive
+		 */
+		public void run(int y0, int yt);
+	}
+
+	/**
+	 * Returns the parallelism level.
+	 * 
+	 * @return the parallelism level
+	 */
+	public static int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * Set the parallelism level. Set 1 to perform all the operations in the
+	 * calling thread.
+	 * 
+	 * @param parallelism
+	 *            the parallelism level
+	 * @throws IllegalArgumentException
+	 *             if the parallelism level is not positive
+	 */
+	public static synchronized void setParallelism(int parallelism)
+			throws IllegalArgumentException
+	{
+		if (parallelism < 1)
+			throw new IllegalArgumentException(String.format(
+					"Illegal parallelism level: %d", parallelism));
+		if (pool != null && pool.pool.getParallelism() != parallelism)
+		{
+			pool.retired = true;
+			if (pool.users == 0)
+				pool.pool.shutdown();
+			pool = null;
+		}
+		ParallelUtils.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the count of row bands for an image of the specified dimension.
+	 * 
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @return the count of row bands, 1 if the image should be processed
+	 *         sequentially
+	 */
+	public static int bands(int width, int height)
+	{
+		if (parallelism == 1 || (long) width * height < PARALLEL_THRESHOLD)
+			return 1;
+		return Math.max(1, Math.min(height / MIN_BAND_ROWS, parallelism * 4));
+	}
+
+	/**
+	 * Returns the first row of the specified band.
+	 * 
+	 * @param band
+	 *            the index of the band
+	 * @param bands
+	 *            the count of the bands
+	 * @param height
+	 *            the image height
+	 * @return the first row of the band
+	 */
+	public static int bandStart(int band, int bands, int height)
+	{
+		return (int) ((long) band * height / bands);
+	}
+
+	/**
+	 * Perform the specified task on each index in <code>[0, count)</code> in
+	 * parallel.
+	 * 
+	 * @param count
+	 *            the count of indices
+	 * @param task
+	 *            the task to perform
+	 */
+	public static void forEach(int count, IndexTask task)
+	{
+		if (count <= 0)
+			return;
+		if (count == 1 || parallelism == 1)
+		{
+			for (int i = 0; i < count; i++)
+				task.run(i);
+			return;
+		}
+		IndexAction action = new IndexAction(task, 0, count);
+		// nested calls are forked in the pool of the calling worker
+		if (ForkJoinTask.inForkJoinPool())
+		{
+			action.invoke();
+			return;
+		}
+		SharedPool shared = acquire();
+		try
+		{
+			shared.pool.invoke(action);
+		}
+		finally
+		{
+			release(shared);
+		}
+	}
+
+	/**
+	 * Perform the specified task on the rows of an image of the specified
+	 * dimension, split in bands which are processed in parallel.
+	 * 
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @param task
+	 *            the task to perform
+	 */
+	public static void forRows(int width, final int height, final RowTask task)
+	{
+		final int bands = bands(width, height);
+		if (bands == 1)
+		{
+			task.run(0, height);
+			return;
+		}
+		forEach(bands, new IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				task.run(bandStart(band, bands, height),
+						bandStart(band + 1, bands, height));
+			}
+		});
+	}
+
+	/**
+	 * Returns the shared pool and counts the caller as its user.
+	 * 
+	 * @return the shared pool
+	 */
+	private static synchronized SharedPool acquire()
+	{
+		if (pool == null)
+			pool = new SharedPool(new ForkJoinPool(parallelism));
+		pool.users++;
+		return pool;
+	}
+
+	/**
+	 * Release the user of the pool, the replaced pool is shut down when its
+	 * last user is released.
+	 * 
+	 * @param shared
+	 *            the pool returned by {@linkplain #acquire()}
+	 */
+	private static synchronized void release(SharedPool shared)
+	{
+		if (--shared.users == 0 && shared.retired)
+			shared.pool.shutdown();
+	}
+
+	/**
+	 * The fork/join pool with the count of the operations running in it.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static class SharedPool
+	{
+		/**
+		 * The fork/join pool.
+		 */
+		final ForkJoinPool	pool;
+		/**
+		 * The count of the operations running in the pool.
+		 */
+		int					users;
+		/**
+		 * <tt>true</tt> if the pool is replaced.
+		 */
+		boolean				retired;
+
+		/**
+		 * Construct an instance of <tt>SharedPool</tt>.
+		 * 
+		 * @param pool
+		 *            the fork/join pool
+		 */
+		SharedPool(ForkJoinPool pool)
+		{
+			this.pool = pool;
+		}
+	}
+
+	/**
+	 * The action which splits the index range in halves.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static class IndexAction extends RecursiveAction
+	{
+		/**
+		 * serialVersionUID.
+		 */
+		private static final long	serialVersionUID	= 4017324536738961421L;
+		/**
+		 * The task to perform.
+		 */
+		private final IndexTask		task;
+		/**
+		 * The index range <code>[from, to)</code>.
+		 */
+		private final int			from, to;
+
+		/**
+		 * Construct an instance of <tt>IndexAction</tt>.
+		 * 
+		 * @param task
+		 *            the task to perform
+		 * @param from
+		 *            the first index, inclusive
+		 * @param to
+		 *            the last index, exclusive
+		 */
+		IndexAction(IndexTask task, int from, int to)
+		{
+			this.task = task;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute()
+		{
+			if (to - from == 1)
+			{
+				task.run(from);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new IndexAction(task, from, mid), new IndexAction(task,
+					mid, to));
+		}
+	}
+}
@@ -12,6 +12,7 @@ import com.frank.dip.ColorScaleLevel;
 import com.frank.dip.GrayImage;
 import com.frank.dip.IllegalImageTypeException;
 import com.frank.dip.Image;
+import com.frank.dip.ParallelUtils;
 import com.frank.math.MathUtils;
 
 /**
@@ -119,21 +120,23 @@ public abstract class Histogram implements ColorScaleLevel
 		 */
 		public Color(Image image)
 		{
-			super(image);
-			if (image instanceof ColorImage)
+			int[][] histograms = histograms(image, true);
+			if (histograms == null)
+				throw new IllegalImageTypeException(getClass(), image.getClass());
+			initialize(image, histograms[0]);
+			if (histograms.length > 1)
 			{
-				ColorImage ci = (ColorImage) image;
 				int[] pair = new int[2];
-				data = histogram(ci.getGrayArray(), pair);
-				minimum = pair[0];
-				maximum = pair[1];
-				red = histogram(ci.getRedArray(), pair);
+				red = histograms[1];
+				range(red, pair);
 				minimumRed = pair[0];
 				maximumRed = pair[1];
-				green = histogram(ci.getGreenArray(), pair);
+				green = histograms[2];
+				range(green, pair);
 				minimumGreen = pair[0];
 				maximumGreen = pair[1];
-				blue = histogram(ci.getBlueArray(), pair);
+				blue = histograms[3];
+				range(blue, pair);
 				minimumBlue = pair[0];
 				maximumBlue = pair[1];
 			}
@@ -374,22 +377,168 @@ public abstract class Histogram implements ColorScaleLevel
 	 */
 	public Histogram(Image image) throws IllegalImageTypeException
 	{
-		int width = image.getWidth();
-		int height = image.getHeight();
-		area = width * height;
-		int[] pixels = null;
-		if (image instanceof ColorImage)
-			pixels = ((ColorImage) image).getGrayArray();
-		else if (image instanceof BinaryImage || image instanceof GrayImage)
-			pixels = image.getPixelsArray();
-		if (pixels == null)
+		int[][] histograms = histograms(image, false);
+		if (histograms == null)
 			throw new IllegalImageTypeException(getClass(), image.getClass());
+		initialize(image, histograms[0]);
+	}
+
+	/**
+	 * Initialize the area, the gray scale histogram and its scale range.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param data
+	 *            the gray scale histogram
+	 */
+	protected void initialize(Image image, int[] data)
+	{
+		area = image.getWidth() * image.getHeight();
+		this.data = data;
 		int[] pair = new int[2];
-		data = histogram(pixels, pair);
+		range(data, pair);
 		minimum = pair[0];
 		maximum = pair[1];
 	}
 
+	/**
+	 * Returns the histograms of the specified image counted in one pass over
+	 * the pixel planes.
+	 * <p>
+	 * The first histogram is the gray scale histogram, the gray scale of the
+	 * color image is computed by {@linkplain ColorImage#luminance(int, int, int)}
+	 * without temporary arrays. If <code>channels</code> is <tt>true</tt> and
+	 * the image is a color image, the histograms of red, green and blue
+	 * channels follow. The binary image is counted as the gray levels
+	 * <code>0</code> and <code>255</code>. The large images are counted in
+	 * parallel bands, each band with its own histograms, and the band
+	 * histograms are summed afterwards.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param channels
+	 *            <tt>true</tt> if the histograms of color channels are
+	 *            required
+	 * @return the histograms, <code>null</code> if the image type is not
+	 *         supported
+	 */
+	public static int[][] histograms(Image image, boolean channels)
+	{
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final int count;
+		final byte[][] gray, red, green, blue;
+		final boolean[][] binary;
+		if (image instanceof ColorImage)
+		{
+			ColorImage ci = (ColorImage) image;
+			count = channels ? 4 : 1;
+			gray = null;
+			binary = null;
+			red = ci.getRedMatrix();
+			green = ci.getGreenMatrix();
+			blue = ci.getBlueMatrix();
+		}
+		else if (image instanceof GrayImage)
+		{
+			count = 1;
+			gray = ((GrayImage) image).getGrayMatrix();
+			binary = null;
+			red = green = blue = null;
+		}
+		else if (image instanceof BinaryImage)
+		{
+			count = 1;
+			gray = null;
+			binary = ((BinaryImage) image).getBinaryMatrix();
+			red = green = blue = null;
+		}
+		else
+			return null;
+		final int bands = ParallelUtils.bands(width, height);
+		final int[][][] partial = new int[bands][][];
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				int[][] h = new int[count][COLOR_SCALE_LEVEL];
+				int[] hg = h[0];
+				for (int y = ParallelUtils.bandStart(band, bands, height), yt = ParallelUtils
+						.bandStart(band + 1, bands, height); y < yt; y++)
+				{
+					if (gray != null)
+					{
+						byte[] row = gray[y];
+						for (int x = 0; x < width; x++)
+							hg[row[x] & 0xff]++;
+					}
+					else if (binary != null)
+					{
+						boolean[] row = binary[y];
+						for (int x = 0; x < width; x++)
+							hg[row[x] ? 255 : 0]++;
+					}
+					else if (count == 1)
+					{
+						byte[] rr = red[y], rg = green[y], rb = blue[y];
+						for (int x = 0; x < width; x++)
+							hg[ColorImage.luminance(rr[x] & 0xff, rg[x] & 0xff,
+									rb[x] & 0xff)]++;
+					}
+					else
+					{
+						byte[] rr = red[y], rg = green[y], rb = blue[y];
+						int[] hr = h[1], hgr = h[2], hb = h[3];
+						int r, g, b;
+						for (int x = 0; x < width; x++)
+						{
+							r = rr[x] & 0xff;
+							g = rg[x] & 0xff;
+							b = rb[x] & 0xff;
+							hg[ColorImage.luminance(r, g, b)]++;
+							hr[r]++;
+							hgr[g]++;
+							hb[b]++;
+						}
+					}
+				}
+				partial[band] = h;
+			}
+		});
+		int[][] histograms = partial[0];
+		for (int k = 1; k < bands; k++)
+			for (int c = 0; c < count; c++)
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					histograms[c][i] += partial[k][c][i];
+		return histograms;
+	}
+
+	/**
+	 * Finds the minimum and the maximum scale value with non-zero count of
+	 * the specified histogram. If the histogram is empty, the minimum is
+	 * {@linkplain #COLOR_SCALE_LEVEL} and the maximum is 0.
+	 * 
+	 * @param histogram
+	 *            the histogram
+	 * @param pair
+	 *            the entry of minimum scale value and maximum scale value
+	 */
+	protected static void range(int[] histogram, int[] pair)
+	{
+		int min = COLOR_SCALE_LEVEL, max = 0;
+		for (int i = 0; i < histogram.length; i++)
+			if (histogram[i] != 0)
+			{
+				if (min == COLOR_SCALE_LEVEL)
+					min = i;
+				max = i;
+			}
+		pair[0] = min;
+		pair[1] = max;
+	}
+
 	/**
 	 * Returns the source histogram data of gray scale.
 	 * 
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ImageMoments.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.analyze;
+
+import java.awt.geom.Point2D;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The image moments and the shape descriptors derived from them.
+ * <p>
+ * Each pixel <code>(x, y)</code> is weighted by its mass <code>f(x, y)</code>,
+ * which is the gray level of the gray scale image, the mapped gray level if a
+ * weight table is specified, or <code>1</code> for the <tt>true</tt> pixels of
+ * the binary image. The raw moments <code>m<sub>pq</sub> = &sum;
+ * x<sup>p</sup>y<sup>q</sup>f(x, y)</code> up to order 3 and the statistics of
+ * the masses are accumulated in one pass, the row bands are accumulated in
+ * parallel by {@linkplain ParallelUtils}. The central moments, the normalized
+ * central moments, Hu's invariants, the orientation and the eccentricity are
+ * derived from the raw moments.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Hu, M-K (1962), "Visual Pattern Recognition by Moment Invariants", IRE
+ * Transactions on Information Theory 8(2): 179-187
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ImageMoments implements ColorScaleLevel
+{
+	/**
+	 * The highest order of the moments.
+	 */
+	public static final int	ORDER	= 3;
+	/**
+	 * The raw moments, <code>raw[p][q]</code> is <code>m<sub>pq</sub></code>.
+	 */
+	private double[][]		raw;
+	/**
+	 * The central moments, <code>central[p][q]</code> is
+	 * <code>&mu;<sub>pq</sub></code>.
+	 */
+	private double[][]		central;
+	/**
+	 * Hu's seven invariants.
+	 */
+	private double[]		hu;
+	/**
+	 * The count of the pixels.
+	 */
+	private long			count;
+	/**
+	 * The mean of the masses.
+	 */
+	private double			mean;
+	/**
+	 * The variance of the masses.
+	 */
+	private double			variance;
+	/**
+	 * The minimum mass.
+	 */
+	private double			minimum;
+	/**
+	 * The maximum mass.
+	 */
+	private double			maximum;
+
+	/**
+	 * Construct an instance of <tt>ImageMoments</tt> of the gray scale image
+	 * weighted by the gray levels.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 */
+	public ImageMoments(GrayImage image)
+	{
+		this(image, null);
+	}
+
+	/**
+	 * Construct an instance of <tt>ImageMoments</tt> of the gray scale image
+	 * weighted by the mapped gray levels.
+	 * <p>
+	 * The pixel of gray level <code>p</code> is weighted by
+	 * <code>table[p]</code>, e.g. a table of <code>0</code> and <code>1</code>
+	 * makes the moments of the region of a class without thresholding the
+	 * image.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @param table
+	 *            the 256-entry weight table, <code>null</code> for the gray
+	 *            levels themselves
+	 */
+	public ImageMoments(GrayImage image, double[] table)
+	{
+		if (table == null)
+		{
+			table = new double[COLOR_SCALE_LEVEL];
+			for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+				table[i] = i;
+		}
+		accumulate(image.getGrayMatrix(), table, image.getWidth(),
+				image.getHeight());
+	}
+
+	/**
+	 * Construct an instance of <tt>ImageMoments</tt> of the <tt>true</tt>
+	 * pixels of the binary image.
+	 * 
+	 * @param image
+	 *            the binary image
+	 */
+	public ImageMoments(BinaryImage image)
+	{
+		accumulate(image.getBinaryMatrix(), null, image.getWidth(),
+				image.getHeight());
+	}
+
+	/**
+	 * Accumulate the moments of the gray matrix or the binary matrix and
+	 * derive the descriptors.
+	 * 
+	 * @param data
+	 *            the gray matrix or the binary matrix
+	 * @param table
+	 *            the weight table of the gray matrix
+	 * @param width
+	 *            the width of the matrix
+	 * @param height
+	 *            the height of the matrix
+	 */
+	private void accumulate(final Object data, final double[] table,
+			final int width, final int height)
+	{
+		final int bands = ParallelUtils.bands(width, height);
+		// the raw moments m00, m10, ..., m03, the sum, the squared sum, the
+		// minimum and the maximum of the masses of each band
+		final double[][] partial = new double[bands][];
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				double[] m = new double[14];
+				m[12] = Double.POSITIVE_INFINITY;
+				m[13] = Double.NEGATIVE_INFINITY;
+				double r0, r1, r2, r3, w, wx, y1, y2, y3;
+				for (int y = ParallelUtils.bandStart(band, bands, height), yt = ParallelUtils
+						.bandStart(band + 1, bands, height); y < yt; y++)
+				{
+					// the row sums of w, w x, w x^2 and w x^3
+					r0 = r1 = r2 = r3 = 0;
+					if (table == null)
+					{
+						boolean[] row = ((boolean[][]) data)[y];
+						for (int x = 0; x < width; x++)
+							if (row[x])
+							{
+								r0++;
+								r1 += x;
+								r2 += (double) x * x;
+								r3 += (double) x * x * x;
+							}
+						m[10] += r0;
+						m[11] += r0;
+						m[12] = Math.min(m[12], r0 < width ? 0 : 1);
+						m[13] = Math.max(m[13], r0 > 0 ? 1 : 0);
+					}
+					else
+					{
+						byte[] row = ((byte[][]) data)[y];
+						for (int x = 0; x < width; x++)
+						{
+							w = table[row[x] & 0xff];
+							wx = w * x;
+							r0 += w;
+							r1 += wx;
+							wx *= x;
+							r2 += wx;
+							r3 += wx * x;
+							m[11] += w * w;
+							if (w < m[12])
+								m[12] = w;
+							if (w > m[13])
+								m[13] = w;
+						}
+						m[10] += r0;
+					}
+					y1 = y;
+					y2 = y1 * y;
+					y3 = y2 * y;
+					m[0] += r0;
+					m[1] += r1;
+					m[2] += r2;
+					m[3] += r3;
+					m[4] += y1 * r0;
+					m[5] += y1 * r1;
+					m[6] += y1 * r2;
+					m[7] += y2 * r0;
+					m[8] += y2 * r1;
+					m[9] += y3 * r0;
+				}
+				partial[band] = m;
+			}
+		});
+		double[] m = partial[0];
+		for (int b = 1; b < bands; b++)
+		{
+			for (int i = 0; i < 12; i++)
+				m[i] += partial[b][i];
+			m[12] = Math.min(m[12], partial[b][12]);
+			m[13] = Math.max(m[13], partial[b][13]);
+		}
+		raw = new double[][] { { m[0], m[4], m[7], m[9] },
+				{ m[1], m[5], m[8], 0 }, { m[2], m[6], 0, 0 },
+				{ m[3], 0, 0, 0 } };
+		count = (long) width * height;
+		mean = count == 0 ? 0 : m[10] / count;
+		variance = count == 0 ? 0 : Math.max(m[11] / count - mean * mean, 0);
+		minimum = count == 0 ? 0 : m[12];
+		maximum = count == 0 ? 0 : m[13];
+		derive();
+	}
+
+	/**
+	 * Derive the central moments and Hu's invariants from the raw moments.
+	 */
+	private void derive()
+	{
+		double m00 = raw[0][0];
+		double xc = m00 == 0 ? 0 : raw[1][0] / m00;
+		double yc = m00 == 0 ? 0 : raw[0][1] / m00;
+		double xc2 = xc * xc, yc2 = yc * yc;
+		central = new double[ORDER + 1][ORDER + 1];
+		central[0][0] = m00;
+		central[2][0] = raw[2][0] - xc * raw[1][0];
+		central[0][2] = raw[0][2] - yc * raw[0][1];
+		central[1][1] = raw[1][1] - xc * raw[0][1];
+		central[3][0] = raw[3][0] - 3 * xc * raw[2][0] + 2 * xc2 * raw[1][0];
+		central[0][3] = raw[0][3] - 3 * yc * raw[0][2] + 2 * yc2 * raw[0][1];
+		central[2][1] = raw[2][1] - 2 * xc * raw[1][1] - yc * raw[2][0] + 2
+				* xc2 * raw[0][1];
+		central[1][2] = raw[1][2] - 2 * yc * raw[1][1] - xc * raw[0][2] + 2
+				* yc2 * raw[1][0];
+		double n20 = getNormalized(2, 0), n02 = getNormalized(0, 2), n11 = getNormalized(
+				1, 1);
+		double n30 = getNormalized(3, 0), n03 = getNormalized(0, 3), n21 = getNormalized(
+				2, 1), n12 = getNormalized(1, 2);
+		double a = n30 + n12, b = n21 + n03;
+		double c = n30 - 3 * n12, d = 3 * n21 - n03;
+		hu = new double[7];
+		hu[0] = n20 + n02;
+		hu[1] = (n20 - n02) * (n20 - n02) + 4 * n11 * n11;
+		hu[2] = c * c + d * d;
+		hu[3] = a * a + b * b;
+		hu[4] = c * a * (a * a - 3 * b * b) + d * b * (3 * a * a - b * b);
+		hu[5] = (n20 - n02) * (a * a - b * b) + 4 * n11 * a * b;
+		hu[6] = d * a * (a * a - 3 * b * b) - c * b * (3 * a * a - b * b);
+	}
+
+	/**
+	 * Check the order of the moment.
+	 * 
+	 * @param p
+	 *            the order of x
+	 * @param q
+	 *            the order of y
+	 */
+	private static void checkOrder(int p, int q)
+	{
+		if (p < 0 || q < 0 || p + q > ORDER)
+			throw new IllegalArgumentException(String.format(
+					"The order of moment(%d, %d) must be in [0, %d].", p, q,
+					ORDER));
+	}
+
+	/**
+	 * Returns the raw moment <code>m<sub>pq</sub></code>.
+	 * 
+	 * @param p
+	 *            the order of x
+	 * @param q
+	 *            the order of y
+	 * @return the raw moment
+	 */
+	public double getRaw(int p, int q)
+	{
+		checkOrder(p, q);
+		return raw[p][q];
+	}
+
+	/**
+	 * Returns the central moment <code>&mu;<sub>pq</sub></code>.
+	 * 
+	 * @param p
+	 *            the order of x
+	 * @param q
+	 *            the order of y
+	 * @return the central moment
+	 */
+	public double getCentral(int p, int q)
+	{
+		checkOrder(p, q);
+		return central[p][q];
+	}
+
+	/**
+	 * Returns the normalized central moment <code>&eta;<sub>pq</sub> =
+	 * &mu;<sub>pq</sub> / &mu;<sub>00</sub><sup>1 + (p + q) / 2</sup></code>.
+	 * 
+	 * @param p
+	 *            the order of x
+	 * @param q
+	 *            the order of y
+	 * @return the normalized central moment, 0 if the total mass is 0
+	 */
+	public double getNormalized(int p, int q)
+	{
+		checkOrder(p, q);
+		double m00 = central[0][0];
+		if (m00 == 0)
+			return 0;
+		return central[p][q] / Math.pow(m00, 1 + (p + q) / 2.0);
+	}
+
+	/**
+	 * Returns Hu's seven invariants to translation, scale and rotation.
+	 * 
+	 * @return the invariants
+	 */
+	public double[] getHuInvariants()
+	{
+		return hu.clone();
+	}
+
+	/**
+	 * Returns the total mass <code>m<sub>00</sub></code>, which is the area of
+	 * the binary image.
+	 * 
+	 * @return the total mass
+	 */
+	public double getMass()
+	{
+		return raw[0][0];
+	}
+
+	/**
+	 * Returns the mass center.
+	 * 
+	 * @return the mass center, <code>(NaN, NaN)</code> if the total mass is 0
+	 */
+	public Point2D getCentroid()
+	{
+		double m00 = raw[0][0];
+		return new Point2D.Double(raw[1][0] / m00, raw[0][1] / m00);
+	}
+
+	/**
+	 * Returns the orientation of the major axis.
+	 * 
+	 * @return the angle from the X-axis in radians, in the range of
+	 *         <code>[-&pi; / 2, &pi; / 2]</code>, the Y-axis points downward
+	 */
+	public double getOrientation()
+	{
+		return 0.5 * Math.atan2(2 * central[1][1], central[2][0]
+				- central[0][2]);
+	}
+
+	/**
+	 * Returns the eccentricity of the ellipse of the same second order
+	 * moments.
+	 * 
+	 * @return the eccentricity in the range of <code>[0, 1]</code>, 0 for a
+	 *         circle
+	 */
+	public double getEccentricity()
+	{
+		double s = central[2][0] + central[0][2];
+		double d = central[2][0] - central[0][2];
+		double r = Math.sqrt(d * d + 4 * central[1][1] * central[1][1]);
+		double major = s + r;
+		if (major <= 0)
+			return 0;
+		return Math.sqrt(Math.max(0, 1 - (s - r) / major));
+	}
+
+	/**
+	 * Returns the mean of the masses of all the pixels.
+	 * 
+	 * @return the mean
+	 */
+	public double getMean()
+	{
+		return mean;
+	}
+
+	/**
+	 * Returns the variance of the masses of all the pixels.
+	 * 
+	 * @return the variance
+	 */
+	public double getVariance()
+	{
+		return variance;
+	}
+
+	/**
+	 * Returns the minimum mass of the pixels.
+	 * 
+	 * @return the minimum mass
+	 */
+	public double getMinimum()
+	{
+		return minimum;
+	}
+
+	/**
+	 * Returns the maximum mass of the pixels.
+	 * 
+	 * @return the maximum mass
+	 */
+	public double getMaximum()
+	{
+		return maximum;
+	}
+
+	/**
+	 * Returns the count of the pixels.
+	 * 
+	 * @return the count of the pixels
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+}
@@ -10,10 +10,10 @@ package com.frank.dip.analyze;
 import java.awt.geom.Point2D;
 
 import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorScaleLevel;
 import com.frank.dip.GrayImage;
 import com.frank.dip.Image;
 import com.frank.dip.threshold.GlobalAverage;
-import com.frank.dip.threshold.GlobalThresholding;
 
 /**
  * The image statistic class.
@@ -34,31 +34,7 @@ public class ImageStatistic
 	 */
 	public static Point2D center(Image image)
 	{
-		int xc = 0, yc = 0;
-		int width = image.getWidth();
-		int height = image.getHeight();
-		boolean[][] m = null;
-		if (image instanceof BinaryImage)
-			m = ((BinaryImage) image).getBinaryMatrix();
-		else
-		{
-			if (image instanceof GrayImage)
-				m = new GlobalThresholding(new GlobalAverage()).operate(
-						(GrayImage) image).getBinaryMatrix();
-			else
-				m = new GlobalThresholding(new GlobalAverage()).operate(
-						new GrayImage(image)).getBinaryMatrix();
-		}
-		int count = 0;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				if (m[y][x])
-				{
-					xc += x;
-					yc += y;
-					count++;
-				}
-		return new Point2D.Double(xc / (double) count, yc / (double) count);
+		return moments(image).getCentroid();
 		//		if (image instanceof BinaryImage)
 		//		{
 		//			boolean[][] m = ((BinaryImage) image).getBinaryMatrix();
@@ -90,6 +66,32 @@ public class ImageStatistic
 		//			}
 		//		return new Point2D.Double(xc / (double) count, yc / (double) count);
 	}
+
+	/**
+	 * Returns the moments of the foreground of the specified image.
+	 * <p>
+	 * The foreground of the binary image is its <tt>true</tt> pixels, the
+	 * foreground of the other images is the pixels brighter than the average
+	 * gray level, which is weighted by a table instead of thresholding the
+	 * image.
+	 * </p>
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the moments of the foreground
+	 */
+	public static ImageMoments moments(Image image)
+	{
+		if (image instanceof BinaryImage)
+			return new ImageMoments((BinaryImage) image);
+		GrayImage gi = image instanceof GrayImage ? (GrayImage) image
+				: new GrayImage(image);
+		int threshold = new GlobalAverage().threshold(gi);
+		double[] table = new double[ColorScaleLevel.COLOR_SCALE_LEVEL];
+		for (int i = Math.max(threshold + 1, 0); i < table.length; i++)
+			table[i] = 1;
+		return new ImageMoments(gi, table);
+	}
 	//	public static double circle(BinaryImage image)
 	//	{
 	//		// TODO image circle
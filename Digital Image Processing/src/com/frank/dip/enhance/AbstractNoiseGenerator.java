@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AbstractNoiseGenerator.java is PROPRIETARY/CONFIDENTIAL built in 2013.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.math.SplitMix;
+
+/**
+ * The abstract image noise generator.
+ * <p>
+ * The noise bias is added to each channel of each pixel, truncated and
+ * limited in the range of <code>[0, 255]</code>, the alpha channel is kept.
+ * The image is divided into the tiles of {@linkplain #TILE_ROWS} rows, each
+ * of which is generated by its own {@linkplain SplitMix} split from the
+ * generator of the call in order, and the tiles are processed in parallel.
+ * The generator of the call is split from the generator of the instance, so
+ * the sequence of the results is reproducible after
+ * {@linkplain #setSeed(long)} whatever the parallelism is. The
+ * {@linkplain Sampler} of the biases is created once per call from the
+ * current parameters and shared by the tiles.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class AbstractNoiseGenerator implements
+		ImageOperate<Image, Image>, ColorScaleLevel
+{
+	/**
+	 * The count of the rows in a tile.
+	 */
+	public static final int	TILE_ROWS	= 32;
+	/**
+	 * The random generator, which is split for each call.
+	 */
+	protected SplitMix		random;
+
+	/**
+	 * Construct an instance of <tt>AbstractNoiseGenerator</tt> with an
+	 * unique seed.
+	 */
+	protected AbstractNoiseGenerator()
+	{
+		random = new SplitMix();
+	}
+
+	/**
+	 * Returns the sampler of the noise random biases with the current
+	 * parameters, which is called once at the start of each call.
+	 * 
+	 * @return the sampler
+	 */
+	protected abstract Sampler sampler();
+
+	/**
+	 * Set the seed of the random generator, the following calls generate the
+	 * same sequence of the noises as the calls after the other setting of the
+	 * same seed.
+	 * 
+	 * @param seed
+	 *            the seed
+	 */
+	public synchronized void setSeed(long seed)
+	{
+		random = new SplitMix(seed);
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public Image operate(Image source) throws IllegalImageTypeException
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		final boolean[][] binary;
+		final byte[][][] channels;
+		Image result;
+		if (source instanceof BinaryImage)
+		{
+			result = source.clone();
+			binary = ((BinaryImage) result).getBinaryMatrix();
+			channels = null;
+		}
+		else if (source instanceof GrayImage)
+		{
+			result = source.clone();
+			binary = null;
+			channels = new byte[][][] { ((GrayImage) result).getGrayMatrix() };
+		}
+		else if (source instanceof ColorImage)
+		{
+			ColorImage ci = ((ColorImage) source).clone();
+			result = ci;
+			binary = null;
+			channels = new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+					ci.getBlueMatrix() };
+		}
+		else
+			throw new IllegalImageTypeException(getClass(), source.getClass());
+		final Sampler sampler = sampler();
+		final int tiles = (height + TILE_ROWS - 1) / TILE_ROWS;
+		final SplitMix[] randoms = new SplitMix[tiles];
+		synchronized (this)
+		{
+			SplitMix root = random.split();
+			for (int t = 0; t < tiles; t++)
+				randoms[t] = root.split();
+		}
+		ParallelUtils.forEach(tiles, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int tile)
+			{
+				SplitMix r = randoms[tile];
+				for (int y = tile * TILE_ROWS, yt = Math.min(height, y
+						+ TILE_ROWS); y < yt; y++)
+					if (binary != null)
+					{
+						boolean[] row = binary[y];
+						for (int x = 0; x < width; x++)
+							row[x] = (int) ((row[x] ? COLOR_SCALE_LEVEL - 1 : 0) + sampler
+									.bias(r)) > 127;
+					}
+					else
+						for (int x = 0; x < width; x++)
+							for (int c = 0; c < channels.length; c++)
+							{
+								byte[] row = channels[c][y];
+								int v = (int) ((row[x] & 0xff) + sampler.bias(r));
+								row[x] = (byte) (v < 0 ? 0
+										: (v < COLOR_SCALE_LEVEL ? v
+												: COLOR_SCALE_LEVEL - 1));
+							}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * The sampler of the noise random biases.
+	 * <p>
+	 * The sampler is shared by the tiles of a call, so it must not be modified
+	 * by the sampling.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	protected static interface Sampler
+	{
+		/**
+		 * Returns the noise random bias.
+		 * 
+		 * @param random
+		 *            the random generator of the current tile
+		 * @return the noise random bias
+		 */
+		double bias(SplitMix random);
+	}
+}
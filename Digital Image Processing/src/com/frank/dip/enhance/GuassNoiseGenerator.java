@@ -6,24 +6,19 @@
  */
 package com.frank.dip.enhance;
 
-import java.util.Random;
-
-import com.frank.dip.BinaryImage;
-import com.frank.dip.ColorImage;
-import com.frank.dip.GrayImage;
-import com.frank.dip.IllegalImageTypeException;
-import com.frank.dip.Image;
-import com.frank.dip.ImageOperate;
+import com.frank.dip.math.SplitMix;
 
 /**
  * The Guass distribution subjected noise generator.
  * <p>
+ * The standard normal variates are generated by the ziggurat method of
+ * {@linkplain SplitMix#nextGaussian()}.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class GuassNoiseGenerator implements ImageOperate<Image, Image>
+public class GuassNoiseGenerator extends AbstractNoiseGenerator
 {
 	/**
 	 * The parameter of mean: <code>&mu;</code>
@@ -33,10 +28,6 @@ public class GuassNoiseGenerator implements ImageOperate<Image, Image>
 	 * The parameter of standard deviation: <code>&sigma;</code>
 	 */
 	protected double	sigma;
-	/**
-	 * The random generator.
-	 */
-	protected Random	random;
 
 	/**
 	 * Construct an instance of <tt>GuassNoiseGenerator</tt>.
@@ -50,66 +41,23 @@ public class GuassNoiseGenerator implements ImageOperate<Image, Image>
 	{
 		this.mu = mu;
 		this.sigma = sigma;
-		random = new Random();
 	}
 
 	/**
-	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 * @see com.frank.dip.enhance.AbstractNoiseGenerator#sampler()
 	 */
 	@Override
-	public Image operate(Image source) throws IllegalImageTypeException
-	{
-		if (source instanceof GrayImage)
-			return operateGray((GrayImage) source);
-		if (source instanceof ColorImage)
-			return operateColor((ColorImage) source);
-		if (source instanceof GrayImage)
-			return operateBinary((BinaryImage) source);
-		throw new IllegalImageTypeException(getClass(), source.getClass());
-	}
-
-	private GrayImage operateGray(GrayImage source)
-	{
-		GrayImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
-				res.setPixel(x, y, (int) (source.getPixel(x, y) + bias()));
-		return res;
-	}
-
-	private BinaryImage operateBinary(BinaryImage source)
+	protected Sampler sampler()
 	{
-		BinaryImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
-				res.setPixel(x, y, (int) (source.getPixel(x, y) + bias()));
-		return res;
-	}
-
-	private ColorImage operateColor(ColorImage source)
-	{
-		ColorImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
+		final double mu = this.mu, sigma = this.sigma;
+		return new Sampler()
+		{
+			@Override
+			public double bias(SplitMix random)
 			{
-				res.setRed(x, y, (int) (source.getBlue(x, y) + bias()));
-				res.setGreen(x, y, (int) (source.getGreen(x, y) + bias()));
-				res.setBlue(x, y, (int) (source.getBlue(x, y) + bias()));
+				return random.nextGaussian() * sigma + mu;
 			}
-		return res;
-	}
-
-	/**
-	 * Returns the noise random bias.
-	 * 
-	 * @return the noise random bias.
-	 */
-	protected double bias()
-	{
-		double b = random.nextGaussian();
-		b *= sigma;
-		b += mu;
-		return b;
+		};
 	}
 
 	/**
@@ -6,43 +6,42 @@
  */
 package com.frank.dip.enhance;
 
-import java.util.Random;
-
-import com.frank.dip.BinaryImage;
-import com.frank.dip.ColorImage;
-import com.frank.dip.GrayImage;
-import com.frank.dip.Image;
-import com.frank.dip.ImageOperate;
+import com.frank.dip.math.AliasTable;
 import com.frank.dip.math.Function;
+import com.frank.dip.math.SplitMix;
 
 /**
  * The image noise generator.
  * <p>
  * In this class, the normal procedure of the image noise generatinng is
- * defined.
+ * defined. The probability distribution function of the noise is sampled at
+ * the centers of {@linkplain #BINS} bins between the minimum and the maximum
+ * into an {@linkplain AliasTable}, so each bias costs a bin sampled in
+ * constant time and a uniform offset in the bin. The table is built once at
+ * the start of each call and shared by the tiles.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class NoiseGenerator implements ImageOperate<Image, Image>
+public class NoiseGenerator extends AbstractNoiseGenerator
 {
 	/**
-	 * The probability distribution function of the noise.
+	 * The count of the bins of the probability distribution function.
 	 */
-	protected Function	pdf;
+	public static final int		BINS	= 4096;
 	/**
-	 * The random generator.
+	 * The probability distribution function of the noise.
 	 */
-	protected Random	random;
+	protected Function			pdf;
 	/**
 	 * The minimum value of the generated noise.
 	 */
-	protected double	minimum;
+	protected double			minimum;
 	/**
 	 * The maximum value of the generated nose.
 	 */
-	protected double	maximum;
+	protected double			maximum;
 
 	/**
 	 * Construct an instance of <tt>NoiseGenerator</tt>.
@@ -53,78 +52,40 @@ public class NoiseGenerator implements ImageOperate<Image, Image>
 	public NoiseGenerator(Function pdf)
 	{
 		this.pdf = pdf;
-		random = new Random();
 	}
 
 	/**
-	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 * Returns the sampler of the alias table of the bins between the current
+	 * bounds.
+	 * 
+	 * @see com.frank.dip.enhance.AbstractNoiseGenerator#sampler()
 	 */
 	@Override
-	public Image operate(Image source)
-	{
-		if (source instanceof GrayImage)
-			return operateGray((GrayImage) source);
-		if (source instanceof ColorImage)
-			return operateColor((ColorImage) source);
-		if (source instanceof GrayImage)
-			return operateBinary((BinaryImage) source);
-		throw new IllegalArgumentException(String.format(
-				"Unsupported image type: %s", source.getClass()));
-	}
-
-	private GrayImage operateGray(GrayImage source)
-	{
-		GrayImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
-				res.setPixel(x, y, (int) (source.getPixel(x, y) + bias()));
-		return res;
-	}
-
-	private BinaryImage operateBinary(BinaryImage source)
-	{
-		BinaryImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
-				res.setPixel(x, y, (int) (source.getPixel(x, y) + bias()));
-		return res;
-	}
-
-	private ColorImage operateColor(ColorImage source)
+	protected Sampler sampler()
 	{
-		ColorImage res = source.clone();
-		for (int y = 0; y < res.getHeight(); y++)
-			for (int x = 0; x < res.getWidth(); x++)
+		final double min = minimum, max = maximum;
+		if (!(max > min))
+			return new Sampler()
 			{
-				res.setRed(x, y, (int) (source.getBlue(x, y) + bias()));
-				res.setGreen(x, y, (int) (source.getGreen(x, y) + bias()));
-				res.setBlue(x, y, (int) (source.getBlue(x, y) + bias()));
-			}
-		return res;
-	}
-
-	private double rand(double min, double max)
-	{
-		return random.nextDouble() * (max - min) + min;
-	}
-
-	/**
-	 * Returns the noise random bias.
-	 * 
-	 * @return the noise random bias.
-	 */
-	protected double bias()
-	{
-		double x, y, p;
-		do
+				@Override
+				public double bias(SplitMix random)
+				{
+					return min;
+				}
+			};
+		final double step = (max - min) / BINS;
+		double[] weights = new double[BINS];
+		for (int i = 0; i < BINS; i++)
+			weights[i] = Math.max(0, pdf.function(min + (i + 0.5) * step));
+		final AliasTable table = new AliasTable(weights);
+		return new Sampler()
 		{
-			x = rand(minimum, maximum);
-			y = pdf.function(x);
-			p = rand(0, y);
-		}
-		while (p > y);
-		random.nextGaussian();
-		return x;
+			@Override
+			public double bias(SplitMix random)
+			{
+				return min + (table.next(random) + random.nextDouble()) * step;
+			}
+		};
 	}
 
 	/**
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AbstractArithmetic.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance.arithmetic;
+
+/**
+ * The arithmetic calculation with a bulk kernel over the rows of the pixels.
+ * <p>
+ * The default kernel looks the results up in the 256&times;256 table of
+ * {@linkplain #calculate(int, int)}, which is built at the first use and
+ * limited in the range of <code>[0, 255]</code>. The subclasses of the simple
+ * calculations override the kernel with the branch-free saturating loop
+ * which the JIT compiler is able to vectorize, and the subclasses of the
+ * parameterized calculations invoke {@linkplain #invalidate()} when the
+ * parameters are changed.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class AbstractArithmetic implements Arithmetic
+{
+	/**
+	 * The table of the results indexed by <code>left &lt;&lt; 8 | right</code>,
+	 * <code>null</code> if it is not built.
+	 */
+	private volatile byte[]	table;
+
+	/**
+	 * Returns the 256&times;256 table of the results indexed by
+	 * <code>left &lt;&lt; 8 | right</code>. The returned table is shared and
+	 * shall not be modified.
+	 * 
+	 * @return the table of the results
+	 */
+	public byte[] table()
+	{
+		byte[] table = this.table;
+		if (table == null)
+			this.table = table = table(this);
+		return table;
+	}
+
+	/**
+	 * Invalidate the table of the results, the subclasses should invoke it
+	 * when the parameters of the calculation are changed.
+	 */
+	protected void invalidate()
+	{
+		table = null;
+	}
+
+	/**
+	 * Calculate the results of the specified row of the pixels,
+	 * <code>result[i] = left[i] &oplus; right[i]</code> for <code>i</code>
+	 * in <code>[0, length)</code>. The result row may be one of the operand
+	 * rows.
+	 * 
+	 * @param left
+	 *            the left row
+	 * @param right
+	 *            the right row
+	 * @param result
+	 *            the result row
+	 * @param length
+	 *            the count of the pixels to calculate
+	 */
+	public void calculate(byte[] left, byte[] right, byte[] result, int length)
+	{
+		lookup(table(), left, right, result, length);
+	}
+
+	/**
+	 * Returns the 256&times;256 table of the results of the specified
+	 * arithmetic calculation, the results are limited in the range of
+	 * <code>[0, 255]</code>.
+	 * 
+	 * @param arithmetic
+	 *            the arithmetic calculation
+	 * @return the table indexed by <code>left &lt;&lt; 8 | right</code>
+	 */
+	public static byte[] table(Arithmetic arithmetic)
+	{
+		byte[] table = new byte[COLOR_SCALE_LEVEL * COLOR_SCALE_LEVEL];
+		for (int l = 0, i = 0; l < COLOR_SCALE_LEVEL; l++)
+			for (int r = 0; r < COLOR_SCALE_LEVEL; r++, i++)
+			{
+				int v = arithmetic.calculate(l, r);
+				table[i] = (byte) (v < 0 ? 0 : (v < COLOR_SCALE_LEVEL ? v
+						: COLOR_SCALE_LEVEL - 1));
+			}
+		return table;
+	}
+
+	/**
+	 * Calculate the results of the specified row of the pixels by the
+	 * specified table.
+	 * 
+	 * @param table
+	 *            the table indexed by <code>left &lt;&lt; 8 | right</code>
+	 * @param left
+	 *            the left row
+	 * @param right
+	 *            the right row
+	 * @param result
+	 *            the result row
+	 * @param length
+	 *            the count of the pixels to calculate
+	 */
+	public static void lookup(byte[] table, byte[] left, byte[] right,
+			byte[] result, int length)
+	{
+		for (int i = 0; i < length; i++)
+			result[i] = table[(left[i] & 0xff) << 8 | (right[i] & 0xff)];
+	}
+}
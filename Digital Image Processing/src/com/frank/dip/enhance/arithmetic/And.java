@@ -11,7 +11,7 @@ package com.frank.dip.enhance.arithmetic;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class And implements Arithmetic
+public class And extends AbstractArithmetic
 {
 	/**
 	 * Returns the result of the calculation {@code left} - {@code right}.
@@ -23,4 +23,17 @@ public class And implements Arithmetic
 	{
 		return (left & right) & 0xff;
 	}
+
+	/**
+	 * Calculate the bitwise results of the specified row of the pixels.
+	 * 
+	 * @see com.frank.dip.enhance.arithmetic.AbstractArithmetic#calculate(byte[],
+	 *      byte[], byte[], int)
+	 */
+	@Override
+	public void calculate(byte[] left, byte[] right, byte[] result, int length)
+	{
+		for (int i = 0; i < length; i++)
+			result[i] = (byte) (left[i] & right[i]);
+	}
 }
@@ -5,14 +5,25 @@
  */
 package com.frank.dip.enhance.arithmetic;
 
+import java.util.Arrays;
+
 import com.frank.dip.BinaryImage;
 import com.frank.dip.ColorImage;
 import com.frank.dip.GrayImage;
 import com.frank.dip.IllegalImageTypeException;
 import com.frank.dip.Image;
+import com.frank.dip.ParallelUtils;
 
 /**
  * The arithmetic enhance algorithm processor.
+ * <p>
+ * The channel rows are calculated in parallel bands by the bulk kernel of the
+ * {@linkplain AbstractArithmetic}, or by the 256&times;256 table of the
+ * other arithmetic calculations built for each call. The results are
+ * limited in the range of <code>[0, 255]</code>, the alpha channel of the
+ * color result is opaque. The result may be written into a given image,
+ * which may be one of the operands.
+ * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
@@ -46,63 +57,153 @@ public class ArithmeticEnhance
 	public <T extends Image> T operate(T left, T right)
 			throws IllegalImageTypeException
 	{
-		int width = left.getWidth();
-		int height = right.getHeight();
-		if (width > right.getWidth())
-			width = right.getWidth();
-		if (height > right.getHeight())
-			height = right.getHeight();
+		return operate(left, right, null);
+	}
+
+	/**
+	 * Perform the arithmetic enhance to the specified image, the result is
+	 * written into the specified image.
+	 * <p>
+	 * The result image may be <code>left</code> or <code>right</code> to
+	 * perform the arithmetic in place, the pixels beyond the common region
+	 * of the operands are kept.
+	 * </p>
+	 * 
+	 * @param left
+	 *            the left image to process
+	 * @param right
+	 *            the right image to process
+	 * @param result
+	 *            the image of the result, a new image is created if it is
+	 *            <code>null</code>
+	 * @return the image of the result
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 * @throws IllegalArgumentException
+	 *             if the result image is smaller than the common region of
+	 *             the operands
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Image> T operate(T left, T right, T result)
+			throws IllegalImageTypeException
+	{
+		final int width = Math.min(left.getWidth(), right.getWidth());
+		final int height = Math.min(left.getHeight(), right.getHeight());
+		if (result != null
+				&& (result.getWidth() < width || result.getHeight() < height))
+			throw new IllegalArgumentException(String.format(
+					"The result image %dx%d is smaller than %dx%d.",
+					result.getWidth(), result.getHeight(), width, height));
+		if (left instanceof BinaryImage)
+		{
+			if (!(right instanceof BinaryImage))
+				throw new IllegalImageTypeException(getClass(),
+						right.getClass());
+			BinaryImage bi = result == null ? new BinaryImage(width, height)
+					: (BinaryImage) result;
+			operateBinary(((BinaryImage) left).getBinaryMatrix(),
+					((BinaryImage) right).getBinaryMatrix(),
+					bi.getBinaryMatrix(), width, height);
+			bi.modified();
+			return (T) bi;
+		}
+		final byte[][][] lefts, rights, results;
+		Image res;
 		if (left instanceof GrayImage)
 		{
-			GrayImage gi = new GrayImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					gi.setPixel(
-							x,
-							y,
-							arithmetic.calculate(left.getPixel(x, y),
-									right.getPixel(x, y)));
-			return (T) gi;
+			if (!(right instanceof GrayImage))
+				throw new IllegalImageTypeException(getClass(),
+						right.getClass());
+			GrayImage gi = result == null ? new GrayImage(width, height)
+					: (GrayImage) result;
+			lefts = new byte[][][] { ((GrayImage) left).getGrayMatrix() };
+			rights = new byte[][][] { ((GrayImage) right).getGrayMatrix() };
+			results = new byte[][][] { gi.getGrayMatrix() };
+			res = gi;
 		}
-		if (left instanceof ColorImage)
+		else if (left instanceof ColorImage)
 		{
+			if (!(right instanceof ColorImage))
+				throw new IllegalImageTypeException(getClass(),
+						right.getClass());
 			ColorImage _left = (ColorImage) left;
 			ColorImage _right = (ColorImage) right;
-			ColorImage ci = new ColorImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
+			ColorImage ci = result == null ? new ColorImage(width, height)
+					: (ColorImage) result;
+			lefts = new byte[][][] { _left.getRedMatrix(),
+					_left.getGreenMatrix(), _left.getBlueMatrix() };
+			rights = new byte[][][] { _right.getRedMatrix(),
+					_right.getGreenMatrix(), _right.getBlueMatrix() };
+			results = new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+					ci.getBlueMatrix(), ci.getAlphaMatrix() };
+			res = ci;
+		}
+		else
+			throw new IllegalImageTypeException(getClass(), left.getClass());
+		final AbstractArithmetic bulk = arithmetic instanceof AbstractArithmetic
+				? (AbstractArithmetic) arithmetic : null;
+		final byte[] table = bulk == null ? AbstractArithmetic
+				.table(arithmetic) : null;
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
 				{
-					ci.setAlpha(x, y, 255);
-					ci.setRed(
-							x,
-							y,
-							arithmetic.calculate(_left.getRed(x, y),
-									_right.getRed(x, y)));
-					ci.setGreen(
-							x,
-							y,
-							arithmetic.calculate(_left.getGreen(x, y),
-									_right.getGreen(x, y)));
-					ci.setBlue(
-							x,
-							y,
-							arithmetic.calculate(_left.getBlue(x, y),
-									_right.getBlue(x, y)));
+					for (int c = 0; c < lefts.length; c++)
+						if (bulk != null)
+							bulk.calculate(lefts[c][y], rights[c][y],
+									results[c][y], width);
+						else
+							AbstractArithmetic.lookup(table, lefts[c][y],
+									rights[c][y], results[c][y], width);
+					if (results.length > lefts.length)
+						Arrays.fill(results[lefts.length][y], 0, width,
+								(byte) 0xff);
 				}
-			return (T) ci;
-		}
-		if (left instanceof BinaryImage)
+			}
+		});
+		res.modified();
+		return (T) res;
+	}
+
+	/**
+	 * Perform the arithmetic enhance to the binary matrices, the pixels are
+	 * calculated as 0 or 255 and the results greater than 127 are
+	 * <tt>true</tt>.
+	 * 
+	 * @param left
+	 *            the left matrix
+	 * @param right
+	 *            the right matrix
+	 * @param result
+	 *            the result matrix
+	 * @param width
+	 *            the width of the common region
+	 * @param height
+	 *            the height of the common region
+	 */
+	private void operateBinary(final boolean[][] left,
+			final boolean[][] right, final boolean[][] result,
+			final int width, int height)
+	{
+		final boolean[] truth = new boolean[4];
+		for (int i = 0; i < 4; i++)
+			truth[i] = arithmetic.calculate((i & 2) == 0 ? 0 : 255,
+					(i & 1) == 0 ? 0 : 255) > 127;
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
 		{
-			BinaryImage bi = new BinaryImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					bi.setPixel(
-							x,
-							y,
-							arithmetic.calculate(left.getPixel(x, y),
-									right.getPixel(x, y)));
-			return (T) bi;
-		}
-		throw new IllegalImageTypeException(getClass(), left.getClass());
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					boolean[] l = left[y], r = right[y], d = result[y];
+					for (int x = 0; x < width; x++)
+						d[x] = truth[(l[x] ? 2 : 0) | (r[x] ? 1 : 0)];
+				}
+			}
+		});
 	}
 }
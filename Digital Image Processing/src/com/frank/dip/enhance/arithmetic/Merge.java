@@ -6,7 +6,10 @@
  */
 package com.frank.dip.enhance.arithmetic;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 
 import com.frank.dip.BinaryImage;
 import com.frank.dip.ColorImage;
@@ -14,6 +17,8 @@ import com.frank.dip.ColorScaleLevel;
 import com.frank.dip.GrayImage;
 import com.frank.dip.IllegalImageTypeException;
 import com.frank.dip.Image;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.io.ImageIO;
 
 /**
  * The image merging implementation.
@@ -21,12 +26,93 @@ import com.frank.dip.Image;
  * This operator can merge a collection of images to produce a new image with
  * the average value of each original pixel.
  * </p>
+ * <p>
+ * The images are merged as a stream, each image is accumulated into the flat
+ * buffers of the pixels in parallel row bands and released before the next
+ * one is read, so the memory is bounded by one image and the accumulators
+ * whatever the count of the images is. The pixels are combined by the
+ * {@linkplain Combination}: the mean takes 8 bytes per pixel and channel,
+ * the approximate median and the sigma-clipped mean count the pixels in the
+ * per-pixel histograms of {@linkplain #getBins()} bins in addition, which
+ * take 2 bytes per bin, pixel and channel, the median tracks the minimum and
+ * maximum of the pixels in 2 more bytes per pixel and channel, and they merge
+ * at most {@linkplain #MAXIMUM_HISTOGRAM_IMAGES} images.
+ * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
 public class Merge
 {
+	/**
+	 * The combination of the pixels of the merged images.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static enum Combination
+	{
+		/**
+		 * The mean of the pixels.
+		 */
+		MEAN,
+		/**
+		 * The mean of the pixels in <code>&mu; &plusmn; &kappa;&sigma;</code>,
+		 * which is iterated with the mean and the standard deviation of the
+		 * remained pixels. The pixels are clipped by the whole histogram bins
+		 * beyond the bounds, the bins across the bounds are kept.
+		 */
+		SIGMA_CLIPPED_MEAN,
+		/**
+		 * The median of the pixels interpolated in the histogram bins, which
+		 * is exact if the count of the bins is 256.
+		 */
+		MEDIAN
+	}
+
+	/**
+	 * The maximum count of the images merged with the histograms.
+	 */
+	public static final int	MAXIMUM_HISTOGRAM_IMAGES	= Character.MAX_VALUE;
+	/**
+	 * The combination of the pixels.
+	 */
+	protected Combination	combination;
+	/**
+	 * The count of the histogram bins.
+	 */
+	protected int			bins;
+	/**
+	 * The clipping factor <code>&kappa;</code> of the standard deviation.
+	 */
+	protected double		kappa;
+	/**
+	 * The maximum count of the clipping iterations.
+	 */
+	protected int			iterations;
+
+	/**
+	 * Construct an instance of <tt>Merge</tt> with the mean combination.
+	 */
+	public Merge()
+	{
+		this(Combination.MEAN);
+	}
+
+	/**
+	 * Construct an instance of <tt>Merge</tt>.
+	 * 
+	 * @param combination
+	 *            the combination of the pixels
+	 */
+	public Merge(Combination combination)
+	{
+		this.combination = combination;
+		bins = 32;
+		kappa = 3;
+		iterations = 5;
+	}
+
 	/**
 	 * Merge the specified images.
 	 * <p>
@@ -54,17 +140,19 @@ public class Merge
 	 * </tr>
 	 * </table>
 	 * </p>
+	 * <p>
+	 * A single image is merged as the collections do, a new merged image is
+	 * returned instead of the specified one.
+	 * </p>
 	 * 
 	 * @param images
 	 *            the specified images to merge
-	 * @return the merged image
+	 * @return the merged image, <code>null</code> if no image is specified
 	 */
 	public Image operate(Image... images)
 	{
 		if (images.length < 1)
 			return null;
-		if (images.length < 2)
-			return images[0];
 		ArrayList<Image> array = new ArrayList<>(images.length);
 		for (Image image : images)
 			array.add(image);
@@ -107,83 +195,532 @@ public class Merge
 	{
 		if (images.isEmpty())
 			throw new IllegalArgumentException("The image collection can not be empty.");
-		Image first = images.iterator().next();
-		int width = first.getWidth();
-		int height = first.getHeight();
-		double size = images.size();
-		long[][] data = new long[height][width];
-		String errorFormat = "The image size(%d,%d) is not agreed with (%d, %d).";
-		// binary image
-		if (first instanceof BinaryImage)
+		return operate(images.iterator());
+	}
+
+	/**
+	 * Merge the images of the specified iterator as a stream, the images
+	 * should not be referred elsewhere to be released after they are merged.
+	 * <p>
+	 * The before and after merging image type comparison table is the same as
+	 * {@linkplain #operate(java.util.Collection)}.
+	 * </p>
+	 * 
+	 * @param images
+	 *            the iterator of the images to merge
+	 * @return the merged image
+	 * @throws IllegalArgumentException
+	 *             if the iterator is empty or the image sizes are not agreed
+	 * @throws IllegalImageTypeException
+	 *             if the image types are not supported or not agreed
+	 */
+	public Image operate(Iterator<? extends Image> images)
+	{
+		if (!images.hasNext())
+			throw new IllegalArgumentException("The image collection can not be empty.");
+		Stack stack = null;
+		while (images.hasNext())
+		{
+			Image image = images.next();
+			if (stack == null)
+				stack = new Stack(image);
+			stack.add(image);
+		}
+		return stack.result();
+	}
+
+	/**
+	 * Merge the image files of the specified iterator as a stream, each file
+	 * is read when the former image is merged.
+	 * 
+	 * @param files
+	 *            the iterator of the image files to merge
+	 * @return the merged image
+	 * @throws IOException
+	 *             if I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if the iterator is empty or the image sizes are not agreed
+	 * @throws IllegalImageTypeException
+	 *             if the image types are not supported or not agreed
+	 * @see #operate(Iterator)
+	 */
+	public Image operateFiles(Iterator<File> files) throws IOException
+	{
+		if (!files.hasNext())
+			throw new IllegalArgumentException("The image collection can not be empty.");
+		Stack stack = null;
+		while (files.hasNext())
 		{
-			for (Image image : images)
+			Image image = ImageIO.read(files.next());
+			if (stack == null)
+				stack = new Stack(image);
+			stack.add(image);
+		}
+		return stack.result();
+	}
+
+	/**
+	 * Returns the combination of the pixels.
+	 * 
+	 * @return the combination
+	 */
+	public Combination getCombination()
+	{
+		return combination;
+	}
+
+	/**
+	 * Set the combination of the pixels.
+	 * 
+	 * @param combination
+	 *            the combination
+	 */
+	public void setCombination(Combination combination)
+	{
+		this.combination = combination;
+	}
+
+	/**
+	 * Returns the count of the histogram bins.
+	 * 
+	 * @return the count of the bins
+	 */
+	public int getBins()
+	{
+		return bins;
+	}
+
+	/**
+	 * Set the count of the histogram bins, 256 bins count each level.
+	 * <p>
+	 * The median is interpolated as if the pixels were spread evenly over
+	 * the levels of its bin clamped to the minimum and maximum of the pixel,
+	 * so it is exact for 256 bins and the stacks of identical pixels, and
+	 * otherwise biased toward the middle of the bin by less than the bin
+	 * width if the pixels cluster at one end of the bin.
+	 * </p>
+	 * 
+	 * @param bins
+	 *            the count of the bins in <code>[1, 256]</code>
+	 */
+	public void setBins(int bins)
+	{
+		if (bins < 1 || bins > ColorScaleLevel.COLOR_SCALE_LEVEL)
+			throw new IllegalArgumentException(String.format(
+					"The count of the bins %d is not in [1, %d].", bins,
+					ColorScaleLevel.COLOR_SCALE_LEVEL));
+		this.bins = bins;
+	}
+
+	/**
+	 * Returns the clipping factor <code>&kappa;</code>.
+	 * 
+	 * @return the clipping factor
+	 */
+	public double getKappa()
+	{
+		return kappa;
+	}
+
+	/**
+	 * Set the clipping factor <code>&kappa;</code>.
+	 * 
+	 * @param kappa
+	 *            the positive clipping factor
+	 */
+	public void setKappa(double kappa)
+	{
+		if (!(kappa > 0))
+			throw new IllegalArgumentException(String.format(
+					"The clipping factor %f must be positive.", kappa));
+		this.kappa = kappa;
+	}
+
+	/**
+	 * Returns the maximum count of the clipping iterations.
+	 * 
+	 * @return the maximum count of the iterations
+	 */
+	public int getIterations()
+	{
+		return iterations;
+	}
+
+	/**
+	 * Set the maximum count of the clipping iterations, the iteration stops
+	 * early if no more bin is clipped.
+	 * 
+	 * @param iterations
+	 *            the positive maximum count of the iterations
+	 */
+	public void setIterations(int iterations)
+	{
+		if (iterations < 1)
+			throw new IllegalArgumentException(String.format(
+					"The count of the iterations %d must be positive.",
+					iterations));
+		this.iterations = iterations;
+	}
+
+	/**
+	 * The accumulators of the merged images.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private final class Stack implements ColorScaleLevel
+	{
+		/**
+		 * The type of the first image.
+		 */
+		private final Class<?>		type;
+		/**
+		 * The image width.
+		 */
+		private final int			width;
+		/**
+		 * The image height.
+		 */
+		private final int			height;
+		/**
+		 * The combination of the pixels.
+		 */
+		private final Combination	combination;
+		/**
+		 * The count of the histogram bins.
+		 */
+		private final int			bins;
+		/**
+		 * The clipping factor.
+		 */
+		private final double		kappa;
+		/**
+		 * The maximum count of the clipping iterations.
+		 */
+		private final int			iterations;
+		/**
+		 * The sums of the channels.
+		 */
+		private final long[][]		sums;
+		/**
+		 * The sums of the squares of the channels, <code>null</code> unless
+		 * the pixels are sigma-clipped.
+		 */
+		private final long[][]		squares;
+		/**
+		 * The histograms of the channels, <code>null</code> for the mean.
+		 */
+		private final char[][]		histograms;
+		/**
+		 * The minimum levels of the channels, <code>null</code> unless the
+		 * median is combined.
+		 */
+		private final byte[][]		lows;
+		/**
+		 * The maximum levels of the channels, <code>null</code> unless the
+		 * median is combined.
+		 */
+		private final byte[][]		highs;
+		/**
+		 * The sums of the alpha channel, <code>null</code> unless the images
+		 * are colored.
+		 */
+		private final long[]		alpha;
+		/**
+		 * The count of the merged images.
+		 */
+		private int					count;
+
+		/**
+		 * Construct an instance of <tt>Stack</tt> for the images of the
+		 * specified first image.
+		 * 
+		 * @param first
+		 *            the first image
+		 * @throws IllegalImageTypeException
+		 *             if the image type is not supported
+		 */
+		private Stack(Image first)
+		{
+			if (first instanceof BinaryImage)
+				type = BinaryImage.class;
+			else if (first instanceof GrayImage)
+				type = GrayImage.class;
+			else if (first instanceof ColorImage)
+				type = ColorImage.class;
+			else
+				throw new IllegalImageTypeException(Merge.class,
+						first.getClass());
+			width = first.getWidth();
+			height = first.getHeight();
+			combination = Merge.this.combination;
+			bins = Merge.this.bins;
+			kappa = Merge.this.kappa;
+			iterations = Merge.this.iterations;
+			int channels = type == ColorImage.class ? 3 : 1;
+			int size = width * height;
+			if (combination != Combination.MEAN
+					&& (long) size * bins > Integer.MAX_VALUE)
+				throw new IllegalArgumentException(String.format(
+						"The histograms of %d bins of %dx%d pixels are too large.",
+						bins, width, height));
+			sums = new long[channels][size];
+			squares = combination == Combination.SIGMA_CLIPPED_MEAN
+					? new long[channels][size] : null;
+			histograms = combination == Combination.MEAN ? null
+					: new char[channels][size * bins];
+			lows = combination == Combination.MEDIAN ? new byte[channels][size]
+					: null;
+			highs = combination == Combination.MEDIAN ? new byte[channels][size]
+					: null;
+			alpha = type == ColorImage.class ? new long[size] : null;
+		}
+
+		/**
+		 * Accumulate the specified image.
+		 * 
+		 * @param image
+		 *            the image to merge
+		 * @throws IllegalImageTypeException
+		 *             if the image type is not agreed
+		 * @throws IllegalArgumentException
+		 *             if the image size is not agreed or too many images are
+		 *             merged with the histograms
+		 */
+		private void add(Image image)
+		{
+			if (!type.isInstance(image))
+				throw new IllegalImageTypeException(Merge.class,
+						image.getClass());
+			if (image.getWidth() != width || image.getHeight() != height)
+				throw new IllegalArgumentException(String.format(
+						"The image size(%d,%d) is not agreed with (%d, %d).",
+						image.getWidth(), image.getHeight(), width, height));
+			if (histograms != null && count == MAXIMUM_HISTOGRAM_IMAGES)
+				throw new IllegalArgumentException(String.format(
+						"At most %d images can be merged with the histograms.",
+						MAXIMUM_HISTOGRAM_IMAGES));
+			final boolean[][] binary;
+			final byte[][][] planes;
+			final byte[][] alphas;
+			final boolean first = count == 0;
+			if (image instanceof BinaryImage)
+			{
+				binary = ((BinaryImage) image).getBinaryMatrix();
+				planes = null;
+				alphas = null;
+			}
+			else if (image instanceof GrayImage)
+			{
+				binary = null;
+				planes = new byte[][][] { ((GrayImage) image).getGrayMatrix() };
+				alphas = null;
+			}
+			else
 			{
-				if (image.getWidth() != width || image.getHeight() != height)
-					throw new IllegalArgumentException(String.format(errorFormat, image.getWidth(),
-							image.getHeight(), width, height));
-				BinaryImage bi = (BinaryImage) image;
-				boolean[][] m = bi.getBinaryMatrix();
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-						if (m[y][x])
-							data[y][x]++;
+				ColorImage ci = (ColorImage) image;
+				binary = null;
+				planes = new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+						ci.getBlueMatrix() };
+				alphas = ci.getAlphaMatrix();
 			}
-			GrayImage image = new GrayImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					image.setPixel(x, y, data[y][x] / size * ColorScaleLevel.COLOR_SCALE_LEVEL);
-			return image;
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int c = 0; c < sums.length; c++)
+					{
+						long[] sum = sums[c];
+						long[] square = squares == null ? null : squares[c];
+						char[] histogram = histograms == null ? null
+								: histograms[c];
+						byte[] low = lows == null ? null : lows[c];
+						byte[] high = highs == null ? null : highs[c];
+						for (int y = y0; y < yt; y++)
+						{
+							boolean[] bits = binary == null ? null : binary[y];
+							byte[] row = planes == null ? null : planes[c][y];
+							for (int x = 0, i = y * width; x < width; x++, i++)
+							{
+								int v = bits == null ? row[x] & 0xff
+										: (bits[x] ? COLOR_SCALE_LEVEL - 1 : 0);
+								sum[i] += v;
+								if (square != null)
+									square[i] += v * v;
+								if (histogram != null)
+									histogram[i * bins + (v * bins >> 8)]++;
+								if (low != null)
+								{
+									if (first || v < (low[i] & 0xff))
+										low[i] = (byte) v;
+									if (first || v > (high[i] & 0xff))
+										high[i] = (byte) v;
+								}
+							}
+						}
+					}
+					if (alphas != null)
+						for (int y = y0; y < yt; y++)
+						{
+							byte[] row = alphas[y];
+							for (int x = 0, i = y * width; x < width; x++, i++)
+								alpha[i] += row[x] & 0xff;
+						}
+				}
+			});
+			count++;
 		}
-		// gray image
-		if (first instanceof GrayImage)
+
+		/**
+		 * Returns the merged image.
+		 * 
+		 * @return the merged image
+		 */
+		private Image result()
 		{
-			for (Image image : images)
+			final byte[][][] planes;
+			final byte[][] alphas;
+			Image result;
+			if (type == ColorImage.class)
 			{
-				if (image.getWidth() != width || image.getHeight() != height)
-					throw new IllegalArgumentException(String.format(errorFormat, image.getWidth(),
-							image.getHeight(), width, height));
-				GrayImage gi = (GrayImage) image;
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-						data[y][x] += gi.getPixel(x, y);
+				ColorImage ci = new ColorImage(width, height);
+				planes = new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+						ci.getBlueMatrix() };
+				alphas = ci.getAlphaMatrix();
+				result = ci;
 			}
-			GrayImage image = new GrayImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					image.setPixel(x, y, data[y][x] / size);
-			return image;
+			else
+			{
+				GrayImage gi = new GrayImage(width, height);
+				planes = new byte[][][] { gi.getGrayMatrix() };
+				alphas = null;
+				result = gi;
+			}
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int y = y0; y < yt; y++)
+						for (int x = 0, i = y * width; x < width; x++, i++)
+						{
+							for (int c = 0; c < planes.length; c++)
+							{
+								double v;
+								switch (combination)
+								{
+									case MEDIAN:
+										v = (rank(c, i, (count - 1) / 2) + rank(
+												c, i, count / 2)) / 2;
+										break;
+									case SIGMA_CLIPPED_MEAN:
+										v = clip(sums[c][i], squares[c][i],
+												histograms[c], i * bins);
+										break;
+									default:
+										v = sums[c][i] / (double) count;
+								}
+								long l = Math.round(v);
+								planes[c][y][x] = (byte) (l < 0 ? 0
+										: (l < COLOR_SCALE_LEVEL ? l
+												: COLOR_SCALE_LEVEL - 1));
+							}
+							if (alphas != null)
+								alphas[y][x] = (byte) Math.round(alpha[i]
+										/ (double) count);
+						}
+				}
+			});
+			return result;
 		}
-		// color image
-		if (first instanceof ColorImage)
+
+		/**
+		 * Returns the pixel of the specified rank interpolated in the
+		 * histogram bin.
+		 * <p>
+		 * The pixels are assumed to be spread evenly over the levels of the
+		 * bin clamped to the minimum and maximum levels of the pixel, so the
+		 * ranks of the stacks of identical pixels are exact.
+		 * </p>
+		 * 
+		 * @param channel
+		 *            the index of the channel
+		 * @param index
+		 *            the index of the pixel
+		 * @param rank
+		 *            the rank of the pixel in <code>[0, count)</code>
+		 * @return the pixel value
+		 */
+		private double rank(int channel, int index, int rank)
 		{
-			long[][] red, green, blue;
-			red = new long[height][width];
-			green = new long[height][width];
-			blue = new long[height][width];
-			for (Image image : images)
+			char[] histogram = histograms[channel];
+			int offset = index * bins;
+			int min = lows[channel][index] & 0xff;
+			int max = highs[channel][index] & 0xff;
+			for (int b = 0, before = 0; b < bins; b++)
 			{
-				if (image.getWidth() != width || image.getHeight() != height)
-					throw new IllegalArgumentException(String.format(errorFormat, image.getWidth(),
-							image.getHeight(), width, height));
-				ColorImage ci = (ColorImage) image;
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						data[y][x] += ci.getAlpha(x, y);
-						red[y][x] += ci.getRed(x, y);
-						green[y][x] += ci.getGreen(x, y);
-						blue[y][x] += ci.getBlue(x, y);
-					}
+				int c = histogram[offset + b];
+				if (rank < before + c)
+				{
+					// the levels v of the bin b satisfy (v * bins >> 8) == b
+					int lo = Math.max((b * COLOR_SCALE_LEVEL + bins - 1)
+							/ bins, min);
+					int hi = Math.min(((b + 1) * COLOR_SCALE_LEVEL - 1)
+							/ bins, max);
+					return lo + (rank - before + 0.5) / c * (hi - lo);
+				}
+				before += c;
+			}
+			return max;
+		}
+
+		/**
+		 * Returns the sigma-clipped mean of the pixel, the sums of the
+		 * clipped bins are estimated by the bin centers.
+		 * 
+		 * @param sum
+		 *            the sum of the pixel
+		 * @param square
+		 *            the sum of the squares of the pixel
+		 * @param histogram
+		 *            the histograms
+		 * @param offset
+		 *            the offset of the histogram of the pixel
+		 * @return the sigma-clipped mean
+		 */
+		private double clip(long sum, long square, char[] histogram,
+				int offset)
+		{
+			double binWidth = COLOR_SCALE_LEVEL / (double) bins;
+			double spread = binWidth * binWidth / 12;
+			double mean = sum / (double) count;
+			double variance = square / (double) count - mean * mean;
+			int clipped = 0;
+			for (int k = 0; k < iterations && variance > 0; k++)
+			{
+				double bound = kappa * Math.sqrt(variance);
+				double low = mean - bound, high = mean + bound;
+				double s = sum, q = square;
+				int n = count;
+				for (int b = 0; b < bins; b++)
+				{
+					int c = histogram[offset + b];
+					double e0 = b * binWidth - 0.5;
+					if (c == 0 || (e0 + binWidth >= low && e0 <= high))
+						continue;
+					double center = e0 + binWidth / 2;
+					n -= c;
+					s -= c * center;
+					q -= c * (center * center + spread);
+				}
+				if (n == count - clipped || n == 0)
+					break;
+				clipped = count - n;
+				mean = s / n;
+				variance = q / n - mean * mean;
 			}
-			ColorImage image = new ColorImage(width, height);
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					image.setPixel(x, y, (int) Math.round(data[y][x] / size),
-							(int) Math.round(red[y][x] / size),
-							(int) Math.round(green[y][x] / size),
-							(int) Math.round(blue[y][x] / size));
-			return image;
+			return mean;
 		}
-		throw new IllegalImageTypeException(getClass(), first.getClass());
 	}
 }
@@ -11,7 +11,7 @@ package com.frank.dip.enhance.arithmetic;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Minus implements Arithmetic
+public class Minus extends AbstractArithmetic
 {
 	/**
 	 * Returns the result of the calculation {@code left} - {@code right}.
@@ -21,7 +21,7 @@ public class Minus implements Arithmetic
 	@Override
 	public int calculate(int left, int right)
 	{
-		int r = left + right;
+		int r = left - right;
 		if (r < 0)
 			return 0;
 		else if (r < COLOR_SCALE_LEVEL)
@@ -29,4 +29,21 @@ public class Minus implements Arithmetic
 		else
 			return COLOR_SCALE_LEVEL - 1;
 	}
+
+	/**
+	 * Calculate the saturating differences of the specified row of the
+	 * pixels.
+	 * 
+	 * @see com.frank.dip.enhance.arithmetic.AbstractArithmetic#calculate(byte[],
+	 *      byte[], byte[], int)
+	 */
+	@Override
+	public void calculate(byte[] left, byte[] right, byte[] result, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			int v = (left[i] & 0xff) - (right[i] & 0xff);
+			result[i] = (byte) (v & ~(v >> 31));
+		}
+	}
 }
@@ -17,7 +17,7 @@ package com.frank.dip.enhance.arithmetic;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Overlying implements Arithmetic
+public class Overlying extends AbstractArithmetic
 {
 	/**
 	 * The &alpha; parameter.
@@ -47,7 +47,7 @@ public class Overlying implements Arithmetic
 	}
 
 	/**
-	 * Set alpha.
+	 * Set alpha, beta is set to <code>1 - alpha</code>.
 	 * 
 	 * @param alpha
 	 *            the value of alpha
@@ -55,6 +55,8 @@ public class Overlying implements Arithmetic
 	public void setAlpha(double alpha)
 	{
 		this.alpha = alpha;
+		beta = 1 - alpha;
+		invalidate();
 	}
 
 	/**
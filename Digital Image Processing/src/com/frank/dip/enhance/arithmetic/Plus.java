@@ -11,7 +11,7 @@ package com.frank.dip.enhance.arithmetic;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Plus implements Arithmetic
+public class Plus extends AbstractArithmetic
 {
 	/**
 	 * Returns the result of the calculation {@code left} + {@code right}.
@@ -29,4 +29,20 @@ public class Plus implements Arithmetic
 		else
 			return COLOR_SCALE_LEVEL - 1;
 	}
+
+	/**
+	 * Calculate the saturating sums of the specified row of the pixels.
+	 * 
+	 * @see com.frank.dip.enhance.arithmetic.AbstractArithmetic#calculate(byte[],
+	 *      byte[], byte[], int)
+	 */
+	@Override
+	public void calculate(byte[] left, byte[] right, byte[] result, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			int v = (left[i] & 0xff) + (right[i] & 0xff);
+			result[i] = (byte) (v | (COLOR_SCALE_LEVEL - 1 - v) >> 31);
+		}
+	}
 }
@@ -9,12 +9,15 @@ package com.frank.dip.enhance.color;
 import com.frank.dip.ColorImage;
 import com.frank.dip.GrayImage;
 import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
 import com.frank.dip.math.Function;
 
 /**
  * The fake color transform translates a gray image to a color image, according
  * the tree transform functions in each channel - red, green and blue.
  * <p>
+ * The functions are compiled into a palette of 256 colors, and the gray image
+ * is mapped by the palette in one pass.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -50,20 +53,54 @@ public class FakeColorTransform implements ImageOperate<GrayImage, ColorImage>
 	@Override
 	public ColorImage operate(GrayImage source)
 	{
-		int width = source.getWidth();
+		final int width = source.getWidth();
 		int height = source.getHeight();
 		ColorImage ci = new ColorImage(width, height);
-		int p;
-		for (int x = 0; x < width; x++)
-			for (int y = 0; y < height; y++)
+		final int[] palette = getPalette();
+		final byte[][] src = source.getGrayMatrix();
+		final byte[][] alpha = ci.getAlphaMatrix();
+		final byte[][] r = ci.getRedMatrix();
+		final byte[][] g = ci.getGreenMatrix();
+		final byte[][] b = ci.getBlueMatrix();
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
 			{
-				p = source.getPixel(x, y);
-				ci.setPixel(x, y, 255, (int) red.function(p),
-						(int) green.function(p), (int) blue.function(p));
+				int p;
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] s = src[y], a = alpha[y], dr = r[y], dg = g[y], db = b[y];
+					for (int x = 0; x < width; x++)
+					{
+						p = palette[s[x] & 0xff];
+						a[x] = (byte) (p >> 24);
+						dr[x] = (byte) (p >> 16);
+						dg[x] = (byte) (p >> 8);
+						db[x] = (byte) p;
+					}
+				}
 			}
+		});
 		return ci;
 	}
 
+	/**
+	 * Returns the palette compiled from the transform functions, the element
+	 * <code>i</code> is the opaque ARGB color of the gray level <code>i</code>.
+	 * 
+	 * @return the palette of 256 colors
+	 */
+	public int[] getPalette()
+	{
+		int[] palette = new int[256];
+		for (int i = 0; i < 256; i++)
+			palette[i] = 0xff000000 | ((int) red.function(i) & 0xff) << 16
+					| ((int) green.function(i) & 0xff) << 8
+					| ((int) blue.function(i) & 0xff);
+		return palette;
+	}
+
 	/**
 	 * Returns a <tt>FakeColorTransform</tt> instance whose color transformation
 	 * is based on sine function and the function divide colors into different
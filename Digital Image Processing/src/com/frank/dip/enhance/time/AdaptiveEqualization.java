@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AdaptiveEqualization.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance.time;
+
+import java.util.Arrays;
+
+import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The contrast limited adaptive histogram equalization (CLAHE).
+ * <p>
+ * Each pixel is equalized by the histogram of its neighbourhood instead of the
+ * histogram of the whole image. The histogram is clipped at
+ * <code>limit &times; area / 256</code> before equalization and the clipped
+ * counts are redistributed to all the bins, which limits the amplification of
+ * the noise in the flat regions. The limit not greater than 0 disables the
+ * clipping.
+ * </p>
+ * <p>
+ * The color image is equalized on each of the red, green and blue channels,
+ * as {@linkplain HistogramNormalization.Color} does.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Zuiderveld, K (1994), "Contrast Limited Adaptive Histogram Equalization",
+ * Graphics Gems IV: 474-485
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class AdaptiveEqualization implements
+		ImageOperate<GrayImage, GrayImage>, ColorScaleLevel
+{
+	/**
+	 * The clip limit relative to the average bin count, default 2.
+	 */
+	protected double	limit;
+
+	/**
+	 * Construct an instance of <tt>AdaptiveEqualization</tt>.
+	 * 
+	 * @param limit
+	 *            the clip limit relative to the average bin count
+	 */
+	protected AdaptiveEqualization(double limit)
+	{
+		this.limit = limit;
+	}
+
+	/**
+	 * The tile based CLAHE.
+	 * <p>
+	 * The image is divided into a grid of tiles. The clipped histograms and the
+	 * 256-entry mapping tables of the tiles are computed in parallel, then each
+	 * pixel is mapped by bilinear blending of the tables of its four nearest
+	 * tile centres.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class Tiled extends AdaptiveEqualization
+	{
+		/**
+		 * The count of tiles in the horizontal and vertical direction.
+		 */
+		protected int	tilesX, tilesY;
+
+		/**
+		 * Construct an instance of <tt>Tiled</tt> with 8 &times; 8 tiles and
+		 * clip limit 2.
+		 */
+		public Tiled()
+		{
+			this(8, 8, 2);
+		}
+
+		/**
+		 * Construct an instance of <tt>Tiled</tt>.
+		 * 
+		 * @param tilesX
+		 *            the count of tiles in the horizontal direction
+		 * @param tilesY
+		 *            the count of tiles in the vertical direction
+		 * @param limit
+		 *            the clip limit relative to the average bin count
+		 */
+		public Tiled(int tilesX, int tilesY, double limit)
+		{
+			super(limit);
+			if (tilesX < 1 || tilesY < 1)
+				throw new IllegalArgumentException(String.format(
+						"The count of tiles(%d, %d) must be positive.",
+						tilesX, tilesY));
+			this.tilesX = tilesX;
+			this.tilesY = tilesY;
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.AdaptiveEqualization#equalize(byte[][],
+		 *      byte[][], int, int)
+		 */
+		@Override
+		protected void equalize(final byte[][] src, final byte[][] dst,
+				final int width, final int height)
+		{
+			final int nx = Math.min(tilesX, width), ny = Math.min(tilesY,
+					height);
+			final byte[][] tables = new byte[nx * ny][];
+			ParallelUtils.forEach(nx * ny, new ParallelUtils.IndexTask()
+			{
+				@Override
+				public void run(int index)
+				{
+					int tx = index % nx, ty = index / nx;
+					int x0 = tx * width / nx, xt = (tx + 1) * width / nx;
+					int y0 = ty * height / ny, yt = (ty + 1) * height / ny;
+					int[] histogram = new int[COLOR_SCALE_LEVEL];
+					for (int y = y0; y < yt; y++)
+					{
+						byte[] row = src[y];
+						for (int x = x0; x < xt; x++)
+							histogram[row[x] & 0xff]++;
+					}
+					tables[index] = table(histogram, (xt - x0) * (yt - y0));
+				}
+			});
+			// the neighbouring tiles and the weights of each column and row
+			final int[] left = new int[width], right = new int[width];
+			final float[] wx = new float[width];
+			neighbours(width, nx, left, right, wx);
+			final int[] top = new int[height], bottom = new int[height];
+			final float[] wy = new float[height];
+			neighbours(height, ny, top, bottom, wy);
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					int p;
+					float fx, fy;
+					for (int y = y0; y < yt; y++)
+					{
+						byte[] s = src[y], d = dst[y];
+						int t0 = top[y] * nx, t1 = bottom[y] * nx;
+						fy = wy[y];
+						for (int x = 0; x < width; x++)
+						{
+							p = s[x] & 0xff;
+							fx = wx[x];
+							float a = (tables[t0 + left[x]][p] & 0xff)
+									* (1 - fx)
+									+ (tables[t0 + right[x]][p] & 0xff) * fx;
+							float b = (tables[t1 + left[x]][p] & 0xff)
+									* (1 - fx)
+									+ (tables[t1 + right[x]][p] & 0xff) * fx;
+							d[x] = (byte) (a * (1 - fy) + b * fy + 0.5f);
+						}
+					}
+				}
+			});
+		}
+
+		/**
+		 * Find the neighbouring tiles and the interpolation weight of each
+		 * position in one dimension.
+		 * 
+		 * @param length
+		 *            the length of the dimension
+		 * @param tiles
+		 *            the count of tiles in the dimension
+		 * @param low
+		 *            the output index of the tile before the position
+		 * @param high
+		 *            the output index of the tile after the position
+		 * @param weight
+		 *            the output weight of the tile after the position
+		 */
+		private static void neighbours(int length, int tiles, int[] low,
+				int[] high, float[] weight)
+		{
+			double[] centre = new double[tiles];
+			for (int t = 0; t < tiles; t++)
+				centre[t] = ((t * length / tiles) + ((t + 1) * length / tiles) - 1) / 2.0;
+			int t = 0;
+			for (int i = 0; i < length; i++)
+			{
+				while (t < tiles - 1 && centre[t + 1] <= i)
+					t++;
+				low[i] = t;
+				if (i <= centre[0] || t == tiles - 1)
+				{
+					// outside of the centres, the nearest table only
+					high[i] = t;
+					weight[i] = 0;
+				}
+				else
+				{
+					high[i] = t + 1;
+					weight[i] = (float) ((i - centre[t]) / (centre[t + 1] - centre[t]));
+				}
+			}
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.AdaptiveEqualization#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			return String.format("CLAHE with %d x %d tiles", tilesX, tilesY);
+		}
+	}
+
+	/**
+	 * The sliding window CLAHE.
+	 * <p>
+	 * Each pixel is mapped by the clipped histogram of the square window
+	 * centred on it. The window histogram is updated incrementally along each
+	 * row, a column of the window is added and another is removed for each
+	 * step, and the rows are processed in parallel bands. The cost of each
+	 * pixel is <code>O(radius + 256)</code>.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class Sliding extends AdaptiveEqualization
+	{
+		/**
+		 * The window radius, the window size is <code>2 * radius + 1</code>.
+		 */
+		protected int	radius;
+
+		/**
+		 * Construct an instance of <tt>Sliding</tt> with radius 32 and clip
+		 * limit 2.
+		 */
+		public Sliding()
+		{
+			this(32, 2);
+		}
+
+		/**
+		 * Construct an instance of <tt>Sliding</tt>.
+		 * 
+		 * @param radius
+		 *            the window radius
+		 * @param limit
+		 *            the clip limit relative to the average bin count
+		 */
+		public Sliding(int radius, double limit)
+		{
+			super(limit);
+			if (radius < 0)
+				throw new IllegalArgumentException(String.format(
+						"The window radius(%d) must be non-negative.", radius));
+			this.radius = radius;
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.AdaptiveEqualization#equalize(byte[][],
+		 *      byte[][], int, int)
+		 */
+		@Override
+		protected void equalize(final byte[][] src, final byte[][] dst,
+				final int width, final int height)
+		{
+			final int r = radius;
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					int[] histogram = new int[COLOR_SCALE_LEVEL];
+					int top, bottom, left, right, area, p;
+					for (int y = y0; y < yt; y++)
+					{
+						top = Math.max(y - r, 0);
+						bottom = Math.min(y + r + 1, height);
+						Arrays.fill(histogram, 0);
+						right = Math.min(r, width);
+						for (int j = top; j < bottom; j++)
+							for (int i = 0; i < right; i++)
+								histogram[src[j][i] & 0xff]++;
+						byte[] d = dst[y];
+						for (int x = 0; x < width; x++)
+						{
+							// slide the window to [x - r, x + r]
+							left = x - r - 1;
+							if (left >= 0)
+								for (int j = top; j < bottom; j++)
+									histogram[src[j][left] & 0xff]--;
+							if (x + r < width)
+								for (int j = top; j < bottom; j++)
+									histogram[src[j][x + r] & 0xff]++;
+							area = (Math.min(x + r + 1, width) - Math.max(
+									x - r, 0)) * (bottom - top);
+							p = src[y][x] & 0xff;
+							d[x] = (byte) map(histogram, area, p);
+						}
+					}
+				}
+			});
+		}
+
+		/**
+		 * Returns the mapped value of the specified gray level by the clipped
+		 * histogram without building the whole table.
+		 * 
+		 * @param histogram
+		 *            the histogram
+		 * @param area
+		 *            the count of pixels in the histogram
+		 * @param level
+		 *            the gray level
+		 * @return the mapped value
+		 */
+		private int map(int[] histogram, int area, int level)
+		{
+			int clip = clip(area);
+			long excess = 0, sum = 0;
+			for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+			{
+				int h = histogram[i];
+				if (h > clip)
+				{
+					excess += h - clip;
+					h = clip;
+				}
+				if (i <= level)
+					sum += h;
+			}
+			// the excess is redistributed uniformly
+			double cdf = sum + excess * (level + 1) / (double) COLOR_SCALE_LEVEL;
+			int v = (int) (cdf * (COLOR_SCALE_LEVEL - 1) / area + 0.5);
+			return v > COLOR_SCALE_LEVEL - 1 ? COLOR_SCALE_LEVEL - 1 : v;
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.AdaptiveEqualization#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			return String.format("CLAHE with sliding window of radius %d",
+					radius);
+		}
+	}
+
+	/**
+	 * Equalize the source plane into the destination plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param dst
+	 *            the destination plane, different from the source plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 */
+	protected abstract void equalize(byte[][] src, byte[][] dst, int width,
+			int height);
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public GrayImage operate(GrayImage source)
+	{
+		int width = source.getWidth(), height = source.getHeight();
+		GrayImage result = new GrayImage(width, height);
+		equalize(source.getGrayMatrix(), result.getGrayMatrix(), width,
+				height);
+		return result;
+	}
+
+	/**
+	 * Equalize the red, green and blue channels of the color image, the alpha
+	 * channel is copied.
+	 * 
+	 * @param source
+	 *            the source image
+	 * @return the result image
+	 */
+	public ColorImage operate(ColorImage source)
+	{
+		int width = source.getWidth(), height = source.getHeight();
+		ColorImage result = source.clone();
+		equalize(source.getRedMatrix(), result.getRedMatrix(), width, height);
+		equalize(source.getGreenMatrix(), result.getGreenMatrix(), width,
+				height);
+		equalize(source.getBlueMatrix(), result.getBlueMatrix(), width,
+				height);
+		return result;
+	}
+
+	/**
+	 * Returns the clip limit of the histogram bins.
+	 * 
+	 * @param area
+	 *            the count of pixels in the histogram
+	 * @return the clip limit
+	 */
+	protected int clip(int area)
+	{
+		if (limit <= 0)
+			return Integer.MAX_VALUE;
+		return Math.max(1, (int) (limit * area / COLOR_SCALE_LEVEL));
+	}
+
+	/**
+	 * Returns the 256-entry mapping table of the clipped histogram. The
+	 * histogram is modified.
+	 * 
+	 * @param histogram
+	 *            the histogram
+	 * @param area
+	 *            the count of pixels in the histogram
+	 * @return the mapping table
+	 */
+	protected byte[] table(int[] histogram, int area)
+	{
+		byte[] table = new byte[COLOR_SCALE_LEVEL];
+		if (area == 0)
+			return table;
+		int clip = clip(area);
+		int excess = 0;
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+			if (histogram[i] > clip)
+			{
+				excess += histogram[i] - clip;
+				histogram[i] = clip;
+			}
+		// redistribute the excess uniformly, the residual spreads evenly
+		int batch = excess / COLOR_SCALE_LEVEL;
+		int residual = excess - batch * COLOR_SCALE_LEVEL;
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+			histogram[i] += batch;
+		if (residual > 0)
+		{
+			int step = Math.max(COLOR_SCALE_LEVEL / residual, 1);
+			for (int i = 0; i < COLOR_SCALE_LEVEL && residual > 0; i += step, residual--)
+				histogram[i]++;
+		}
+		double scale = (COLOR_SCALE_LEVEL - 1) / (double) area;
+		int sum = 0;
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+		{
+			sum += histogram[i];
+			int v = (int) (sum * scale + 0.5);
+			table[i] = (byte) (v > COLOR_SCALE_LEVEL - 1 ? COLOR_SCALE_LEVEL - 1 : v);
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the clip limit relative to the average bin count.
+	 * 
+	 * @return the clip limit
+	 */
+	public double getLimit()
+	{
+		return limit;
+	}
+
+	/**
+	 * Set the clip limit relative to the average bin count, the value not
+	 * greater than 0 disables the clipping.
+	 * 
+	 * @param limit
+	 *            the clip limit
+	 */
+	public void setLimit(double limit)
+	{
+		this.limit = limit;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public abstract String toString();
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * BilateralFilter.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance.time;
+
+import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The bilateral filter approximated by the bilateral grid of J. Chen, S.
+ * Paris and F. Durand.
+ * <p>
+ * The image is splatted into the 3D grid of the space and the range, whose
+ * cells are {@linkplain #sigmaSpatial} pixels and {@linkplain #sigmaRange}
+ * levels. Each cell holds the sums of the channels and the weight. The grid is
+ * blurred by the binomial kernel <code>[1 4 6 4 1] / 16</code>, which is the
+ * Gaussian of one cell, along the three axes, and sliced by the trilinear
+ * interpolation at the pixels, the result is the sums divided by the weight.
+ * The positions of the pixels in the grid are lookup tables of the columns,
+ * the rows and the levels.
+ * </p>
+ * <p>
+ * The cost is linear in the pixels and the cells, independent of the
+ * sigmas. The range of the color image is its luminance
+ * <code>0.3 * r + 0.59 * g + 0.11 * b</code>, so the channels are filtered
+ * jointly and the alpha channel is copied. The splatting, the blurring and
+ * the slicing are parallelized by the rows of the grid with
+ * {@linkplain ParallelUtils}.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class BilateralFilter<T extends Image> implements ImageOperate<T, T>,
+		ColorScaleLevel
+{
+	/**
+	 * The padding cells of the grid, which is the radius of the blur kernel.
+	 */
+	private static final int	PADDING	= 2;
+	/**
+	 * The standard deviation of the spatial Gaussian in pixels.
+	 */
+	protected float				sigmaSpatial;
+	/**
+	 * The standard deviation of the range Gaussian in levels.
+	 */
+	protected float				sigmaRange;
+
+	/**
+	 * Construct an instance of <tt>BilateralFilter</tt>.
+	 * 
+	 * @param sigmaSpatial
+	 *            the standard deviation of the spatial Gaussian in pixels
+	 * @param sigmaRange
+	 *            the standard deviation of the range Gaussian in levels
+	 * @throws IllegalArgumentException
+	 *             if the sigmas are less than 1
+	 */
+	public BilateralFilter(float sigmaSpatial, float sigmaRange)
+	{
+		if (!(sigmaSpatial >= 1))
+			throw new IllegalArgumentException(String.format(
+					"The spatial sigma(%f) must be at least 1.", sigmaSpatial));
+		if (!(sigmaRange >= 1))
+			throw new IllegalArgumentException(String.format(
+					"The range sigma(%f) must be at least 1.", sigmaRange));
+		this.sigmaSpatial = sigmaSpatial;
+		this.sigmaRange = sigmaRange;
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public T operate(T source)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		final byte[][][] src = channels(source);
+		T result = (T) source.recreate();
+		final byte[][][] dst = channels(result);
+		final int channels = src.length, k = channels + 1;
+		// the range of the pixels
+		final byte[][] range;
+		if (channels == 1)
+			range = src[0];
+		else
+		{
+			range = new byte[height][width];
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int y = y0; y < yt; y++)
+					{
+						byte[] r = src[0][y], g = src[1][y], b = src[2][y], l = range[y];
+						for (int x = 0; x < width; x++)
+							l[x] = (byte) ColorImage.luminance(r[x] & 0xff,
+									g[x] & 0xff, b[x] & 0xff);
+					}
+				}
+			});
+		}
+		// the lookup tables of the positions in the grid
+		final int[] x0 = new int[width], y0 = new int[height], z0 = new int[COLOR_SCALE_LEVEL];
+		final float[] fx = new float[width], fy = new float[height], fz = new float[COLOR_SCALE_LEVEL];
+		final int gw = positions(width, sigmaSpatial, x0, fx);
+		final int gh = positions(height, sigmaSpatial, y0, fy);
+		final int gd = positions(COLOR_SCALE_LEVEL, sigmaRange, z0, fz);
+		final int stride = gd * k;
+		// the nearest cells of the columns, and the first image row of each
+		// grid row, the rows are splatted to the nearest grid rows
+		final int[] nearest = new int[width];
+		for (int x = 0; x < width; x++)
+			nearest[x] = (x0[x] + (fx[x] < 0.5f ? 0 : 1)) * stride;
+		final int[] first = new int[gh + 1];
+		for (int j = 0, y = 0; j <= gh; j++)
+		{
+			while (y < height && y0[y] + (fy[y] < 0.5f ? 0 : 1) < j)
+				y++;
+			first[j] = y;
+		}
+		final float[][] grid = new float[gh][gw * stride];
+		// splat, each band of the grid rows is written by one task
+		ParallelUtils.forRows(gw * stride, gh, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int j0, int jt)
+			{
+				for (int y = first[j0]; y < first[jt]; y++)
+				{
+					float[] cells = grid[y0[y] + (fy[y] < 0.5f ? 0 : 1)];
+					byte[] e = range[y];
+					for (int x = 0; x < width; x++)
+					{
+						int level = e[x] & 0xff;
+						int i = nearest[x] + z0[level] * k;
+						float w1 = fz[level], w0 = 1 - w1;
+						for (int c = 0; c < channels; c++)
+						{
+							float v = src[c][y][x] & 0xff;
+							cells[i + c] += w0 * v;
+							cells[i + k + c] += w1 * v;
+						}
+						cells[i + channels] += w0;
+						cells[i + k + channels] += w1;
+					}
+				}
+			}
+		});
+		blur(grid, gw, gh, gd, k);
+		// slice
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int ys, int yt)
+			{
+				float[] sum = new float[k];
+				for (int y = ys; y < yt; y++)
+				{
+					float[] top = grid[y0[y]], bottom = grid[y0[y] + 1];
+					float wy1 = fy[y], wy0 = 1 - wy1;
+					byte[] e = range[y];
+					for (int x = 0; x < width; x++)
+					{
+						int level = e[x] & 0xff;
+						int i = (x0[x] * gd + z0[level]) * k;
+						float wx1 = fx[x], wx0 = 1 - wx1;
+						float wz1 = fz[level], wz0 = 1 - wz1;
+						float w000 = wy0 * wx0 * wz0, w001 = wy0 * wx0 * wz1;
+						float w010 = wy0 * wx1 * wz0, w011 = wy0 * wx1 * wz1;
+						float w100 = wy1 * wx0 * wz0, w101 = wy1 * wx0 * wz1;
+						float w110 = wy1 * wx1 * wz0, w111 = wy1 * wx1 * wz1;
+						for (int c = 0; c < k; c++)
+							sum[c] = w000 * top[i + c] + w001 * top[i + k + c]
+									+ w010 * top[i + stride + c] + w011
+									* top[i + stride + k + c] + w100
+									* bottom[i + c] + w101 * bottom[i + k + c]
+									+ w110 * bottom[i + stride + c] + w111
+									* bottom[i + stride + k + c];
+						for (int c = 0; c < channels; c++)
+						{
+							int v = sum[channels] > 0 ? Math.round(sum[c]
+									/ sum[channels]) : src[c][y][x] & 0xff;
+							dst[c][y][x] = (byte) (v < 0 ? 0
+									: (v < COLOR_SCALE_LEVEL ? v
+											: COLOR_SCALE_LEVEL - 1));
+						}
+					}
+				}
+			}
+		});
+		if (source instanceof ColorImage)
+		{
+			byte[][] alpha = ((ColorImage) source).getAlphaMatrix();
+			byte[][] a = ((ColorImage) result).getAlphaMatrix();
+			for (int y = 0; y < height; y++)
+				System.arraycopy(alpha[y], 0, a[y], 0, width);
+		}
+		return result;
+	}
+
+	/**
+	 * Fill the lookup tables of the positions in the grid, the position of
+	 * the index <code>i</code> is <code>i / sigma + PADDING</code> split into
+	 * the integer and the fraction.
+	 * 
+	 * @param length
+	 *            the count of the indices
+	 * @param sigma
+	 *            the size of the cells
+	 * @param integer
+	 *            the integer parts
+	 * @param fraction
+	 *            the fraction parts
+	 * @return the count of the cells in the dimension
+	 */
+	private static int positions(int length, float sigma, int[] integer,
+			float[] fraction)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			float p = i / sigma + PADDING;
+			integer[i] = (int) p;
+			fraction[i] = p - integer[i];
+		}
+		return (int) ((length - 1) / sigma) + 2 + 2 * PADDING;
+	}
+
+	/**
+	 * Blur the grid by the binomial kernel along the three axes.
+	 * 
+	 * @param grid
+	 *            the grid
+	 * @param gw
+	 *            the count of the cells along the columns
+	 * @param gh
+	 *            the count of the cells along the rows
+	 * @param gd
+	 *            the count of the cells along the range
+	 * @param k
+	 *            the count of the values in each cell
+	 */
+	private static void blur(final float[][] grid, final int gw,
+			final int gh, final int gd, final int k)
+	{
+		final int stride = gd * k, length = gw * stride;
+		// along the range and the columns in each grid row
+		ParallelUtils.forRows(length, gh, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int j0, int jt)
+			{
+				float[] buffer = new float[length];
+				for (int j = j0; j < jt; j++)
+				{
+					float[] cells = grid[j];
+					binomial(cells, buffer, length, k);
+					binomial(buffer, cells, length, stride);
+				}
+			}
+		});
+		// along the rows
+		final float[][] source = new float[gh][];
+		for (int j = 0; j < gh; j++)
+			source[j] = grid[j].clone();
+		ParallelUtils.forRows(length, gh, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int j0, int jt)
+			{
+				for (int j = j0; j < jt; j++)
+				{
+					float[] d = grid[j], s = source[j];
+					for (int i = 0; i < length; i++)
+						d[i] = 6 * s[i];
+					for (int o = -2; o <= 2; o++)
+					{
+						if (o == 0 || j + o < 0 || j + o >= gh)
+							continue;
+						float weight = o == -2 || o == 2 ? 1 : 4;
+						s = source[j + o];
+						for (int i = 0; i < length; i++)
+							d[i] += weight * s[i];
+					}
+					for (int i = 0; i < length; i++)
+						d[i] /= 16;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Blur the flat cells by the binomial kernel along the axis of the
+	 * specified step, the cells out of the bounds are zeros. The neighbours
+	 * across the end of the axis are the padding cells of the next or the
+	 * previous line, which are zeros before the blur, so the lines are
+	 * independent.
+	 * 
+	 * @param src
+	 *            the source cells
+	 * @param dst
+	 *            the destination cells
+	 * @param length
+	 *            the count of the cells
+	 * @param step
+	 *            the step between the neighbours along the axis
+	 */
+	private static void binomial(float[] src, float[] dst, int length,
+			int step)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			float v = 6 * src[i];
+			int a = i - step, b = i + step, aa = a - step, bb = b + step;
+			if (a >= 0)
+				v += 4 * src[a];
+			if (b < length)
+				v += 4 * src[b];
+			if (aa >= 0)
+				v += src[aa];
+			if (bb < length)
+				v += src[bb];
+			dst[i] = v / 16;
+		}
+	}
+
+	/**
+	 * Returns the channel matrices of the image.
+	 * 
+	 * @param image
+	 *            the image
+	 * @return the gray matrix, or the red, green and blue matrices
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	private byte[][][] channels(Image image)
+	{
+		if (image instanceof GrayImage)
+			return new byte[][][] { ((GrayImage) image).getGrayMatrix() };
+		if (image instanceof ColorImage)
+		{
+			ColorImage ci = (ColorImage) image;
+			return new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+					ci.getBlueMatrix() };
+		}
+		throw new IllegalImageTypeException(getClass(), image.getClass());
+	}
+
+	/**
+	 * Returns the standard deviation of the spatial Gaussian.
+	 * 
+	 * @return the spatial sigma in pixels
+	 */
+	public float getSigmaSpatial()
+	{
+		return sigmaSpatial;
+	}
+
+	/**
+	 * Returns the standard deviation of the range Gaussian.
+	 * 
+	 * @return the range sigma in levels
+	 */
+	public float getSigmaRange()
+	{
+		return sigmaRange;
+	}
+}
@@ -7,30 +7,49 @@
 
 package com.frank.dip.enhance.time;
 
-import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
 import com.frank.dip.GrayImage;
 import com.frank.dip.Image;
 import com.frank.dip.ImageOperate;
-import com.frank.math.MathUtils;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.analyze.Histogram;
 
 /**
  * The dehaze implementation use dark channel prior to estimate the original
  * image.
  * <p>
+ * The dark channel is the minimum of the channels filtered by the minimum of
+ * the <code>(2r+1)x(2r+1)</code> window, which is computed by the van
+ * Herk/Gil-Werman algorithm with three comparisons per pixel regardless of
+ * the radius. The airglow is the average of the pixels which are the
+ * brightest {@linkplain #rateAirglow} of the dark channel, they are selected
+ * by the histogram of the dark channel.
+ * </p>
+ * <p>
+ * All the intermediate data are local to the call of
+ * {@linkplain #operate(Image)}, so one instance can be shared by the threads
+ * as long as it is not reconfigured at the same time. The passes are
+ * parallelized by rows with {@linkplain ParallelUtils}.
+ * </p>
+ * <p>
+ * The blocky dark channel causes halos around the edges, it can be refined
+ * by a {@linkplain GuidedFilter} guided by the source image before the
+ * restoration, see {@linkplain #setRefinement(GuidedFilter)}.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
+public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>,
+		ColorScaleLevel
 {
 	/**
 	 * The radius of the DCP pattern.
 	 */
-	protected int radius = 7;
+	protected int	radius		= 7;
 
 	/**
 	 * The rate of using the airglow.
@@ -39,114 +58,258 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 	 * of largest values.
 	 * </p>
 	 */
-	protected float rateAirglow = 0.01f;
+	protected float	rateAirglow	= 0.01f;
+
+	/**
+	 * The weight of the dark channel used in the restoration.
+	 */
+	protected float	omega;
 
 	/**
-	 * The intensity of the airglow, ordered in R(0), G(1), B(2).
+	 * The guided filter refining the dark channel, <code>null</code> if the
+	 * dark channel is used directly.
 	 */
-	protected float[] airglow;
+	protected GuidedFilter<?>	refinement;
 
 	/**
-	 * The priority queues.
+	 * Construct an instance of <tt>Dehaze</tt>.
+	 * 
+	 * @param omega the weight of the dark channel used in the restoration
+	 */
+	protected Dehaze(float omega)
+	{
+		this.omega = omega;
+	}
+
+	/**
+	 * Returns the channel matrices of the image used in the dehaze.
+	 * 
+	 * @param image the image
+	 * @return the channel matrices
 	 */
-	protected PriorityQueue<Integer>[] pq;
+	protected abstract byte[][][] channels(T image);
 
 	/**
-	 * Calculate the dark channel prior and the airglow.
+	 * Calculate the dark channel prior.
 	 * 
 	 * @param image the source image
 	 * @return the DCP image
 	 */
 	protected GrayImage calculateDarkChannelPrior(T image)
 	{
-		int width = image.getWidth();
-		int height = image.getHeight();
-		int y0, yt;
-		int value;
-		GrayImage result = new GrayImage(width, height, 0);
-		airglow[0] = width * height * rateAirglow;
-		for (int y = 0; y < height; y++)
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final int radius = this.radius;
+		final byte[][][] channels = channels(image);
+		GrayImage result = new GrayImage(width, height);
+		final byte[][] dark = result.getGrayMatrix();
+		// the minimum of the channels filtered by the rows
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
 		{
-			y0 = Math.max(0, y - radius);
-			yt = Math.min(height, y + radius);
-
-			// initialize the data
-			LinkedList<Integer> list = new LinkedList<>();
-			for (int i = 0; i < width && i < radius; i++)
+			@Override
+			public void run(int y0, int yt)
 			{
-				value = Integer.MAX_VALUE;
-				for (int j = y0; j < yt; j++)
-					value = Math.min(value, getPixel(image, i, j));
-				list.add(value);
+				int[] line = new int[width];
+				int[] buffer = new int[3 * padded(width, radius)];
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] row = channels[0][y];
+					for (int x = 0; x < width; x++)
+						line[x] = row[x] & 0xff;
+					for (int c = 1; c < channels.length; c++)
+					{
+						row = channels[c][y];
+						for (int x = 0; x < width; x++)
+							line[x] = Math.min(line[x], row[x] & 0xff);
+					}
+					minimum(line, width, radius, buffer);
+					row = dark[y];
+					for (int x = 0; x < width; x++)
+						row[x] = (byte) line[x];
+				}
 			}
-
-			// iterate the image
-			for (int x = 0; x < width; x++)
+		});
+		// filtered by the columns
+		ParallelUtils.forRows(height, width, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int x0, int xt)
 			{
-				// set pixel value of point(x,y)
-				value = (int) MathUtils.minimum(list);
-				if (value != 0)
-					result.setPixel(x, y, value);
-
-				// remove out of range data
-				if (x - radius >= 0)
-					list.removeFirst();
-
-				// add new data
-				if (x + radius < width)
+				int[] line = new int[height];
+				int[] buffer = new int[3 * padded(height, radius)];
+				for (int x = x0; x < xt; x++)
 				{
-					value = Integer.MAX_VALUE;
-					for (int j = y0; j < yt; j++)
-						value = Math.min(value, getPixel(image, x, j));
-					list.addLast(value);
+					for (int y = 0; y < height; y++)
+						line[y] = dark[y][x] & 0xff;
+					minimum(line, height, radius, buffer);
+					for (int y = 0; y < height; y++)
+						dark[y][x] = (byte) line[y];
 				}
 			}
-		}
+		});
 		return result;
 	}
 
 	/**
-	 * Get the dark channel value from the specified image by the specified
-	 * position.
-	 * <p>
-	 * If the pixels are in multiple channels, use the minimum one of them.
-	 * </p>
+	 * Returns the padded length of the line for the van Herk/Gil-Werman
+	 * algorithm, which is the multiple of the window size.
 	 * 
-	 * @param source the source image
-	 * @param x the x-coordinate
-	 * @param y the y-coordinate
-	 * @return the pixel value in dark channel
+	 * @param length the length of the line
+	 * @param radius the radius of the window
+	 * @return the padded length
 	 */
-	protected abstract int getPixel(T image, int x, int y);
+	private static int padded(int length, int radius)
+	{
+		int size = 2 * radius + 1;
+		return (length + 2 * radius + size - 1) / size * size;
+	}
 
 	/**
-	 * Dehaze the source image according to the DCP image.
-	 * <p>
-	 * The airglow is calculated in function
-	 * {@linkplain #calculateDarkChannelPrior(Image)} and be restored in
-	 * {@linkplain #airglow}.
-	 * </p>
+	 * Filter the line by the minimum of the window <code>[i-r, i+r]</code> in
+	 * place, the outside of the line is treated as the maximum level.
+	 * 
+	 * @param line the line
+	 * @param length the length of the line
+	 * @param radius the radius of the window
+	 * @param buffer the buffer of the length <code>3 * padded</code>
+	 */
+	private static void minimum(int[] line, int length, int radius,
+			int[] buffer)
+	{
+		int size = 2 * radius + 1, n = padded(length, radius);
+		// the padded line, the prefix and the suffix minima of the blocks
+		int p = 0, g = n, h = 2 * n;
+		for (int i = 0; i < n; i++)
+		{
+			int j = i - radius;
+			buffer[p + i] = j >= 0 && j < length ? line[j]
+					: COLOR_SCALE_LEVEL - 1;
+		}
+		for (int b = 0; b < n; b += size)
+		{
+			buffer[g + b] = buffer[p + b];
+			for (int i = b + 1; i < b + size; i++)
+				buffer[g + i] = Math.min(buffer[g + i - 1], buffer[p + i]);
+			buffer[h + b + size - 1] = buffer[p + b + size - 1];
+			for (int i = b + size - 2; i >= b; i--)
+				buffer[h + i] = Math.min(buffer[h + i + 1], buffer[p + i]);
+		}
+		for (int i = 0; i < length; i++)
+			line[i] = Math.min(buffer[h + i], buffer[g + i + size - 1]);
+	}
+
+	/**
+	 * Calculate the airglow from the pixels which are the brightest
+	 * {@linkplain #rateAirglow} of the dark channel.
 	 * 
 	 * @param source the source image
 	 * @param dcp the dark channel prior image
-	 * @return the dehazed the image
+	 * @return the airglow of the channels
 	 */
-	protected T dehaze(T source, GrayImage dcp)
+	protected float[] calculateAirglow(T source, GrayImage dcp)
 	{
-		// calculate the airglow
-		for (int i = 0; i < airglow.length; i++)
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		final byte[][][] channels = channels(source);
+		final byte[][] dark = dcp.getGrayMatrix();
+		final int bands = ParallelUtils.bands(width, height);
+		// the histogram of the dark channel
+		int[] histogram = Histogram.histograms(dcp, false)[0];
+		long count = Math.max(1, Math.round((double) width * height
+				* rateAirglow));
+		int level = COLOR_SCALE_LEVEL - 1;
+		for (long sum = histogram[level]; sum < count && level > 0;)
+			sum += histogram[--level];
+		// the average of the selected pixels
+		final int threshold = level;
+		final long[][] sums = new long[bands][channels.length + 1];
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
 		{
-			airglow[i] = (float) MathUtils.average(pq[i]);
-			pq[i].clear();
+			@Override
+			public void run(int band)
+			{
+				long[] sum = sums[band];
+				for (int y = ParallelUtils.bandStart(band, bands, height), yt = ParallelUtils
+						.bandStart(band + 1, bands, height); y < yt; y++)
+				{
+					byte[] row = dark[y];
+					for (int x = 0; x < width; x++)
+						if ((row[x] & 0xff) >= threshold)
+						{
+							for (int c = 0; c < channels.length; c++)
+								sum[c] += channels[c][y][x] & 0xff;
+							sum[channels.length]++;
+						}
+				}
+			}
+		});
+		float[] airglow = new float[channels.length];
+		long total = 0;
+		for (int b = 0; b < bands; b++)
+			total += sums[b][channels.length];
+		for (int c = 0; c < channels.length; c++)
+		{
+			long sum = 0;
+			for (int b = 0; b < bands; b++)
+				sum += sums[b][c];
+			airglow[c] = total == 0 ? 0 : sum / (float) total;
 		}
+		return airglow;
+	}
 
-		// iterate the image and restore the orginal
-		int width = source.getWidth();
-		int height = source.getHeight();
+	/**
+	 * Dehaze the source image according to the DCP image, which is refined by
+	 * the {@linkplain #refinement} if it is set.
+	 * 
+	 * @param source the source image
+	 * @param dcp the dark channel prior image
+	 * @param airglow the airglow of the channels
+	 * @return the dehazed the image
+	 */
+	protected T dehaze(T source, GrayImage dcp, final float[] airglow)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
 		T result = (T) source.recreate();
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				dehaze(source, result, dcp, x, y);
+		final byte[][][] src = channels(source), dst = channels(result);
+		final byte[][] dark = dcp.getGrayMatrix();
+		final float omega = this.omega;
+		GuidedFilter<?> refinement = this.refinement;
+		final float[][] refined = refinement == null ? null : refinement
+				.filter(source, plane(dark, width, height));
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int[] weighted = new int[COLOR_SCALE_LEVEL];
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					weighted[i] = Math.round(i * omega);
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] d = dark[y];
+					for (int c = 0; c < src.length; c++)
+					{
+						byte[] s = src[c][y], r = dst[c][y];
+						float a = airglow[c];
+						if (refined == null)
+							for (int x = 0; x < width; x++)
+								r[x] = (byte) dehaze(s[x] & 0xff,
+										weighted[d[x] & 0xff], a);
+						else
+							for (int x = 0; x < width; x++)
+								r[x] = (byte) dehaze(s[x] & 0xff, omega
+										* refined[y][x], a);
+					}
+				}
+			}
+		});
+		if (result instanceof ColorImage)
+		{
+			byte[][] alpha = ((ColorImage) result).getAlphaMatrix();
+			for (int y = 0; y < height; y++)
+				Arrays.fill(alpha[y], (byte) 0xff);
+		}
 		return result;
 	}
 
@@ -154,10 +317,51 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
 	 */
 	@Override
-	public synchronized T operate(T source)
+	public T operate(T source)
 	{
 		GrayImage image = calculateDarkChannelPrior(source);
-		return dehaze(source, image);
+		return dehaze(source, image, calculateAirglow(source, image));
+	}
+
+	/**
+	 * Returns the plane of the levels of the matrix.
+	 * 
+	 * @param matrix the matrix
+	 * @param width the width of the matrix
+	 * @param height the height of the matrix
+	 * @return the plane
+	 */
+	private static float[][] plane(byte[][] matrix, int width, int height)
+	{
+		float[][] plane = new float[height][width];
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				plane[y][x] = matrix[y][x] & 0xff;
+		return plane;
+	}
+
+	/**
+	 * Returns the guided filter refining the dark channel.
+	 * 
+	 * @return the refinement, <code>null</code> if the dark channel is used
+	 *         directly
+	 */
+	public GuidedFilter<?> getRefinement()
+	{
+		return refinement;
+	}
+
+	/**
+	 * Set the guided filter refining the dark channel, the guide is the source
+	 * image. A radius several times of {@linkplain #radius} and a
+	 * regularization about <code>1E-3</code> are typical.
+	 * 
+	 * @param refinement the refinement, <code>null</code> to use the dark
+	 *            channel directly
+	 */
+	public void setRefinement(GuidedFilter<?> refinement)
+	{
+		this.refinement = refinement;
 	}
 
 	/**
@@ -177,12 +381,17 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 	 */
 	public void setRadius(int radius)
 	{
+		if (radius < 0)
+			throw new IllegalArgumentException(String.format(
+					"The radius(%d) must be non-negative.", radius));
 		this.radius = radius;
 	}
 
 	/**
 	 * The dehaze implementation for color image.
 	 * <p>
+	 * The dark channel is the minimum of the red, green and blue channels,
+	 * the weight of it in the restoration is 0.85.
 	 * </p>
 	 * 
 	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -193,54 +402,25 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 
 		public DehazeColor()
 		{
-			airglow = new float[3];
-			pq = new PriorityQueue[3];
-			for (int i = 0; i < 3; i++)
-				pq[i] = new PriorityQueue<>();
+			super(0.85f);
 		}
 
 		/**
-		 * @see com.frank.dip.enhance.time.Dehaze#getPixel(com.frank.dip.Image,
-		 *      int, int)
+		 * @see com.frank.dip.enhance.time.Dehaze#channels(com.frank.dip.Image)
 		 */
 		@Override
-		protected int getPixel(ColorImage image, int x, int y)
+		protected byte[][][] channels(ColorImage image)
 		{
-			int r = image.getRed(x, y);
-			int g = image.getGreen(x, y);
-			int b = image.getBlue(x, y);
-
-			pq[0].add(r);
-			pq[1].add(g);
-			pq[2].add(b);
-
-			// save space
-			if (pq[0].size() > airglow[0])
-				for (int i = 0; i < airglow.length; i++)
-					pq[i].poll();
-
-			return Math.min(r, Math.min(g, b));
+			return new byte[][][] { image.getRedMatrix(),
+					image.getGreenMatrix(), image.getBlueMatrix() };
 		}
-
-		/**
-		 * @see com.frank.dip.enhance.time.Dehaze#dehaze(com.frank.dip.Image,
-		 *      com.frank.dip.Image, com.frank.dip.GrayImage, int, int)
-		 */
-		@Override
-		protected void dehaze(ColorImage source, ColorImage result, GrayImage dcp, int x, int y)
-		{
-			int r, g, b, dark = Math.round(dcp.getPixel(x, y) * 0.85f);
-			r = dehaze(source.getRed(x, y), dark, airglow[0]);
-			g = dehaze(source.getGreen(x, y), dark, airglow[1]);
-			b = dehaze(source.getBlue(x, y), dark, airglow[2]);
-			result.setPixel(x, y, 255, r, g, b);
-		}
-
 	}
 
 	/**
 	 * The dehaze implementation for gray image.
 	 * <p>
+	 * The dark channel is the gray channel, the weight of it in the
+	 * restoration is 1.
 	 * </p>
 	 * 
 	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -251,35 +431,17 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 
 		public DehazeGray()
 		{
-			airglow = new float[1];
-			pq = new PriorityQueue[1];
-			pq[0] = new PriorityQueue<>();
+			super(1.0f);
 		}
 
 		/**
-		 * @see com.frank.dip.enhance.time.Dehaze#getPixel(com.frank.dip.Image,
-		 *      int, int)
+		 * @see com.frank.dip.enhance.time.Dehaze#channels(com.frank.dip.Image)
 		 */
 		@Override
-		protected int getPixel(GrayImage image, int x, int y)
+		protected byte[][][] channels(GrayImage image)
 		{
-			int value = image.getPixel(x, y);
-			pq[0].add(value);
-			if (pq[0].size() > airglow[0])
-				pq[0].poll();
-			return value;
+			return new byte[][][] { image.getGrayMatrix() };
 		}
-
-		/**
-		 * @see com.frank.dip.enhance.time.Dehaze#dehaze(com.frank.dip.Image,
-		 *      com.frank.dip.Image, com.frank.dip.GrayImage, int, int)
-		 */
-		@Override
-		protected void dehaze(GrayImage source, GrayImage result, GrayImage dcp, int x, int y)
-		{
-			result.setPixel(x, y, dehaze(source.getPixel(x, y), dcp.getPixel(x, y), airglow[0]));
-		}
-
 	}
 
 	/**
@@ -312,17 +474,6 @@ public abstract class Dehaze<T extends Image> implements ImageOperate<T, T>
 		this.rateAirglow = rateAirglow;
 	}
 
-	/**
-	 * Dehaze one pixel according to the formula.
-	 * 
-	 * @param source the source image
-	 * @param result the result image
-	 * @param dcp the dark channel prior image
-	 * @param x the x-coordinate
-	 * @param y the y-coordinate
-	 */
-	abstract protected void dehaze(T source, T result, GrayImage dcp, int x, int y);
-
 	/**
 	 * The dehaze function.
 	 * 
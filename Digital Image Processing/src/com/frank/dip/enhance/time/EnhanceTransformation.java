@@ -5,12 +5,16 @@
  */
 package com.frank.dip.enhance.time;
 
+import java.util.Arrays;
+
 import com.frank.dip.BinaryImage;
 import com.frank.dip.ColorImage;
 import com.frank.dip.ColorScaleLevel;
 import com.frank.dip.GrayImage;
 import com.frank.dip.Image;
 import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.analyze.Histogram;
 import com.frank.dip.math.Function;
 
 /**
@@ -28,6 +32,12 @@ import com.frank.dip.math.Function;
  * 
  * to all the pixels in the image.
  * </p>
+ * <p>
+ * Since the channels of the gray scale and the color images are 8-bit, the
+ * transformation is compiled into a 256-entry lookup table of each channel by
+ * {@linkplain #compile(Image)}, and the image is mapped by the tables in one
+ * pass.
+ * </p>
  * 
  * @see Transform
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -35,22 +45,14 @@ import com.frank.dip.math.Function;
  */
 public abstract class EnhanceTransformation<T extends Image> implements ImageOperate<T, T>, Function, ColorScaleLevel
 {
-	/**
-	 * The matrixes for accuracy calculating.
-	 */
-	protected float[][]		r, g, b;
-	/**
-	 * The max values for accuracy calculating.
-	 */
-	protected float			r_min, r_max, g_min, g_max, b_min, b_max;
 	/**
 	 * The scale level minus {@code 1} of the transform image.
 	 */
 	public static final int	SCALE_LEVEL	= 256;
 	/**
 	 * The flag for whether the high accuracy scheme is used. If this scheme is
-	 * used, the pixels values will be stored in matrixes, they will be
-	 * normalized before set to the image.
+	 * used, the transformed values of the gray levels in the image will be
+	 * normalized to the whole scale range before set to the image.
 	 */
 	protected boolean		useHighAccuracyScheme;
 
@@ -66,68 +68,157 @@ public abstract class EnhanceTransformation<T extends Image> implements ImageOpe
 		return (int) function(r);
 	}
 
-	protected void doStatistic(T source)
+	/**
+	 * Compile the transformation into the 256-entry lookup tables of the
+	 * channels of the specified image.
+	 * <p>
+	 * The gray scale image has one table, the color image has the tables of
+	 * red, green and blue channels. The entry of each table is the output of
+	 * {@linkplain #perform(double)} of the gray level, or the output of
+	 * {@linkplain #function(double)} normalized by the range of the outputs of
+	 * the gray levels present in the channel if the high accuracy scheme is
+	 * used. The transformation must not depend on the other channels or the
+	 * pixel position.
+	 * </p>
+	 * 
+	 * @param source
+	 *            the source image
+	 * @return the lookup tables, <code>null</code> if the image type is not
+	 *         supported
+	 */
+	public byte[][] compile(T source)
 	{
-		int height = source.getHeight();
-		int width = source.getWidth();
+		int channels;
 		if (source instanceof GrayImage)
+			channels = 1;
+		else if (source instanceof ColorImage)
+			channels = 3;
+		else
+			return null;
+		if (!useHighAccuracyScheme)
+			return compile(new boolean[channels][]);
+		int[][] histograms = Histogram.histograms(source, true);
+		return compile(Arrays.copyOfRange(histograms, histograms.length
+				- channels, histograms.length));
+	}
+
+	/**
+	 * Compile the transformation into the 256-entry lookup tables of the
+	 * channels of the specified histograms.
+	 * 
+	 * @param histograms
+	 *            the histograms of the gray scale channel, or the red, green
+	 *            and blue channels, the elements are only read if the high
+	 *            accuracy scheme is used
+	 * @return the lookup tables
+	 * @see #compile(Image)
+	 */
+	public byte[][] compile(int[][] histograms)
+	{
+		boolean[][] present = new boolean[histograms.length][];
+		if (useHighAccuracyScheme)
+			for (int c = 0; c < histograms.length; c++)
+			{
+				present[c] = new boolean[COLOR_SCALE_LEVEL];
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					present[c][i] = histograms[c][i] > 0;
+			}
+		return compile(present);
+	}
+
+	/**
+	 * Compile the transformation into the lookup tables of the channels.
+	 * 
+	 * @param present
+	 *            the flags of the gray levels present in the channels, the
+	 *            elements are only read if the high accuracy scheme is used
+	 * @return the lookup tables
+	 */
+	private byte[][] compile(boolean[][] present)
+	{
+		byte[][] tables = new byte[present.length][COLOR_SCALE_LEVEL];
+		if (useHighAccuracyScheme)
 		{
-			r = new float[height][width];
-			r_max = Float.NEGATIVE_INFINITY;
-			r_min = Float.POSITIVE_INFINITY;
-			float p;
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-				{
-					p = (float) function(source.getPixel(x, y));
-					r[y][x] = p;
-					if (p < r_min)
-						r_min = p;
-					if (p > r_max)
-						r_max = p;
-				}
-			return;
+			int csl = COLOR_SCALE_LEVEL - 1;
+			float[] f = new float[COLOR_SCALE_LEVEL];
+			for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+				f[i] = (float) function(i);
+			for (int c = 0; c < present.length; c++)
+			{
+				float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					if (present[c][i])
+					{
+						if (f[i] < min)
+							min = f[i];
+						if (f[i] > max)
+							max = f[i];
+					}
+				float base = max - min;
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					tables[c][i] = clamp(Math.round((f[i] - min) * csl / base));
+			}
 		}
-		if (source instanceof ColorImage)
+		else if (present.length == 1)
+			for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+				tables[0][i] = clamp(perform(i));
+		else
+			for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+			{
+				// the channels of a gray pixel are transformed together
+				int p = perform(0xff000000 | i << 16 | i << 8 | i);
+				tables[0][i] = (byte) (p >> 16);
+				tables[1][i] = (byte) (p >> 8);
+				tables[2][i] = (byte) p;
+			}
+		return tables;
+	}
+
+	/**
+	 * Returns the byte of the gray level clamped into the scale range.
+	 * 
+	 * @param value
+	 *            the gray level
+	 * @return the byte of the clamped gray level
+	 */
+	private static byte clamp(int value)
+	{
+		if (value < 0)
+			return 0;
+		return (byte) (value < COLOR_SCALE_LEVEL ? value
+				: COLOR_SCALE_LEVEL - 1);
+	}
+
+	/**
+	 * Map the source matrix into the destination matrix by the lookup table.
+	 * 
+	 * @param src
+	 *            the source matrix
+	 * @param dst
+	 *            the destination matrix, can be the source matrix
+	 * @param table
+	 *            the 256-entry lookup table
+	 * @param width
+	 *            the width of the matrices
+	 * @param height
+	 *            the height of the matrices
+	 */
+	protected static void map(final byte[][] src, final byte[][] dst,
+			final byte[] table, final int width, int height)
+	{
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
 		{
-			r = new float[height][width];
-			g = new float[height][width];
-			b = new float[height][width];
-			r_max = Float.NEGATIVE_INFINITY;
-			g_max = Float.NEGATIVE_INFINITY;
-			b_max = Float.NEGATIVE_INFINITY;
-			r_min = Float.POSITIVE_INFINITY;
-			g_min = Float.POSITIVE_INFINITY;
-			b_min = Float.POSITIVE_INFINITY;
-			float p;
-			ColorImage ci = (ColorImage) source;
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
 				{
-					// red
-					p = (float) function(ci.getRed(x, y));
-					if (p < r_min)
-						r_min = p;
-					if (p > r_max)
-						r_max = p;
-					r[y][x] = p;
-					// green
-					p = (float) function(ci.getGreen(x, y));
-					if (p < g_min)
-						g_min = p;
-					if (p > g_max)
-						g_max = p;
-					g[y][x] = p;
-					// blue
-					p = (float) function(ci.getBlue(x, y));
-					if (p < b_min)
-						b_min = p;
-					if (p > b_max)
-						b_max = p;
-					b[y][x] = p;
+					byte[] s = src[y], d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = table[s[x] & 0xff];
 				}
-			return;
-		}
+			}
+		});
 	}
 
 	/**
@@ -138,43 +229,64 @@ public abstract class EnhanceTransformation<T extends Image> implements ImageOpe
 	{
 		int height = source.getHeight();
 		int width = source.getWidth();
-		if (!(source instanceof BinaryImage) && useHighAccuracyScheme)
+		byte[][] tables = compile(source);
+		if (source instanceof GrayImage)
 		{
-			doStatistic(source);
-			int csl = COLOR_SCALE_LEVEL - 1;
-			if (source instanceof GrayImage)
-			{
-				GrayImage result = new GrayImage(width, height);
-				float base = r_max - r_min;
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-						result.setPixel(x, y, Math.round((r[y][x] - r_min) * csl / base));
-				return (T) result;
-			}
-			if (source instanceof ColorImage)
-			{
-				ColorImage ci = (ColorImage) source;
-				ColorImage result = new ColorImage(width, height);
-				float r_base = r_max - r_min;
-				float g_base = g_max - g_min;
-				float b_base = b_max - b_min;
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-						result.setPixel(x, y, ci.getAlpha(x, y), Math.round((r[y][x] - r_min) * csl / r_base),
-								Math.round((r[y][x] - r_min) * csl / g_base),
-								Math.round((r[y][x] - r_min) * csl / b_base));
-				return (T) result;
-			}
-			return (T) source.clone();
+			GrayImage result = new GrayImage(width, height);
+			map(((GrayImage) source).getGrayMatrix(), result.getGrayMatrix(),
+					tables[0], width, height);
+			return (T) result;
 		}
-		else
+		if (source instanceof ColorImage)
 		{
-			T result = (T) source.recreate();
+			ColorImage ci = (ColorImage) source;
+			ColorImage result = new ColorImage(width, height);
+			byte[][] alpha = ci.getAlphaMatrix(), a = result.getAlphaMatrix();
 			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					result.setPixel(x, y, (int) perform(source.getPixel(x, y)));
-			return result;
+				System.arraycopy(alpha[y], 0, a[y], 0, width);
+			map(ci.getRedMatrix(), result.getRedMatrix(), tables[0], width,
+					height);
+			map(ci.getGreenMatrix(), result.getGreenMatrix(), tables[1],
+					width, height);
+			map(ci.getBlueMatrix(), result.getBlueMatrix(), tables[2], width,
+					height);
+			return (T) result;
 		}
+		if (!(source instanceof BinaryImage) && useHighAccuracyScheme)
+			return (T) source.clone();
+		T result = (T) source.recreate();
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				result.setPixel(x, y, (int) perform(source.getPixel(x, y)));
+		return result;
+	}
+
+	/**
+	 * Returns the composition of the current transformation followed by the
+	 * specified transformation, which maps the image in one pass.
+	 * 
+	 * @param next
+	 *            the transformation performed after the current one
+	 * @return the composed point transformation
+	 * @see PointTransform#then(PointTransform)
+	 */
+	public PointTransform<T> then(EnhanceTransformation<T> next)
+	{
+		return then(PointTransform.of(next));
+	}
+
+	/**
+	 * Returns the composition of the current transformation followed by the
+	 * specified point transform, which maps the image in one pass.
+	 * 
+	 * @param next
+	 *            the point transform performed after the current one
+	 * @return the composed point transformation
+	 * @see PointTransform#then(PointTransform)
+	 */
+	public PointTransform<T> then(PointTransform<T> next)
+	{
+		return PointTransform.of(this).then(next);
 	}
 
 	/**
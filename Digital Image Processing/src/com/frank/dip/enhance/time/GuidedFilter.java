@@ -0,0 +1,603 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * GuidedFilter.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance.time;
+
+import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The guided filter, the edge-preserving smoothing filter of K. He, J. Sun
+ * and X. Tang.
+ * <p>
+ * The output is the local linear transform of the guide image, whose
+ * coefficients are fitted to the input in each <code>(2r+1)x(2r+1)</code>
+ * window and averaged. The gray scale guide has one channel and the color
+ * guide has the red, green and blue channels, the levels of the guide are
+ * normalized into the range of <code>[0, 1]</code>, in which the
+ * regularization {@linkplain #epsilon} is measured.
+ * </p>
+ * <p>
+ * All the window means are computed by the running sums of the separable box
+ * filter, so the cost is independent of the radius. If the
+ * {@linkplain #subsampling} is greater than 1, the coefficients are fitted on
+ * the guide and the input subsampled by the ratio with the scaled radius and
+ * bilinearly upsampled, which is the fast guided filter of K. He and J. Sun.
+ * </p>
+ * <p>
+ * As an image operation, the image is the guide of itself, each channel of
+ * the color image is filtered with the color guide and the alpha channel is
+ * copied.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class GuidedFilter<T extends Image> implements ImageOperate<T, T>,
+		ColorScaleLevel
+{
+	/**
+	 * The radius of the window.
+	 */
+	protected int	radius;
+	/**
+	 * The regularization of the fitted coefficients.
+	 */
+	protected float	epsilon;
+	/**
+	 * The ratio of the subsampling.
+	 */
+	protected int	subsampling;
+
+	/**
+	 * Construct an instance of <tt>GuidedFilter</tt>.
+	 * 
+	 * @param radius
+	 *            the radius of the window
+	 * @param epsilon
+	 *            the regularization of the fitted coefficients
+	 */
+	public GuidedFilter(int radius, float epsilon)
+	{
+		this(radius, epsilon, 1);
+	}
+
+	/**
+	 * Construct an instance of <tt>GuidedFilter</tt>.
+	 * 
+	 * @param radius
+	 *            the radius of the window
+	 * @param epsilon
+	 *            the regularization of the fitted coefficients
+	 * @param subsampling
+	 *            the ratio of the subsampling, 1 for the exact filter
+	 * @throws IllegalArgumentException
+	 *             if the radius, the regularization or the ratio is not
+	 *             positive
+	 */
+	public GuidedFilter(int radius, float epsilon, int subsampling)
+	{
+		if (radius < 1)
+			throw new IllegalArgumentException(String.format(
+					"The radius(%d) must be positive.", radius));
+		if (!(epsilon > 0))
+			throw new IllegalArgumentException(String.format(
+					"The regularization(%f) must be positive.", epsilon));
+		if (subsampling < 1)
+			throw new IllegalArgumentException(String.format(
+					"The subsampling ratio(%d) must be positive.", subsampling));
+		this.radius = radius;
+		this.epsilon = epsilon;
+		this.subsampling = subsampling;
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public T operate(T source)
+	{
+		int width = source.getWidth();
+		int height = source.getHeight();
+		float[][][] guide = planes(source);
+		T result = (T) source.recreate();
+		byte[][][] src = channels(source), dst = channels(result);
+		for (int c = 0; c < src.length; c++)
+		{
+			float[][] q = filter(guide, guide[c], width, height);
+			for (int y = 0; y < height; y++)
+			{
+				byte[] row = dst[c][y];
+				for (int x = 0; x < width; x++)
+				{
+					int v = Math.round(q[y][x] * (COLOR_SCALE_LEVEL - 1));
+					row[x] = (byte) (v < 0 ? 0 : (v < COLOR_SCALE_LEVEL ? v
+							: COLOR_SCALE_LEVEL - 1));
+				}
+			}
+		}
+		if (source instanceof ColorImage)
+		{
+			byte[][] alpha = ((ColorImage) source).getAlphaMatrix();
+			byte[][] a = ((ColorImage) result).getAlphaMatrix();
+			for (int y = 0; y < height; y++)
+				System.arraycopy(alpha[y], 0, a[y], 0, width);
+		}
+		return result;
+	}
+
+	/**
+	 * Filter the input plane guided by the image.
+	 * 
+	 * @param guide
+	 *            the guide image, gray scale or color
+	 * @param input
+	 *            the input plane of the same dimension as the guide
+	 * @return the filtered plane
+	 * @throws IllegalImageTypeException
+	 *             if the guide type is not supported
+	 */
+	public float[][] filter(Image guide, float[][] input)
+	{
+		return filter(planes(guide), input, guide.getWidth(),
+				guide.getHeight());
+	}
+
+	/**
+	 * Filter the input plane guided by the normalized planes.
+	 * 
+	 * @param guide
+	 *            the normalized guide planes
+	 * @param input
+	 *            the input plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 * @return the filtered plane
+	 */
+	private float[][] filter(float[][][] guide, float[][] input, int width,
+			int height)
+	{
+		if (subsampling == 1)
+		{
+			float[][][] coefficients = coefficients(guide, input, width,
+					height, radius);
+			return combine(guide, coefficients, width, height);
+		}
+		int s = subsampling;
+		int lw = (width + s - 1) / s, lh = (height + s - 1) / s;
+		float[][][] low = new float[guide.length][][];
+		for (int c = 0; c < guide.length; c++)
+			low[c] = downsample(guide[c], width, height, s);
+		float[][][] coefficients = coefficients(low,
+				downsample(input, width, height, s), lw, lh,
+				Math.max(1, Math.round(radius / (float) s)));
+		for (int c = 0; c < coefficients.length; c++)
+			coefficients[c] = upsample(coefficients[c], width, height, s);
+		return combine(guide, coefficients, width, height);
+	}
+
+	/**
+	 * Returns the window means of the fitted coefficients, the coefficients of
+	 * the guide channels followed by the offset.
+	 * 
+	 * @param guide
+	 *            the normalized guide planes
+	 * @param input
+	 *            the input plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 * @param radius
+	 *            the radius of the window
+	 * @return the mean coefficients
+	 */
+	private float[][][] coefficients(final float[][][] guide,
+			final float[][] input, final int width, int height, int radius)
+	{
+		final int channels = guide.length;
+		// the means of I, p, I * p and the upper triangle of I * I'
+		final int products = channels * (channels + 1) / 2;
+		final float[][][] means = new float[2 * channels + 1 + products][][];
+		for (int c = 0; c < channels; c++)
+			means[c] = mean(guide[c], width, height, radius);
+		means[channels] = mean(input, width, height, radius);
+		for (int c = 0; c < channels; c++)
+			means[channels + 1 + c] = mean(product(guide[c], input, width,
+					height), width, height, radius);
+		for (int i = 0, k = 2 * channels + 1; i < channels; i++)
+			for (int j = i; j < channels; j++)
+				means[k++] = mean(product(guide[i], guide[j], width, height),
+						width, height, radius);
+		// the coefficients overwrite the means of the products
+		final float eps = epsilon;
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+					for (int x = 0; x < width; x++)
+					{
+						float mp = means[channels][y][x];
+						if (channels == 1)
+						{
+							float mi = means[0][y][x];
+							float a = (means[2][y][x] - mi * mp)
+									/ (means[3][y][x] - mi * mi + eps);
+							means[2][y][x] = a;
+							means[3][y][x] = mp - a * mi;
+							continue;
+						}
+						float mr = means[0][y][x], mg = means[1][y][x], mb = means[2][y][x];
+						float cr = means[4][y][x] - mr * mp;
+						float cg = means[5][y][x] - mg * mp;
+						float cb = means[6][y][x] - mb * mp;
+						float rr = means[7][y][x] - mr * mr + eps;
+						float rg = means[8][y][x] - mr * mg;
+						float rb = means[9][y][x] - mr * mb;
+						float gg = means[10][y][x] - mg * mg + eps;
+						float gb = means[11][y][x] - mg * mb;
+						float bb = means[12][y][x] - mb * mb + eps;
+						// the inverse of the symmetric covariance by cofactors
+						float irr = gg * bb - gb * gb;
+						float irg = gb * rb - rg * bb;
+						float irb = rg * gb - gg * rb;
+						float igg = rr * bb - rb * rb;
+						float igb = rb * rg - rr * gb;
+						float ibb = rr * gg - rg * rg;
+						float det = rr * irr + rg * irg + rb * irb;
+						float ar = (irr * cr + irg * cg + irb * cb) / det;
+						float ag = (irg * cr + igg * cg + igb * cb) / det;
+						float ab = (irb * cr + igb * cg + ibb * cb) / det;
+						means[4][y][x] = ar;
+						means[5][y][x] = ag;
+						means[6][y][x] = ab;
+						means[7][y][x] = mp - ar * mr - ag * mg - ab * mb;
+					}
+			}
+		});
+		float[][][] result = new float[channels + 1][][];
+		for (int c = 0; c <= channels; c++)
+			result[c] = mean(means[channels + 1 + c], width, height, radius);
+		return result;
+	}
+
+	/**
+	 * Returns the linear transform of the guide by the coefficients.
+	 * 
+	 * @param guide
+	 *            the normalized guide planes
+	 * @param coefficients
+	 *            the coefficients of the guide channels followed by the
+	 *            offset
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 * @return the transformed plane
+	 */
+	private static float[][] combine(final float[][][] guide,
+			final float[][][] coefficients, final int width, int height)
+	{
+		final float[][] result = coefficients[guide.length];
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					float[] q = result[y];
+					for (int c = 0; c < guide.length; c++)
+					{
+						float[] a = coefficients[c][y], g = guide[c][y];
+						for (int x = 0; x < width; x++)
+							q[x] += a[x] * g[x];
+					}
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Returns the mean of the <code>(2r+1)x(2r+1)</code> window clipped by
+	 * the bounds of the plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param width
+	 *            the width of the plane
+	 * @param height
+	 *            the height of the plane
+	 * @param radius
+	 *            the radius of the window
+	 * @return the mean plane
+	 */
+	private static float[][] mean(final float[][] src, final int width,
+			final int height, final int radius)
+	{
+		final float[][] sums = new float[height][width];
+		final float[][] dst = new float[height][width];
+		// the sums of the rows
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					float[] s = src[y], d = sums[y];
+					double sum = 0;
+					for (int x = 0; x < width && x < radius; x++)
+						sum += s[x];
+					for (int x = 0; x < width; x++)
+					{
+						if (x + radius < width)
+							sum += s[x + radius];
+						d[x] = (float) sum;
+						if (x - radius >= 0)
+							sum -= s[x - radius];
+					}
+				}
+			}
+		});
+		// the sums of the columns, each band slides its own window
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				double[] sum = new double[width];
+				float[] area = new float[width];
+				for (int x = 0; x < width; x++)
+					area[x] = Math.min(width - 1, x + radius)
+							- Math.max(0, x - radius) + 1;
+				for (int y = Math.max(0, y0 - radius); y < y0 + radius
+						&& y < height; y++)
+				{
+					float[] s = sums[y];
+					for (int x = 0; x < width; x++)
+						sum[x] += s[x];
+				}
+				for (int y = y0; y < yt; y++)
+				{
+					if (y + radius < height)
+					{
+						float[] s = sums[y + radius];
+						for (int x = 0; x < width; x++)
+							sum[x] += s[x];
+					}
+					int rows = Math.min(height - 1, y + radius)
+							- Math.max(0, y - radius) + 1;
+					float[] d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = (float) (sum[x] / (area[x] * rows));
+					if (y - radius >= 0)
+					{
+						float[] s = sums[y - radius];
+						for (int x = 0; x < width; x++)
+							sum[x] -= s[x];
+					}
+				}
+			}
+		});
+		return dst;
+	}
+
+	/**
+	 * Returns the element-wise product of the planes.
+	 * 
+	 * @param p
+	 *            the first plane
+	 * @param q
+	 *            the second plane
+	 * @param width
+	 *            the width of the planes
+	 * @param height
+	 *            the height of the planes
+	 * @return the product plane
+	 */
+	private static float[][] product(final float[][] p, final float[][] q,
+			final int width, int height)
+	{
+		final float[][] result = new float[height][width];
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					float[] a = p[y], b = q[y], r = result[y];
+					for (int x = 0; x < width; x++)
+						r[x] = a[x] * b[x];
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Returns the plane subsampled by the means of the blocks.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param width
+	 *            the width of the source plane
+	 * @param height
+	 *            the height of the source plane
+	 * @param ratio
+	 *            the ratio of the subsampling
+	 * @return the subsampled plane
+	 */
+	private static float[][] downsample(float[][] src, int width, int height,
+			int ratio)
+	{
+		int lw = (width + ratio - 1) / ratio, lh = (height + ratio - 1) / ratio;
+		float[][] dst = new float[lh][lw];
+		for (int y = 0; y < height; y++)
+		{
+			float[] s = src[y], d = dst[y / ratio];
+			for (int x = 0; x < width; x++)
+				d[x / ratio] += s[x];
+		}
+		for (int y = 0; y < lh; y++)
+		{
+			int rows = Math.min(height, (y + 1) * ratio) - y * ratio;
+			for (int x = 0; x < lw; x++)
+				dst[y][x] /= rows * (Math.min(width, (x + 1) * ratio) - x
+						* ratio);
+		}
+		return dst;
+	}
+
+	/**
+	 * Returns the plane bilinearly upsampled from the subsampled plane.
+	 * 
+	 * @param src
+	 *            the subsampled plane
+	 * @param width
+	 *            the width of the result
+	 * @param height
+	 *            the height of the result
+	 * @param ratio
+	 *            the ratio of the subsampling
+	 * @return the upsampled plane
+	 */
+	private static float[][] upsample(final float[][] src, final int width,
+			final int height, final int ratio)
+	{
+		final int lw = src[0].length, lh = src.length;
+		final int[] x0 = new int[width], x1 = new int[width];
+		final float[] fx = new float[width];
+		for (int x = 0; x < width; x++)
+		{
+			float u = Math.min(lw - 1, Math.max(0, (x + 0.5f) / ratio - 0.5f));
+			x0[x] = (int) u;
+			x1[x] = Math.min(lw - 1, x0[x] + 1);
+			fx[x] = u - x0[x];
+		}
+		final float[][] dst = new float[height][width];
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					float v = Math.min(lh - 1, Math.max(0, (y + 0.5f) / ratio
+							- 0.5f));
+					int v0 = (int) v, v1 = Math.min(lh - 1, v0 + 1);
+					float fy = v - v0;
+					float[] s0 = src[v0], s1 = src[v1], d = dst[y];
+					for (int x = 0; x < width; x++)
+					{
+						float top = s0[x0[x]] + fx[x] * (s0[x1[x]] - s0[x0[x]]);
+						float bottom = s1[x0[x]] + fx[x]
+								* (s1[x1[x]] - s1[x0[x]]);
+						d[x] = top + fy * (bottom - top);
+					}
+				}
+			}
+		});
+		return dst;
+	}
+
+	/**
+	 * Returns the normalized planes of the image.
+	 * 
+	 * @param image
+	 *            the image
+	 * @return the gray plane, or the red, green and blue planes
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	private float[][][] planes(Image image)
+	{
+		byte[][][] channels = channels(image);
+		final int width = image.getWidth();
+		float[][][] planes = new float[channels.length][][];
+		for (int c = 0; c < channels.length; c++)
+		{
+			final byte[][] src = channels[c];
+			final float[][] dst = planes[c] = new float[image.getHeight()][width];
+			ParallelUtils.forRows(width, image.getHeight(),
+					new ParallelUtils.RowTask()
+					{
+						@Override
+						public void run(int y0, int yt)
+						{
+							for (int y = y0; y < yt; y++)
+								for (int x = 0; x < width; x++)
+									dst[y][x] = (src[y][x] & 0xff)
+											/ (float) (COLOR_SCALE_LEVEL - 1);
+						}
+					});
+		}
+		return planes;
+	}
+
+	/**
+	 * Returns the channel matrices of the image.
+	 * 
+	 * @param image
+	 *            the image
+	 * @return the gray matrix, or the red, green and blue matrices
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	private byte[][][] channels(Image image)
+	{
+		if (image instanceof GrayImage)
+			return new byte[][][] { ((GrayImage) image).getGrayMatrix() };
+		if (image instanceof ColorImage)
+		{
+			ColorImage ci = (ColorImage) image;
+			return new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+					ci.getBlueMatrix() };
+		}
+		throw new IllegalImageTypeException(getClass(), image.getClass());
+	}
+
+	/**
+	 * Returns the radius of the window.
+	 * 
+	 * @return the radius
+	 */
+	public int getRadius()
+	{
+		return radius;
+	}
+
+	/**
+	 * Returns the regularization of the fitted coefficients.
+	 * 
+	 * @return the regularization
+	 */
+	public float getEpsilon()
+	{
+		return epsilon;
+	}
+
+	/**
+	 * Returns the ratio of the subsampling.
+	 * 
+	 * @return the ratio, 1 for the exact filter
+	 */
+	public int getSubsampling()
+	{
+		return subsampling;
+	}
+}
@@ -106,14 +106,9 @@ public abstract class HistogramNormalization<T extends Image> implements ImageOp
 		{
 			int height = source.getHeight();
 			int width = source.getWidth();
-			GrayImage result = source.clone();
+			GrayImage result = new GrayImage(width, height);
 			Histogram.Gray hist = (Histogram.Gray) Histogram.histogram(source);
-			float[] gray = hist.getPDF();
-			for (int i = 1; i < gray.length; i++)
-				gray[i] += gray[i - 1];
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-					result.setPixel(x, y, limit((int) function.function(gray[result.getPixel(x, y)])));
+			EnhanceTransformation.map(source.getGrayMatrix(), result.getGrayMatrix(), table(hist.getData()), width, height);
 			return result;
 		}
 	}
@@ -148,22 +143,9 @@ public abstract class HistogramNormalization<T extends Image> implements ImageOp
 			int width = source.getWidth();
 			ColorImage result = source.clone();
 			Histogram.Color hist = (Histogram.Color) Histogram.histogram(source);
-			float[] red = hist.getPDFRed();
-			float[] blue = hist.getPDFBlue();
-			float[] green = hist.getPDFGreen();
-			for (int i = 1; i < red.length; i++)
-			{
-				red[i] += red[i - 1];
-				blue[i] += blue[i - 1];
-				green[i] += green[i - 1];
-			}
-			for (int y = 0; y < height; y++)
-				for (int x = 0; x < width; x++)
-				{
-					result.setRed(x, y, limit((int) function.function(red[result.getRed(x, y)])));
-					result.setBlue(x, y, limit((int) function.function(blue[result.getBlue(x, y)])));
-					result.setGreen(x, y, limit((int) function.function(green[result.getGreen(x, y)])));
-				}
+			EnhanceTransformation.map(result.getRedMatrix(), result.getRedMatrix(), table(hist.getRed()), width, height);
+			EnhanceTransformation.map(result.getGreenMatrix(), result.getGreenMatrix(), table(hist.getGreen()), width, height);
+			EnhanceTransformation.map(result.getBlueMatrix(), result.getBlueMatrix(), table(hist.getBlue()), width, height);
 			return result;
 		}
 	}
@@ -220,6 +202,30 @@ public abstract class HistogramNormalization<T extends Image> implements ImageOp
 		return new PiecewiseAverage(0, COLOR_SCALE_LEVEL, 1);
 	}
 
+	/**
+	 * Returns the 256-entry mapping table of the normalization according to
+	 * the specified histogram.
+	 * 
+	 * @param histogram
+	 *            the histogram of the channel
+	 * @return the mapping table
+	 */
+	public byte[] table(int[] histogram)
+	{
+		long total = 0;
+		for (int i = 0; i < histogram.length; i++)
+			total += histogram[i];
+		float area = total;
+		byte[] table = new byte[COLOR_SCALE_LEVEL];
+		float cdf = 0;
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+		{
+			cdf += histogram[i] / area;
+			table[i] = (byte) limit((int) function.function(cdf));
+		}
+		return table;
+	}
+
 	/**
 	 * Limit the color scale level in the range of [0, {@code COLOR_SCALE_LEVEL}
 	 * ].
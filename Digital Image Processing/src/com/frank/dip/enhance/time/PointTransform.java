@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * PointTransform.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.enhance.time;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.analyze.Histogram;
+import com.frank.dip.math.Function;
+
+/**
+ * The point transform represented by the 256-entry lookup tables of the
+ * channels.
+ * <p>
+ * The gray scale image has one channel and the color image has the red, green
+ * and blue channels, the alpha channel is copied. The binary image has one
+ * channel of the gray levels <code>0</code> and <code>255</code>, the mapped
+ * levels greater than <code>127</code> are <tt>true</tt>. The point transforms are
+ * composed by {@linkplain #then(PointTransform)}, the lookup tables of the
+ * stages are composed into one table of each channel, so a chain of any
+ * length maps the image in one pass.
+ * </p>
+ * <p>
+ * The table of an adaptive stage, e.g. the {@linkplain HistogramNormalization}
+ * or the {@linkplain EnhanceTransformation} with the high accuracy scheme,
+ * depends on the histograms of its input. The histograms of the source image
+ * are counted once and passed through the tables of the former stages, so
+ * the intermediate images are never produced.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class PointTransform<T extends Image> implements
+		ImageOperate<T, T>, ColorScaleLevel
+{
+	/**
+	 * Returns the lookup tables of the channels.
+	 * 
+	 * @param histograms
+	 *            the histograms of the input channels, the elements are
+	 *            <code>null</code> unless the transform is adaptive
+	 * @return the lookup tables, one for each channel
+	 */
+	protected abstract byte[][] tables(int[][] histograms);
+
+	/**
+	 * Returns <tt>true</tt> if the lookup tables depend on the histograms of
+	 * the input.
+	 * 
+	 * @return <tt>true</tt> if the transform is adaptive
+	 */
+	public boolean isAdaptive()
+	{
+		return false;
+	}
+
+	/**
+	 * Returns the composition of the current transform followed by the
+	 * specified transform.
+	 * 
+	 * @param next
+	 *            the transform performed after the current one
+	 * @return the composed transform
+	 */
+	public PointTransform<T> then(PointTransform<T> next)
+	{
+		List<PointTransform<T>> stages = new ArrayList<PointTransform<T>>();
+		if (this instanceof Chain)
+			stages.addAll(((Chain<T>) this).stages);
+		else
+			stages.add(this);
+		if (next instanceof Chain)
+			stages.addAll(((Chain<T>) next).stages);
+		else
+			stages.add(next);
+		return new Chain<T>(stages);
+	}
+
+	/**
+	 * The composition of the point transforms.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static final class Chain<T extends Image> extends
+			PointTransform<T>
+	{
+		/**
+		 * The stages in order.
+		 */
+		private List<PointTransform<T>>	stages;
+
+		/**
+		 * Construct an instance of <tt>Chain</tt>.
+		 * 
+		 * @param stages
+		 *            the stages in order
+		 */
+		private Chain(List<PointTransform<T>> stages)
+		{
+			this.stages = Collections.unmodifiableList(stages);
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.PointTransform#tables(int[][])
+		 */
+		@Override
+		protected byte[][] tables(int[][] histograms)
+		{
+			int channels = histograms.length;
+			histograms = histograms.clone();
+			// the last adaptive stage, the histograms are passed to it
+			int last = -1;
+			for (int s = 0; s < stages.size(); s++)
+				if (stages.get(s).isAdaptive())
+					last = s;
+			byte[][] result = new byte[channels][COLOR_SCALE_LEVEL];
+			for (int c = 0; c < channels; c++)
+				for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+					result[c][i] = (byte) i;
+			for (int s = 0; s < stages.size(); s++)
+			{
+				byte[][] tables = stages.get(s).tables(histograms);
+				for (int c = 0; c < channels; c++)
+				{
+					byte[] r = result[c], t = tables[c];
+					for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+						r[i] = t[r[i] & 0xff];
+					if (s < last)
+					{
+						int[] h = new int[COLOR_SCALE_LEVEL];
+						for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+							h[t[i] & 0xff] += histograms[c][i];
+						histograms[c] = h;
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * @see com.frank.dip.enhance.time.PointTransform#isAdaptive()
+		 */
+		@Override
+		public boolean isAdaptive()
+		{
+			for (PointTransform<T> t : stages)
+				if (t.isAdaptive())
+					return true;
+			return false;
+		}
+
+		/**
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = new StringBuilder();
+			for (PointTransform<T> t : stages)
+				sb.append(sb.length() == 0 ? "" : " then ").append(t);
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Returns the point transform of the enhance transformation.
+	 * 
+	 * @param transformation
+	 *            the enhance transformation
+	 * @return the point transform, adaptive if the high accuracy scheme is
+	 *         used
+	 * @see EnhanceTransformation#compile(int[][])
+	 */
+	public static <T extends Image> PointTransform<T> of(
+			final EnhanceTransformation<T> transformation)
+	{
+		return new PointTransform<T>()
+		{
+			@Override
+			protected byte[][] tables(int[][] histograms)
+			{
+				return transformation.compile(histograms);
+			}
+
+			@Override
+			public boolean isAdaptive()
+			{
+				return transformation.isUseHighAccuracyScheme();
+			}
+
+			@Override
+			public String toString()
+			{
+				return transformation.toString();
+			}
+		};
+	}
+
+	/**
+	 * Returns the point transform of the histogram normalization, whose tables
+	 * are the normalization maps of the input histograms.
+	 * 
+	 * @param normalization
+	 *            the histogram normalization
+	 * @return the adaptive point transform
+	 * @see HistogramNormalization#table(int[])
+	 */
+	public static <T extends Image> PointTransform<T> of(
+			final HistogramNormalization<T> normalization)
+	{
+		return new PointTransform<T>()
+		{
+			@Override
+			protected byte[][] tables(int[][] histograms)
+			{
+				byte[][] tables = new byte[histograms.length][];
+				for (int c = 0; c < histograms.length; c++)
+					tables[c] = normalization.table(histograms[c]);
+				return tables;
+			}
+
+			@Override
+			public boolean isAdaptive()
+			{
+				return true;
+			}
+
+			@Override
+			public String toString()
+			{
+				return "histogram normalization";
+			}
+		};
+	}
+
+	/**
+	 * Returns the point transform applying the function to all the channels.
+	 * The output of the function is truncated and limited in the range of
+	 * <code>[0, 255]</code>.
+	 * 
+	 * @param function
+	 *            the transform function
+	 * @return the point transform
+	 */
+	public static <T extends Image> PointTransform<T> of(Function function)
+	{
+		byte[] table = new byte[COLOR_SCALE_LEVEL];
+		for (int i = 0; i < COLOR_SCALE_LEVEL; i++)
+		{
+			int v = (int) function.function(i);
+			table[i] = (byte) (v < 0 ? 0 : (v < COLOR_SCALE_LEVEL ? v
+					: COLOR_SCALE_LEVEL - 1));
+		}
+		return of(table, table, table);
+	}
+
+	/**
+	 * Returns the point transform of the fixed lookup tables.
+	 * 
+	 * @param tables
+	 *            one table for all the channels, or the tables of the red,
+	 *            green and blue channels
+	 * @return the point transform
+	 */
+	public static <T extends Image> PointTransform<T> of(final byte[]... tables)
+	{
+		if (tables.length != 1 && tables.length != 3)
+			throw new IllegalArgumentException(String.format(
+					"The count of tables(%d) must be 1 or 3.", tables.length));
+		for (byte[] table : tables)
+			if (table.length != COLOR_SCALE_LEVEL)
+				throw new IllegalArgumentException(String.format(
+						"The length of table(%d) must be %d.", table.length,
+						COLOR_SCALE_LEVEL));
+		return new PointTransform<T>()
+		{
+			@Override
+			protected byte[][] tables(int[][] histograms)
+			{
+				byte[][] result = new byte[histograms.length][];
+				for (int c = 0; c < result.length; c++)
+					result[c] = tables[tables.length == 1 ? 0 : c];
+				return result;
+			}
+
+			@Override
+			public String toString()
+			{
+				return "lookup table";
+			}
+		};
+	}
+
+	/**
+	 * Compile the transform into the lookup tables of the channels of the
+	 * specified image.
+	 * 
+	 * @param source
+	 *            the source image
+	 * @return the lookup tables, one for the gray scale and the binary images
+	 *         and three for the red, green and blue channels of the color image
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	public byte[][] compile(T source)
+	{
+		if (!(source instanceof GrayImage || source instanceof ColorImage
+				|| source instanceof BinaryImage))
+			throw new IllegalImageTypeException(getClass(), source.getClass());
+		int channels = source instanceof ColorImage ? 3 : 1;
+		int[][] histograms = new int[channels][];
+		if (isAdaptive())
+		{
+			// the color histograms follow the gray scale histogram
+			int[][] h = Histogram.histograms(source, true);
+			System.arraycopy(h, h.length - channels, histograms, 0, channels);
+		}
+		return tables(histograms);
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public T operate(T source)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		byte[][] tables = compile(source);
+		T result = (T) source.recreate();
+		if (source instanceof BinaryImage)
+		{
+			final boolean[][] src = ((BinaryImage) source).getBinaryMatrix();
+			final boolean[][] dst = ((BinaryImage) result).getBinaryMatrix();
+			final boolean white = (tables[0][COLOR_SCALE_LEVEL - 1] & 0xff) > 127;
+			final boolean black = (tables[0][0] & 0xff) > 127;
+			ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					for (int y = y0; y < yt; y++)
+					{
+						boolean[] s = src[y], d = dst[y];
+						for (int x = 0; x < width; x++)
+							d[x] = s[x] ? white : black;
+					}
+				}
+			});
+			return result;
+		}
+		byte[][][] src = channels(source), dst = channels(result);
+		for (int c = 0; c < src.length; c++)
+			EnhanceTransformation.map(src[c], dst[c], tables[c], width, height);
+		if (source instanceof ColorImage)
+		{
+			byte[][] alpha = ((ColorImage) source).getAlphaMatrix();
+			byte[][] a = ((ColorImage) result).getAlphaMatrix();
+			for (int y = 0; y < height; y++)
+				System.arraycopy(alpha[y], 0, a[y], 0, width);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the channel matrices of the image.
+	 * 
+	 * @param image
+	 *            the image
+	 * @return the gray matrix, or the red, green and blue matrices
+	 */
+	private static byte[][][] channels(Image image)
+	{
+		if (image instanceof GrayImage)
+			return new byte[][][] { ((GrayImage) image).getGrayMatrix() };
+		ColorImage ci = (ColorImage) image;
+		return new byte[][][] { ci.getRedMatrix(), ci.getGreenMatrix(),
+				ci.getBlueMatrix() };
+	}
+}
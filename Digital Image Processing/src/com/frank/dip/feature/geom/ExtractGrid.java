@@ -7,6 +7,7 @@
  */
 package com.frank.dip.feature.geom;
 
+import com.frank.dip.IntegralImage;
 import com.frank.dip.feature.Sample;
 import com.frank.dip.threshold.GlobalThresholding;
 import com.frank.dip.threshold.Otsu;
@@ -115,24 +116,10 @@ public class ExtractGrid extends ScalableRectangleFeature
 			int beginIndex)
 	{
 		// build integral image
-		double summary = 0.0;
-		int counter;
-		double[][] integral = new double[height + 1][width + 1];
-		for (int y = 1; y <= height; y++, summary += counter)
-		{
-			counter = 0;
-			for (int x = 1; x <= width; x++)
-			{
-				if (bi[y - 1][x - 1])
-					counter++;
-				integral[y][x] = integral[y - 1][x] + counter;
-			}
-		}
-		// do normalization
-		if (isScaled)
-			for (int y = 1; y <= height; y++)
-				for (int x = 1; x <= width; x++)
-					integral[y][x] /= summary;
+		long[][] integral = new IntegralImage(bi, width, height, false)
+				.getSumTable();
+		// the grid values are linear to the table, normalize them at last
+		double summary = integral[height][width];
 		// creating grids
 		double stepX = width / (double) columns;
 		double stepY = height / (double) rows;
@@ -182,7 +169,7 @@ public class ExtractGrid extends ScalableRectangleFeature
 				//				}
 				value = all - left - right - top - bottom + left_top
 						+ left_bottom + right_top + right_bottom;
-				s.insert(index++, value);
+				s.insert(index++, isScaled ? value / summary : value);
 			}
 		return index;
 	}
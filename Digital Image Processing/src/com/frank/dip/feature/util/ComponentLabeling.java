@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ComponentLabeling.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.feature.util;
+
+import java.util.Arrays;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ParallelUtils;
+import com.frank.dip.morph.MorphReconstruction;
+
+/**
+ * The connected component labeling of the white objects in binary image.
+ * <p>
+ * The labeling is the classic two-pass union-find algorithm. The image is
+ * split into row strips which are labeled in parallel, each strip with its own
+ * equivalence table, and the tables are merged along the strip boundaries
+ * afterwards. The area, bounding box, coordinate sums and perimeter of each
+ * provisional label are gathered during the first pass, so the second pass
+ * only rewrites the labels.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ComponentLabeling
+{
+	/**
+	 * The connectivity.
+	 */
+	protected int	connectivity;
+
+	/**
+	 * Construct an instance of <tt>ComponentLabeling</tt> with 8-connectivity.
+	 */
+	public ComponentLabeling()
+	{
+		this(MorphReconstruction.CONNECTIVITY_8);
+	}
+
+	/**
+	 * Construct an instance of <tt>ComponentLabeling</tt>.
+	 * 
+	 * @param connectivity
+	 *            the connectivity,
+	 *            {@linkplain MorphReconstruction#CONNECTIVITY_4} or
+	 *            {@linkplain MorphReconstruction#CONNECTIVITY_8}
+	 * @throws IllegalArgumentException
+	 *             if the connectivity is not supported
+	 */
+	public ComponentLabeling(int connectivity) throws IllegalArgumentException
+	{
+		setConnectivity(connectivity);
+	}
+
+	/**
+	 * Returns the connectivity.
+	 * 
+	 * @return the connectivity
+	 */
+	public int getConnectivity()
+	{
+		return connectivity;
+	}
+
+	/**
+	 * Set the connectivity.
+	 * 
+	 * @param connectivity
+	 *            the connectivity,
+	 *            {@linkplain MorphReconstruction#CONNECTIVITY_4} or
+	 *            {@linkplain MorphReconstruction#CONNECTIVITY_8}
+	 * @throws IllegalArgumentException
+	 *             if the connectivity is not supported
+	 */
+	public void setConnectivity(int connectivity)
+			throws IllegalArgumentException
+	{
+		if (connectivity != MorphReconstruction.CONNECTIVITY_4
+				&& connectivity != MorphReconstruction.CONNECTIVITY_8)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported connectivity: %d", connectivity));
+		this.connectivity = connectivity;
+	}
+
+	/**
+	 * Label the white objects in the specified image.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the labeled components
+	 */
+	public Components label(BinaryImage image)
+	{
+		final boolean[][] data = image.getBinaryMatrix();
+		final int width = image.getWidth(), height = image.getHeight();
+		final int[] labels = new int[width * height];
+		final boolean eight = connectivity == MorphReconstruction.CONNECTIVITY_8;
+		final int bands = ParallelUtils.bands(width, height);
+		final Strip[] strips = new Strip[bands];
+		// first pass
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				Strip s = new Strip(ParallelUtils.bandStart(band, bands,
+						height), ParallelUtils.bandStart(band + 1, bands,
+						height));
+				s.scan(data, labels, width, height, eight);
+				strips[band] = s;
+			}
+		});
+		// merge the equivalence tables of the strips
+		int total = 0;
+		final int[] offset = new int[bands];
+		for (int s = 0; s < bands; s++)
+		{
+			offset[s] = total;
+			total += strips[s].count;
+		}
+		int[] parent = new int[total + 1];
+		for (int s = 0; s < bands; s++)
+			for (int l = 1; l <= strips[s].count; l++)
+				parent[offset[s] + l] = offset[s] + strips[s].parent[l];
+		for (int s = 1; s < bands; s++)
+		{
+			int y = strips[s].y0, p = y * width, q;
+			for (int x = 0; x < width; x++, p++)
+			{
+				if (labels[p] == 0)
+					continue;
+				int a = offset[s] + labels[p];
+				q = p - width;
+				if (labels[q] != 0)
+					union(parent, a, offset[s - 1] + labels[q]);
+				if (eight)
+				{
+					if (x > 0 && labels[q - 1] != 0)
+						union(parent, a, offset[s - 1] + labels[q - 1]);
+					if (x < width - 1 && labels[q + 1] != 0)
+						union(parent, a, offset[s - 1] + labels[q + 1]);
+				}
+			}
+		}
+		// resolve the final labels in the order of first appearance, the root
+		// of a set is always its smallest label
+		final int[] resolved = new int[total + 1];
+		int count = 0;
+		for (int l = 1; l <= total; l++)
+		{
+			int r = find(parent, l);
+			resolved[l] = r == l ? ++count : resolved[r];
+		}
+		Components c = new Components(width, height, count, labels);
+		Arrays.fill(c.minX, Integer.MAX_VALUE);
+		Arrays.fill(c.minY, Integer.MAX_VALUE);
+		Arrays.fill(c.maxX, -1);
+		Arrays.fill(c.maxY, -1);
+		for (int s = 0; s < bands; s++)
+		{
+			Strip strip = strips[s];
+			for (int l = 1; l <= strip.count; l++)
+			{
+				int k = resolved[offset[s] + l];
+				c.area[k] += strip.area[l];
+				c.sumX[k] += strip.sumX[l];
+				c.sumY[k] += strip.sumY[l];
+				c.perimeter[k] += strip.perimeter[l];
+				c.minX[k] = Math.min(c.minX[k], strip.minX[l]);
+				c.minY[k] = Math.min(c.minY[k], strip.minY[l]);
+				c.maxX[k] = Math.max(c.maxX[k], strip.maxX[l]);
+				c.maxY[k] = Math.max(c.maxY[k], strip.maxY[l]);
+			}
+		}
+		// second pass
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				Strip s = strips[band];
+				int o = offset[band];
+				for (int p = s.y0 * width, pt = s.yt * width; p < pt; p++)
+					if (labels[p] != 0)
+						labels[p] = resolved[o + labels[p]];
+			}
+		});
+		return c;
+	}
+
+	/**
+	 * Returns the root of the specified label with path halving.
+	 * 
+	 * @param parent
+	 *            the equivalence table
+	 * @param l
+	 *            the specified label
+	 * @return the root label
+	 */
+	static int find(int[] parent, int l)
+	{
+		while (parent[l] != l)
+		{
+			parent[l] = parent[parent[l]];
+			l = parent[l];
+		}
+		return l;
+	}
+
+	/**
+	 * Merge the sets of the two labels, the smaller root becomes the root of
+	 * the merged set.
+	 * 
+	 * @param parent
+	 *            the equivalence table
+	 * @param a
+	 *            the first label
+	 * @param b
+	 *            the second label
+	 * @return the root of the merged set
+	 */
+	static int union(int[] parent, int a, int b)
+	{
+		a = find(parent, a);
+		b = find(parent, b);
+		if (a < b)
+		{
+			parent[b] = a;
+			return a;
+		}
+		parent[a] = b;
+		return b;
+	}
+
+	/**
+	 * The provisional labels and statistics of a strip of rows.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static class Strip
+	{
+		/**
+		 * The rows <code>[y0, yt)</code> of the strip.
+		 */
+		final int	y0, yt;
+		/**
+		 * The count of the provisional labels.
+		 */
+		int			count;
+		/**
+		 * The local equivalence table.
+		 */
+		int[]		parent;
+		/**
+		 * The statistics of the provisional labels.
+		 */
+		int[]		area, minX, minY, maxX, maxY, perimeter;
+		/**
+		 * The sums of the pixel coordinates of the provisional labels.
+		 */
+		long[]		sumX, sumY;
+
+		/**
+		 * Construct an instance of <tt>Strip</tt>.
+		 * 
+		 * @param y0
+		 *            the first row, inclusive
+		 * @param yt
+		 *            the last row, exclusive
+		 */
+		Strip(int y0, int yt)
+		{
+			this.y0 = y0;
+			this.yt = yt;
+			allocate(64);
+		}
+
+		/**
+		 * Label the strip with the provisional labels and gather the
+		 * statistics.
+		 * 
+		 * @param data
+		 *            the binary matrix
+		 * @param labels
+		 *            the label image
+		 * @param width
+		 *            the image width
+		 * @param height
+		 *            the image height
+		 * @param eight
+		 *            <code>true</code> for 8-connectivity
+		 */
+		void scan(boolean[][] data, int[] labels, int width, int height,
+				boolean eight)
+		{
+			int x, l, n;
+			boolean[] row, up, down;
+			for (int y = y0; y < yt; y++)
+			{
+				row = data[y];
+				up = y > 0 ? data[y - 1] : null;
+				down = y < height - 1 ? data[y + 1] : null;
+				for (x = 0; x < width; x++)
+				{
+					if (!row[x])
+						continue;
+					int p = y * width + x;
+					// the causal neighbors inside the strip
+					l = 0;
+					if (x > 0 && row[x - 1])
+						l = labels[p - 1];
+					if (y > y0)
+					{
+						if (up[x])
+							l = merge(l, labels[p - width]);
+						if (eight)
+						{
+							if (x > 0 && up[x - 1])
+								l = merge(l, labels[p - width - 1]);
+							if (x < width - 1 && up[x + 1])
+								l = merge(l, labels[p - width + 1]);
+						}
+					}
+					if (l == 0)
+					{
+						l = ++count;
+						if (l == parent.length)
+							allocate(parent.length << 1);
+						parent[l] = l;
+						minX[l] = x;
+						minY[l] = y;
+						maxX[l] = x;
+						maxY[l] = y;
+					}
+					else
+					{
+						if (x < minX[l])
+							minX[l] = x;
+						if (x > maxX[l])
+							maxX[l] = x;
+						maxY[l] = y;
+					}
+					labels[p] = l;
+					area[l]++;
+					sumX[l] += x;
+					sumY[l] += y;
+					// the edges towards background or border
+					n = 0;
+					if (x == 0 || !row[x - 1])
+						n++;
+					if (x == width - 1 || !row[x + 1])
+						n++;
+					if (up == null || !up[x])
+						n++;
+					if (down == null || !down[x])
+						n++;
+					perimeter[l] += n;
+				}
+			}
+		}
+
+		/**
+		 * Merge the current label with the label of a neighbor.
+		 * 
+		 * @param l
+		 *            the current label, 0 if not assigned
+		 * @param m
+		 *            the label of the neighbor
+		 * @return the merged label
+		 */
+		private int merge(int l, int m)
+		{
+			if (l == 0 || l == m)
+				return m;
+			return union(parent, l, m);
+		}
+
+		/**
+		 * Grow the tables to the specified capacity.
+		 * 
+		 * @param capacity
+		 *            the specified capacity
+		 */
+		private void allocate(int capacity)
+		{
+			if (parent == null)
+			{
+				parent = new int[capacity];
+				area = new int[capacity];
+				minX = new int[capacity];
+				minY = new int[capacity];
+				maxX = new int[capacity];
+				maxY = new int[capacity];
+				perimeter = new int[capacity];
+				sumX = new long[capacity];
+				sumY = new long[capacity];
+				return;
+			}
+			parent = Arrays.copyOf(parent, capacity);
+			area = Arrays.copyOf(area, capacity);
+			minX = Arrays.copyOf(minX, capacity);
+			minY = Arrays.copyOf(minY, capacity);
+			maxX = Arrays.copyOf(maxX, capacity);
+			maxY = Arrays.copyOf(maxY, capacity);
+			perimeter = Arrays.copyOf(perimeter, capacity);
+			sumX = Arrays.copyOf(sumX, capacity);
+			sumY = Arrays.copyOf(sumY, capacity);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Components.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.feature.util;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+
+import com.frank.dip.BinaryImage;
+
+/**
+ * The connected components found by {@linkplain ComponentLabeling}.
+ * <p>
+ * The components are labeled from 1 to {@linkplain #size()} in the order of
+ * their first pixel in raster scan, label 0 is the background. The label image
+ * is arranged as [(0,0), (1,0), ... , (w, 0), ... , (w, h)].
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Components
+{
+	/**
+	 * The image width.
+	 */
+	protected int		width;
+	/**
+	 * The image height.
+	 */
+	protected int		height;
+	/**
+	 * The count of the components.
+	 */
+	protected int		count;
+	/**
+	 * The label image.
+	 */
+	protected int[]		labels;
+	/**
+	 * The areas of the components, indexed by label.
+	 */
+	protected int[]		area;
+	/**
+	 * The bounds of the components, indexed by label.
+	 */
+	protected int[]		minX, minY, maxX, maxY;
+	/**
+	 * The sums of the pixel coordinates, indexed by label.
+	 */
+	protected long[]	sumX, sumY;
+	/**
+	 * The perimeters of the components, indexed by label.
+	 */
+	protected int[]		perimeter;
+
+	/**
+	 * Construct an instance of <tt>Components</tt>.
+	 * 
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @param count
+	 *            the count of the components
+	 * @param labels
+	 *            the label image
+	 */
+	protected Components(int width, int height, int count, int[] labels)
+	{
+		this.width = width;
+		this.height = height;
+		this.count = count;
+		this.labels = labels;
+		area = new int[count + 1];
+		minX = new int[count + 1];
+		minY = new int[count + 1];
+		maxX = new int[count + 1];
+		maxY = new int[count + 1];
+		sumX = new long[count + 1];
+		sumY = new long[count + 1];
+		perimeter = new int[count + 1];
+	}
+
+	/**
+	 * Returns the count of the components.
+	 * 
+	 * @return the count of the components
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the width of the labeled image.
+	 * 
+	 * @return the image width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Returns the height of the labeled image.
+	 * 
+	 * @return the image height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Returns the label at the specified point <code>(x, y)</code>.
+	 * 
+	 * @param x
+	 *            X-coordinate of the position
+	 * @param y
+	 *            Y-coordinate of the position
+	 * @return the label, 0 for background
+	 */
+	public int getLabel(int x, int y)
+	{
+		return labels[y * width + x];
+	}
+
+	/**
+	 * Returns the exact label image.
+	 * <p>
+	 * The label image will be arranged as [(0,0), (1,0), ... , (w, 0), ... ,
+	 * (w, h)].
+	 * </p>
+	 * 
+	 * @return the label image
+	 */
+	public int[] getLabels()
+	{
+		return labels;
+	}
+
+	/**
+	 * Returns the count of pixels of the specified component.
+	 * 
+	 * @param label
+	 *            the label of the component in [1, {@linkplain #size()}]
+	 * @return the area
+	 */
+	public int getArea(int label)
+	{
+		return area[label];
+	}
+
+	/**
+	 * Returns the bounding box of the specified component. The width and
+	 * height of the rectangle are the count of columns and rows covered.
+	 * 
+	 * @param label
+	 *            the label of the component in [1, {@linkplain #size()}]
+	 * @return the bounding box
+	 */
+	public Rectangle getBound(int label)
+	{
+		return new Rectangle(minX[label], minY[label], maxX[label]
+				- minX[label] + 1, maxY[label] - minY[label] + 1);
+	}
+
+	/**
+	 * Returns the centroid of the specified component.
+	 * 
+	 * @param label
+	 *            the label of the component in [1, {@linkplain #size()}]
+	 * @return the centroid
+	 */
+	public Point2D getCentroid(int label)
+	{
+		return new Point2D.Double(sumX[label] / (double) area[label],
+				sumY[label] / (double) area[label]);
+	}
+
+	/**
+	 * Returns the perimeter of the specified component, which is the count of
+	 * the pixel edges shared by the component and the background or the image
+	 * border.
+	 * 
+	 * @param label
+	 *            the label of the component in [1, {@linkplain #size()}]
+	 * @return the perimeter
+	 */
+	public int getPerimeter(int label)
+	{
+		return perimeter[label];
+	}
+
+	/**
+	 * Returns the binary image cropped to the bounding box of the specified
+	 * component, in which only the pixels of the component are white.
+	 * 
+	 * @param label
+	 *            the label of the component in [1, {@linkplain #size()}]
+	 * @return the component image
+	 */
+	public BinaryImage extract(int label)
+	{
+		int x0 = minX[label], y0 = minY[label];
+		int w = maxX[label] - x0 + 1, h = maxY[label] - y0 + 1;
+		BinaryImage image = new BinaryImage(w, h);
+		boolean[][] data = image.getBinaryMatrix();
+		for (int y = 0; y < h; y++)
+			for (int x = 0, p = (y0 + y) * width + x0; x < w; x++, p++)
+				data[y][x] = labels[p] == label;
+		return image;
+	}
+}
@@ -221,6 +221,25 @@ public class AffineTransform implements Cloneable, GeometryTransform
 		return dst;
 	}
 
+	/**
+	 * Returns the inverse transformation of the current transformation.
+	 * 
+	 * @return the inverse transformation
+	 * @throws NoninvertibleTransformException
+	 *             if the matrix cannot be inverted
+	 */
+	public AffineTransform createInverse()
+			throws NoninvertibleTransformException
+	{
+		double det = m00 * m11 - m01 * m10;
+		if (Math.abs(det) <= Double.MIN_VALUE)
+			throw new NoninvertibleTransformException(String.format(
+					"The determine is %f.", det));
+		return new AffineTransform(m11 / det, -m10 / det, -m01 / det, m00
+				/ det, (m01 * m12 - m02 * m11) / det, (m02 * m10 - m00 * m12)
+				/ det);
+	}
+
 	/**
 	 * @see com.frank.dip.geom.GeometryTransform#createTransformedShape(java.awt.Shape)
 	 */
@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AffineWarp.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.geom;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The warp engine for {@linkplain AffineTransform}.
+ * <p>
+ * The source coordinates of an output row are linear in the X-coordinate, so
+ * they are computed incrementally with one addition per pixel instead of one
+ * inverse transformation per pixel. The output is produced row by row and the
+ * neighbors are read directly from the pixel storage. The rows are processed
+ * in parallel bands.
+ * </p>
+ * <p>
+ * The axis-aligned scalings and translations are detected: the source columns
+ * of a scaling are computed once for all rows, and an integer translation
+ * copies the rows directly.
+ * </p>
+ * <p>
+ * {@linkplain Geometry#TYPE_BICUBIC} reads the same four neighbors as
+ * {@linkplain Geometry#TYPE_BILINEAR}, the same as
+ * {@linkplain Interpolation#bicubic(float, float, int, int, int, int)}.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+final class AffineWarp
+{
+	/**
+	 * Warp the specified byte planes.
+	 *
+	 * @param src
+	 *            the source planes
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the values filled in each destination plane where the source
+	 *            position is out of the source image
+	 * @param rect
+	 *            the bound of the destination image in the transformed space
+	 * @param inverse
+	 *            the inverse transformation
+	 * @param type
+	 *            the interpolation type
+	 */
+	static void warp(final byte[][][] src, final int width, final int height,
+			final byte[][][] dst, final byte[] fill, final Rectangle rect,
+			AffineTransform inverse, final int type)
+	{
+		final double a = inverse.m00, b = inverse.m01, c = inverse.m02;
+		final double d = inverse.m10, e = inverse.m11, f = inverse.m12;
+		if (b == 0 && d == 0)
+		{
+			if (a == 1 && e == 1 && c == Math.rint(c) && f == Math.rint(f))
+				translate(src, width, height, dst, fill, rect, (int) c,
+						(int) f);
+			else
+				scale(src, width, height, dst, fill, rect, a, c, e, f, type);
+			return;
+		}
+		ParallelUtils.forRows(rect.width, rect.height,
+				new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						for (int y = y0; y < yt; y++)
+						{
+							double sx = a * rect.x + b * (y + rect.y) + c;
+							double sy = d * rect.x + e * (y + rect.y) + f;
+							if (type == Geometry.TYPE_NEAREST_NEIGHBOR)
+								nearestRow(src, width, height, dst, fill, y,
+										rect.width, sx, sy, a, d);
+							else
+								bilinearRow(src, width, height, dst, fill, y,
+										rect.width, sx, sy, a, d);
+						}
+					}
+				});
+	}
+
+	/**
+	 * Warp the specified binary plane.
+	 *
+	 * @param src
+	 *            the source plane
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination plane
+	 * @param fill
+	 *            the value filled where the source position is out of the
+	 *            source image
+	 * @param rect
+	 *            the bound of the destination image in the transformed space
+	 * @param inverse
+	 *            the inverse transformation
+	 * @param type
+	 *            the interpolation type
+	 */
+	static void warp(final boolean[][] src, final int width, final int height,
+			final boolean[][] dst, final boolean fill, final Rectangle rect,
+			AffineTransform inverse, final int type)
+	{
+		final double a = inverse.m00, b = inverse.m01, c = inverse.m02;
+		final double d = inverse.m10, e = inverse.m11, f = inverse.m12;
+		if (a == 1 && b == 0 && d == 0 && e == 1 && c == Math.rint(c)
+				&& f == Math.rint(f))
+		{
+			final int tx = (int) c + rect.x, ty = (int) f + rect.y;
+			ParallelUtils.forRows(rect.width, rect.height,
+					new ParallelUtils.RowTask()
+					{
+						@Override
+						public void run(int y0, int yt)
+						{
+							int x0 = Math.max(0, -tx), xt = Math.min(
+									rect.width, width - tx);
+							for (int y = y0; y < yt; y++)
+							{
+								int sy = y + ty;
+								if (sy < 0 || sy >= height || x0 >= xt)
+								{
+									Arrays.fill(dst[y], fill);
+									continue;
+								}
+								Arrays.fill(dst[y], 0, x0, fill);
+								System.arraycopy(src[sy], x0 + tx, dst[y], x0,
+										xt - x0);
+								Arrays.fill(dst[y], xt, rect.width, fill);
+							}
+						}
+					});
+			return;
+		}
+		ParallelUtils.forRows(rect.width, rect.height,
+				new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						int xi, yi, x0, x1, r0, r1;
+						float ex, ey, top, bottom;
+						for (int y = y0; y < yt; y++)
+						{
+							double sx = a * rect.x + b * (y + rect.y) + c;
+							double sy = d * rect.x + e * (y + rect.y) + f;
+							boolean[] out = dst[y];
+							for (int x = 0; x < rect.width; x++, sx += a, sy += d)
+							{
+								if (type == Geometry.TYPE_NEAREST_NEIGHBOR)
+								{
+									xi = floor(sx + 0.5);
+									yi = floor(sy + 0.5);
+									out[x] = (xi < 0 || xi >= width || yi < 0 || yi >= height) ? fill
+											: src[yi][xi];
+									continue;
+								}
+								xi = floor(sx);
+								yi = floor(sy);
+								if (xi < -1 || xi >= width || yi < -1
+										|| yi >= height)
+								{
+									out[x] = fill;
+									continue;
+								}
+								ex = (float) (sx - xi);
+								ey = (float) (sy - yi);
+								x0 = xi < 0 ? 0 : xi;
+								x1 = xi + 1 < width ? xi + 1 : width - 1;
+								r0 = yi < 0 ? 0 : yi;
+								r1 = yi + 1 < height ? yi + 1 : height - 1;
+								top = (src[r0][x0] ? 255 : 0) + ex
+										* ((src[r0][x1] ? 255 : 0) - (src[r0][x0] ? 255 : 0));
+								bottom = (src[r1][x0] ? 255 : 0) + ex
+										* ((src[r1][x1] ? 255 : 0) - (src[r1][x0] ? 255 : 0));
+								out[x] = top + ey * (bottom - top) > 127.5f;
+							}
+						}
+					}
+				});
+	}
+
+	/**
+	 * Translate the specified byte planes by integer offsets, the rows are
+	 * copied directly.
+	 * 
+	 * @param src
+	 *            the source planes
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the filled values
+	 * @param rect
+	 *            the bound of the destination image in the transformed space
+	 * @param dx
+	 *            the X offset of the inverse translation
+	 * @param dy
+	 *            the Y offset of the inverse translation
+	 */
+	private static void translate(final byte[][][] src, final int width,
+			final int height, final byte[][][] dst, final byte[] fill,
+			final Rectangle rect, int dx, int dy)
+	{
+		final int tx = dx + rect.x, ty = dy + rect.y;
+		ParallelUtils.forRows(rect.width, rect.height,
+				new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						int x0 = Math.max(0, -tx), xt = Math.min(rect.width,
+								width - tx);
+						for (int y = y0; y < yt; y++)
+						{
+							int sy = y + ty;
+							for (int k = 0; k < src.length; k++)
+							{
+								byte[] out = dst[k][y];
+								if (sy < 0 || sy >= height || x0 >= xt)
+								{
+									Arrays.fill(out, fill[k]);
+									continue;
+								}
+								Arrays.fill(out, 0, x0, fill[k]);
+								System.arraycopy(src[k][sy], x0 + tx, out, x0,
+										xt - x0);
+								Arrays.fill(out, xt, rect.width, fill[k]);
+							}
+						}
+					}
+				});
+	}
+
+	/**
+	 * Warp the specified byte planes with an axis-aligned scaling and
+	 * translation. The source columns and their weights are the same for
+	 * every row, so they are computed once.
+	 * 
+	 * @param src
+	 *            the source planes
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the filled values
+	 * @param rect
+	 *            the bound of the destination image in the transformed space
+	 * @param sx
+	 *            the X scaling of the inverse transformation
+	 * @param tx
+	 *            the X translation of the inverse transformation
+	 * @param sy
+	 *            the Y scaling of the inverse transformation
+	 * @param ty
+	 *            the Y translation of the inverse transformation
+	 * @param type
+	 *            the interpolation type
+	 */
+	private static void scale(final byte[][][] src, final int width,
+			final int height, final byte[][][] dst, final byte[] fill,
+			final Rectangle rect, double sx, double tx, final double sy,
+			final double ty, final int type)
+	{
+		final boolean nearest = type == Geometry.TYPE_NEAREST_NEIGHBOR;
+		final int dw = rect.width, planes = src.length;
+		// the source columns, -1 for out of the image
+		final int[] x0s = new int[dw], x1s = new int[dw];
+		final float[] exs = new float[dw];
+		for (int x = 0; x < dw; x++)
+		{
+			double s = sx * (x + rect.x) + tx;
+			int xi = floor(nearest ? s + 0.5 : s);
+			if (nearest)
+				x0s[x] = xi < 0 || xi >= width ? -1 : xi;
+			else if (xi < -1 || xi >= width)
+				x0s[x] = -1;
+			else
+			{
+				x0s[x] = xi < 0 ? 0 : xi;
+				x1s[x] = xi + 1 < width ? xi + 1 : width - 1;
+				exs[x] = (float) (s - xi);
+			}
+		}
+		ParallelUtils.forRows(dw, rect.height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int k, x, x0, x1, p00, p01, p10, p11;
+				float ex, ey, top, bottom;
+				byte[] row0, row1, out;
+				for (int y = y0; y < yt; y++)
+				{
+					double s = sy * (y + rect.y) + ty;
+					int yi = floor(nearest ? s + 0.5 : s);
+					if (nearest ? yi < 0 || yi >= height : yi < -1
+							|| yi >= height)
+					{
+						for (k = 0; k < planes; k++)
+							Arrays.fill(dst[k][y], fill[k]);
+						continue;
+					}
+					ey = (float) (s - yi);
+					for (k = 0; k < planes; k++)
+					{
+						out = dst[k][y];
+						row0 = src[k][yi < 0 ? 0 : yi];
+						row1 = nearest ? row0 : src[k][yi + 1 < height ? yi + 1
+								: height - 1];
+						for (x = 0; x < dw; x++)
+						{
+							x0 = x0s[x];
+							if (x0 < 0)
+								out[x] = fill[k];
+							else if (nearest)
+								out[x] = row0[x0];
+							else
+							{
+								x1 = x1s[x];
+								ex = exs[x];
+								p00 = row0[x0] & 0xff;
+								p10 = row0[x1] & 0xff;
+								p01 = row1[x0] & 0xff;
+								p11 = row1[x1] & 0xff;
+								top = p00 + ex * (p10 - p00);
+								bottom = p01 + ex * (p11 - p01);
+								out[x] = (byte) (int) (top + ey
+										* (bottom - top) + 0.5f);
+							}
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Warp one row with nearest-neighbor interpolation.
+	 *
+	 * @param src
+	 *            the source planes
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the filled values
+	 * @param y
+	 *            the destination row
+	 * @param length
+	 *            the length of the destination row
+	 * @param sx
+	 *            the source X-coordinate of the first pixel
+	 * @param sy
+	 *            the source Y-coordinate of the first pixel
+	 * @param dx
+	 *            the increment of the source X-coordinate
+	 * @param dy
+	 *            the increment of the source Y-coordinate
+	 */
+	private static void nearestRow(byte[][][] src, int width, int height,
+			byte[][][] dst, byte[] fill, int y, int length, double sx,
+			double sy, double dx, double dy)
+	{
+		int xi, yi, k, planes = src.length;
+		for (int x = 0; x < length; x++, sx += dx, sy += dy)
+		{
+			xi = floor(sx + 0.5);
+			yi = floor(sy + 0.5);
+			if (xi < 0 || xi >= width || yi < 0 || yi >= height)
+				for (k = 0; k < planes; k++)
+					dst[k][y][x] = fill[k];
+			else
+				for (k = 0; k < planes; k++)
+					dst[k][y][x] = src[k][yi][xi];
+		}
+	}
+
+	/**
+	 * Warp one row with bilinear interpolation.
+	 *
+	 * @param src
+	 *            the source planes
+	 * @param width
+	 *            the width of the source image
+	 * @param height
+	 *            the height of the source image
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the filled values
+	 * @param y
+	 *            the destination row
+	 * @param length
+	 *            the length of the destination row
+	 * @param sx
+	 *            the source X-coordinate of the first pixel
+	 * @param sy
+	 *            the source Y-coordinate of the first pixel
+	 * @param dx
+	 *            the increment of the source X-coordinate
+	 * @param dy
+	 *            the increment of the source Y-coordinate
+	 */
+	private static void bilinearRow(byte[][][] src, int width, int height,
+			byte[][][] dst, byte[] fill, int y, int length, double sx,
+			double sy, double dx, double dy)
+	{
+		int xi, yi, x0, x1, k, planes = src.length, p00, p01, p10, p11;
+		float ex, ey, top, bottom;
+		byte[] row0, row1;
+		for (int x = 0; x < length; x++, sx += dx, sy += dy)
+		{
+			xi = floor(sx);
+			yi = floor(sy);
+			if (xi < -1 || xi >= width || yi < -1 || yi >= height)
+			{
+				for (k = 0; k < planes; k++)
+					dst[k][y][x] = fill[k];
+				continue;
+			}
+			ex = (float) (sx - xi);
+			ey = (float) (sy - yi);
+			x0 = xi < 0 ? 0 : xi;
+			x1 = xi + 1 < width ? xi + 1 : width - 1;
+			for (k = 0; k < planes; k++)
+			{
+				row0 = src[k][yi < 0 ? 0 : yi];
+				row1 = src[k][yi + 1 < height ? yi + 1 : height - 1];
+				p00 = row0[x0] & 0xff;
+				p10 = row0[x1] & 0xff;
+				p01 = row1[x0] & 0xff;
+				p11 = row1[x1] & 0xff;
+				top = p00 + ex * (p10 - p00);
+				bottom = p01 + ex * (p11 - p01);
+				dst[k][y][x] = (byte) (int) (top + ey * (bottom - top) + 0.5f);
+			}
+		}
+	}
+
+	/**
+	 * Returns the largest integer which is not greater than the specified
+	 * value.
+	 *
+	 * @param v
+	 *            the specified value
+	 * @return the floor integer
+	 */
+	static int floor(double v)
+	{
+		int i = (int) v;
+		return v < i ? i - 1 : i;
+	}
+}
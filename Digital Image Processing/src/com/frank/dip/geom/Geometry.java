@@ -126,6 +126,10 @@ public abstract class Geometry<T extends Image>
 
 	/**
 	 * Rotate the image with angle <code>&theta;<code>.
+	 * <p>
+	 * The rotations by exact multiples of <code>&pi;/2</code> are performed by
+	 * {@linkplain Orientation} without interpolation.
+	 * </p>
 	 * 
 	 * @param image
 	 *            the image to rotate
@@ -135,6 +139,9 @@ public abstract class Geometry<T extends Image>
 	 */
 	public T rotate(T image, double theta)
 	{
+		int operation = Orientation.rotation(theta);
+		if (operation >= 0)
+			return Orientation.apply(image, operation);
 		double sin = Math.sin(theta);
 		double cos = Math.cos(theta);
 		try
@@ -159,7 +166,7 @@ public abstract class Geometry<T extends Image>
 	 */
 	public T rotateByDegree(T image, double theta)
 	{
-		return rotate(image, Math.toDegrees(theta));
+		return rotate(image, Math.toRadians(theta));
 	}
 
 	/**
@@ -217,6 +224,10 @@ public abstract class Geometry<T extends Image>
 
 	/**
 	 * Scale the image with specified dimension.
+	 * <p>
+	 * With {@linkplain #TYPE_BICUBIC} the image is resampled by
+	 * {@linkplain Resize} with the bicubic filter.
+	 * </p>
 	 * 
 	 * @param image
 	 *            the image to scale
@@ -226,8 +237,12 @@ public abstract class Geometry<T extends Image>
 	 *            the height factor for scaled image
 	 * @return the scaled image
 	 */
+	@SuppressWarnings("unchecked")
 	public T scale(T image, int width, int height)
 	{
+		if (type == TYPE_BICUBIC)
+			return (T) new Resize(Resize.FILTER_BICUBIC).resize(image, width,
+					height);
 		double sx = width / (double) image.getWidth(), sy = height
 				/ (double) image.getHeight();
 		try
@@ -322,6 +337,83 @@ public abstract class Geometry<T extends Image>
 		return spatialTransform(image, p00, p01, p11, p10, 0, 0);
 	}
 
+	/**
+	 * Create the remap table of the specified transformation with the current
+	 * interpolation type and edge filling scheme. The table can be applied to
+	 * any number of images of the specified size.
+	 * 
+	 * @param transform
+	 *            the geometry transformation
+	 * @param width
+	 *            the source image width
+	 * @param height
+	 *            the source image height
+	 * @return the remap table
+	 * @throws NoninvertibleTransformException
+	 *             if the transformation cannot be inverted
+	 */
+	public RemapTable createRemapTable(GeometryTransform transform, int width,
+			int height) throws NoninvertibleTransformException
+	{
+		return new RemapTable(transform, width, height, type, fillScheme);
+	}
+
+	/**
+	 * Returns the exact result of the transformation if it only moves the
+	 * pixels, which are the mirror transformations and the affine
+	 * transformations whose linear part is a rotation by a multiple of 90
+	 * degrees, a flip or a transposition.
+	 * 
+	 * @param image
+	 *            the image to transform
+	 * @param transform
+	 *            the transformation
+	 * @return the result image, <code>null</code> if the transformation is
+	 *         not an orientation operation
+	 */
+	protected T orient(T image, GeometryTransform transform)
+	{
+		int operation = -1;
+		if (transform instanceof HorizontalMirrorTransform)
+		{
+			HorizontalMirrorTransform t = (HorizontalMirrorTransform) transform;
+			if (t.width == image.getWidth() && t.height == image.getHeight())
+				operation = Orientation.FLIP_HORIZONTAL;
+		}
+		else if (transform instanceof VerticalMirrorTransform)
+		{
+			VerticalMirrorTransform t = (VerticalMirrorTransform) transform;
+			if (t.width == image.getWidth() && t.height == image.getHeight())
+				operation = Orientation.FLIP_VERTICAL;
+		}
+		else if (transform instanceof AffineTransform)
+		{
+			AffineTransform t = (AffineTransform) transform;
+			double a = t.m00, b = t.m01, c = t.m10, d = t.m11;
+			if (b == 0 && c == 0)
+			{
+				if (a == -1 && d == 1)
+					operation = Orientation.FLIP_HORIZONTAL;
+				else if (a == 1 && d == -1)
+					operation = Orientation.FLIP_VERTICAL;
+				else if (a == -1 && d == -1)
+					operation = Orientation.ROTATE_180;
+			}
+			else if (a == 0 && d == 0)
+			{
+				if (b == -1 && c == 1)
+					operation = Orientation.ROTATE_90;
+				else if (b == 1 && c == -1)
+					operation = Orientation.ROTATE_270;
+				else if (b == 1 && c == 1)
+					operation = Orientation.TRANSPOSE;
+				else if (b == -1 && c == -1)
+					operation = Orientation.TRANSVERSE;
+			}
+		}
+		return operation < 0 ? null : Orientation.apply(image, operation);
+	}
+
 	/**
 	 * Getter for the interpolation type.
 	 * 
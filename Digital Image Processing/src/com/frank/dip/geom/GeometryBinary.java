@@ -53,9 +53,21 @@ public class GeometryBinary extends Geometry<BinaryImage>
 	{
 		int height = image.getHeight();
 		int width = image.getWidth();
+		if (transform instanceof MultiGeometryTransform)
+			transform = ((MultiGeometryTransform) transform).normalize();
+		BinaryImage exact = orient(image, transform);
+		if (exact != null)
+			return exact;
 		Rectangle rect = transform.createTransformedShape(new Rectangle(width,
 				height));
 		BinaryImage bi = new BinaryImage(rect.width, rect.height);
+		if (transform instanceof AffineTransform)
+		{
+			AffineWarp.warp(image.getBinaryMatrix(), width, height,
+					bi.getBinaryMatrix(), fillScheme == FILL_WITH_WHITE, rect,
+					((AffineTransform) transform).createInverse(), type);
+			return bi;
+		}
 		int xt, yt, p00, p10, p01, p11;
 		float ex, ey, dx, dy;
 		Point2D.Float p = new Point2D.Float();
@@ -64,8 +76,8 @@ public class GeometryBinary extends Geometry<BinaryImage>
 			case TYPE_BILINEAR:
 			default:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -104,8 +116,8 @@ public class GeometryBinary extends Geometry<BinaryImage>
 				break;
 			case TYPE_NEAREST_NEIGHBOR:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -126,8 +138,8 @@ public class GeometryBinary extends Geometry<BinaryImage>
 				break;
 			case TYPE_BICUBIC:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
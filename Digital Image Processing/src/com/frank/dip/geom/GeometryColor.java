@@ -54,9 +54,26 @@ public class GeometryColor extends Geometry<ColorImage>
 	{
 		int height = image.getHeight();
 		int width = image.getWidth();
+		if (transform instanceof MultiGeometryTransform)
+			transform = ((MultiGeometryTransform) transform).normalize();
+		ColorImage exact = orient(image, transform);
+		if (exact != null)
+			return exact;
 		Rectangle rect = transform.createTransformedShape(new Rectangle(width,
 				height));
 		ColorImage ci = new ColorImage(rect.width, rect.height);
+		if (transform instanceof AffineTransform)
+		{
+			byte a = (byte) (fillScheme == FILL_WITH_BLANK ? 0 : 255);
+			byte c = (byte) (fillScheme == FILL_WITH_WHITE ? 255 : 0);
+			AffineWarp.warp(new byte[][][] { image.getAlphaMatrix(),
+					image.getRedMatrix(), image.getGreenMatrix(),
+					image.getBlueMatrix() }, width, height, new byte[][][] {
+					ci.getAlphaMatrix(), ci.getRedMatrix(), ci.getGreenMatrix(),
+					ci.getBlueMatrix() }, new byte[] { a, c, c, c }, rect,
+					((AffineTransform) transform).createInverse(), type);
+			return ci;
+		}
 		int xt, yt, p00, p10, p01, p11, alpha, red, green, blue;
 		float ex, ey, dx, dy;
 		Point2D.Float p = new Point2D.Float();
@@ -66,8 +83,8 @@ public class GeometryColor extends Geometry<ColorImage>
 			case TYPE_BILINEAR:
 			default:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -145,8 +162,8 @@ public class GeometryColor extends Geometry<ColorImage>
 				break;
 			case TYPE_NEAREST_NEIGHBOR:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -177,8 +194,8 @@ public class GeometryColor extends Geometry<ColorImage>
 				break;
 			case TYPE_BICUBIC:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -53,9 +53,22 @@ public class GeometryGray extends Geometry<GrayImage>
 	{
 		int height = image.getHeight();
 		int width = image.getWidth();
+		if (transform instanceof MultiGeometryTransform)
+			transform = ((MultiGeometryTransform) transform).normalize();
+		GrayImage exact = orient(image, transform);
+		if (exact != null)
+			return exact;
 		Rectangle rect = transform.createTransformedShape(new Rectangle(width,
 				height));
 		GrayImage gi = new GrayImage(rect.width, rect.height);
+		if (transform instanceof AffineTransform)
+		{
+			AffineWarp.warp(new byte[][][] { image.getGrayMatrix() }, width,
+					height, new byte[][][] { gi.getGrayMatrix() },
+					new byte[] { (byte) (fillScheme == FILL_WITH_WHITE ? 255 : 0) },
+					rect, ((AffineTransform) transform).createInverse(), type);
+			return gi;
+		}
 		int xt, yt, p00, p10, p01, p11;
 		float ex, ey, dx, dy;
 		Point2D.Float p = new Point2D.Float();
@@ -64,8 +77,8 @@ public class GeometryGray extends Geometry<GrayImage>
 			case TYPE_BILINEAR:
 			default:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -104,8 +117,8 @@ public class GeometryGray extends Geometry<GrayImage>
 				break;
 			case TYPE_NEAREST_NEIGHBOR:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
@@ -126,8 +139,8 @@ public class GeometryGray extends Geometry<GrayImage>
 				break;
 			case TYPE_BICUBIC:
 			{
-				for (int x = 0; x < rect.width; x++)
-					for (int y = 0; y < rect.height; y++)
+				for (int y = 0; y < rect.height; y++)
+					for (int x = 0; x < rect.width; x++)
 					{
 						p.setLocation(x + rect.x, y + rect.y);
 						transform.inverseTransform(p, p);
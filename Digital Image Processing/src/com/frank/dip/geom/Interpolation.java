@@ -45,6 +45,11 @@ public class Interpolation
 
 	/**
 	 * Bicubic interpolation.
+	 * <p>
+	 * Only the four nearest neighbors are available here, so the value is
+	 * interpolated bilinearly. Use {@linkplain Resize} with
+	 * {@linkplain Resize#FILTER_BICUBIC} for the real bicubic resampling.
+	 * </p>
 	 * 
 	 * @param ex
 	 *            the distance of X coordinate between new pixel position and
@@ -11,6 +11,7 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
+import java.util.LinkedList;
 
 /**
  * The multiplied geometry transform operator.
@@ -18,6 +19,13 @@ import java.awt.geom.Point2D;
  * In this operator, the geometry transformations will be stored in one list and
  * be performed orderly.
  * </p>
+ * <p>
+ * The list can be normalized by {@linkplain #normalize()}, which folds the
+ * consecutive matrix transformations ({@linkplain AffineTransform},
+ * {@linkplain PerspectiveTransform} and the mirror transformations) into one
+ * matrix. A chain of affine transformations becomes one
+ * {@linkplain AffineTransform} and is warped as fast as a single one.
+ * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
@@ -46,6 +54,50 @@ public class MultiGeometryTransform implements GeometryTransform
 		this.transforms = transforms;
 	}
 
+	/**
+	 * Returns the normalized transformation equivalent to this one.
+	 * <p>
+	 * The nested lists are flattened and the consecutive matrix
+	 * transformations are multiplied into one matrix. The result is an
+	 * {@linkplain AffineTransform} if the folded matrix is affine, a
+	 * {@linkplain PerspectiveTransform} if it is projective, or a
+	 * <tt>MultiGeometryTransform</tt> of the remaining stages if some stages
+	 * cannot be represented by a matrix. The stages can be changed from
+	 * outside, e.g. by {@linkplain AffineTransform#setKernel}, so the result
+	 * is computed from the current stages on each call and is not cached. The
+	 * result is a snapshot and does not follow the later changes of the
+	 * stages.
+	 * </p>
+	 * 
+	 * @return the normalized transformation
+	 */
+	public GeometryTransform normalize()
+	{
+		LinkedList<GeometryTransform> stages = new LinkedList<GeometryTransform>();
+		flatten(stages, this);
+		LinkedList<GeometryTransform> result = new LinkedList<GeometryTransform>();
+		double[] m = null;
+		for (GeometryTransform t : stages)
+		{
+			double[] a = matrix(t);
+			if (a == null)
+			{
+				if (m != null)
+					result.add(create(m));
+				m = null;
+				result.add(t);
+			}
+			else
+				m = m == null ? a : multiply(a, m);
+		}
+		if (m != null)
+			result.add(create(m));
+		if (result.size() == 1)
+			return result.getFirst();
+		return new MultiGeometryTransform(
+				result.toArray(new GeometryTransform[result.size()]));
+	}
+
 	/**
 	 * @see com.frank.dip.geom.GeometryTransform#transform(java.awt.geom.Point2D,
 	 *      java.awt.geom.Point2D)
@@ -54,8 +106,8 @@ public class MultiGeometryTransform implements GeometryTransform
 	public Point2D transform(Point2D src, Point2D dst)
 	{
 		for (int i = 0; i < transforms.length; i++)
-			transforms[i].transform(src, dst);
-		return src;
+			src = dst = transforms[i].transform(src, dst);
+		return dst;
 	}
 
 	/**
@@ -67,7 +119,7 @@ public class MultiGeometryTransform implements GeometryTransform
 			throws NoninvertibleTransformException
 	{
 		for (int i = transforms.length - 1; i >= 0; i--)
-			transforms[i].transform(src, dst);
+			src = dst = transforms[i].inverseTransform(src, dst);
 		return dst;
 	}
 
@@ -77,9 +129,94 @@ public class MultiGeometryTransform implements GeometryTransform
 	@Override
 	public Rectangle createTransformedShape(Shape shape)
 	{
+		GeometryTransform n = normalize();
+		if (!(n instanceof MultiGeometryTransform))
+			return n.createTransformedShape(shape);
 		Rectangle rect = transforms[0].createTransformedShape(shape);
 		for (int i = 1; i < transforms.length; i++)
 			rect = transforms[i].createTransformedShape(rect);
 		return rect;
 	}
+
+	/**
+	 * Append the stages of the specified transformation to the list, the
+	 * nested lists are flattened.
+	 * 
+	 * @param stages
+	 *            the stage list
+	 * @param transform
+	 *            the specified transformation
+	 */
+	private static void flatten(LinkedList<GeometryTransform> stages,
+			GeometryTransform transform)
+	{
+		if (transform instanceof MultiGeometryTransform)
+			for (GeometryTransform t : ((MultiGeometryTransform) transform).transforms)
+				flatten(stages, t);
+		else
+			stages.add(transform);
+	}
+
+	/**
+	 * Returns the row-major 3x3 matrix of the specified transformation.
+	 * 
+	 * @param t
+	 *            the specified transformation
+	 * @return the matrix, <code>null</code> if the transformation is not a
+	 *         matrix transformation
+	 */
+	private static double[] matrix(GeometryTransform t)
+	{
+		if (t instanceof AffineTransform)
+		{
+			AffineTransform a = (AffineTransform) t;
+			return new double[] { a.m00, a.m01, a.m02, a.m10, a.m11, a.m12, 0,
+					0, 1 };
+		}
+		if (t instanceof PerspectiveTransform)
+			return ((PerspectiveTransform) t).getMatrix();
+		if (t instanceof HorizontalMirrorTransform)
+			return new double[] { -1, 0, ((HorizontalMirrorTransform) t).width,
+					0, 1, 0, 0, 0, 1 };
+		if (t instanceof VerticalMirrorTransform)
+			return new double[] { 1, 0, 0, 0, -1,
+					((VerticalMirrorTransform) t).height, 0, 0, 1 };
+		return null;
+	}
+
+	/**
+	 * Returns the product <code>a * b</code> of two row-major 3x3 matrices.
+	 * 
+	 * @param a
+	 *            the left matrix
+	 * @param b
+	 *            the right matrix
+	 * @return the product
+	 */
+	private static double[] multiply(double[] a, double[] b)
+	{
+		double[] c = new double[9];
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++)
+				c[i * 3 + j] = a[i * 3] * b[j] + a[i * 3 + 1] * b[3 + j]
+						+ a[i * 3 + 2] * b[6 + j];
+		return c;
+	}
+
+	/**
+	 * Create the transformation of the specified row-major 3x3 matrix.
+	 * 
+	 * @param m
+	 *            the matrix
+	 * @return the {@linkplain AffineTransform} if the matrix is affine,
+	 *         otherwise the {@linkplain PerspectiveTransform}
+	 */
+	private static GeometryTransform create(double[] m)
+	{
+		if (m[6] == 0 && m[7] == 0)
+			return new AffineTransform(m[0] / m[8], m[3] / m[8], m[1] / m[8],
+					m[4] / m[8], m[2] / m[8], m[5] / m[8]);
+		return new PerspectiveTransform(m[0], m[3], m[6], m[1], m[4], m[7],
+				m[2], m[5], m[8]);
+	}
 }
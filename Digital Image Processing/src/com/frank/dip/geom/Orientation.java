@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Orientation.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.geom;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorImage;
+import com.frank.dip.GrayImage;
+import com.frank.dip.HSBImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The exact orientation operators.
+ * <p>
+ * The rotations by multiples of 90 degrees, the transpositions and the flips
+ * only move pixels, so they are performed without interpolation and are
+ * lossless for all image types. The operators which swap the axes copy the
+ * image in square tiles so that both the source rows and the destination rows
+ * of a tile stay in cache, and the tile rows are processed in parallel. The
+ * flips copy or reverse whole rows.
+ * </p>
+ * <p>
+ * The rotations are clockwise on screen, the same direction as
+ * {@linkplain Geometry#rotate(Image, double)} with a positive angle.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Orientation
+{
+	/**
+	 * Keep the image unchanged.
+	 */
+	public static final int	IDENTITY		= 0;
+	/**
+	 * Rotate the image by 90 degrees clockwise.
+	 */
+	public static final int	ROTATE_90		= 1;
+	/**
+	 * Rotate the image by 180 degrees.
+	 */
+	public static final int	ROTATE_180		= 2;
+	/**
+	 * Rotate the image by 270 degrees clockwise.
+	 */
+	public static final int	ROTATE_270		= 3;
+	/**
+	 * Flip the image horizontally, the columns are reversed.
+	 */
+	public static final int	FLIP_HORIZONTAL	= 4;
+	/**
+	 * Flip the image vertically, the rows are reversed.
+	 */
+	public static final int	FLIP_VERTICAL	= 5;
+	/**
+	 * Transpose the image over the main diagonal.
+	 */
+	public static final int	TRANSPOSE		= 6;
+	/**
+	 * Transpose the image over the anti-diagonal.
+	 */
+	public static final int	TRANSVERSE		= 7;
+	/**
+	 * The size of the square tiles.
+	 */
+	private static final int	TILE			= 64;
+	/**
+	 * The operations of the EXIF orientation tags 1 to 8.
+	 */
+	private static final int[]	EXIF			= { IDENTITY, FLIP_HORIZONTAL,
+			ROTATE_180, FLIP_VERTICAL, TRANSPOSE, ROTATE_90, TRANSVERSE,
+			ROTATE_270								};
+
+	/**
+	 * Rotate the image by 90 degrees clockwise.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the rotated image
+	 */
+	public static <T extends Image> T rotate90(T image)
+	{
+		return apply(image, ROTATE_90);
+	}
+
+	/**
+	 * Rotate the image by 180 degrees.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the rotated image
+	 */
+	public static <T extends Image> T rotate180(T image)
+	{
+		return apply(image, ROTATE_180);
+	}
+
+	/**
+	 * Rotate the image by 270 degrees clockwise.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the rotated image
+	 */
+	public static <T extends Image> T rotate270(T image)
+	{
+		return apply(image, ROTATE_270);
+	}
+
+	/**
+	 * Flip the image horizontally.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the flipped image
+	 */
+	public static <T extends Image> T flipHorizontal(T image)
+	{
+		return apply(image, FLIP_HORIZONTAL);
+	}
+
+	/**
+	 * Flip the image vertically.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the flipped image
+	 */
+	public static <T extends Image> T flipVertical(T image)
+	{
+		return apply(image, FLIP_VERTICAL);
+	}
+
+	/**
+	 * Transpose the image over the main diagonal.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the transposed image
+	 */
+	public static <T extends Image> T transpose(T image)
+	{
+		return apply(image, TRANSPOSE);
+	}
+
+	/**
+	 * Transpose the image over the anti-diagonal.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the transposed image
+	 */
+	public static <T extends Image> T transverse(T image)
+	{
+		return apply(image, TRANSVERSE);
+	}
+
+	/**
+	 * Correct the image stored with the specified EXIF orientation tag, so
+	 * that it is displayed upright.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param tag
+	 *            the EXIF orientation tag in [1, 8]
+	 * @return the corrected image
+	 * @throws IllegalArgumentException
+	 *             if the tag is out of range
+	 */
+	public static <T extends Image> T fromExif(T image, int tag)
+			throws IllegalArgumentException
+	{
+		if (tag < 1 || tag > EXIF.length)
+			throw new IllegalArgumentException(String.format(
+					"Illegal EXIF orientation: %d", tag));
+		return apply(image, EXIF[tag - 1]);
+	}
+
+	/**
+	 * Perform the specified orientation operation to the image.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param operation
+	 *            the orientation operation
+	 * @return the result image
+	 * @throws IllegalArgumentException
+	 *             if the operation is not supported
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Image> T apply(T image, int operation)
+			throws IllegalArgumentException, IllegalImageTypeException
+	{
+		if (operation < IDENTITY || operation > TRANSVERSE)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported orientation operation: %d", operation));
+		if (operation == IDENTITY)
+			return (T) image.clone();
+		int w = image.getWidth(), h = image.getHeight();
+		boolean swap = operation == ROTATE_90 || operation == ROTATE_270
+				|| operation == TRANSPOSE || operation == TRANSVERSE;
+		int dw = swap ? h : w, dh = swap ? w : h;
+		if (image instanceof BinaryImage)
+		{
+			BinaryImage bi = new BinaryImage(dw, dh);
+			apply(((BinaryImage) image).getBinaryMatrix(),
+					bi.getBinaryMatrix(), w, h, operation);
+			return (T) bi;
+		}
+		if (image instanceof GrayImage)
+		{
+			GrayImage gi = new GrayImage(dw, dh);
+			apply(((GrayImage) image).getGrayMatrix(), gi.getGrayMatrix(), w,
+					h, operation);
+			return (T) gi;
+		}
+		if (image instanceof ColorImage)
+		{
+			ColorImage src = (ColorImage) image, ci = new ColorImage(dw, dh);
+			apply(src.getAlphaMatrix(), ci.getAlphaMatrix(), w, h, operation);
+			apply(src.getRedMatrix(), ci.getRedMatrix(), w, h, operation);
+			apply(src.getGreenMatrix(), ci.getGreenMatrix(), w, h, operation);
+			apply(src.getBlueMatrix(), ci.getBlueMatrix(), w, h, operation);
+			return (T) ci;
+		}
+		if (image instanceof HSBImage.Compact)
+		{
+			HSBImage.Compact src = (HSBImage.Compact) image, hi = new HSBImage.Compact(
+					dw, dh);
+			apply(src.getAlphaMatrix(), hi.getAlphaMatrix(), w, h, operation);
+			apply(src.getHueData(), hi.getHueData(), w, h, operation);
+			apply(src.getSaturationData(), hi.getSaturationData(), w, h,
+					operation);
+			apply(src.getBrightnessData(), hi.getBrightnessData(), w, h,
+					operation);
+			return (T) hi;
+		}
+		if (image instanceof HSBImage)
+		{
+			HSBImage src = (HSBImage) image, hi = new HSBImage(dw, dh);
+			apply(src.getAlphaMatrix(), hi.getAlphaMatrix(), w, h, operation);
+			apply(src.getHueMatrix(), hi.getHueMatrix(), w, h, operation);
+			apply(src.getSaturationMatrix(), hi.getSaturationMatrix(), w, h,
+					operation);
+			apply(src.getBrightnessMatrix(), hi.getBrightnessMatrix(), w, h,
+					operation);
+			return (T) hi;
+		}
+		throw new IllegalImageTypeException(Orientation.class,
+				image.getClass());
+	}
+
+	/**
+	 * Returns the orientation operation of the rotation by the specified
+	 * angle, if the angle is an exact multiple of 90 degrees.
+	 * 
+	 * @param theta
+	 *            the angle in radians
+	 * @return the operation, <code>-1</code> if the angle is not an exact
+	 *         multiple of 90 degrees
+	 */
+	public static int rotation(double theta)
+	{
+		double n = theta / (Math.PI / 2);
+		if (n != Math.rint(n) || Double.isInfinite(n))
+			return -1;
+		switch ((int) (((long) n % 4 + 4) % 4))
+		{
+			case 1:
+				return ROTATE_90;
+			case 2:
+				return ROTATE_180;
+			case 3:
+				return ROTATE_270;
+			default:
+				return IDENTITY;
+		}
+	}
+
+	/**
+	 * Perform the orientation operation to the byte plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param dst
+	 *            the destination plane
+	 * @param w
+	 *            the source width
+	 * @param h
+	 *            the source height
+	 * @param operation
+	 *            the orientation operation
+	 */
+	static void apply(final byte[][] src, final byte[][] dst, final int w,
+			final int h, int operation)
+	{
+		switch (operation)
+		{
+			case FLIP_VERTICAL:
+				for (int y = 0; y < h; y++)
+					System.arraycopy(src[y], 0, dst[h - 1 - y], 0, w);
+				return;
+			case FLIP_HORIZONTAL:
+			case ROTATE_180:
+				final boolean vertical = operation == ROTATE_180;
+				ParallelUtils.forRows(w, h, new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						for (int y = y0; y < yt; y++)
+						{
+							byte[] s = src[y], d = dst[vertical ? h - 1 - y : y];
+							for (int x = 0, r = w - 1; x < w; x++, r--)
+								d[r] = s[x];
+						}
+					}
+				});
+				return;
+			default:
+				final boolean reverseRows = operation == ROTATE_270
+						|| operation == TRANSVERSE;
+				final boolean reverseColumns = operation == ROTATE_90
+						|| operation == TRANSVERSE;
+				final int tiles = (h + TILE - 1) / TILE;
+				ParallelUtils.forEach(tiles, new ParallelUtils.IndexTask()
+				{
+					@Override
+					public void run(int tile)
+					{
+						int y0 = tile * TILE, yt = Math.min(h, y0 + TILE);
+						for (int x0 = 0; x0 < w; x0 += TILE)
+						{
+							int xt = Math.min(w, x0 + TILE);
+							for (int y = y0; y < yt; y++)
+							{
+								byte[] s = src[y];
+								int c = reverseColumns ? h - 1 - y : y;
+								for (int x = x0; x < xt; x++)
+									dst[reverseRows ? w - 1 - x : x][c] = s[x];
+							}
+						}
+					}
+				});
+		}
+	}
+
+	/**
+	 * Perform the orientation operation to the binary plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param dst
+	 *            the destination plane
+	 * @param w
+	 *            the source width
+	 * @param h
+	 *            the source height
+	 * @param operation
+	 *            the orientation operation
+	 */
+	static void apply(final boolean[][] src, final boolean[][] dst,
+			final int w, final int h, int operation)
+	{
+		switch (operation)
+		{
+			case FLIP_VERTICAL:
+				for (int y = 0; y < h; y++)
+					System.arraycopy(src[y], 0, dst[h - 1 - y], 0, w);
+				return;
+			case FLIP_HORIZONTAL:
+			case ROTATE_180:
+				final boolean vertical = operation == ROTATE_180;
+				ParallelUtils.forRows(w, h, new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						for (int y = y0; y < yt; y++)
+						{
+							boolean[] s = src[y], d = dst[vertical ? h - 1 - y
+									: y];
+							for (int x = 0, r = w - 1; x < w; x++, r--)
+								d[r] = s[x];
+						}
+					}
+				});
+				return;
+			default:
+				final boolean reverseRows = operation == ROTATE_270
+						|| operation == TRANSVERSE;
+				final boolean reverseColumns = operation == ROTATE_90
+						|| operation == TRANSVERSE;
+				final int tiles = (h + TILE - 1) / TILE;
+				ParallelUtils.forEach(tiles, new ParallelUtils.IndexTask()
+				{
+					@Override
+					public void run(int tile)
+					{
+						int y0 = tile * TILE, yt = Math.min(h, y0 + TILE);
+						for (int x0 = 0; x0 < w; x0 += TILE)
+						{
+							int xt = Math.min(w, x0 + TILE);
+							for (int y = y0; y < yt; y++)
+							{
+								boolean[] s = src[y];
+								int c = reverseColumns ? h - 1 - y : y;
+								for (int x = x0; x < xt; x++)
+									dst[reverseRows ? w - 1 - x : x][c] = s[x];
+							}
+						}
+					}
+				});
+		}
+	}
+
+	/**
+	 * Perform the orientation operation to the float plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param dst
+	 *            the destination plane
+	 * @param w
+	 *            the source width
+	 * @param h
+	 *            the source height
+	 * @param operation
+	 *            the orientation operation
+	 */
+	static void apply(final float[][] src, final float[][] dst, final int w,
+			final int h, int operation)
+	{
+		switch (operation)
+		{
+			case FLIP_VERTICAL:
+				for (int y = 0; y < h; y++)
+					System.arraycopy(src[y], 0, dst[h - 1 - y], 0, w);
+				return;
+			case FLIP_HORIZONTAL:
+			case ROTATE_180:
+				final boolean vertical = operation == ROTATE_180;
+				ParallelUtils.forRows(w, h, new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						for (int y = y0; y < yt; y++)
+						{
+							float[] s = src[y], d = dst[vertical ? h - 1 - y
+									: y];
+							for (int x = 0, r = w - 1; x < w; x++, r--)
+								d[r] = s[x];
+						}
+					}
+				});
+				return;
+			default:
+				final boolean reverseRows = operation == ROTATE_270
+						|| operation == TRANSVERSE;
+				final boolean reverseColumns = operation == ROTATE_90
+						|| operation == TRANSVERSE;
+				final int tiles = (h + TILE - 1) / TILE;
+				ParallelUtils.forEach(tiles, new ParallelUtils.IndexTask()
+				{
+					@Override
+					public void run(int tile)
+					{
+						int y0 = tile * TILE, yt = Math.min(h, y0 + TILE);
+						for (int x0 = 0; x0 < w; x0 += TILE)
+						{
+							int xt = Math.min(w, x0 + TILE);
+							for (int y = y0; y < yt; y++)
+							{
+								float[] s = src[y];
+								int c = reverseColumns ? h - 1 - y : y;
+								for (int x = x0; x < xt; x++)
+									dst[reverseRows ? w - 1 - x : x][c] = s[x];
+							}
+						}
+					}
+				});
+		}
+	}
+
+	/**
+	 * Perform the orientation operation to the row-major short plane.
+	 * 
+	 * @param src
+	 *            the source plane
+	 * @param dst
+	 *            the destination plane
+	 * @param w
+	 *            the source width
+	 * @param h
+	 *            the source height
+	 * @param operation
+	 *            the orientation operation
+	 */
+	static void apply(final short[] src, final short[] dst, final int w,
+			final int h, int operation)
+	{
+		switch (operation)
+		{
+			case FLIP_VERTICAL:
+				for (int y = 0; y < h; y++)
+					System.arraycopy(src, y * w, dst, (h - 1 - y) * w, w);
+				return;
+			case FLIP_HORIZONTAL:
+			case ROTATE_180:
+				final boolean vertical = operation == ROTATE_180;
+				ParallelUtils.forRows(w, h, new ParallelUtils.RowTask()
+				{
+					@Override
+					public void run(int y0, int yt)
+					{
+						for (int y = y0; y < yt; y++)
+						{
+							int s = y * w, d = (vertical ? h - 1 - y : y) * w;
+							for (int x = 0, r = w - 1; x < w; x++, r--)
+								dst[d + r] = src[s + x];
+						}
+					}
+				});
+				return;
+			default:
+				final boolean reverseRows = operation == ROTATE_270
+						|| operation == TRANSVERSE;
+				final boolean reverseColumns = operation == ROTATE_90
+						|| operation == TRANSVERSE;
+				final int tiles = (h + TILE - 1) / TILE;
+				ParallelUtils.forEach(tiles, new ParallelUtils.IndexTask()
+				{
+					@Override
+					public void run(int tile)
+					{
+						int y0 = tile * TILE, yt = Math.min(h, y0 + TILE);
+						for (int x0 = 0; x0 < w; x0 += TILE)
+						{
+							int xt = Math.min(w, x0 + TILE);
+							for (int y = y0; y < yt; y++)
+							{
+								int s = y * w;
+								int c = reverseColumns ? h - 1 - y : y;
+								for (int x = x0; x < xt; x++)
+									dst[(reverseRows ? w - 1 - x : x) * h + c] = src[s
+											+ x];
+							}
+						}
+					}
+				});
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * PerspectiveTransform.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.geom;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The perspective (homography) transformation.
+ * 
+ * <pre>
+ *      [ x']   [  m00  m01  m02  ] [ x ]
+ *      [ y'] = [  m10  m11  m12  ] [ y ]
+ *      [ w ]   [  m20  m21  m22  ] [ 1 ]
+ * </pre>
+ * <p>
+ * The transformed point is <code>(x' / w, y' / w)</code>.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class PerspectiveTransform implements GeometryTransform
+{
+	/**
+	 * The perspective transform matrix elements.
+	 */
+	protected double				m00, m10, m20, m01, m11, m21, m02, m12, m22;
+	/**
+	 * The cached inverse transformation.
+	 */
+	private PerspectiveTransform	inverse;
+
+	/**
+	 * Construct an instance of <tt>PerspectiveTransform</tt>.
+	 * 
+	 * @param m00
+	 *            the element of row 0 and column 0
+	 * @param m10
+	 *            the element of row 1 and column 0
+	 * @param m20
+	 *            the element of row 2 and column 0
+	 * @param m01
+	 *            the element of row 0 and column 1
+	 * @param m11
+	 *            the element of row 1 and column 1
+	 * @param m21
+	 *            the element of row 2 and column 1
+	 * @param m02
+	 *            the element of row 0 and column 2
+	 * @param m12
+	 *            the element of row 1 and column 2
+	 * @param m22
+	 *            the element of row 2 and column 2
+	 */
+	public PerspectiveTransform(double m00, double m10, double m20,
+			double m01, double m11, double m21, double m02, double m12,
+			double m22)
+	{
+		this.m00 = m00;
+		this.m10 = m10;
+		this.m20 = m20;
+		this.m01 = m01;
+		this.m11 = m11;
+		this.m21 = m21;
+		this.m02 = m02;
+		this.m12 = m12;
+		this.m22 = m22;
+	}
+
+	/**
+	 * Construct an instance of <tt>PerspectiveTransform</tt> according to
+	 * {@linkplain AffineTransform} instance.
+	 * 
+	 * @param xform
+	 *            the {@linkplain AffineTransform} instance
+	 */
+	public PerspectiveTransform(AffineTransform xform)
+	{
+		this(xform.m00, xform.m10, 0, xform.m01, xform.m11, 0, xform.m02,
+				xform.m12, 1);
+	}
+
+	/**
+	 * Returns the matrix elements in row-major order.
+	 * 
+	 * @return the matrix elements
+	 */
+	public double[] getMatrix()
+	{
+		return new double[] { m00, m01, m02, m10, m11, m12, m20, m21, m22 };
+	}
+
+	/**
+	 * @see com.frank.dip.geom.GeometryTransform#transform(java.awt.geom.Point2D,
+	 *      java.awt.geom.Point2D)
+	 */
+	@Override
+	public Point2D transform(Point2D src, Point2D dst)
+	{
+		if (dst == null)
+		{
+			if (src instanceof Point2D.Float)
+				dst = new Point2D.Float();
+			else
+				dst = new Point2D.Double();
+		}
+		double x0 = src.getX(), y0 = src.getY();
+		double w = m20 * x0 + m21 * y0 + m22;
+		dst.setLocation((m00 * x0 + m01 * y0 + m02) / w, (m10 * x0 + m11 * y0 + m12)
+				/ w);
+		return dst;
+	}
+
+	/**
+	 * @see com.frank.dip.geom.GeometryTransform#inverseTransform(java.awt.geom.Point2D,
+	 *      java.awt.geom.Point2D)
+	 */
+	@Override
+	public Point2D inverseTransform(Point2D src, Point2D dst)
+			throws NoninvertibleTransformException
+	{
+		if (inverse == null)
+			inverse = createInverse();
+		return inverse.transform(src, dst);
+	}
+
+	/**
+	 * Returns the inverse transformation of the current transformation.
+	 * 
+	 * @return the inverse transformation
+	 * @throws NoninvertibleTransformException
+	 *             if the matrix cannot be inverted
+	 */
+	public PerspectiveTransform createInverse()
+			throws NoninvertibleTransformException
+	{
+		// the adjugate matrix
+		double a00 = m11 * m22 - m12 * m21, a01 = m02 * m21 - m01 * m22, a02 = m01
+				* m12 - m02 * m11;
+		double a10 = m12 * m20 - m10 * m22, a11 = m00 * m22 - m02 * m20, a12 = m02
+				* m10 - m00 * m12;
+		double a20 = m10 * m21 - m11 * m20, a21 = m01 * m20 - m00 * m21, a22 = m00
+				* m11 - m01 * m10;
+		double det = m00 * a00 + m01 * a10 + m02 * a20;
+		if (Math.abs(det) <= Double.MIN_VALUE)
+			throw new NoninvertibleTransformException(String.format(
+					"The determine is %f.", det));
+		return new PerspectiveTransform(a00 / det, a10 / det, a20 / det, a01
+				/ det, a11 / det, a21 / det, a02 / det, a12 / det, a22 / det);
+	}
+
+	/**
+	 * Returns the bound of the transformed corners of the bound of the
+	 * specified shape. The shape must lie on one side of the vanishing line.
+	 * 
+	 * @see com.frank.dip.geom.GeometryTransform#createTransformedShape(java.awt.Shape)
+	 */
+	@Override
+	public Rectangle createTransformedShape(Shape shape)
+	{
+		if (shape == null)
+			return null;
+		Rectangle2D r = shape.getBounds2D();
+		double[] xs = { r.getMinX(), r.getMaxX(), r.getMaxX(), r.getMinX() };
+		double[] ys = { r.getMinY(), r.getMinY(), r.getMaxY(), r.getMaxY() };
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		Point2D.Double p = new Point2D.Double();
+		for (int i = 0; i < 4; i++)
+		{
+			p.setLocation(xs[i], ys[i]);
+			transform(p, p);
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
+		}
+		int x0 = (int) Math.floor(minX), y0 = (int) Math.floor(minY);
+		return new Rectangle(x0, y0, (int) Math.ceil(maxX) - x0,
+				(int) Math.ceil(maxY) - y0);
+	}
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RemapTable.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.geom;
+
+import java.awt.Rectangle;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorImage;
+import com.frank.dip.GrayImage;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The precomputed remap table of a geometry transformation.
+ * <p>
+ * The source position and the interpolation weights of every destination
+ * pixel are computed once for a fixed transformation and source size, then the
+ * table can be applied to any number of frames of that size. Applying the
+ * table is only a gather and a blend per pixel.
+ * </p>
+ * <p>
+ * Each destination pixel is stored in 10 bytes: the row and the column of the
+ * top-left source neighbor, the row is {@linkplain #FILL} for the pixels out
+ * of the source image, and the fractions of X and Y in 1/256 packed as
+ * <code>(fx &lt;&lt; 8) | fy</code>. The kernels read the source rows and
+ * columns directly, so no source position is divided per pixel.
+ * </p>
+ * <p>
+ * {@linkplain Geometry#TYPE_BICUBIC} is treated as
+ * {@linkplain Geometry#TYPE_BILINEAR}.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class RemapTable
+{
+	/**
+	 * The source row of the destination pixels out of the source image.
+	 */
+	protected static final int	FILL	= Integer.MIN_VALUE;
+	/**
+	 * The source image width.
+	 */
+	protected final int			width;
+	/**
+	 * The source image height.
+	 */
+	protected final int			height;
+	/**
+	 * The bound of the destination image in the transformed space.
+	 */
+	protected final Rectangle	bound;
+	/**
+	 * The interpolation type.
+	 */
+	protected final int			type;
+	/**
+	 * The edge filling scheme.
+	 */
+	protected final int			fillScheme;
+	/**
+	 * The source rows of the destination pixels.
+	 */
+	protected final int[]		rows;
+	/**
+	 * The source columns of the destination pixels.
+	 */
+	protected final int[]		columns;
+	/**
+	 * The packed interpolation weights of the destination pixels,
+	 * <code>null</code> for nearest-neighbor interpolation.
+	 */
+	protected final char[]		weights;
+
+	/**
+	 * Construct an instance of <tt>RemapTable</tt> with bilinear interpolation
+	 * and blank filling.
+	 * 
+	 * @param transform
+	 *            the geometry transformation
+	 * @param width
+	 *            the source image width
+	 * @param height
+	 *            the source image height
+	 * @throws NoninvertibleTransformException
+	 *             if the transformation cannot be inverted
+	 * @throws IllegalArgumentException
+	 *             if the source size is not supported
+	 */
+	public RemapTable(GeometryTransform transform, int width, int height)
+			throws NoninvertibleTransformException, IllegalArgumentException
+	{
+		this(transform, width, height, Geometry.TYPE_BILINEAR,
+				Geometry.FILL_WITH_BLANK);
+	}
+
+	/**
+	 * Construct an instance of <tt>RemapTable</tt>.
+	 * 
+	 * @param transform
+	 *            the geometry transformation
+	 * @param width
+	 *            the source image width
+	 * @param height
+	 *            the source image height
+	 * @param type
+	 *            the interpolation type
+	 * @param fillScheme
+	 *            the edge filling scheme
+	 * @throws NoninvertibleTransformException
+	 *             if the transformation cannot be inverted
+	 * @throws IllegalArgumentException
+	 *             if the source size is not supported
+	 */
+	public RemapTable(final GeometryTransform transform, final int width,
+			final int height, int type, int fillScheme)
+			throws NoninvertibleTransformException, IllegalArgumentException
+	{
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported source size: %d x %d", width, height));
+		this.width = width;
+		this.height = height;
+		this.type = type;
+		this.fillScheme = fillScheme;
+		bound = transform.createTransformedShape(new Rectangle(width, height));
+		final int w = bound.width;
+		rows = new int[w * bound.height];
+		columns = new int[rows.length];
+		weights = type == Geometry.TYPE_NEAREST_NEIGHBOR ? null
+				: new char[rows.length];
+		final NoninvertibleTransformException[] error = new NoninvertibleTransformException[1];
+		ParallelUtils.forRows(w, bound.height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				Point2D.Double p = new Point2D.Double();
+				try
+				{
+					for (int y = y0, k = y0 * w; y < yt; y++)
+						for (int x = 0; x < w; x++, k++)
+						{
+							p.setLocation(x + bound.x, y + bound.y);
+							transform.inverseTransform(p, p);
+							if (weights == null)
+								nearest(k, p.x, p.y);
+							else
+								bilinear(k, p.x, p.y);
+						}
+				}
+				catch (NoninvertibleTransformException e)
+				{
+					error[0] = e;
+				}
+			}
+		});
+		if (error[0] != null)
+			throw error[0];
+	}
+
+	/**
+	 * Fill the table entry with the nearest neighbor.
+	 * 
+	 * @param k
+	 *            the index of the destination pixel
+	 * @param sx
+	 *            the source X-coordinate
+	 * @param sy
+	 *            the source Y-coordinate
+	 */
+	private void nearest(int k, double sx, double sy)
+	{
+		int xi = AffineWarp.floor(sx + 0.5), yi = AffineWarp.floor(sy + 0.5);
+		if (xi < 0 || xi >= width || yi < 0 || yi >= height)
+		{
+			rows[k] = FILL;
+			return;
+		}
+		rows[k] = yi;
+		columns[k] = xi;
+	}
+
+	/**
+	 * Fill the table entry with the bilinear neighbors.
+	 * 
+	 * @param k
+	 *            the index of the destination pixel
+	 * @param sx
+	 *            the source X-coordinate
+	 * @param sy
+	 *            the source Y-coordinate
+	 */
+	private void bilinear(int k, double sx, double sy)
+	{
+		int xi = AffineWarp.floor(sx), yi = AffineWarp.floor(sy);
+		if (xi < -1 || xi >= width || yi < -1 || yi >= height)
+		{
+			rows[k] = FILL;
+			return;
+		}
+		int fx = (int) ((sx - xi) * 256 + 0.5), fy = (int) ((sy - yi) * 256 + 0.5);
+		if (fx == 256)
+		{
+			xi++;
+			fx = 0;
+		}
+		if (fy == 256)
+		{
+			yi++;
+			fy = 0;
+		}
+		// the neighbors out of the image replicate the edge
+		if (xi < 0)
+		{
+			xi = 0;
+			fx = 0;
+		}
+		else if (xi >= width - 1)
+		{
+			xi = width - 1;
+			fx = 0;
+		}
+		if (yi < 0)
+		{
+			yi = 0;
+			fy = 0;
+		}
+		else if (yi >= height - 1)
+		{
+			yi = height - 1;
+			fy = 0;
+		}
+		rows[k] = yi;
+		columns[k] = xi;
+		weights[k] = (char) (fx << 8 | fy);
+	}
+
+	/**
+	 * Returns the source image width.
+	 * 
+	 * @return the source image width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Returns the source image height.
+	 * 
+	 * @return the source image height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Returns the bound of the destination image in the transformed space.
+	 * 
+	 * @return the bound
+	 */
+	public Rectangle getBound()
+	{
+		return new Rectangle(bound);
+	}
+
+	/**
+	 * Remap the specified gray image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @return the remapped image
+	 * @throws IllegalArgumentException
+	 *             if the image size does not match the table
+	 */
+	public GrayImage apply(GrayImage image) throws IllegalArgumentException
+	{
+		return apply(image, new GrayImage(bound.width, bound.height));
+	}
+
+	/**
+	 * Remap the specified gray image into the specified destination image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param dst
+	 *            the destination image
+	 * @return the destination image
+	 * @throws IllegalArgumentException
+	 *             if the image sizes do not match the table
+	 */
+	public GrayImage apply(GrayImage image, GrayImage dst)
+			throws IllegalArgumentException
+	{
+		checkSize(image.getWidth(), image.getHeight(), dst.getWidth(),
+				dst.getHeight());
+		remap(new byte[][][] { image.getGrayMatrix() },
+				new byte[][][] { dst.getGrayMatrix() },
+				new byte[] { (byte) (fillScheme == Geometry.FILL_WITH_WHITE ? 255
+						: 0) });
+		return dst;
+	}
+
+	/**
+	 * Remap the specified color image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @return the remapped image
+	 * @throws IllegalArgumentException
+	 *             if the image size does not match the table
+	 */
+	public ColorImage apply(ColorImage image) throws IllegalArgumentException
+	{
+		return apply(image, new ColorImage(bound.width, bound.height));
+	}
+
+	/**
+	 * Remap the specified color image into the specified destination image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param dst
+	 *            the destination image
+	 * @return the destination image
+	 * @throws IllegalArgumentException
+	 *             if the image sizes do not match the table
+	 */
+	public ColorImage apply(ColorImage image, ColorImage dst)
+			throws IllegalArgumentException
+	{
+		checkSize(image.getWidth(), image.getHeight(), dst.getWidth(),
+				dst.getHeight());
+		byte a = (byte) (fillScheme == Geometry.FILL_WITH_BLANK ? 0 : 255);
+		byte c = (byte) (fillScheme == Geometry.FILL_WITH_WHITE ? 255 : 0);
+		remap(new byte[][][] { image.getAlphaMatrix(), image.getRedMatrix(),
+				image.getGreenMatrix(), image.getBlueMatrix() },
+				new byte[][][] { dst.getAlphaMatrix(), dst.getRedMatrix(),
+						dst.getGreenMatrix(), dst.getBlueMatrix() },
+				new byte[] { a, c, c, c });
+		return dst;
+	}
+
+	/**
+	 * Remap the specified binary image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @return the remapped image
+	 * @throws IllegalArgumentException
+	 *             if the image size does not match the table
+	 */
+	public BinaryImage apply(BinaryImage image) throws IllegalArgumentException
+	{
+		return apply(image, new BinaryImage(bound.width, bound.height));
+	}
+
+	/**
+	 * Remap the specified binary image into the specified destination image.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param dst
+	 *            the destination image
+	 * @return the destination image
+	 * @throws IllegalArgumentException
+	 *             if the image sizes do not match the table
+	 */
+	public BinaryImage apply(BinaryImage image, BinaryImage dst)
+			throws IllegalArgumentException
+	{
+		checkSize(image.getWidth(), image.getHeight(), dst.getWidth(),
+				dst.getHeight());
+		final boolean[][] src = image.getBinaryMatrix(), out = dst
+				.getBinaryMatrix();
+		final boolean fill = fillScheme == Geometry.FILL_WITH_WHITE;
+		final int w = bound.width;
+		ParallelUtils.forRows(w, bound.height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int xs, ys, fx, fy, x1, y1, top, bottom;
+				for (int y = y0, k = y0 * w; y < yt; y++)
+				{
+					boolean[] row = out[y];
+					for (int x = 0; x < w; x++, k++)
+					{
+						ys = rows[k];
+						if (ys == FILL)
+						{
+							row[x] = fill;
+							continue;
+						}
+						xs = columns[k];
+						if (weights == null)
+						{
+							row[x] = src[ys][xs];
+							continue;
+						}
+						fx = weights[k] >> 8;
+						fy = weights[k] & 0xff;
+						x1 = xs + ((fx + 255) >> 8);
+						y1 = ys + ((fy + 255) >> 8);
+						top = (src[ys][xs] ? 255 : 0) * (256 - fx)
+								+ (src[ys][x1] ? 255 : 0) * fx;
+						bottom = (src[y1][xs] ? 255 : 0) * (256 - fx)
+								+ (src[y1][x1] ? 255 : 0) * fx;
+						row[x] = (top * (256 - fy) + bottom * fy + 32768) >> 16 > 127;
+					}
+				}
+			}
+		});
+		return dst;
+	}
+
+	/**
+	 * Remap the specified byte planes.
+	 * 
+	 * @param src
+	 *            the source planes
+	 * @param dst
+	 *            the destination planes
+	 * @param fill
+	 *            the values filled in each destination plane where the source
+	 *            position is out of the source image
+	 */
+	protected void remap(final byte[][][] src, final byte[][][] dst,
+			final byte[] fill)
+	{
+		final int w = bound.width, planes = src.length;
+		ParallelUtils.forRows(w, bound.height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int xs, ys, fx, fy, x1, y1, top, bottom, p;
+				byte[] r0, r1;
+				for (int y = y0, k = y0 * w; y < yt; y++)
+					for (int x = 0; x < w; x++, k++)
+					{
+						ys = rows[k];
+						if (ys == FILL)
+						{
+							for (p = 0; p < planes; p++)
+								dst[p][y][x] = fill[p];
+							continue;
+						}
+						xs = columns[k];
+						if (weights == null)
+						{
+							for (p = 0; p < planes; p++)
+								dst[p][y][x] = src[p][ys][xs];
+							continue;
+						}
+						fx = weights[k] >> 8;
+						fy = weights[k] & 0xff;
+						x1 = xs + ((fx + 255) >> 8);
+						y1 = ys + ((fy + 255) >> 8);
+						for (p = 0; p < planes; p++)
+						{
+							r0 = src[p][ys];
+							r1 = src[p][y1];
+							top = (r0[xs] & 0xff) * (256 - fx) + (r0[x1] & 0xff)
+									* fx;
+							bottom = (r1[xs] & 0xff) * (256 - fx)
+									+ (r1[x1] & 0xff) * fx;
+							dst[p][y][x] = (byte) ((top * (256 - fy) + bottom
+									* fy + 32768) >> 16);
+						}
+					}
+			}
+		});
+	}
+
+	/**
+	 * Check the sizes of the source and destination images.
+	 * 
+	 * @param sw
+	 *            the source width
+	 * @param sh
+	 *            the source height
+	 * @param dw
+	 *            the destination width
+	 * @param dh
+	 *            the destination height
+	 * @throws IllegalArgumentException
+	 *             if the sizes do not match the table
+	 */
+	private void checkSize(int sw, int sh, int dw, int dh)
+			throws IllegalArgumentException
+	{
+		if (sw != width || sh != height)
+			throw new IllegalArgumentException(String.format(
+					"The source size %d x %d does not match the table %d x %d.",
+					sw, sh, width, height));
+		if (dw != bound.width || dh != bound.height)
+			throw new IllegalArgumentException(String.format(
+					"The destination size %d x %d does not match the table %d x %d.",
+					dw, dh, bound.width, bound.height));
+	}
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Resize.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.geom;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorImage;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IllegalImageTypeException;
+import com.frank.dip.Image;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The separable resize operator.
+ * <p>
+ * The image is resampled in two passes, first along the rows and then along
+ * the columns. For each axis the contributing source pixels and their weights
+ * of every destination pixel are precomputed once in a table of 14-bit
+ * fixed-point weights. When downscaling, the filter is stretched by the scale
+ * factor so that every source pixel contributes and the result does not alias.
+ * The source pixels out of the image replicate the edge.
+ * </p>
+ * <p>
+ * The tables of the last resize are kept, so resizing a series of images of
+ * the same size to the same size computes the tables only once.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Resize
+{
+	/**
+	 * The area-averaging filter, each destination pixel is the average of the
+	 * source area it covers.
+	 */
+	public static final int	FILTER_AREA			= 0;
+	/**
+	 * The bilinear (triangle) filter.
+	 */
+	public static final int	FILTER_BILINEAR		= 1;
+	/**
+	 * The bicubic (Catmull-Rom, <code>a = -0.5</code>) filter.
+	 */
+	public static final int	FILTER_BICUBIC		= 2;
+	/**
+	 * The Lanczos filter with 3 lobes.
+	 */
+	public static final int	FILTER_LANCZOS3		= 3;
+	/**
+	 * The bits of the fixed-point weights.
+	 */
+	private static final int	WEIGHT_BITS			= 14;
+	/**
+	 * The fractional bits kept in the intermediate image.
+	 */
+	private static final int	INTERMEDIATE_BITS	= 6;
+	/**
+	 * The filter type.
+	 */
+	protected int				filter;
+	/**
+	 * The tables used by the last resize along X and Y.
+	 */
+	private volatile Table		cacheX, cacheY;
+
+	/**
+	 * Construct an instance of <tt>Resize</tt> with bicubic filter.
+	 */
+	public Resize()
+	{
+		this(FILTER_BICUBIC);
+	}
+
+	/**
+	 * Construct an instance of <tt>Resize</tt>.
+	 * 
+	 * @param filter
+	 *            the filter type
+	 * @throws IllegalArgumentException
+	 *             if the filter type is not supported
+	 */
+	public Resize(int filter) throws IllegalArgumentException
+	{
+		setFilter(filter);
+	}
+
+	/**
+	 * Returns the filter type.
+	 * 
+	 * @return the filter type
+	 */
+	public int getFilter()
+	{
+		return filter;
+	}
+
+	/**
+	 * Set the filter type.
+	 * 
+	 * @param filter
+	 *            the filter type
+	 * @throws IllegalArgumentException
+	 *             if the filter type is not supported
+	 */
+	public void setFilter(int filter) throws IllegalArgumentException
+	{
+		if (filter < FILTER_AREA || filter > FILTER_LANCZOS3)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported filter type: %d", filter));
+		if (this.filter != filter)
+		{
+			cacheX = null;
+			cacheY = null;
+		}
+		this.filter = filter;
+	}
+
+	/**
+	 * Resize the specified image.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param width
+	 *            the width of the resized image
+	 * @param height
+	 *            the height of the resized image
+	 * @return the resized image
+	 * @throws IllegalImageTypeException
+	 *             if the image type is not supported
+	 */
+	public Image resize(Image image, int width, int height)
+			throws IllegalImageTypeException
+	{
+		if (image instanceof BinaryImage)
+			return resize((BinaryImage) image, width, height);
+		if (image instanceof GrayImage)
+			return resize((GrayImage) image, width, height);
+		if (image instanceof ColorImage)
+			return resize((ColorImage) image, width, height);
+		throw new IllegalImageTypeException(Resize.class, image.getClass());
+	}
+
+	/**
+	 * Resize the specified gray image.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param width
+	 *            the width of the resized image
+	 * @param height
+	 *            the height of the resized image
+	 * @return the resized image
+	 */
+	public GrayImage resize(GrayImage image, int width, int height)
+	{
+		GrayImage gi = new GrayImage(width, height);
+		resize(new byte[][][] { image.getGrayMatrix() }, image.getWidth(),
+				image.getHeight(), new byte[][][] { gi.getGrayMatrix() },
+				width, height);
+		return gi;
+	}
+
+	/**
+	 * Resize the specified color image, each channel including alpha is
+	 * resampled independently.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param width
+	 *            the width of the resized image
+	 * @param height
+	 *            the height of the resized image
+	 * @return the resized image
+	 */
+	public ColorImage resize(ColorImage image, int width, int height)
+	{
+		ColorImage ci = new ColorImage(width, height);
+		resize(new byte[][][] { image.getAlphaMatrix(), image.getRedMatrix(),
+				image.getGreenMatrix(), image.getBlueMatrix() },
+				image.getWidth(), image.getHeight(), new byte[][][] {
+						ci.getAlphaMatrix(), ci.getRedMatrix(),
+						ci.getGreenMatrix(), ci.getBlueMatrix() }, width,
+				height);
+		return ci;
+	}
+
+	/**
+	 * Resize the specified binary image, the image is resampled as a gray
+	 * image and thresholded at the middle level.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param width
+	 *            the width of the resized image
+	 * @param height
+	 *            the height of the resized image
+	 * @return the resized image
+	 */
+	public BinaryImage resize(BinaryImage image, int width, int height)
+	{
+		int w = image.getWidth(), h = image.getHeight();
+		boolean[][] data = image.getBinaryMatrix();
+		byte[][] src = new byte[h][w];
+		for (int y = 0; y < h; y++)
+			for (int x = 0; x < w; x++)
+				if (data[y][x])
+					src[y][x] = (byte) 255;
+		byte[][] dst = new byte[height][width];
+		resize(new byte[][][] { src }, w, h, new byte[][][] { dst }, width,
+				height);
+		BinaryImage bi = new BinaryImage(width, height);
+		boolean[][] out = bi.getBinaryMatrix();
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				out[y][x] = (dst[y][x] & 0xff) > 127;
+		return bi;
+	}
+
+	/**
+	 * Resize the specified byte planes.
+	 * 
+	 * @param src
+	 *            the source planes
+	 * @param sw
+	 *            the source width
+	 * @param sh
+	 *            the source height
+	 * @param dst
+	 *            the destination planes
+	 * @param dw
+	 *            the destination width
+	 * @param dh
+	 *            the destination height
+	 * @throws IllegalArgumentException
+	 *             if the destination size is not positive
+	 */
+	protected void resize(final byte[][][] src, int sw, final int sh,
+			final byte[][][] dst, final int dw, final int dh)
+			throws IllegalArgumentException
+	{
+		if (dw <= 0 || dh <= 0)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported size: %d x %d", dw, dh));
+		Table tx = cacheX, ty = cacheY;
+		if (tx == null || tx.src != sw || tx.dst != dw)
+			cacheX = tx = new Table(filter, sw, dw);
+		if (ty == null || ty.src != sh || ty.dst != dh)
+			cacheY = ty = new Table(filter, sh, dh);
+		final Table cx = tx, cy = ty;
+		final int[][] tmp = new int[sh][dw];
+		for (int p = 0; p < src.length; p++)
+		{
+			final byte[][] plane = src[p], out = dst[p];
+			// horizontal pass
+			ParallelUtils.forRows(dw, sh, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					int n = cx.taps, s, sum, k, o;
+					final int round = 1 << (WEIGHT_BITS - INTERMEDIATE_BITS - 1);
+					for (int y = y0; y < yt; y++)
+					{
+						byte[] row = plane[y];
+						int[] t = tmp[y];
+						for (int x = 0; x < dw; x++)
+						{
+							s = cx.start[x];
+							o = x * n;
+							sum = 0;
+							for (k = 0; k < n; k++)
+								sum += (row[s + k] & 0xff) * cx.weights[o + k];
+							t[x] = (sum + round) >> (WEIGHT_BITS - INTERMEDIATE_BITS);
+						}
+					}
+				}
+			});
+			// vertical pass
+			ParallelUtils.forRows(dw, dh, new ParallelUtils.RowTask()
+			{
+				@Override
+				public void run(int y0, int yt)
+				{
+					int n = cy.taps, s, w, k, x, v;
+					final int shift = WEIGHT_BITS + INTERMEDIATE_BITS;
+					final int round = 1 << (shift - 1);
+					int[] acc = new int[dw];
+					for (int y = y0; y < yt; y++)
+					{
+						s = cy.start[y];
+						for (x = 0; x < dw; x++)
+							acc[x] = round;
+						for (k = 0; k < n; k++)
+						{
+							w = cy.weights[y * n + k];
+							if (w == 0)
+								continue;
+							int[] t = tmp[s + k];
+							for (x = 0; x < dw; x++)
+								acc[x] += t[x] * w;
+						}
+						byte[] row = out[y];
+						for (x = 0; x < dw; x++)
+						{
+							v = acc[x] >> shift;
+							row[x] = (byte) (v < 0 ? 0 : (v > 255 ? 255 : v));
+						}
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the value of the filter kernel.
+	 * 
+	 * @param filter
+	 *            the filter type
+	 * @param x
+	 *            the distance to the center
+	 * @return the kernel value
+	 */
+	static double kernel(int filter, double x)
+	{
+		x = Math.abs(x);
+		switch (filter)
+		{
+			case FILTER_BILINEAR:
+				return x < 1 ? 1 - x : 0;
+			case FILTER_BICUBIC:
+				if (x < 1)
+					return (1.5 * x - 2.5) * x * x + 1;
+				if (x < 2)
+					return ((-0.5 * x + 2.5) * x - 4) * x + 2;
+				return 0;
+			case FILTER_LANCZOS3:
+				if (x < 1e-8)
+					return 1;
+				if (x >= 3)
+					return 0;
+				double px = Math.PI * x;
+				return 3 * Math.sin(px) * Math.sin(px / 3) / (px * px);
+			default:
+				return x < 0.5 ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Returns the support radius of the filter kernel.
+	 * 
+	 * @param filter
+	 *            the filter type
+	 * @return the radius
+	 */
+	static double radius(int filter)
+	{
+		switch (filter)
+		{
+			case FILTER_BILINEAR:
+				return 1;
+			case FILTER_BICUBIC:
+				return 2;
+			case FILTER_LANCZOS3:
+				return 3;
+			default:
+				return 0.5;
+		}
+	}
+
+	/**
+	 * The contribution table of one axis.
+	 * <p>
+	 * Every destination pixel <code>i</code> reads the source pixels
+	 * <code>start[i]</code> to <code>start[i] + taps - 1</code> with the
+	 * weights <code>weights[i * taps]</code> to
+	 * <code>weights[i * taps + taps - 1]</code>, all source indices are in
+	 * range and the weights of a pixel sum to <code>1 &lt;&lt; 14</code>.
+	 * </p>
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	static class Table
+	{
+		/**
+		 * The source and destination lengths.
+		 */
+		final int	src, dst;
+		/**
+		 * The count of the taps of each destination pixel.
+		 */
+		final int	taps;
+		/**
+		 * The first source index of each destination pixel.
+		 */
+		final int[]	start;
+		/**
+		 * The fixed-point weights.
+		 */
+		final int[]	weights;
+
+		/**
+		 * Construct an instance of <tt>Table</tt>.
+		 * 
+		 * @param filter
+		 *            the filter type
+		 * @param src
+		 *            the source length
+		 * @param dst
+		 *            the destination length
+		 */
+		Table(int filter, int src, int dst)
+		{
+			this.src = src;
+			this.dst = dst;
+			double scale = src / (double) dst;
+			double stretch = scale > 1 ? scale : 1;
+			double support = filter == FILTER_AREA ? scale / 2 + 1 : radius(filter) * stretch;
+			int n = (int) Math.ceil(support) * 2 + 1;
+			taps = n < src ? n : src;
+			start = new int[dst];
+			weights = new int[dst * taps];
+			double[] w = new double[src];
+			for (int i = 0; i < dst; i++)
+			{
+				double center = (i + 0.5) * scale - 0.5;
+				int lo = (int) Math.floor(center - support), hi = (int) Math
+						.ceil(center + support);
+				int first = src, last = -1;
+				for (int j = lo; j <= hi; j++)
+				{
+					double v;
+					if (filter == FILTER_AREA)
+					{
+						// the overlap of [j, j + 1) and the covered area
+						double a = Math.max(j, i * scale), b = Math.min(j + 1,
+								(i + 1) * scale);
+						v = b > a ? b - a : 0;
+					}
+					else
+						v = kernel(filter, (j - center) / stretch);
+					if (v == 0)
+						continue;
+					int c = j < 0 ? 0 : (j >= src ? src - 1 : j);
+					if (c < first)
+						first = c;
+					if (c > last)
+						last = c;
+					w[c] += v;
+				}
+				if (last < 0)
+				{
+					// degenerated kernel, use the nearest pixel
+					first = last = Math.min(src - 1, Math.max(0,
+							(int) Math.round(center)));
+					w[first] = 1;
+				}
+				if (last - first + 1 > taps)
+				{
+					// trim the negligible tails which exceed the table
+					while (last - first + 1 > taps)
+						if (Math.abs(w[first]) < Math.abs(w[last]))
+							w[first++] = 0;
+						else
+							w[last--] = 0;
+				}
+				int s = first + taps > src ? src - taps : first;
+				start[i] = s;
+				double total = 0;
+				for (int j = first; j <= last; j++)
+					total += w[j];
+				int sum = 0, max = s;
+				for (int j = s; j < s + taps; j++)
+				{
+					int q = (int) Math.round(w[j] / total * (1 << WEIGHT_BITS));
+					weights[i * taps + j - s] = q;
+					sum += q;
+					if (w[j] > w[max])
+						max = j;
+					w[j] = 0;
+				}
+				// make the weights sum to exactly one
+				weights[i * taps + max - s] += (1 << WEIGHT_BITS) - sum;
+			}
+		}
+	}
+}
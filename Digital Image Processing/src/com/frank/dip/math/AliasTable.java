@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AliasTable.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.math;
+
+/**
+ * The alias table of the discrete distribution.
+ * <p>
+ * The table is built by the method of M. D. Vose in linear time, then each
+ * sample costs one uniform variate and one comparison whatever the count of
+ * the outcomes is. The table is immutable and can be shared by the threads.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class AliasTable
+{
+	/**
+	 * The probabilities of keeping the outcomes of the columns.
+	 */
+	protected double[]	probability;
+	/**
+	 * The alternative outcomes of the columns.
+	 */
+	protected int[]		alias;
+
+	/**
+	 * Construct an instance of <tt>AliasTable</tt>.
+	 * 
+	 * @param weights
+	 *            the non-negative weights of the outcomes, which are not
+	 *            necessary to be normalized
+	 * @throws IllegalArgumentException
+	 *             if a weight is negative or not finite, or the sum of the
+	 *             weights is not positive
+	 */
+	public AliasTable(double[] weights)
+	{
+		int n = weights.length;
+		double sum = 0;
+		for (int i = 0; i < n; i++)
+		{
+			if (!(weights[i] >= 0) || Double.isInfinite(weights[i]))
+				throw new IllegalArgumentException(String.format(
+						"The weight(%f) of outcome %d must be non-negative.",
+						weights[i], i));
+			sum += weights[i];
+		}
+		if (!(sum > 0))
+			throw new IllegalArgumentException(
+					"The sum of the weights must be positive.");
+		probability = new double[n];
+		alias = new int[n];
+		// the scaled weights, the stacks of the small and the large ones
+		double[] scaled = new double[n];
+		int[] small = new int[n], large = new int[n];
+		int ns = 0, nl = 0;
+		for (int i = 0; i < n; i++)
+		{
+			scaled[i] = weights[i] * n / sum;
+			if (scaled[i] < 1)
+				small[ns++] = i;
+			else
+				large[nl++] = i;
+		}
+		while (ns > 0 && nl > 0)
+		{
+			int s = small[--ns], l = large[--nl];
+			probability[s] = scaled[s];
+			alias[s] = l;
+			scaled[l] = scaled[l] + scaled[s] - 1;
+			if (scaled[l] < 1)
+				small[ns++] = l;
+			else
+				large[nl++] = l;
+		}
+		// the rest are full columns up to the rounding errors
+		while (nl > 0)
+		{
+			int l = large[--nl];
+			probability[l] = 1;
+			alias[l] = l;
+		}
+		while (ns > 0)
+		{
+			int s = small[--ns];
+			probability[s] = 1;
+			alias[s] = s;
+		}
+	}
+
+	/**
+	 * Returns the next outcome sampled by the random generator.
+	 * 
+	 * @param random
+	 *            the random generator
+	 * @return the index of the outcome
+	 */
+	public int next(SplitMix random)
+	{
+		double u = random.nextDouble() * probability.length;
+		int i = (int) u;
+		return u - i < probability[i] ? i : alias[i];
+	}
+
+	/**
+	 * Returns the count of the outcomes.
+	 * 
+	 * @return the count
+	 */
+	public int size()
+	{
+		return probability.length;
+	}
+}
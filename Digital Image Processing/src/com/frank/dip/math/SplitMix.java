@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * SplitMix.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.math;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The splittable random generator of the SplitMix64 algorithm.
+ * <p>
+ * The generator is the algorithm of <code>java.util.SplittableRandom</code>:
+ * the state is advanced by an odd gamma and mixed by the 64-bit finalizer.
+ * {@linkplain #split()} returns a new generator of an independent stream, so
+ * each task of a parallel run takes its own generator split in a fixed order
+ * from one root, and the result is reproducible whatever the scheduling is.
+ * The instances are not thread-safe and shall not be shared.
+ * </p>
+ * <p>
+ * The Gaussian variates are generated by the ziggurat method of G. Marsaglia
+ * and W. W. Tsang with 128 layers, most of which cost one 32-bit variate, one
+ * multiplication and one comparison.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class SplitMix
+{
+	/**
+	 * The gamma of the golden ratio.
+	 */
+	private static final long		GOLDEN_GAMMA	= 0x9e3779b97f4a7c15L;
+	/**
+	 * The unit of the 53-bit double.
+	 */
+	private static final double		DOUBLE_UNIT		= 1.0 / (1L << 53);
+	/**
+	 * The seed generator of the default constructor.
+	 */
+	private static final AtomicLong	SEEDER			= new AtomicLong(
+			mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+	/**
+	 * The right bound of the ziggurat base layer.
+	 */
+	private static final double		R				= 3.442619855899;
+	/**
+	 * The thresholds of the ziggurat layers.
+	 */
+	private static final int[]		KN				= new int[128];
+	/**
+	 * The widths of the ziggurat layers scaled by <code>2<sup>-31</sup></code>.
+	 */
+	private static final double[]	WN				= new double[128];
+	/**
+	 * The densities at the layer bounds.
+	 */
+	private static final double[]	FN				= new double[128];
+	static
+	{
+		double m = 2147483648.0, v = 9.91256303526217e-3;
+		double d = R, t = d, q = v / Math.exp(-0.5 * d * d);
+		KN[0] = (int) (d / q * m);
+		KN[1] = 0;
+		WN[0] = q / m;
+		WN[127] = d / m;
+		FN[0] = 1.0;
+		FN[127] = Math.exp(-0.5 * d * d);
+		for (int i = 126; i >= 1; i--)
+		{
+			d = Math.sqrt(-2 * Math.log(v / d + Math.exp(-0.5 * d * d)));
+			KN[i + 1] = (int) (d / t * m);
+			t = d;
+			FN[i] = Math.exp(-0.5 * d * d);
+			WN[i] = d / m;
+		}
+	}
+	/**
+	 * The state.
+	 */
+	private long					seed;
+	/**
+	 * The odd increment of the state.
+	 */
+	private final long				gamma;
+
+	/**
+	 * Construct an instance of <tt>SplitMix</tt> with a seed differs from
+	 * the other instances.
+	 */
+	public SplitMix()
+	{
+		this(mix64(SEEDER.getAndAdd(2 * GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * Construct an instance of <tt>SplitMix</tt>, the instances of the same
+	 * seed generate the same sequence.
+	 * 
+	 * @param seed
+	 *            the seed
+	 */
+	public SplitMix(long seed)
+	{
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Construct an instance of <tt>SplitMix</tt>.
+	 * 
+	 * @param seed
+	 *            the seed
+	 * @param gamma
+	 *            the odd increment
+	 */
+	private SplitMix(long seed, long gamma)
+	{
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Returns a new generator split from the current one, which shares no
+	 * state with it.
+	 * 
+	 * @return the split generator
+	 */
+	public SplitMix split()
+	{
+		return new SplitMix(nextLong(), mixGamma(seed += gamma));
+	}
+
+	/**
+	 * Returns the next 64-bit variate.
+	 * 
+	 * @return the variate
+	 */
+	public long nextLong()
+	{
+		return mix64(seed += gamma);
+	}
+
+	/**
+	 * Returns the next 32-bit variate.
+	 * 
+	 * @return the variate
+	 */
+	public int nextInt()
+	{
+		long z = seed += gamma;
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	/**
+	 * Returns the next variate uniformly distributed in <code>[0, bound)</code>
+	 * by the multiplication of the 32-bit variate, the bias is less than
+	 * <code>bound / 2<sup>32</sup></code>.
+	 * 
+	 * @param bound
+	 *            the positive bound
+	 * @return the variate
+	 */
+	public int nextInt(int bound)
+	{
+		return (int) (((nextInt() & 0xffffffffL) * bound) >>> 32);
+	}
+
+	/**
+	 * Returns the next variate uniformly distributed in <code>[0, 1)</code>.
+	 * 
+	 * @return the variate
+	 */
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Returns the next variate of the standard normal distribution.
+	 * 
+	 * @return the variate
+	 */
+	public double nextGaussian()
+	{
+		int hz = nextInt(), iz = hz & 127;
+		if (Math.abs(hz) < KN[iz])
+			return hz * WN[iz];
+		for (;;)
+		{
+			double x = hz * WN[iz];
+			if (iz == 0)
+			{
+				// the tail beyond the base layer
+				double y;
+				do
+				{
+					x = -Math.log(1 - nextDouble()) / R;
+					y = -Math.log(1 - nextDouble());
+				}
+				while (y + y < x * x);
+				return hz > 0 ? R + x : -R - x;
+			}
+			if (FN[iz] + nextDouble() * (FN[iz - 1] - FN[iz]) < Math.exp(-0.5
+					* x * x))
+				return x;
+			hz = nextInt();
+			iz = hz & 127;
+			if (Math.abs(hz) < KN[iz])
+				return hz * WN[iz];
+		}
+	}
+
+	/**
+	 * The 64-bit finalizer of MurmurHash3 variant 13.
+	 * 
+	 * @param z
+	 *            the state
+	 * @return the mixed value
+	 */
+	private static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the odd gamma of the state, which has enough bit transitions.
+	 * 
+	 * @param z
+	 *            the state
+	 * @return the gamma
+	 */
+	private static long mixGamma(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL
+				: z;
+	}
+}
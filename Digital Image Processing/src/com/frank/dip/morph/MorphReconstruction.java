@@ -0,0 +1,741 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MorphReconstruction.java is PROPRIETARY/CONFIDENTIAL built in 2013.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.morph;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+
+/**
+ * The morphological reconstruction operators.
+ * <p>
+ * The reconstruction is implemented by the hybrid algorithm of L. Vincent
+ * (<i>Morphological grayscale reconstruction in image analysis: applications
+ * and efficient algorithms</i>, 1993): one raster scan, one anti-raster scan
+ * and a FIFO queue propagation for the pixels which are still unstable. Every
+ * pixel is visited a constant number of times in average, so the cost no
+ * longer grows with the size of the objects as the iteration of
+ * {@linkplain MorphBinary#dilate(BinaryImage)} and
+ * {@linkplain MorphBinary#intersect(BinaryImage, BinaryImage)} does.
+ * </p>
+ * <p>
+ * The hole filling, border clearing and regional extrema operators are built
+ * on the reconstruction.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class MorphReconstruction implements ColorScaleLevel
+{
+	/**
+	 * The 4-connectivity, only the horizontal and vertical neighbors are
+	 * connected.
+	 */
+	public static final int		CONNECTIVITY_4	= 4;
+	/**
+	 * The 8-connectivity, the diagonal neighbors are also connected.
+	 */
+	public static final int		CONNECTIVITY_8	= 8;
+	/**
+	 * The X-coordinate offsets of the 8 neighbors, the first 4 of them are the
+	 * 4-connected neighbors.
+	 */
+	private static final int[]	DX				= { -1, 1, 0, 0, -1, 1, -1, 1 };
+	/**
+	 * The Y-coordinate offsets of the 8 neighbors, the first 4 of them are the
+	 * 4-connected neighbors.
+	 */
+	private static final int[]	DY				= { 0, 0, -1, 1, -1, -1, 1, 1 };
+
+	/**
+	 * Reconstruct the marker image under the mask image by dilation.
+	 * 
+	 * <pre>
+	 * {@code S} = R<sup>&delta;</sup><sub>{@code I}</sub>({@code J})
+	 * {@code J}: the marker image
+	 * {@code I}: the mask image
+	 * </pre>
+	 * 
+	 * @param marker
+	 *            the marker image {@code J}
+	 * @param mask
+	 *            the mask image {@code I}
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the reconstructed image {@code S}
+	 */
+	public static BinaryImage reconstructByDilation(BinaryImage marker,
+			BinaryImage mask, int connectivity)
+	{
+		checkDimension(marker, mask);
+		int width = mask.getWidth(), height = mask.getHeight();
+		int[] j = toArray(marker.getBinaryMatrix(), width, height);
+		int[] i = toArray(mask.getBinaryMatrix(), width, height);
+		reconstruct(j, i, width, height, connectivity);
+		return toBinaryImage(j, width, height);
+	}
+
+	/**
+	 * Reconstruct the marker image above the mask image by erosion.
+	 * 
+	 * <pre>
+	 * {@code S} = R<sup>&epsilon;</sup><sub>{@code I}</sub>({@code J})
+	 * {@code J}: the marker image
+	 * {@code I}: the mask image
+	 * </pre>
+	 * 
+	 * @param marker
+	 *            the marker image {@code J}
+	 * @param mask
+	 *            the mask image {@code I}
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the reconstructed image {@code S}
+	 */
+	public static BinaryImage reconstructByErosion(BinaryImage marker,
+			BinaryImage mask, int connectivity)
+	{
+		checkDimension(marker, mask);
+		int width = mask.getWidth(), height = mask.getHeight();
+		int[] j = toArray(marker.getBinaryMatrix(), width, height);
+		int[] i = toArray(mask.getBinaryMatrix(), width, height);
+		negate(j, 1);
+		negate(i, 1);
+		reconstruct(j, i, width, height, connectivity);
+		negate(j, 1);
+		return toBinaryImage(j, width, height);
+	}
+
+	/**
+	 * Reconstruct the marker image under the mask image by dilation.
+	 * 
+	 * <pre>
+	 * {@code S} = R<sup>&delta;</sup><sub>{@code I}</sub>({@code J})
+	 * {@code J}: the marker image
+	 * {@code I}: the mask image
+	 * </pre>
+	 * 
+	 * @param marker
+	 *            the marker image {@code J}
+	 * @param mask
+	 *            the mask image {@code I}
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the reconstructed image {@code S}
+	 */
+	public static GrayImage reconstructByDilation(GrayImage marker,
+			GrayImage mask, int connectivity)
+	{
+		checkDimension(marker, mask);
+		int width = mask.getWidth(), height = mask.getHeight();
+		int[] j = toArray(marker.getGrayMatrix(), width, height);
+		int[] i = toArray(mask.getGrayMatrix(), width, height);
+		reconstruct(j, i, width, height, connectivity);
+		return toGrayImage(j, width, height);
+	}
+
+	/**
+	 * Reconstruct the marker image above the mask image by erosion.
+	 * 
+	 * <pre>
+	 * {@code S} = R<sup>&epsilon;</sup><sub>{@code I}</sub>({@code J})
+	 * {@code J}: the marker image
+	 * {@code I}: the mask image
+	 * </pre>
+	 * 
+	 * @param marker
+	 *            the marker image {@code J}
+	 * @param mask
+	 *            the mask image {@code I}
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the reconstructed image {@code S}
+	 */
+	public static GrayImage reconstructByErosion(GrayImage marker,
+			GrayImage mask, int connectivity)
+	{
+		checkDimension(marker, mask);
+		int width = mask.getWidth(), height = mask.getHeight();
+		int[] j = toArray(marker.getGrayMatrix(), width, height);
+		int[] i = toArray(mask.getGrayMatrix(), width, height);
+		negate(j, COLOR_SCALE_LEVEL - 1);
+		negate(i, COLOR_SCALE_LEVEL - 1);
+		reconstruct(j, i, width, height, connectivity);
+		negate(j, COLOR_SCALE_LEVEL - 1);
+		return toGrayImage(j, width, height);
+	}
+
+	/**
+	 * Fill the holes of the white objects in the specified image. A hole is a
+	 * black region which cannot be reached from the image border, the
+	 * background is propagated with 4-connectivity.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the image whose holes are filled
+	 */
+	public static BinaryImage fillHoles(BinaryImage image)
+	{
+		return fillHoles(image, CONNECTIVITY_4);
+	}
+
+	/**
+	 * Fill the holes of the white objects in the specified image. A hole is a
+	 * black region which cannot be reached from the image border.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity of the background, {@linkplain #CONNECTIVITY_4}
+	 *            or {@linkplain #CONNECTIVITY_8}
+	 * @return the image whose holes are filled
+	 */
+	public static BinaryImage fillHoles(BinaryImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		// the mask is the complement of the image, the marker is the mask on
+		// the border
+		int[] i = toArray(image.getBinaryMatrix(), width, height);
+		negate(i, 1);
+		int[] j = borderMarker(i, width, height, 0);
+		reconstruct(j, i, width, height, connectivity);
+		// the background which is not reached from the border are holes
+		negate(j, 1);
+		return toBinaryImage(j, width, height);
+	}
+
+	/**
+	 * Fill the holes of the specified gray image. A hole is a set of dark
+	 * pixels surrounded by brighter pixels and not connected to the image
+	 * border. The propagation is performed with 4-connectivity.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the image whose holes are filled
+	 */
+	public static GrayImage fillHoles(GrayImage image)
+	{
+		return fillHoles(image, CONNECTIVITY_4);
+	}
+
+	/**
+	 * Fill the holes of the specified gray image. A hole is a set of dark
+	 * pixels surrounded by brighter pixels and not connected to the image
+	 * border.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the image whose holes are filled
+	 */
+	public static GrayImage fillHoles(GrayImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		// reconstruction by erosion of the maximum marker, which equals the
+		// image on the border, performed on the negative image
+		int[] i = toArray(image.getGrayMatrix(), width, height);
+		negate(i, COLOR_SCALE_LEVEL - 1);
+		int[] j = borderMarker(i, width, height, 0);
+		reconstruct(j, i, width, height, connectivity);
+		negate(j, COLOR_SCALE_LEVEL - 1);
+		return toGrayImage(j, width, height);
+	}
+
+	/**
+	 * Remove the white objects which are connected to the image border. The
+	 * objects are traced with 8-connectivity.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the image without border objects
+	 */
+	public static BinaryImage clearBorder(BinaryImage image)
+	{
+		return clearBorder(image, CONNECTIVITY_8);
+	}
+
+	/**
+	 * Remove the white objects which are connected to the image border.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the image without border objects
+	 */
+	public static BinaryImage clearBorder(BinaryImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] i = toArray(image.getBinaryMatrix(), width, height);
+		int[] j = borderMarker(i, width, height, 0);
+		reconstruct(j, i, width, height, connectivity);
+		for (int p = 0; p < i.length; p++)
+			j[p] = i[p] - j[p];
+		return toBinaryImage(j, width, height);
+	}
+
+	/**
+	 * Suppress the structures which are lighter than their surroundings and
+	 * connected to the image border. The structures are traced with
+	 * 8-connectivity.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @return the image without border structures
+	 */
+	public static GrayImage clearBorder(GrayImage image)
+	{
+		return clearBorder(image, CONNECTIVITY_8);
+	}
+
+	/**
+	 * Suppress the structures which are lighter than their surroundings and
+	 * connected to the image border.
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the image without border structures
+	 */
+	public static GrayImage clearBorder(GrayImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] i = toArray(image.getGrayMatrix(), width, height);
+		int[] j = borderMarker(i, width, height, 0);
+		reconstruct(j, i, width, height, connectivity);
+		for (int p = 0; p < i.length; p++)
+			j[p] = i[p] - j[p];
+		return toGrayImage(j, width, height);
+	}
+
+	/**
+	 * Returns the regional maxima of the specified image. A regional maximum
+	 * is a connected plateau of constant intensity whose external boundary
+	 * pixels are all darker.
+	 * 
+	 * <pre>
+	 * {@code S} = {@code A} &minus; R<sup>&delta;</sup><sub>{@code A}</sub>({@code A} &minus; 1) &gt; 0
+	 * </pre>
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the binary image in which the regional maxima are white
+	 */
+	public static BinaryImage regionalMaxima(GrayImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] i = toArray(image.getGrayMatrix(), width, height);
+		return regionalMaxima(i, width, height, connectivity);
+	}
+
+	/**
+	 * Returns the regional minima of the specified image. A regional minimum
+	 * is a connected plateau of constant intensity whose external boundary
+	 * pixels are all brighter.
+	 * 
+	 * <pre>
+	 * {@code S} = R<sup>&epsilon;</sup><sub>{@code A}</sub>({@code A} + 1) &minus; {@code A} &gt; 0
+	 * </pre>
+	 * 
+	 * @param image
+	 *            the specified image
+	 * @param connectivity
+	 *            the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @return the binary image in which the regional minima are white
+	 */
+	public static BinaryImage regionalMinima(GrayImage image, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] i = toArray(image.getGrayMatrix(), width, height);
+		negate(i, COLOR_SCALE_LEVEL - 1);
+		return regionalMaxima(i, width, height, connectivity);
+	}
+
+	/**
+	 * Returns the regional maxima of the specified pixels array.
+	 * 
+	 * @param i
+	 *            the pixels array
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @param connectivity
+	 *            the connectivity
+	 * @return the binary image in which the regional maxima are white
+	 */
+	private static BinaryImage regionalMaxima(int[] i, int width, int height,
+			int connectivity)
+	{
+		int[] j = new int[i.length];
+		for (int p = 0; p < i.length; p++)
+			j[p] = i[p] - 1;
+		reconstruct(j, i, width, height, connectivity);
+		BinaryImage res = new BinaryImage(width, height);
+		boolean[][] data = res.getBinaryMatrix();
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				data[y][x] = i[p] > j[p];
+		return res;
+	}
+
+	/**
+	 * Perform the hybrid reconstruction by dilation of Vincent in place.
+	 * <p>
+	 * The marker array {@code j} will be clipped by the mask array {@code i}
+	 * first and then contains the reconstructed result.
+	 * </p>
+	 * 
+	 * @param j
+	 *            the marker array, also the output
+	 * @param i
+	 *            the mask array
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @param connectivity
+	 *            the connectivity
+	 */
+	static void reconstruct(int[] j, int[] i, int width, int height,
+			int connectivity)
+	{
+		if (connectivity != CONNECTIVITY_4 && connectivity != CONNECTIVITY_8)
+			throw new IllegalArgumentException(String.format(
+					"Unsupported connectivity: %d", connectivity));
+		boolean eight = connectivity == CONNECTIVITY_8;
+		int x, y, p, v;
+		// raster scan with the causal neighbors N+(p)
+		for (y = 0, p = 0; y < height; y++)
+			for (x = 0; x < width; x++, p++)
+			{
+				v = j[p];
+				if (x > 0 && j[p - 1] > v)
+					v = j[p - 1];
+				if (y > 0)
+				{
+					if (j[p - width] > v)
+						v = j[p - width];
+					if (eight)
+					{
+						if (x > 0 && j[p - width - 1] > v)
+							v = j[p - width - 1];
+						if (x < width - 1 && j[p - width + 1] > v)
+							v = j[p - width + 1];
+					}
+				}
+				j[p] = v < i[p] ? v : i[p];
+			}
+		// anti-raster scan with the anti-causal neighbors N-(p)
+		IntQueue fifo = new IntQueue(Math.max(16, (width + height) * 2));
+		for (y = height - 1, p = j.length - 1; y >= 0; y--)
+			for (x = width - 1; x >= 0; x--, p--)
+			{
+				v = j[p];
+				if (x < width - 1 && j[p + 1] > v)
+					v = j[p + 1];
+				if (y < height - 1)
+				{
+					if (j[p + width] > v)
+						v = j[p + width];
+					if (eight)
+					{
+						if (x < width - 1 && j[p + width + 1] > v)
+							v = j[p + width + 1];
+						if (x > 0 && j[p + width - 1] > v)
+							v = j[p + width - 1];
+					}
+				}
+				v = v < i[p] ? v : i[p];
+				j[p] = v;
+				// enqueue p if it can still propagate to an anti-causal neighbor
+				if ((x < width - 1 && isUnstable(j, i, p + 1, v))
+						|| (y < height - 1 && (isUnstable(j, i, p + width, v)
+						|| (eight && ((x < width - 1 && isUnstable(j, i, p
+								+ width + 1, v)) || (x > 0 && isUnstable(j, i, p
+								+ width - 1, v)))))))
+					fifo.add(p);
+			}
+		// propagation
+		int n = eight ? 8 : 4, k, qx, qy, q, jq, iq;
+		while (!fifo.isEmpty())
+		{
+			p = fifo.poll();
+			x = p % width;
+			y = p / width;
+			v = j[p];
+			for (k = 0; k < n; k++)
+			{
+				qx = x + DX[k];
+				qy = y + DY[k];
+				if (qx < 0 || qx >= width || qy < 0 || qy >= height)
+					continue;
+				q = qy * width + qx;
+				jq = j[q];
+				iq = i[q];
+				if (jq < v && iq != jq)
+				{
+					j[q] = v < iq ? v : iq;
+					fifo.add(q);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the neighbor {@code q} can be still raised
+	 * by the value {@code v}.
+	 * 
+	 * @param j
+	 *            the marker array
+	 * @param i
+	 *            the mask array
+	 * @param q
+	 *            the index of the neighbor
+	 * @param v
+	 *            the value of the current pixel
+	 * @return <code>true</code> if the neighbor is unstable
+	 */
+	private static boolean isUnstable(int[] j, int[] i, int q, int v)
+	{
+		return j[q] < v && j[q] < i[q];
+	}
+
+	/**
+	 * Returns a marker which equals to the specified array on the image border
+	 * and the specified value inside.
+	 * 
+	 * @param i
+	 *            the specified array
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @param inside
+	 *            the value inside
+	 * @return the marker array
+	 */
+	private static int[] borderMarker(int[] i, int width, int height,
+			int inside)
+	{
+		int[] j = new int[i.length];
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				j[p] = (x == 0 || y == 0 || x == width - 1 || y == height - 1) ? i[p]
+						: inside;
+		return j;
+	}
+
+	/**
+	 * Replace each element {@code v} of the array with {@code max - v}.
+	 * 
+	 * @param a
+	 *            the array
+	 * @param max
+	 *            the maximum value
+	 */
+	private static void negate(int[] a, int max)
+	{
+		for (int p = 0; p < a.length; p++)
+			a[p] = max - a[p];
+	}
+
+	/**
+	 * Check whether the two images have the same dimension.
+	 * 
+	 * @param marker
+	 *            the marker image
+	 * @param mask
+	 *            the mask image
+	 * @throws IllegalArgumentException
+	 *             if the dimensions are different
+	 */
+	private static void checkDimension(com.frank.dip.Image marker,
+			com.frank.dip.Image mask) throws IllegalArgumentException
+	{
+		if (marker.getWidth() != mask.getWidth()
+				|| marker.getHeight() != mask.getHeight())
+			throw new IllegalArgumentException(
+					String.format(
+							"The dimension of marker (%d, %d) is not match the mask (%d, %d).",
+							marker.getWidth(), marker.getHeight(),
+							mask.getWidth(), mask.getHeight()));
+	}
+
+	/**
+	 * Flatten the binary matrix into 0/1 array.
+	 * 
+	 * @param data
+	 *            the binary matrix
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @return the array
+	 */
+	private static int[] toArray(boolean[][] data, int width, int height)
+	{
+		int[] a = new int[width * height];
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				a[p] = data[y][x] ? 1 : 0;
+		return a;
+	}
+
+	/**
+	 * Flatten the gray matrix into array.
+	 * 
+	 * @param data
+	 *            the gray matrix
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @return the array
+	 */
+	private static int[] toArray(byte[][] data, int width, int height)
+	{
+		int[] a = new int[width * height];
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				a[p] = data[y][x] & 0xff;
+		return a;
+	}
+
+	/**
+	 * Create binary image from the 0/1 array.
+	 * 
+	 * @param a
+	 *            the array
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @return the binary image
+	 */
+	private static BinaryImage toBinaryImage(int[] a, int width, int height)
+	{
+		BinaryImage image = new BinaryImage(width, height);
+		boolean[][] data = image.getBinaryMatrix();
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				data[y][x] = a[p] > 0;
+		return image;
+	}
+
+	/**
+	 * Create gray image from the array.
+	 * 
+	 * @param a
+	 *            the array
+	 * @param width
+	 *            the image width
+	 * @param height
+	 *            the image height
+	 * @return the gray image
+	 */
+	private static GrayImage toGrayImage(int[] a, int width, int height)
+	{
+		GrayImage image = new GrayImage(width, height);
+		byte[][] data = image.getGrayMatrix();
+		for (int y = 0, p = 0; y < height; y++)
+			for (int x = 0; x < width; x++, p++)
+				data[y][x] = (byte) a[p];
+		return image;
+	}
+
+	/**
+	 * The growable FIFO queue of primitive integers.
+	 * 
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static class IntQueue
+	{
+		/**
+		 * The circular buffer.
+		 */
+		private int[]	buffer;
+		/**
+		 * The index of the head and the count of the elements.
+		 */
+		private int		head, size;
+
+		/**
+		 * Construct an instance of <tt>IntQueue</tt>.
+		 * 
+		 * @param capacity
+		 *            the initial capacity
+		 */
+		IntQueue(int capacity)
+		{
+			buffer = new int[capacity];
+		}
+
+		/**
+		 * Append the specified value to the tail.
+		 * 
+		 * @param value
+		 *            the specified value
+		 */
+		void add(int value)
+		{
+			if (size == buffer.length)
+			{
+				int[] b = new int[buffer.length << 1];
+				int n = buffer.length - head;
+				System.arraycopy(buffer, head, b, 0, n);
+				System.arraycopy(buffer, 0, b, n, head);
+				buffer = b;
+				head = 0;
+			}
+			int tail = head + size;
+			if (tail >= buffer.length)
+				tail -= buffer.length;
+			buffer[tail] = value;
+			size++;
+		}
+
+		/**
+		 * Remove and return the head value.
+		 * 
+		 * @return the head value
+		 */
+		int poll()
+		{
+			int value = buffer[head];
+			if (++head == buffer.length)
+				head = 0;
+			size--;
+			return value;
+		}
+
+		/**
+		 * Returns <code>true</code> if the queue is empty.
+		 * 
+		 * @return <code>true</code> if the queue is empty
+		 */
+		boolean isEmpty()
+		{
+			return size == 0;
+		}
+	}
+}
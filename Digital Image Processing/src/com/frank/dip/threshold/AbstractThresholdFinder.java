@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * AbstractThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+import com.frank.dip.analyze.Histogram;
+
+/**
+ * The abstract threshold finder which finds the threshold from the histogram.
+ * <p>
+ * The histogram of the image is built in one pass over the pixel storage and
+ * passed to {@linkplain #threshold(int[])}. The histogram passed to the finders
+ * is never modified, so one histogram can be shared by any number of finders.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class AbstractThresholdFinder implements ThresholdFinder,
+		ColorScaleLevel
+{
+	/**
+	 * Returns the found threshold of the specified 256-bin gray level
+	 * histogram. The histogram is not modified by the finder, so the same
+	 * histogram can be passed to several finders.
+	 * 
+	 * @param histogram
+	 *            the gray level histogram
+	 * @return the threshold
+	 */
+	public abstract int threshold(int[] histogram);
+
+	/**
+	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 */
+	@Override
+	public int threshold(GrayImage image)
+	{
+		return threshold(histogram(image));
+	}
+
+	/**
+	 * Returns the 256-bin histogram of the specified gray scale image.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @return the histogram
+	 * @see Histogram#histograms(com.frank.dip.Image, boolean)
+	 */
+	public static int[] histogram(GrayImage image)
+	{
+		return Histogram.histograms(image, false)[0];
+	}
+
+	/**
+	 * Returns the threshold found by the specified finder, from the histogram
+	 * if the finder is a <tt>AbstractThresholdFinder</tt>, otherwise from the
+	 * image.
+	 * 
+	 * @param finder
+	 *            the threshold finder
+	 * @param histogram
+	 *            the gray level histogram of the image
+	 * @param image
+	 *            the gray scale image
+	 * @return the threshold
+	 */
+	static int threshold(ThresholdFinder finder, int[] histogram,
+			GrayImage image)
+	{
+		if (finder instanceof AbstractThresholdFinder)
+			return ((AbstractThresholdFinder) finder).threshold(histogram);
+		return finder.threshold(image);
+	}
+}
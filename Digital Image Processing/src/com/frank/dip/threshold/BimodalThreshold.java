@@ -13,7 +13,7 @@ package com.frank.dip.threshold;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public abstract class BimodalThreshold implements ThresholdFinder
+public abstract class BimodalThreshold extends AbstractThresholdFinder
 {
 	/**
 	 * The maximum value of iteration times.
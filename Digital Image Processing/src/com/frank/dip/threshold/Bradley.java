@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Bradley.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+/**
+ * Bradley and Roth's local thresholding.
+ * <p>
+ * The pixel is set <tt>false</tt> if it is darker than the mean of its window
+ * by the specified percentage, i.e. the local threshold is
+ * <code>T = m &times; (1 - t)</code>.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Bradley, D & Roth, G (2007), "Adaptive thresholding using the integral
+ * image", Journal of Graphics Tools 12(2): 13-21
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Bradley extends LocalThresholding
+{
+	/**
+	 * The percentage below the window mean, default 0.15.
+	 */
+	protected double	t;
+
+	/**
+	 * Construct an instance of <tt>Bradley</tt> with default radius and
+	 * percentage 0.15.
+	 */
+	public Bradley()
+	{
+		this(DEFAULT_RADIUS, 0.15);
+	}
+
+	/**
+	 * Construct an instance of <tt>Bradley</tt>.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 * @param t
+	 *            the percentage below the window mean, in the range of
+	 *            <code>[0, 1]</code>
+	 */
+	public Bradley(int radius, double t)
+	{
+		super(radius);
+		setT(t);
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.LocalThresholding#threshold(double, double,
+	 *      double[])
+	 */
+	@Override
+	protected double threshold(double mean, double deviation,
+			double[] statistics)
+	{
+		return mean * (1 - t);
+	}
+
+	/**
+	 * Returns the percentage below the window mean.
+	 * 
+	 * @return the percentage
+	 */
+	public double getT()
+	{
+		return t;
+	}
+
+	/**
+	 * Set the percentage below the window mean.
+	 * 
+	 * @param t
+	 *            the percentage, in the range of <code>[0, 1]</code>
+	 */
+	public void setT(double t)
+	{
+		if (t < 0 || t > 1)
+			throw new IllegalArgumentException(String.format(
+					"The percentage(%f) must be in the range of [0,1].", t));
+		this.t = t;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.Thresholding#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "Bradley's Thresholding";
+	}
+}
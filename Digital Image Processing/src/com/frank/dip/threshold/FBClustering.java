@@ -7,6 +7,8 @@ package com.frank.dip.threshold;
 
 import com.frank.dip.BinaryImage;
 import com.frank.dip.GrayImage;
+import com.frank.dip.IntegralImage;
+import com.frank.dip.ParallelUtils;
 
 /**
  * Adaptive document image thresholding using foreground and background
@@ -75,75 +77,124 @@ public class FBClustering extends Thresholding
 			sizeW = 1;
 		if (sizeH < 1)
 			sizeH = 1;
-		// build integral image
-		int[][] count = new int[width][height];
-		int[][] sumF = new int[width][height];
-		int[][] sumB = new int[width][height];
-		int iCount, iSumF, iSumB, pixel;
-		int threshold = finder.threshold(source);
-		// statistic for the foreground and background
-		for (int x = 0; x < width; x++)
+		return cluster(source, null, finder.threshold(source), sizeW, sizeH,
+				null);
+	}
+
+	/**
+	 * Binarize the source image with the specified integral image, e.g. the
+	 * {@linkplain IntegralImage#cached(GrayImage) cached} one shared with the
+	 * other operators.
+	 * 
+	 * @param source
+	 *            the source image
+	 * @param integral
+	 *            the integral image of the gray levels of the source image
+	 * @return the binary image
+	 */
+	public BinaryImage operate(GrayImage source, IntegralImage integral)
+	{
+		int width = source.getWidth();
+		int height = source.getHeight();
+		int sizeW = (int) (width * radius);
+		int sizeH = (int) (height * radius);
+		if (sizeW < 1)
+			sizeW = 1;
+		if (sizeH < 1)
+			sizeH = 1;
+		return cluster(source, integral, finder.threshold(source), sizeW,
+				sizeH, null);
+	}
+
+	/**
+	 * Binarize the source image by the foreground and background clustering.
+	 * <p>
+	 * The pixels greater than the global threshold are clustered to the
+	 * foreground, the others to the background. Each pixel is compared with
+	 * the average of the foreground mean and the background mean in its
+	 * window, the window statistics are read from the integral images.
+	 * </p>
+	 * 
+	 * @param source
+	 *            the source image
+	 * @param integral
+	 *            the integral image of the gray levels of the source image,
+	 *            <code>null</code> if it should be built
+	 * @param threshold
+	 *            the global threshold
+	 * @param sizeW
+	 *            the horizontal window radius
+	 * @param sizeH
+	 *            the vertical window radius
+	 * @param global
+	 *            the 256-entry table marking the gray levels binarized by the
+	 *            global threshold directly, <code>null</code> if none
+	 * @return the binary image
+	 */
+	static BinaryImage cluster(GrayImage source, IntegralImage integral,
+			final int threshold, final int sizeW, final int sizeH,
+			final boolean[] global)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		int[] foreground = new int[256], mark = new int[256];
+		for (int i = Math.max(threshold + 1, 0); i < 256; i++)
+		{
+			foreground[i] = i;
+			mark[i] = 1;
+		}
+		// the integral images of all, the foreground pixels and its count
+		final long[][] sum = (integral == null ? new IntegralImage(source,
+				null, false) : integral).getSumTable();
+		final long[][] sumF = new IntegralImage(source, foreground, false)
+				.getSumTable();
+		final long[][] count = new IntegralImage(source, mark, false)
+				.getSumTable();
+		BinaryImage bi = new BinaryImage(width, height);
+		final byte[][] src = source.getGrayMatrix();
+		final boolean[][] dst = bi.getBinaryMatrix();
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
 		{
-			iCount = iSumF = iSumB = 0;
-			for (int y = 0; y < height; y++)
+			@Override
+			public void run(int y0, int yt)
 			{
-				pixel = source.getPixel(x, y);
-				if (pixel > threshold)
+				int top, bottom, left, right, pixel;
+				long total, totalF, countF, countB;
+				for (int y = y0; y < yt; y++)
 				{
-					iCount++;
-					iSumF += pixel;
+					top = Math.max(y - sizeH, 0);
+					bottom = Math.min(y + sizeH + 1, height);
+					byte[] s = src[y];
+					boolean[] d = dst[y];
+					for (int x = 0; x < width; x++)
+					{
+						pixel = s[x] & 0xff;
+						if (global != null && global[pixel])
+						{
+							d[x] = pixel > threshold;
+							continue;
+						}
+						left = Math.max(x - sizeW, 0);
+						right = Math.min(x + sizeW + 1, width);
+						total = sum[bottom][right] - sum[top][right]
+								- sum[bottom][left] + sum[top][left];
+						totalF = sumF[bottom][right] - sumF[top][right]
+								- sumF[bottom][left] + sumF[top][left];
+						countF = count[bottom][right] - count[top][right]
+								- count[bottom][left] + count[top][left];
+						countB = (long) (right - left) * (bottom - top)
+								- countF;
+						if (countF == 0)
+							countF++;
+						if (countB == 0)
+							countB++;
+						d[x] = pixel > (totalF / (double) countF + (total - totalF)
+								/ (double) countB) / 2.0;
+					}
 				}
-				else
-					iSumB += pixel;
-				if (x == 0)
-				{
-					count[x][y] = iCount;
-					sumF[x][y] = iSumF;
-					sumB[x][y] = iSumB;
-				}
-				else
-				{
-					count[x][y] = count[x - 1][y] + iCount;
-					sumF[x][y] = sumF[x - 1][y] + iSumF;
-					sumB[x][y] = sumB[x - 1][y] + iSumB;
-				}
-			}
-		}
-		// process thresholding
-		int x0, xt, y0, yt;
-		int totalF, totalB, countF, countB;
-		BinaryImage dst = new BinaryImage(width, height);
-		for (int x = 0; x < width; x++)
-			for (int y = 0; y < height; y++)
-			{
-				x0 = x - sizeW;
-				xt = x + sizeW;
-				y0 = y - sizeH;
-				yt = y + sizeH;
-				if (x0 < 0)
-					x0 = 0;
-				if (xt >= width)
-					xt = width - 1;
-				if (y0 < 0)
-					y0 = 0;
-				if (yt >= height)
-					yt = height - 1;
-				totalF = sumF[xt][yt] - sumF[x0][yt] - sumF[xt][y0]
-						+ sumF[x0][y0];
-				totalB = sumB[xt][yt] - sumB[x0][yt] - sumB[xt][y0]
-						+ sumB[x0][y0];
-				countF = count[xt][yt] - count[x0][yt] - count[xt][y0]
-						+ count[x0][y0];
-				countB = (xt - x0 + 1) * (yt - y0 + 1) - countF;
-				if (countF == 0)
-					countF++;
-				if (countB == 0)
-					countB++;
-				dst.setPixel(x, y,
-						source.getPixel(x, y) > ((totalF / countF + totalB
-								/ countB) / 2.0f));
 			}
-		return dst;
+		});
+		return bi;
 	}
 
 	/**
@@ -98,83 +98,14 @@ public class FrankThresholding extends Thresholding
 			sizeW = 1;
 		if (sizeH < 1)
 			sizeH = 1;
-		// build integral image
-		int[][] count = new int[width][height];
-		int[][] sumF = new int[width][height];
-		int[][] sumB = new int[width][height];
-		int iCount, iSumF, iSumB, pixel;
 		int threshold = finder.threshold(source);
-		// statistic for the foreground and background
-		for (int x = 0; x < width; x++)
-		{
-			iCount = iSumF = iSumB = 0;
-			for (int y = 0; y < height; y++)
-			{
-				pixel = source.getPixel(x, y);
-				if (pixel > threshold)
-				{
-					iCount++;
-					iSumF += pixel;
-				}
-				else
-					iSumB += pixel;
-				if (x == 0)
-				{
-					count[x][y] = iCount;
-					sumF[x][y] = iSumF;
-					sumB[x][y] = iSumB;
-				}
-				else
-				{
-					count[x][y] = count[x - 1][y] + iCount;
-					sumF[x][y] = sumF[x - 1][y] + iSumF;
-					sumB[x][y] = sumB[x - 1][y] + iSumB;
-				}
-			}
-		}
-		// process thresholding
-		int x0, xt, y0, yt;
-		int totalF, totalB, countF, countB;
-		BinaryImage dst = new BinaryImage(width, height);
-		for (int x = 0; x < width; x++)
-			for (int y = 0; y < height; y++)
-			{
-				pixel = source.getPixel(x, y);
-				if (pixel > threshold * (1 + fuzzy)
-						|| pixel < threshold * (1 - fuzzy))
-					// perform global thresholding
-					dst.setPixel(x, y, pixel > threshold);
-				else
-				{
-					// perform local thresholding
-					x0 = x - sizeW;
-					xt = x + sizeW;
-					y0 = y - sizeH;
-					yt = y + sizeH;
-					if (x0 < 0)
-						x0 = 0;
-					if (xt >= width)
-						xt = width - 1;
-					if (y0 < 0)
-						y0 = 0;
-					if (yt >= height)
-						yt = height - 1;
-					totalF = sumF[xt][yt] - sumF[x0][yt] - sumF[xt][y0]
-							+ sumF[x0][y0];
-					totalB = sumB[xt][yt] - sumB[x0][yt] - sumB[xt][y0]
-							+ sumB[x0][y0];
-					countF = count[xt][yt] - count[x0][yt] - count[xt][y0]
-							+ count[x0][y0];
-					countB = (xt - x0 + 1) * (yt - y0 + 1) - countF;
-					if (countF == 0)
-						countF++;
-					if (countB == 0)
-						countB++;
-					dst.setPixel(x, y, pixel > ((totalF / countF + totalB
-							/ countB) / 2.0f));
-				}
-			}
-		return dst;
+		// the gray levels out of the fuzzy region are globally thresholded
+		boolean[] global = new boolean[256];
+		for (int pixel = 0; pixel < 256; pixel++)
+			global[pixel] = pixel > threshold * (1 + fuzzy)
+					|| pixel < threshold * (1 - fuzzy);
+		return FBClustering.cluster(source, null, threshold, sizeW, sizeH,
+				global);
 	}
 
 	/**
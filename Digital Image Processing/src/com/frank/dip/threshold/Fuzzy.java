@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Huang's fuzzy thresholding method.
  * <p>
@@ -26,17 +24,14 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Fuzzy implements ThresholdFinder
+public class Fuzzy extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int threshold = -1;
 		int ih, it;
 		int first_bin;
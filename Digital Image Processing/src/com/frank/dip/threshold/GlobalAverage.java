@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * The global average threshold finder.
  * <p>
@@ -18,7 +16,7 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class GlobalAverage implements ThresholdFinder
+public class GlobalAverage extends AbstractThresholdFinder
 {
 	/**
 	 * Construct an instance of <tt>GlobalAverage</tt>.
@@ -28,18 +26,18 @@ public class GlobalAverage implements ThresholdFinder
 	}
 
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int sum = 0;
-		int height = image.getHeight();
-		int width = image.getWidth();
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				sum += image.getPixel(x, y);
-		return (int) (sum / (double) width / height);
+		long sum = 0, total = 0;
+		for (int i = 0; i < data.length; i++)
+		{
+			sum += (long) i * data[i];
+			total += data[i];
+		}
+		return (int) (sum / (double) total);
 	}
 
 	/**
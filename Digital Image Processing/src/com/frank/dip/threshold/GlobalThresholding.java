@@ -7,6 +7,7 @@ package com.frank.dip.threshold;
 
 import com.frank.dip.BinaryImage;
 import com.frank.dip.GrayImage;
+import com.frank.dip.ParallelUtils;
 
 /**
  * The global thresholding operator.
@@ -60,19 +61,76 @@ public class GlobalThresholding extends Thresholding
 	/**
 	 * Perform thresholding algorithm to the source image. The thresholding
 	 * algorithm is defined by {@linkplain ThresholdFinder}.
+	 * <p>
+	 * The {@linkplain AbstractThresholdFinder} counts the histogram of the
+	 * source image once and finds the threshold from the histogram.
+	 * </p>
 	 * 
 	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
 	 */
 	@Override
 	public BinaryImage operate(GrayImage source)
 	{
-		int width = source.getWidth();
+		return binarize(source, finder.threshold(source));
+	}
+
+	/**
+	 * Returns the thresholds of the specified gray scale image found by each
+	 * of the specified threshold finders. The histogram of the image is
+	 * counted only once and shared by all the
+	 * {@linkplain AbstractThresholdFinder}s, the other finders are run on the
+	 * image.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @param finders
+	 *            the threshold finders
+	 * @return the thresholds in the order of the finders
+	 */
+	public static int[] thresholds(GrayImage image, ThresholdFinder... finders)
+	{
+		int[] histogram = AbstractThresholdFinder.histogram(image);
+		int[] thresholds = new int[finders.length];
+		for (int i = 0; i < finders.length; i++)
+			thresholds[i] = AbstractThresholdFinder.threshold(finders[i],
+					histogram, image);
+		return thresholds;
+	}
+
+	/**
+	 * Returns the binary image of the specified gray scale image, the pixels
+	 * greater than the threshold are set <tt>true</tt>.
+	 * 
+	 * @param source
+	 *            the gray scale image
+	 * @param threshold
+	 *            the threshold
+	 * @return the binary image
+	 */
+	public static BinaryImage binarize(GrayImage source, int threshold)
+	{
+		final int width = source.getWidth();
 		int height = source.getHeight();
 		BinaryImage bi = new BinaryImage(width, height);
-		int threshold = finder.threshold(source);
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				bi.setPixel(x, y, source.getPixel(x, y) > threshold);
+		final byte[][] src = source.getGrayMatrix();
+		final boolean[][] dst = bi.getBinaryMatrix();
+		final boolean[] table = new boolean[256];
+		for (int i = Math.max(threshold + 1, 0); i < 256; i++)
+			table[i] = true;
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] s = src[y];
+					boolean[] d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = table[s[x] & 0xff];
+				}
+			}
+		});
 		return bi;
 	}
 
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Intermodes threshold selecting method.
  * <p>
@@ -31,15 +29,12 @@ import com.frank.dip.GrayImage;
 public class Intermodes extends BimodalThreshold
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
 		int L = 256;
-		int[] data = new int[L];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		double[] iHisto = new double[256];
 		int iter = 0;
 		int threshold = -1;
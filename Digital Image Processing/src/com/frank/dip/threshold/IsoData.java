@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Iterative procedure based on the isolate data algorithm.
  * <p>
@@ -35,17 +33,14 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class IsoData implements ThresholdFinder
+public class IsoData extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int level;
 		int maxValue = data.length - 1;
 		double result, sum1, sum2, sum3, sum4;
@@ -60,20 +55,20 @@ public class IsoData implements ThresholdFinder
 			level = data.length / 2;
 			return level;
 		}
+		// the cumulative sums of the pixels and the number of pixels
+		double[] sum = new double[data.length], num = new double[data.length];
+		for (int i = min; i <= max; i++)
+		{
+			sum[i] = (i == min ? 0.0 : sum[i - 1]) + (double) i * data[i];
+			num[i] = (i == min ? 0.0 : num[i - 1]) + data[i];
+		}
 		int movingIndex = min;
 		do
 		{
-			sum1 = sum2 = sum3 = sum4 = 0.0;
-			for (int i = min; i <= movingIndex; i++)
-			{
-				sum1 += i * data[i];
-				sum2 += data[i];
-			}
-			for (int i = (movingIndex + 1); i <= max; i++)
-			{
-				sum3 += i * data[i];
-				sum4 += data[i];
-			}
+			sum1 = sum[movingIndex];
+			sum2 = num[movingIndex];
+			sum3 = sum[max] - sum1;
+			sum4 = num[max] - sum2;
 			result = (sum1 / sum2 + sum3 / sum4) / 2.0;
 			movingIndex++;
 		}
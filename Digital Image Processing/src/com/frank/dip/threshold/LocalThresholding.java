@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * LocalThresholding.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.GrayImage;
+import com.frank.dip.IntegralImage;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The local (adaptive) thresholding operator based on the mean and the
+ * standard deviation of the window around each pixel.
+ * <p>
+ * The window statistics are read from the {@linkplain IntegralImage} of the
+ * source image, so the cost of each pixel is independent of the window size.
+ * The integral image is built for each call, or given by the caller through
+ * {@linkplain #operate(GrayImage, IntegralImage)} to share it, e.g. the
+ * {@linkplain IntegralImage#cached(GrayImage) cached} one of an image which
+ * is not written through its matrix.
+ * The windows are clipped by the image bounds. The pixels greater than the
+ * local threshold are set <tt>true</tt> in the result.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class LocalThresholding extends Thresholding
+{
+	/**
+	 * The default window radius.
+	 */
+	public static final int	DEFAULT_RADIUS	= 7;
+	/**
+	 * The window radius, the window size is <code>2 * radius + 1</code>.
+	 */
+	protected int			radius;
+
+	/**
+	 * Construct an instance of <tt>LocalThresholding</tt>.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 */
+	protected LocalThresholding(int radius)
+	{
+		setRadius(radius);
+	}
+
+	/**
+	 * Returns the local threshold according to the window statistics.
+	 * 
+	 * @param mean
+	 *            the mean of the window
+	 * @param deviation
+	 *            the standard deviation of the window
+	 * @param statistics
+	 *            the global statistics of the image returned by
+	 *            {@linkplain #prepare(GrayImage, IntegralImage)}
+	 * @return the local threshold
+	 */
+	protected abstract double threshold(double mean, double deviation,
+			double[] statistics);
+
+	/**
+	 * Returns the global statistics needed by the local threshold of the
+	 * image. The statistics are passed to each
+	 * {@linkplain #threshold(double, double, double[])} call of the same
+	 * {@linkplain #operate(GrayImage)} call, so the operator holds no state of
+	 * the image. The default implementation returns <code>null</code>.
+	 * 
+	 * @param source
+	 *            the source image
+	 * @param integral
+	 *            the integral image of the source image
+	 * @return the global statistics, <code>null</code> if none
+	 */
+	protected double[] prepare(GrayImage source, IntegralImage integral)
+	{
+		return null;
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public BinaryImage operate(GrayImage source)
+	{
+		return operate(source, new IntegralImage(source));
+	}
+
+	/**
+	 * Binarize the source image with the specified integral image.
+	 * 
+	 * @param source
+	 *            the source image
+	 * @param integral
+	 *            the integral image of the source image with the squared sum
+	 *            table
+	 * @return the binary image
+	 */
+	public BinaryImage operate(GrayImage source, IntegralImage integral)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		final double[] statistics = prepare(source, integral);
+		BinaryImage bi = new BinaryImage(width, height);
+		final byte[][] src = source.getGrayMatrix();
+		final boolean[][] dst = bi.getBinaryMatrix();
+		final long[][] sum = integral.getSumTable();
+		final long[][] squared = integral.getSquaredTable();
+		final int r = radius;
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				int top, bottom, left, right;
+				double n, mean, variance;
+				for (int y = y0; y < yt; y++)
+				{
+					top = Math.max(y - r, 0);
+					bottom = Math.min(y + r + 1, height);
+					long[] s0 = sum[top], s1 = sum[bottom];
+					long[] q0 = squared[top], q1 = squared[bottom];
+					byte[] s = src[y];
+					boolean[] d = dst[y];
+					for (int x = 0; x < width; x++)
+					{
+						left = Math.max(x - r, 0);
+						right = Math.min(x + r + 1, width);
+						n = (double) (right - left) * (bottom - top);
+						mean = (s1[right] - s1[left] - s0[right] + s0[left]) / n;
+						variance = (q1[right] - q1[left] - q0[right] + q0[left])
+								/ n - mean * mean;
+						d[x] = (s[x] & 0xff) > threshold(mean,
+								variance > 0 ? Math.sqrt(variance) : 0, statistics);
+					}
+				}
+			}
+		});
+		return bi;
+	}
+
+	/**
+	 * Returns the maximum standard deviation of all the windows of the image.
+	 * 
+	 * @param integral
+	 *            the integral image with the squared sum table
+	 * @return the maximum standard deviation
+	 */
+	protected double maxDeviation(IntegralImage integral)
+	{
+		final int width = integral.getWidth();
+		final int height = integral.getHeight();
+		final long[][] sum = integral.getSumTable();
+		final long[][] squared = integral.getSquaredTable();
+		final int r = radius;
+		final int bands = ParallelUtils.bands(width, height);
+		final double[] partial = new double[bands];
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				int top, bottom, left, right;
+				double n, mean, variance, max = 0;
+				for (int y = ParallelUtils.bandStart(band, bands, height), yt = ParallelUtils
+						.bandStart(band + 1, bands, height); y < yt; y++)
+				{
+					top = Math.max(y - r, 0);
+					bottom = Math.min(y + r + 1, height);
+					long[] s0 = sum[top], s1 = sum[bottom];
+					long[] q0 = squared[top], q1 = squared[bottom];
+					for (int x = 0; x < width; x++)
+					{
+						left = Math.max(x - r, 0);
+						right = Math.min(x + r + 1, width);
+						n = (double) (right - left) * (bottom - top);
+						mean = (s1[right] - s1[left] - s0[right] + s0[left]) / n;
+						variance = (q1[right] - q1[left] - q0[right] + q0[left])
+								/ n - mean * mean;
+						if (variance > max)
+							max = variance;
+					}
+				}
+				partial[band] = max;
+			}
+		});
+		double max = 0;
+		for (double v : partial)
+			max = Math.max(max, v);
+		return Math.sqrt(max);
+	}
+
+	/**
+	 * Returns the window radius.
+	 * 
+	 * @return the window radius
+	 */
+	public int getRadius()
+	{
+		return radius;
+	}
+
+	/**
+	 * Set the window radius.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 */
+	public void setRadius(int radius)
+	{
+		if (radius < 0)
+			throw new IllegalArgumentException(String.format(
+					"The window radius(%d) must be non-negative.", radius));
+		this.radius = radius;
+	}
+}
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Maximum entropy thresholding method.
  * <p>
@@ -23,17 +21,14 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class MaxEntropy implements ThresholdFinder
+public class MaxEntropy extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int threshold = -1;
 		int ih, it;
 		int first_bin;
@@ -45,6 +40,8 @@ public class MaxEntropy implements ThresholdFinder
 		double[] norm_histo = new double[256]; /* normalized histogram */
 		double[] P1 = new double[256]; /* cumulative normalized histogram */
 		double[] P2 = new double[256];
+		double[] S1 = new double[256]; /* cumulative sum of p * log(p) */
+		double[] S2 = new double[256];
 		int total = 0;
 		for (ih = 0; ih < 256; ih++)
 			total += data[ih];
@@ -57,6 +54,14 @@ public class MaxEntropy implements ThresholdFinder
 			P1[ih] = P1[ih - 1] + norm_histo[ih];
 			P2[ih] = 1.0 - P1[ih];
 		}
+		for (ih = 0; ih < 256; ih++)
+			S1[ih] = (ih == 0 ? 0.0 : S1[ih - 1])
+					+ (data[ih] == 0 ? 0.0 : norm_histo[ih]
+							* Math.log(norm_histo[ih]));
+		for (ih = 254; ih >= 0; ih--)
+			S2[ih] = S2[ih + 1]
+					+ (data[ih + 1] == 0 ? 0.0 : norm_histo[ih + 1]
+							* Math.log(norm_histo[ih + 1]));
 		/* Determine the first non-zero bin */
 		first_bin = 0;
 		for (ih = 0; ih < 256; ih++)
@@ -82,26 +87,12 @@ public class MaxEntropy implements ThresholdFinder
 		max_ent = Double.MIN_VALUE;
 		for (it = first_bin; it <= last_bin; it++)
 		{
-			/* Entropy of the background pixels */
-			ent_back = 0.0;
-			for (ih = 0; ih <= it; ih++)
-			{
-				if (data[ih] != 0)
-				{
-					ent_back -= (norm_histo[ih] / P1[it])
-							* Math.log(norm_histo[ih] / P1[it]);
-				}
-			}
-			/* Entropy of the object pixels */
-			ent_obj = 0.0;
-			for (ih = it + 1; ih < 256; ih++)
-			{
-				if (data[ih] != 0)
-				{
-					ent_obj -= (norm_histo[ih] / P2[it])
-							* Math.log(norm_histo[ih] / P2[it]);
-				}
-			}
+			/*
+			 * Entropy of the background and object pixels, the sum of
+			 * -(p / P) * log(p / P) is expanded to log(P) - sum(p * log(p)) / P
+			 */
+			ent_back = entropy(P1[it], S1[it]);
+			ent_obj = entropy(P2[it], S2[it]);
 			/* Total entropy */
 			tot_ent = ent_back + ent_obj;
 			if (max_ent < tot_ent)
@@ -113,6 +104,20 @@ public class MaxEntropy implements ThresholdFinder
 		return threshold;
 	}
 
+	/**
+	 * Returns the entropy of a class of pixels.
+	 * 
+	 * @param p
+	 *            the probability of the class
+	 * @param s
+	 *            the sum of <code>p * log(p)</code> of the levels in the class
+	 * @return the entropy
+	 */
+	static double entropy(double p, double s)
+	{
+		return p < 2.220446049250313E-16 ? 0.0 : Math.log(p) - s / p;
+	}
+
 	/**
 	 * @see com.frank.dip.threshold.ThresholdFinder#getFinderName()
 	 */
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Mean of gray levels as the threshold.
  * <p>
@@ -23,27 +21,12 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Mean implements ThresholdFinder
+public class Mean extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
-	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
-		return threshold(data);
-	}
-
-	/**
-	 * Returns the selected threshold according to the pixels histogram.
-	 * 
-	 * @param data
-	 *            the pixels histogram
-	 * @return the selected threshold
-	 */
 	public int threshold(int[] data)
 	{
 		int threshold = -1;
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Minimum cross entropy thresholding method.
  * <p>
@@ -30,24 +28,23 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class MinCrossEntropy implements ThresholdFinder
+public class MinCrossEntropy extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int threshold;
 		int ih;
-		int num_pixels;
-		int sum_back; // sum of the background pixels at a given threshold
-		int sum_obj; // sum of the object pixels at a given threshold
-		int num_back; // number of background pixels at a given threshold
-		int num_obj; // number of object pixels at a given threshold
+		long num_pixels;
+		long sum_back; // sum of the background pixels at a given threshold
+		long sum_obj; // sum of the object pixels at a given threshold
+		long num_back; // number of background pixels at a given threshold
+		long num_obj; // number of object pixels at a given threshold
+		long[] num = new long[256]; // cumulative number of pixels
+		long[] sum = new long[256]; // cumulative sum of pixels
 		double old_thresh;
 		double new_thresh;
 		double mean_back; // mean of the background pixels at a given threshold
@@ -56,14 +53,14 @@ public class MinCrossEntropy implements ThresholdFinder
 		double tolerance; // threshold tolerance
 		double temp;
 		tolerance = 0.5;
-		num_pixels = 0;
 		for (ih = 0; ih < 256; ih++)
-			num_pixels += data[ih];
+		{
+			num[ih] = (ih == 0 ? 0 : num[ih - 1]) + data[ih];
+			sum[ih] = (ih == 0 ? 0 : sum[ih - 1]) + (long) ih * data[ih];
+		}
+		num_pixels = num[255];
 		// Calculate the mean gray-level
-		mean = 0.0;
-		for (ih = 0 + 1; ih < 256; ih++)
-			mean += ih * data[ih];
-		mean /= num_pixels;
+		mean = sum[255] / (double) num_pixels;
 		// Initial estimate
 		new_thresh = mean;
 		do
@@ -71,23 +68,14 @@ public class MinCrossEntropy implements ThresholdFinder
 			old_thresh = new_thresh;
 			threshold = (int) (old_thresh + 0.5); // range
 			// Calculate the means of background and object pixels
+			ih = Math.min(threshold, 255);
 			/* Background */
-			sum_back = 0;
-			num_back = 0;
-			for (ih = 0; ih <= threshold; ih++)
-			{
-				sum_back += ih * data[ih];
-				num_back += data[ih];
-			}
+			sum_back = ih < 0 ? 0 : sum[ih];
+			num_back = ih < 0 ? 0 : num[ih];
 			mean_back = (num_back == 0 ? 0.0 : (sum_back / (double) num_back));
 			/* Object */
-			sum_obj = 0;
-			num_obj = 0;
-			for (ih = threshold + 1; ih < 256; ih++)
-			{
-				sum_obj += ih * data[ih];
-				num_obj += data[ih];
-			}
+			sum_obj = sum[255] - sum_back;
+			num_obj = num_pixels - num_back;
 			mean_obj = (num_obj == 0 ? 0.0 : (sum_obj / (double) num_obj));
 			/* Calculate the new threshold: Equation (7) in Ref. 2 */
 			// new_thresh = simple_round ( ( mean_back - mean_obj ) / ( Math.log
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Minimum error thresholding.
  * <p>
@@ -28,34 +26,38 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class MinError implements ThresholdFinder
+public class MinError extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		// Initial estimate for the threshold is found with the MEAN algorithm.
 		int threshold = new Mean().threshold(data);
-		//
+		// The cumulative tables of the zeroth, first and second moments.
+		double[] a = new double[256], b = new double[256], c = new double[256];
+		for (int i = 0; i < 256; i++)
+		{
+			a[i] = (i == 0 ? 0 : a[i - 1]) + data[i];
+			b[i] = (i == 0 ? 0 : b[i - 1]) + (double) i * data[i];
+			c[i] = (i == 0 ? 0 : c[i - 1]) + (double) i * i * data[i];
+		}
 		int Tprev = -2;
 		double mu, nu, p, q, sigma2, tau2, w0, w1, w2, sqterm, temp;
 		// int counter=1;
 		while (threshold != Tprev)
 		{
 			// Calculate some statistics.
-			mu = B(data, threshold) / A(data, threshold);
-			nu = (B(data, 255) - B(data, threshold))
-					/ (A(data, 255) - A(data, threshold));
-			p = A(data, threshold) / A(data, 255);
-			q = (A(data, 255) - A(data, threshold)) / A(data, 255);
-			sigma2 = C(data, threshold) / A(data, threshold) - (mu * mu);
-			tau2 = (C(data, 255) - C(data, threshold))
-					/ (A(data, 255) - A(data, threshold)) - (nu * nu);
+			mu = sum(b, threshold) / sum(a, threshold);
+			nu = (sum(b, 255) - sum(b, threshold))
+					/ (sum(a, 255) - sum(a, threshold));
+			p = sum(a, threshold) / sum(a, 255);
+			q = (sum(a, 255) - sum(a, threshold)) / sum(a, 255);
+			sigma2 = sum(c, threshold) / sum(a, threshold) - (mu * mu);
+			tau2 = (sum(c, 255) - sum(c, threshold))
+					/ (sum(a, 255) - sum(a, threshold)) - (nu * nu);
 			// The terms of the quadratic equation to be solved.
 			w0 = 1.0 / sigma2 - 1.0 / tau2;
 			w1 = mu / sigma2 - nu / tau2;
@@ -87,28 +89,9 @@ public class MinError implements ThresholdFinder
 		return threshold;
 	}
 
-	private double A(int[] y, int j)
-	{
-		double x = 0;
-		for (int i = 0; i <= j; i++)
-			x += y[i];
-		return x;
-	}
-
-	private double B(int[] y, int j)
-	{
-		double x = 0;
-		for (int i = 0; i <= j; i++)
-			x += i * y[i];
-		return x;
-	}
-
-	private double C(int[] y, int j)
+	private double sum(double[] cumulative, int j)
 	{
-		double x = 0;
-		for (int i = 0; i <= j; i++)
-			x += i * i * y[i];
-		return x;
+		return j < 0 ? 0 : cumulative[j];
 	}
 
 	private final double log10(double x)
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MultilevelMaxEntropy.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+/**
+ * Multilevel maximum entropy thresholding method.
+ * <p>
+ * Extends the Kapur-Sahoo-Wong method of {@linkplain MaxEntropy} to several
+ * classes, the thresholds maximize the sum of the entropies of all the
+ * classes.
+ * </p>
+ * <p>
+ * See source paper at:<br>
+ * Kapur, JN; Sahoo, PK & Wong, ACK (1985),
+ * "A New Method for Gray-Level Picture Thresholding Using the Entropy of the Histogram"
+ * , Graphical Models and Image Processing 29(3): 273-285
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class MultilevelMaxEntropy extends MultilevelThresholdFinder
+{
+	/**
+	 * Construct an instance of <tt>MultilevelMaxEntropy</tt> with 2
+	 * thresholds.
+	 */
+	public MultilevelMaxEntropy()
+	{
+		this(2);
+	}
+
+	/**
+	 * Construct an instance of <tt>MultilevelMaxEntropy</tt>.
+	 * 
+	 * @param count
+	 *            the count of the thresholds
+	 */
+	public MultilevelMaxEntropy(int count)
+	{
+		super(count);
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.MultilevelThresholdFinder#scores(int[])
+	 */
+	@Override
+	protected double[][] scores(int[] histogram)
+	{
+		int L = histogram.length;
+		double total = 0;
+		for (int i = 0; i < L; i++)
+			total += histogram[i];
+		// the prefix sums of p and p * log(p), offset by 1
+		double[] P = new double[L + 1], S = new double[L + 1];
+		double p;
+		for (int i = 0; i < L; i++)
+		{
+			p = histogram[i] / total;
+			P[i + 1] = P[i] + p;
+			S[i + 1] = S[i] + (histogram[i] == 0 ? 0.0 : p * Math.log(p));
+		}
+		double[][] score = new double[L][L];
+		for (int i = 0; i < L; i++)
+			for (int j = i; j < L; j++)
+				score[i][j] = MaxEntropy.entropy(P[j + 1] - P[i], S[j + 1]
+						- S[i]);
+		return score;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.MultilevelThresholdFinder#getFinderName()
+	 */
+	@Override
+	public String getFinderName()
+	{
+		return "multilevel maximum entropy";
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MultilevelOtsu.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+/**
+ * Multilevel Otsu's threshold selection.
+ * <p>
+ * The thresholds maximize the between class variance of all the classes,
+ * which is equivalent to maximize <code>&sum; S<sub>c</sub><sup>2</sup> /
+ * N<sub>c</sub></code>, where <code>N<sub>c</sub></code> and
+ * <code>S<sub>c</sub></code> are the count and the total intensity of the
+ * pixels in the class <code>c</code>.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Liao, P-S; Chen, T-S & Chung, P-C (2001),
+ * "A Fast Algorithm for Multilevel Thresholding", Journal of Information
+ * Science and Engineering 17: 713-727
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class MultilevelOtsu extends MultilevelThresholdFinder
+{
+	/**
+	 * Construct an instance of <tt>MultilevelOtsu</tt> with 2 thresholds.
+	 */
+	public MultilevelOtsu()
+	{
+		this(2);
+	}
+
+	/**
+	 * Construct an instance of <tt>MultilevelOtsu</tt>.
+	 * 
+	 * @param count
+	 *            the count of the thresholds
+	 */
+	public MultilevelOtsu(int count)
+	{
+		super(count);
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.MultilevelThresholdFinder#scores(int[])
+	 */
+	@Override
+	protected double[][] scores(int[] histogram)
+	{
+		int L = histogram.length;
+		// the prefix sums of the count and the intensity, offset by 1
+		double[] N = new double[L + 1], S = new double[L + 1];
+		for (int i = 0; i < L; i++)
+		{
+			N[i + 1] = N[i] + histogram[i];
+			S[i + 1] = S[i] + (double) i * histogram[i];
+		}
+		double[][] score = new double[L][L];
+		double n, s;
+		for (int i = 0; i < L; i++)
+			for (int j = i; j < L; j++)
+			{
+				n = N[j + 1] - N[i];
+				s = S[j + 1] - S[i];
+				score[i][j] = n == 0 ? 0 : s * s / n;
+			}
+		return score;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.MultilevelThresholdFinder#getFinderName()
+	 */
+	@Override
+	public String getFinderName()
+	{
+		return "multilevel maximum between class distance";
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MultilevelThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import com.frank.dip.ColorScaleLevel;
+import com.frank.dip.GrayImage;
+
+/**
+ * The multilevel threshold finder which splits the gray levels into several
+ * classes.
+ * <p>
+ * The <code>k</code> thresholds split the histogram into <code>k + 1</code>
+ * classes of consecutive gray levels, the class <code>c</code> contains the
+ * levels in <code>(t[c - 1], t[c]]</code>. The criterion of the finder must be
+ * a sum of independent scores of the classes, then the optimal thresholds are
+ * found by dynamic programming over the gray levels in
+ * <code>O(k &times; L<sup>2</sup>)</code> instead of the exhaustive
+ * <code>O(L<sup>k</sup>)</code> search. The class scores are computed from
+ * prefix-sum tables in <code>O(1)</code> each.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class MultilevelThresholdFinder implements ColorScaleLevel
+{
+	/**
+	 * The count of the thresholds.
+	 */
+	protected int	count;
+
+	/**
+	 * Construct an instance of <tt>MultilevelThresholdFinder</tt>.
+	 * 
+	 * @param count
+	 *            the count of the thresholds
+	 */
+	protected MultilevelThresholdFinder(int count)
+	{
+		setCount(count);
+	}
+
+	/**
+	 * Returns the class scores of all the ranges of gray levels, the element
+	 * <code>[i][j]</code> is the score of the class containing the levels in
+	 * <code>[i, j]</code>. The finder maximizes the sum of the class scores.
+	 * 
+	 * @param histogram
+	 *            the gray level histogram
+	 * @return the class scores
+	 */
+	protected abstract double[][] scores(int[] histogram);
+
+	/**
+	 * Returns the found thresholds of the specified gray scale image.
+	 * 
+	 * @param image
+	 *            the gray scale image
+	 * @return the thresholds in ascending order
+	 */
+	public int[] thresholds(GrayImage image)
+	{
+		return thresholds(AbstractThresholdFinder.histogram(image));
+	}
+
+	/**
+	 * Returns the found thresholds of the specified 256-bin gray level
+	 * histogram.
+	 * 
+	 * @param histogram
+	 *            the gray level histogram
+	 * @return the thresholds in ascending order
+	 */
+	public int[] thresholds(int[] histogram)
+	{
+		int L = histogram.length;
+		int classes = count + 1;
+		double[][] score = scores(histogram);
+		// best[c][j]: the best score of c + 1 classes covering [0, j]
+		double[][] best = new double[classes][L];
+		// first[c][j]: the first level of the last class of best[c][j]
+		int[][] first = new int[classes][L];
+		for (int j = 0; j < L; j++)
+			best[0][j] = score[0][j];
+		double max, v;
+		int arg;
+		for (int c = 1; c < classes; c++)
+			for (int j = c; j < L - count + c; j++)
+			{
+				max = Double.NEGATIVE_INFINITY;
+				arg = c;
+				for (int i = c; i <= j; i++)
+				{
+					v = best[c - 1][i - 1] + score[i][j];
+					if (v > max)
+					{
+						max = v;
+						arg = i;
+					}
+				}
+				best[c][j] = max;
+				first[c][j] = arg;
+			}
+		// trace back the thresholds from the last level
+		int[] thresholds = new int[count];
+		for (int c = count, j = L - 1; c > 0; c--)
+		{
+			j = first[c][j] - 1;
+			thresholds[c - 1] = j;
+		}
+		return thresholds;
+	}
+
+	/**
+	 * Returns the count of the thresholds.
+	 * 
+	 * @return the count of the thresholds
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Set the count of the thresholds.
+	 * 
+	 * @param count
+	 *            the count of the thresholds, in the range of
+	 *            <code>[1, 255]</code>
+	 */
+	public void setCount(int count)
+	{
+		if (count < 1 || count >= COLOR_SCALE_LEVEL)
+			throw new IllegalArgumentException(String.format(
+					"The count of thresholds(%d) must be in the range of [1,%d].",
+					count, COLOR_SCALE_LEVEL - 1));
+		this.count = count;
+	}
+
+	/**
+	 * Returns a string to representing the threshold finder.
+	 * 
+	 * @return the string
+	 */
+	public abstract String getFinderName();
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MultilevelThresholding.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import com.frank.dip.GrayImage;
+import com.frank.dip.ImageOperate;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The multilevel thresholding operator.
+ * <p>
+ * The thresholds found by the {@linkplain MultilevelThresholdFinder} are
+ * compiled into a 256-entry lookup table, and the source image is mapped to
+ * the label image, in which the pixel value is the index of its class, i.e.
+ * the count of the thresholds less than the gray level.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class MultilevelThresholding implements
+		ImageOperate<GrayImage, GrayImage>
+{
+	/**
+	 * The multilevel threshold finder.
+	 */
+	protected MultilevelThresholdFinder	finder;
+
+	/**
+	 * Construct an instance of <tt>MultilevelThresholding</tt>.
+	 * 
+	 * @param finder
+	 *            the multilevel threshold finder
+	 */
+	public MultilevelThresholding(MultilevelThresholdFinder finder)
+	{
+		this.finder = finder;
+	}
+
+	/**
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public GrayImage operate(GrayImage source)
+	{
+		return label(source, finder.thresholds(source));
+	}
+
+	/**
+	 * Returns the label image of the specified gray scale image according to
+	 * the specified thresholds.
+	 * 
+	 * @param source
+	 *            the gray scale image
+	 * @param thresholds
+	 *            the thresholds in ascending order
+	 * @return the label image
+	 */
+	public static GrayImage label(GrayImage source, int[] thresholds)
+	{
+		final byte[] table = new byte[256];
+		for (int i = 0, c = 0; i < 256; i++)
+		{
+			while (c < thresholds.length && thresholds[c] < i)
+				c++;
+			table[i] = (byte) c;
+		}
+		final int width = source.getWidth();
+		int height = source.getHeight();
+		GrayImage label = new GrayImage(width, height);
+		final byte[][] src = source.getGrayMatrix();
+		final byte[][] dst = label.getGrayMatrix();
+		ParallelUtils.forRows(width, height, new ParallelUtils.RowTask()
+		{
+			@Override
+			public void run(int y0, int yt)
+			{
+				for (int y = y0; y < yt; y++)
+				{
+					byte[] s = src[y], d = dst[y];
+					for (int x = 0; x < width; x++)
+						d[x] = table[s[x] & 0xff];
+				}
+			}
+		});
+		return label;
+	}
+
+	/**
+	 * Get the multilevel threshold finder.
+	 * 
+	 * @return the multilevel threshold finder
+	 */
+	public MultilevelThresholdFinder getFinder()
+	{
+		return finder;
+	}
+
+	/**
+	 * Set the multilevel threshold finder.
+	 * 
+	 * @param finder
+	 *            the multilevel threshold finder
+	 */
+	public void setFinder(MultilevelThresholdFinder finder)
+	{
+		this.finder = finder;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("Multilevel thresholding base on %s",
+				finder.getFinderName());
+	}
+}
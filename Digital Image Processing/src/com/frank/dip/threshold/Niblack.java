@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Niblack.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+/**
+ * Niblack's local thresholding.
+ * <p>
+ * The local threshold is <code>T = m + k &times; s</code>, where
+ * <code>m</code> and <code>s</code> are the mean and the standard deviation
+ * of the window.
+ * </p>
+ * <p>
+ * See the source book at: <br>
+ * Niblack, W (1986), "An Introduction to Digital Image Processing",
+ * Prentice-Hall, pp. 115-116
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Niblack extends LocalThresholding
+{
+	/**
+	 * The weight of the standard deviation, default -0.2.
+	 */
+	protected double	k;
+
+	/**
+	 * Construct an instance of <tt>Niblack</tt> with default radius and
+	 * weight -0.2.
+	 */
+	public Niblack()
+	{
+		this(DEFAULT_RADIUS, -0.2);
+	}
+
+	/**
+	 * Construct an instance of <tt>Niblack</tt>.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 * @param k
+	 *            the weight of the standard deviation
+	 */
+	public Niblack(int radius, double k)
+	{
+		super(radius);
+		this.k = k;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.LocalThresholding#threshold(double, double,
+	 *      double[])
+	 */
+	@Override
+	protected double threshold(double mean, double deviation,
+			double[] statistics)
+	{
+		return mean + k * deviation;
+	}
+
+	/**
+	 * Returns the weight of the standard deviation.
+	 * 
+	 * @return the weight
+	 */
+	public double getK()
+	{
+		return k;
+	}
+
+	/**
+	 * Set the weight of the standard deviation.
+	 * 
+	 * @param k
+	 *            the weight
+	 */
+	public void setK(double k)
+	{
+		this.k = k;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.Thresholding#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "Niblack's Thresholding";
+	}
+}
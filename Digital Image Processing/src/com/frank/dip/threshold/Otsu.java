@@ -5,8 +5,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Otsu's threshold clustering algorithm (maximum between class distance
  * threshold clustering).
@@ -26,13 +24,13 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Otsu implements ThresholdFinder
+public class Otsu extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
 		int k; // counter
 		int threshold; // k = the current threshold; kStar = optimal threshold
@@ -41,11 +39,9 @@ public class Otsu implements ThresholdFinder
 		double bcv, // The current Between Class Variance
 		bcvMax; // maximum BCV
 		double num, denom; // temporary bookeeping
-		int Sk; // The total intensity for all histogram points <=k
-		int S, L = 256; // The total intensity of the image
-		int[] data = new int[L];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
+		long Sk; // The total intensity for all histogram points <=k
+		long S; // The total intensity of the image
+		int L = 256;
 		// Initialize values:
 		S = N = 0;
 		for (k = 0; k < L; k++)
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Percentile threshold selection.
  * <p>
@@ -24,45 +22,34 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Percentile implements ThresholdFinder
+public class Percentile extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int threshold = -1;
 		double ptile = 0.5; // default fraction of foreground pixels
-		double[] avec = new double[256];
+		double total = 0;
 		for (int i = 0; i < 256; i++)
-			avec[i] = 0.0;
-		double total = partialSum(data, 255);
-		double temp = 1.0;
+			total += data[i];
+		// the running partial sum replaces the partial sum of each level
+		double partial = 0, avec, temp = 1.0;
 		for (int i = 0; i < 256; i++)
 		{
-			avec[i] = Math.abs((partialSum(data, i) / total) - ptile);
-			// IJ.log("Ptile["+i+"]:"+ avec[i]);
-			if (avec[i] < temp)
+			partial += data[i];
+			avec = Math.abs((partial / total) - ptile);
+			if (avec < temp)
 			{
-				temp = avec[i];
+				temp = avec;
 				threshold = i;
 			}
 		}
 		return threshold;
 	}
 
-	private double partialSum(int[] y, int j)
-	{
-		double x = 0;
-		for (int i = 0; i <= j; i++)
-			x += y[i];
-		return x;
-	}
-
 	/**
 	 * @see com.frank.dip.threshold.ThresholdFinder#getFinderName()
 	 */
@@ -6,8 +6,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Renyi's entropy threshold selection.
  * <p>
@@ -24,17 +22,14 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class RenyiEntropy implements ThresholdFinder
+public class RenyiEntropy extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int threshold;
 		int opt_threshold;
 		int ih, it;
@@ -53,6 +48,10 @@ public class RenyiEntropy implements ThresholdFinder
 		double[] norm_histo = new double[256]; /* normalized histogram */
 		double[] P1 = new double[256]; /* cumulative normalized histogram */
 		double[] P2 = new double[256];
+		/* cumulative sums of p * log(p), sqrt(p) and p * p */
+		double[] S1 = new double[256], S2 = new double[256];
+		double[] R1 = new double[256], R2 = new double[256];
+		double[] Q1 = new double[256], Q2 = new double[256];
 		int total = 0;
 		for (ih = 0; ih < 256; ih++)
 			total += data[ih];
@@ -65,6 +64,22 @@ public class RenyiEntropy implements ThresholdFinder
 			P1[ih] = P1[ih - 1] + norm_histo[ih];
 			P2[ih] = 1.0 - P1[ih];
 		}
+		double p;
+		for (ih = 0; ih < 256; ih++)
+		{
+			p = norm_histo[ih];
+			S1[ih] = (ih == 0 ? 0.0 : S1[ih - 1])
+					+ (data[ih] == 0 ? 0.0 : p * Math.log(p));
+			R1[ih] = (ih == 0 ? 0.0 : R1[ih - 1]) + Math.sqrt(p);
+			Q1[ih] = (ih == 0 ? 0.0 : Q1[ih - 1]) + p * p;
+		}
+		for (ih = 254; ih >= 0; ih--)
+		{
+			p = norm_histo[ih + 1];
+			S2[ih] = S2[ih + 1] + (data[ih + 1] == 0 ? 0.0 : p * Math.log(p));
+			R2[ih] = R2[ih + 1] + Math.sqrt(p);
+			Q2[ih] = Q2[ih + 1] + p * p;
+		}
 		/* Determine the first non-zero bin */
 		first_bin = 0;
 		for (ih = 0; ih < 256; ih++)
@@ -95,26 +110,9 @@ public class RenyiEntropy implements ThresholdFinder
 		max_ent = 0.0;
 		for (it = first_bin; it <= last_bin; it++)
 		{
-			/* Entropy of the background pixels */
-			ent_back = 0.0;
-			for (ih = 0; ih <= it; ih++)
-			{
-				if (data[ih] != 0)
-				{
-					ent_back -= (norm_histo[ih] / P1[it])
-							* Math.log(norm_histo[ih] / P1[it]);
-				}
-			}
-			/* Entropy of the object pixels */
-			ent_obj = 0.0;
-			for (ih = it + 1; ih < 256; ih++)
-			{
-				if (data[ih] != 0)
-				{
-					ent_obj -= (norm_histo[ih] / P2[it])
-							* Math.log(norm_histo[ih] / P2[it]);
-				}
-			}
+			/* Entropy of the background and object pixels */
+			ent_back = MaxEntropy.entropy(P1[it], S1[it]);
+			ent_obj = MaxEntropy.entropy(P2[it], S2[it]);
 			/* Total entropy */
 			tot_ent = ent_back + ent_obj;
 			if (max_ent < tot_ent)
@@ -132,13 +130,9 @@ public class RenyiEntropy implements ThresholdFinder
 		for (it = first_bin; it <= last_bin; it++)
 		{
 			/* Entropy of the background pixels */
-			ent_back = 0.0;
-			for (ih = 0; ih <= it; ih++)
-				ent_back += Math.sqrt(norm_histo[ih] / P1[it]);
+			ent_back = R1[it] / Math.sqrt(P1[it]);
 			/* Entropy of the object pixels */
-			ent_obj = 0.0;
-			for (ih = it + 1; ih < 256; ih++)
-				ent_obj += Math.sqrt(norm_histo[ih] / P2[it]);
+			ent_obj = R2[it] / Math.sqrt(P2[it]);
 			/* Total entropy */
 			tot_ent = term
 					* ((ent_back * ent_obj) > 0.0 ? Math
@@ -157,15 +151,9 @@ public class RenyiEntropy implements ThresholdFinder
 		for (it = first_bin; it <= last_bin; it++)
 		{
 			/* Entropy of the background pixels */
-			ent_back = 0.0;
-			for (ih = 0; ih <= it; ih++)
-				ent_back += (norm_histo[ih] * norm_histo[ih])
-						/ (P1[it] * P1[it]);
+			ent_back = Q1[it] / (P1[it] * P1[it]);
 			/* Entropy of the object pixels */
-			ent_obj = 0.0;
-			for (ih = it + 1; ih < 256; ih++)
-				ent_obj += (norm_histo[ih] * norm_histo[ih])
-						/ (P2[it] * P2[it]);
+			ent_obj = Q2[it] / (P2[it] * P2[it]);
 			/* Total entropy */
 			tot_ent = term
 					* ((ent_back * ent_obj) > 0.0 ? Math
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Sauvola.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+/**
+ * Sauvola's local thresholding.
+ * <p>
+ * The local threshold is <code>T = m &times; (1 + k &times; (s / R - 1))</code>,
+ * where <code>m</code> and <code>s</code> are the mean and the standard
+ * deviation of the window and <code>R</code> is the dynamic range of the
+ * standard deviation. It performs well on documents with uneven illumination.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Sauvola, J & Pietikainen, M (2000), "Adaptive document image binarization",
+ * Pattern Recognition 33(2): 225-236
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Sauvola extends LocalThresholding
+{
+	/**
+	 * The weight of the standard deviation, default 0.5.
+	 */
+	protected double	k;
+	/**
+	 * The dynamic range of the standard deviation, default 128.
+	 */
+	protected double	range;
+
+	/**
+	 * Construct an instance of <tt>Sauvola</tt> with default radius, weight
+	 * 0.5 and dynamic range 128.
+	 */
+	public Sauvola()
+	{
+		this(DEFAULT_RADIUS, 0.5, 128);
+	}
+
+	/**
+	 * Construct an instance of <tt>Sauvola</tt>.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 * @param k
+	 *            the weight of the standard deviation
+	 * @param range
+	 *            the dynamic range of the standard deviation
+	 */
+	public Sauvola(int radius, double k, double range)
+	{
+		super(radius);
+		if (range <= 0)
+			throw new IllegalArgumentException(String.format(
+					"The dynamic range(%f) must be positive.", range));
+		this.k = k;
+		this.range = range;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.LocalThresholding#threshold(double, double,
+	 *      double[])
+	 */
+	@Override
+	protected double threshold(double mean, double deviation,
+			double[] statistics)
+	{
+		return mean * (1 + k * (deviation / range - 1));
+	}
+
+	/**
+	 * Returns the weight of the standard deviation.
+	 * 
+	 * @return the weight
+	 */
+	public double getK()
+	{
+		return k;
+	}
+
+	/**
+	 * Set the weight of the standard deviation.
+	 * 
+	 * @param k
+	 *            the weight
+	 */
+	public void setK(double k)
+	{
+		this.k = k;
+	}
+
+	/**
+	 * Returns the dynamic range of the standard deviation.
+	 * 
+	 * @return the dynamic range
+	 */
+	public double getRange()
+	{
+		return range;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.Thresholding#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "Sauvola's Thresholding";
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * StreamThresholding.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import java.util.Arrays;
+
+import com.frank.dip.BinaryImage;
+import com.frank.dip.GrayImage;
+import com.frank.dip.ParallelUtils;
+
+/**
+ * The global thresholding operator for the frame streams.
+ * <p>
+ * The operator keeps an exponentially decayed histogram of the frames, the
+ * {@linkplain ThresholdFinder} is only re-run when the decayed histogram
+ * drifts from the histogram of the last run by more than the drift bound. The
+ * drift is the L1 distance of the normalized histograms, in the range of
+ * <code>[0, 2]</code>. The {@linkplain AbstractThresholdFinder} is run on the
+ * decayed histogram, the other finders are run on the current frame.
+ * </p>
+ * <p>
+ * Each frame is counted and binarized by the current threshold in one pass,
+ * the frame is binarized again only if the threshold is re-found. The result
+ * is written into the same {@linkplain BinaryImage} as long as the frame size
+ * does not change, so the result of a frame is overwritten by the next frame.
+ * The operator is not thread safe.
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class StreamThresholding extends Thresholding
+{
+	/**
+	 * The thresholding finder.
+	 */
+	protected ThresholdFinder	finder;
+	/**
+	 * The weight of the history in the decayed histogram, default 0.8.
+	 */
+	protected double			decay;
+	/**
+	 * The drift bound to re-run the finder, default 0.05.
+	 */
+	protected double			bound;
+	/**
+	 * The decayed normalized histogram.
+	 */
+	private double[]			histogram	= new double[256];
+	/**
+	 * The normalized histogram of the last run of the finder.
+	 */
+	private double[]			reference	= new double[256];
+	/**
+	 * The histogram passed to the finder.
+	 */
+	private int[]				counts		= new int[256];
+	/**
+	 * The histograms of the parallel bands.
+	 */
+	private int[][]				partial		= new int[0][];
+	/**
+	 * The binarization table of the current threshold.
+	 */
+	private boolean[]			table		= new boolean[256];
+	/**
+	 * The current threshold.
+	 */
+	private int					threshold	= -1;
+	/**
+	 * The count of the runs of the finder.
+	 */
+	private int					runs;
+	/**
+	 * The reused result image.
+	 */
+	private BinaryImage			output;
+
+	/**
+	 * Construct an instance of <tt>StreamThresholding</tt> with decay 0.8 and
+	 * drift bound 0.05.
+	 * 
+	 * @param finder
+	 *            the thresholding finder
+	 */
+	public StreamThresholding(ThresholdFinder finder)
+	{
+		this(finder, 0.8, 0.05);
+	}
+
+	/**
+	 * Construct an instance of <tt>StreamThresholding</tt>.
+	 * 
+	 * @param finder
+	 *            the thresholding finder
+	 * @param decay
+	 *            the weight of the history in the decayed histogram, in the
+	 *            range of <code>[0, 1)</code>
+	 * @param bound
+	 *            the drift bound to re-run the finder, in the range of
+	 *            <code>[0, 2]</code>
+	 */
+	public StreamThresholding(ThresholdFinder finder, double decay,
+			double bound)
+	{
+		this.finder = finder;
+		setDecay(decay);
+		setBound(bound);
+	}
+
+	/**
+	 * Threshold the next frame of the stream.
+	 * 
+	 * @see com.frank.dip.ImageOperate#operate(com.frank.dip.Image)
+	 */
+	@Override
+	public BinaryImage operate(GrayImage source)
+	{
+		int width = source.getWidth();
+		int height = source.getHeight();
+		if (output == null || output.getWidth() != width
+				|| output.getHeight() != height)
+			output = new BinaryImage(width, height);
+		int bands = ParallelUtils.bands(width, height);
+		if (partial.length != bands)
+		{
+			partial = new int[bands][];
+			for (int b = 0; b < bands; b++)
+				partial[b] = new int[256];
+		}
+		else
+			for (int b = 0; b < bands; b++)
+				Arrays.fill(partial[b], 0);
+		scan(source, bands, true);
+		// update the decayed histogram and the drift
+		double total = (double) width * height;
+		boolean first = runs == 0;
+		double weight = first ? 0 : decay;
+		double drift = 0, v;
+		for (int i = 0; i < 256; i++)
+		{
+			int count = 0;
+			for (int b = 0; b < bands; b++)
+				count += partial[b][i];
+			v = weight * histogram[i] + (1 - weight) * count / total;
+			histogram[i] = v;
+			drift += Math.abs(v - reference[i]);
+		}
+		if (first || drift > bound)
+		{
+			for (int i = 0; i < 256; i++)
+				counts[i] = (int) Math.round(histogram[i] * total);
+			int t = AbstractThresholdFinder.threshold(finder, counts, source);
+			System.arraycopy(histogram, 0, reference, 0, 256);
+			runs++;
+			if (first || t != threshold)
+			{
+				threshold = t;
+				for (int i = 0; i < 256; i++)
+					table[i] = i > threshold;
+				scan(source, bands, false);
+			}
+		}
+		return output;
+	}
+
+	/**
+	 * Binarize the frame into the output by the current table, and count the
+	 * histograms of the bands if required.
+	 * 
+	 * @param source
+	 *            the frame
+	 * @param bands
+	 *            the count of the bands
+	 * @param count
+	 *            <tt>true</tt> if the histograms should be counted
+	 */
+	private void scan(GrayImage source, final int bands, final boolean count)
+	{
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		final byte[][] src = source.getGrayMatrix();
+		final boolean[][] dst = output.getBinaryMatrix();
+		final boolean[] table = this.table;
+		final int[][] partial = this.partial;
+		ParallelUtils.forEach(bands, new ParallelUtils.IndexTask()
+		{
+			@Override
+			public void run(int band)
+			{
+				int[] h = partial[band];
+				int pixel;
+				for (int y = ParallelUtils.bandStart(band, bands, height), yt = ParallelUtils
+						.bandStart(band + 1, bands, height); y < yt; y++)
+				{
+					byte[] s = src[y];
+					boolean[] d = dst[y];
+					if (count)
+						for (int x = 0; x < width; x++)
+						{
+							pixel = s[x] & 0xff;
+							h[pixel]++;
+							d[x] = table[pixel];
+						}
+					else
+						for (int x = 0; x < width; x++)
+							d[x] = table[s[x] & 0xff];
+				}
+			}
+		});
+	}
+
+	/**
+	 * Reset the state of the stream, the next frame is thresholded as the
+	 * first frame.
+	 */
+	public void reset()
+	{
+		Arrays.fill(histogram, 0);
+		Arrays.fill(reference, 0);
+		Arrays.fill(table, false);
+		threshold = -1;
+		runs = 0;
+	}
+
+	/**
+	 * Returns the current threshold.
+	 * 
+	 * @return the current threshold, undefined before the first frame
+	 */
+	public int getThreshold()
+	{
+		return threshold;
+	}
+
+	/**
+	 * Returns the count of the runs of the finder since the last reset.
+	 * 
+	 * @return the count of the runs
+	 */
+	public int getRuns()
+	{
+		return runs;
+	}
+
+	/**
+	 * Get the thresholding finder.
+	 * 
+	 * @return the thresholding finder
+	 */
+	public ThresholdFinder getFinder()
+	{
+		return finder;
+	}
+
+	/**
+	 * Set the thresholding finder, the stream is reset.
+	 * 
+	 * @param finder
+	 *            the thresholding finder
+	 */
+	public void setFinder(ThresholdFinder finder)
+	{
+		this.finder = finder;
+		reset();
+	}
+
+	/**
+	 * Returns the weight of the history in the decayed histogram.
+	 * 
+	 * @return the decay
+	 */
+	public double getDecay()
+	{
+		return decay;
+	}
+
+	/**
+	 * Set the weight of the history in the decayed histogram.
+	 * 
+	 * @param decay
+	 *            the decay, in the range of <code>[0, 1)</code>
+	 */
+	public void setDecay(double decay)
+	{
+		if (decay < 0 || decay >= 1)
+			throw new IllegalArgumentException(String.format(
+					"The decay(%f) must be in the range of [0,1).", decay));
+		this.decay = decay;
+	}
+
+	/**
+	 * Returns the drift bound to re-run the finder.
+	 * 
+	 * @return the drift bound
+	 */
+	public double getBound()
+	{
+		return bound;
+	}
+
+	/**
+	 * Set the drift bound to re-run the finder.
+	 * 
+	 * @param bound
+	 *            the drift bound, in the range of <code>[0, 2]</code>
+	 */
+	public void setBound(double bound)
+	{
+		if (bound < 0 || bound > 2)
+			throw new IllegalArgumentException(String.format(
+					"The drift bound(%f) must be in the range of [0,2].", bound));
+		this.bound = bound;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.Thresholding#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("Stream thresholding base on %s",
+				finder.toString());
+	}
+}
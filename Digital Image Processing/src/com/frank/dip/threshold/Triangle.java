@@ -5,8 +5,6 @@
  */
 package com.frank.dip.threshold;
 
-import com.frank.dip.GrayImage;
-
 /**
  * Triangle threshold selecting algorithm.
  * <p>
@@ -34,17 +32,14 @@ import com.frank.dip.GrayImage;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class Triangle implements ThresholdFinder
+public class Triangle extends AbstractThresholdFinder
 {
 	/**
-	 * @see com.frank.dip.threshold.ThresholdFinder#threshold(com.frank.dip.GrayImage)
+	 * @see com.frank.dip.threshold.AbstractThresholdFinder#threshold(int[])
 	 */
 	@Override
-	public int threshold(GrayImage image)
+	public int threshold(int[] data)
 	{
-		int[] data = new int[256];
-		for (int pixel : image.getPixelsArray())
-			data[pixel]++;
 		int min = 0, dmax = 0, max = 0, min2 = 0;
 		for (int i = 0; i < data.length; i++)
 		{
@@ -87,21 +82,13 @@ public class Triangle implements ThresholdFinder
 		boolean inverted = false;
 		if ((max - min) < (min2 - max))
 		{
-			// reverse the histogram
-			// IJ.log("Reversing histogram.");
+			// reverse a copy of the histogram, the histogram might be shared
+			// with other finders
 			inverted = true;
-			int left = 0; // index of leftmost element
-			int right = 255; // index of rightmost element
-			while (left < right)
-			{
-				// exchange the left and right elements
-				int temp = data[left];
-				data[left] = data[right];
-				data[right] = temp;
-				// move the bounds toward the center
-				left++;
-				right--;
-			}
+			int[] reversed = new int[256];
+			for (int i = 0; i < 256; i++)
+				reversed[i] = data[255 - i];
+			data = reversed;
 			min = 255 - min2;
 			max = 255 - max;
 		}
@@ -131,21 +118,7 @@ public class Triangle implements ThresholdFinder
 		}
 		split--;
 		if (inverted)
-		{
-			// The histogram might be used for something else, so let's reverse
-			// it back
-			int left = 0;
-			int right = 255;
-			while (left < right)
-			{
-				int temp = data[left];
-				data[left] = data[right];
-				data[right] = temp;
-				left++;
-				right--;
-			}
 			return (255 - split);
-		}
 		else
 			return split;
 	}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Wolf.java is PROPRIETARY/CONFIDENTIAL built in 2014.
+ * Use is subject to license terms.
+ */
+package com.frank.dip.threshold;
+
+import com.frank.dip.GrayImage;
+import com.frank.dip.IntegralImage;
+
+/**
+ * Wolf's local thresholding.
+ * <p>
+ * The local threshold is
+ * <code>T = m - k &times; (1 - s / R) &times; (m - M)</code>, where
+ * <code>m</code> and <code>s</code> are the mean and the standard deviation
+ * of the window, <code>M</code> is the minimum gray level of the image and
+ * <code>R</code> is the maximum standard deviation of all the windows. It
+ * normalizes the contrast of Sauvola's method to the image.
+ * </p>
+ * <p>
+ * See the source paper at: <br>
+ * Wolf, C & Jolion, J-M (2004),
+ * "Extraction and recognition of artificial text in multimedia documents",
+ * Pattern Analysis and Applications 6(4): 309-326
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Wolf extends LocalThresholding
+{
+	/**
+	 * The weight of the contrast, default 0.5.
+	 */
+	protected double	k;
+
+	/**
+	 * Construct an instance of <tt>Wolf</tt> with default radius and weight
+	 * 0.5.
+	 */
+	public Wolf()
+	{
+		this(DEFAULT_RADIUS, 0.5);
+	}
+
+	/**
+	 * Construct an instance of <tt>Wolf</tt>.
+	 * 
+	 * @param radius
+	 *            the window radius
+	 * @param k
+	 *            the weight of the contrast
+	 */
+	public Wolf(int radius, double k)
+	{
+		super(radius);
+		this.k = k;
+	}
+
+	/**
+	 * Returns the minimum gray level of the image and the maximum window
+	 * standard deviation.
+	 * 
+	 * @see com.frank.dip.threshold.LocalThresholding#prepare(com.frank.dip.GrayImage,
+	 *      com.frank.dip.IntegralImage)
+	 */
+	@Override
+	protected double[] prepare(GrayImage source, IntegralImage integral)
+	{
+		int[] histogram = AbstractThresholdFinder.histogram(source);
+		int level = 0;
+		while (level < 255 && histogram[level] == 0)
+			level++;
+		return new double[] { level, maxDeviation(integral) };
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.LocalThresholding#threshold(double, double,
+	 *      double[])
+	 */
+	@Override
+	protected double threshold(double mean, double deviation,
+			double[] statistics)
+	{
+		double min = statistics[0], maxDeviation = statistics[1];
+		if (maxDeviation == 0)
+			return mean;
+		return mean - k * (1 - deviation / maxDeviation) * (mean - min);
+	}
+
+	/**
+	 * Returns the weight of the contrast.
+	 * 
+	 * @return the weight
+	 */
+	public double getK()
+	{
+		return k;
+	}
+
+	/**
+	 * Set the weight of the contrast.
+	 * 
+	 * @param k
+	 *            the weight
+	 */
+	public void setK(double k)
+	{
+		this.k = k;
+	}
+
+	/**
+	 * @see com.frank.dip.threshold.Thresholding#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "Wolf's Thresholding";
+	}
+}